@@ -0,0 +1,17 @@
+package main.java.main.manager;
+
+import java.util.List;
+
+//Пакет задач не создан: найдены пересечения по времени
+public class BatchOverlapException extends TaskOverlapException {
+    private final List<ScheduleConflict> conflicts;
+
+    public BatchOverlapException(List<ScheduleConflict> conflicts) {
+        super("Задачи пакета пересекаются по времени: конфликтов " + conflicts.size());
+        this.conflicts = conflicts;
+    }
+
+    public List<ScheduleConflict> getConflicts() {
+        return conflicts;
+    }
+}
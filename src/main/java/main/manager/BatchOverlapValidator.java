@@ -0,0 +1,107 @@
+package main.java.main.manager;
+
+import main.java.main.model.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Проверка пакета новых задач на пересечения: пакет сортируется по началу, после чего каждая задача
+ * сверяется со снимком расписания и заметающей прямой с задачами пакета, начинающимися до ее окончания.
+ * Отсортированный пакет делится на участки, которые проверяются параллельно в общем ForkJoinPool.
+ */
+class BatchOverlapValidator {
+    // Участки меньше этого размера проверяются в одном потоке
+    private static final int SEQUENTIAL_THRESHOLD = 512;
+    // id новых задач еще не выданы, исключать из снимка нечего
+    private static final int NO_EXCLUDED_ID = Integer.MIN_VALUE;
+
+    private final ScheduleIndex snapshot;
+    private final long[] starts;
+    private final long[] ends;
+    private final int[] positions;
+
+    private BatchOverlapValidator(ScheduleIndex snapshot, long[] starts, long[] ends, int[] positions) {
+        this.snapshot = snapshot;
+        this.starts = starts;
+        this.ends = ends;
+        this.positions = positions;
+    }
+
+    /*
+    Все конфликты пакета, упорядоченные по позиции задачи в пакете.
+    reportedPositions - позиции задач в исходном пакете, под которыми они попадают в отчет
+     */
+    static List<ScheduleConflict> validate(ScheduleIndex snapshot, List<Task> batch, List<Integer> reportedPositions) {
+        Integer[] order = new Integer[batch.size()];
+        int count = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i).getStartTime() != null) {
+                order[count++] = i;
+            }
+        }
+        order = Arrays.copyOf(order, count);
+        Arrays.sort(order, Comparator.comparing((Integer i) -> batch.get(i).getStartTime()).thenComparing(i -> i));
+
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        int[] positions = new int[count];
+        for (int k = 0; k < count; k++) {
+            Task task = batch.get(order[k]);
+            starts[k] = ScheduleIndex.toEpochSecond(task.getStartTime());
+            ends[k] = ScheduleIndex.toEpochSecond(task.getEndTime());
+            positions[k] = reportedPositions.get(order[k]);
+        }
+
+        BatchOverlapValidator validator = new BatchOverlapValidator(snapshot, starts, ends, positions);
+        List<ScheduleConflict> conflicts = ForkJoinPool.commonPool().invoke(validator.new Range(0, count));
+        conflicts.sort(Comparator.comparingInt(ScheduleConflict::getIndex));
+        return conflicts;
+    }
+
+    private List<ScheduleConflict> check(int from, int to) {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        for (int k = from; k < to; k++) {
+            int position = positions[k];
+            snapshot.forEachOverlap(starts[k], ends[k], NO_EXCLUDED_ID, id -> {
+                conflicts.add(ScheduleConflict.withExisting(position, id));
+                return true;
+            });
+            // Пересечения внутри пакета: задачи, начавшиеся не раньше этой, но до ее окончания
+            for (int j = k + 1; j < starts.length && starts[j] < ends[k]; j++) {
+                if (ends[j] > starts[k]) {
+                    conflicts.add(ScheduleConflict.withinBatch(position, positions[j]));
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private class Range extends RecursiveTask<List<ScheduleConflict>> {
+        private final int from;
+        private final int to;
+
+        Range(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<ScheduleConflict> compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                return check(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            Range left = new Range(from, middle);
+            left.fork();
+            List<ScheduleConflict> result = new Range(middle, to).compute();
+            List<ScheduleConflict> leftResult = left.join();
+            leftResult.addAll(result);
+            return leftResult;
+        }
+    }
+}
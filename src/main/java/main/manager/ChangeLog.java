@@ -0,0 +1,93 @@
+package main.java.main.manager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Компактный журнал изменений для дельта-синхронизации.
+ * Для каждой сущности хранится только последнее событие (для удаленных - событие удаления как tombstone),
+ * поэтому ответ "что изменилось после seq" содержит не больше одной записи на сущность.
+ * Журнал ограничен по размеру: при вытеснении самых старых записей растет горизонт,
+ * и клиентам с номером меньше горизонта нужна полная пересинхронизация.
+ */
+public class ChangeLog {
+    public static final int DEFAULT_RETENTION = 10_000;
+
+    private final int retention;
+    private final TreeMap<Long, TaskEvent> bySeq = new TreeMap<>();
+    private final Map<Integer, Long> seqById = new HashMap<>();
+    private long lastSeq = 0;
+    // Все изменения с номером не больше горизонта могли быть вытеснены
+    private long horizon = 0;
+
+    public ChangeLog() {
+        this(DEFAULT_RETENTION);
+    }
+
+    public ChangeLog(int retention) {
+        if (retention <= 0) {
+            throw new IllegalArgumentException("Размер журнала должен быть положительным");
+        }
+        this.retention = retention;
+    }
+
+    public synchronized void record(TaskEvent event) {
+        Long previous = seqById.put(event.getId(), event.getSeq());
+        if (previous != null) {
+            bySeq.remove(previous);
+        }
+        bySeq.put(event.getSeq(), event);
+        lastSeq = event.getSeq();
+        while (bySeq.size() > retention) {
+            TaskEvent evicted = bySeq.pollFirstEntry().getValue();
+            seqById.remove(evicted.getId());
+            horizon = evicted.getSeq();
+        }
+    }
+
+    public synchronized ChangeSet changesSince(long since) {
+        return changesSince(since, lastSeq);
+    }
+
+    /*
+    Изменения после since, когда номера событий общие с уведомлениями, не попадающими в журнал (таймеры).
+    publishedSeq - последний выданный номер: номер уведомления из /events - допустимая точка продолжения
+     */
+    public synchronized ChangeSet changesSince(long since, long publishedSeq) {
+        if (since < horizon || since > Math.max(lastSeq, publishedSeq)) {
+            return new ChangeSet(lastSeq, true, new ArrayList<>());
+        }
+        List<TaskEvent> changes = new ArrayList<>(bySeq.tailMap(since, false).values());
+        return new ChangeSet(lastSeq, false, changes);
+    }
+
+    /**
+     * Ответ дельта-синхронизации: текущий номер, признак необходимости полной загрузки и изменения.
+     */
+    public static class ChangeSet {
+        private final long seq;
+        private final boolean reset;
+        private final List<TaskEvent> changes;
+
+        public ChangeSet(long seq, boolean reset, List<TaskEvent> changes) {
+            this.seq = seq;
+            this.reset = reset;
+            this.changes = changes;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public boolean isReset() {
+            return reset;
+        }
+
+        public List<TaskEvent> getChanges() {
+            return changes;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package main.java.main.manager;
+
+import java.util.List;
+
+/**
+ * Критический путь графа зависимостей: самая длинная по сумме продолжительностей цепочка задач.
+ * Длительность в минутах; задержка любой задачи пути сдвигает окончание всех задач.
+ */
+public class CriticalPath {
+    private final long length;
+    private final List<Integer> taskIds;
+
+    public CriticalPath(long length, List<Integer> taskIds) {
+        this.length = length;
+        this.taskIds = List.copyOf(taskIds);
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public List<Integer> getTaskIds() {
+        return taskIds;
+    }
+}
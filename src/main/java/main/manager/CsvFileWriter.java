@@ -0,0 +1,126 @@
+package main.java.main.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Запись CSV файла менеджера во временный файл, который по commit() заменяет прежний.
+ * Строки, не изменившиеся с прошлого сохранения, копируются из прежнего файла по смещению и длине
+ * без разбора и без чтения текста задач; подряд идущие такие строки переносятся между каналами одним вызовом.
+ * Методы записи возвращают смещение строки в новом файле, чтобы следующее сохранение могло скопировать ее так же.
+ */
+class CsvFileWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final File file;
+    private final File temp;
+    // Прежний файл; null, если из него ничего не копируется
+    private final FileChannel previous;
+    private final FileChannel out;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long position;
+    // Отложенный перенос подряд идущих строк прежнего файла; в буфере и переносе не бывает данных одновременно
+    private long runStart;
+    private long runLength;
+    private boolean committed;
+
+    CsvFileWriter(File file, boolean copyFromPrevious) throws IOException {
+        this.file = file;
+        this.temp = new File(file.getPath() + ".tmp");
+        this.previous = copyFromPrevious && file.exists()
+                ? FileChannel.open(file.toPath(), StandardOpenOption.READ) : null;
+        this.out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // Запись строки с переводом строки
+    long writeLine(String line) throws IOException {
+        flushRun();
+        byte[] bytes = (line + LINE_SEPARATOR).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > buffer.remaining()) {
+            flushBuffer();
+        }
+        if (bytes.length > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes));
+        } else {
+            buffer.put(bytes);
+        }
+        long start = position;
+        position += bytes.length;
+        return start;
+    }
+
+    // Копирование строки прежнего файла вместе с переводом строки
+    long copyLine(long offset, long length) throws IOException {
+        if (previous == null) {
+            throw new IllegalStateException("Копирование строк без прежнего файла");
+        }
+        if (runLength == 0 || runStart + runLength != offset) {
+            flushRun();
+            flushBuffer();
+            runStart = offset;
+        }
+        runLength += length;
+        long start = position;
+        position += length;
+        return start;
+    }
+
+    long position() {
+        return position;
+    }
+
+    // Дозапись отложенных данных и замена прежнего файла новым
+    void commit() throws IOException {
+        flushRun();
+        flushBuffer();
+        out.close();
+        if (previous != null) {
+            previous.close();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (committed) {
+            return;
+        }
+        out.close();
+        if (previous != null) {
+            previous.close();
+        }
+        Files.deleteIfExists(temp.toPath());
+    }
+
+    private void flushRun() throws IOException {
+        while (runLength > 0) {
+            long transferred = previous.transferTo(runStart, runLength, out);
+            if (transferred <= 0) {
+                throw new IOException("Прежний файл короче сохраненных смещений строк: " + file.getPath());
+            }
+            runStart += transferred;
+            runLength -= transferred;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package main.java.main.manager;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class DependencyCycleException extends Exception {
+    // Цикл, который замкнула бы зависимость: каждая задача зависит от предыдущей, первая - от последней
+    private final List<Integer> cycle;
+
+    public DependencyCycleException(List<Integer> cycle) {
+        super("Зависимость образует цикл: " + cycle.stream().map(String::valueOf).collect(Collectors.joining(" -> "))
+                + " -> " + cycle.get(0));
+        this.cycle = List.copyOf(cycle);
+    }
+
+    public List<Integer> getCycle() {
+        return cycle;
+    }
+}
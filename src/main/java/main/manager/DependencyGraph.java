@@ -0,0 +1,314 @@
+package main.java.main.manager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Граф зависимостей "задача не может начаться, пока не закончится предшественник".
+ * Топологический порядок поддерживается инкрементально (алгоритм Pearce-Kelly): при добавлении ребра
+ * перестраивается только участок порядка между его концами, там же обнаруживается цикл.
+ * Раннее начало каждой вершины - наибольшее раннее окончание предшественников (в минутах от начала проекта);
+ * после изменения пересчитываются только вершины ниже по графу, у которых раннее окончание действительно сдвинулось.
+ */
+class DependencyGraph {
+    private static final Comparator<Node> BY_ORDER = Comparator.comparingInt(node -> node.order);
+    private static final Comparator<Node> BY_FINISH = Comparator.<Node>comparingLong(node -> node.finish)
+            .thenComparingInt(node -> node.id);
+
+    private final Map<Integer, Node> nodes = new HashMap<>();
+    // Вершины по раннему окончанию: последняя завершает критический путь
+    private final TreeSet<Node> byFinish = new TreeSet<>(BY_FINISH);
+    private int nextOrder = 0;
+    // Номер текущего обхода: отметка вершины равна ему, если она уже посещена в этом обходе
+    private int epoch = 0;
+
+    void addNode(int id, long duration) {
+        if (nodes.containsKey(id)) {
+            setDuration(id, duration);
+            return;
+        }
+        Node node = new Node(id, duration, nextOrder++);
+        nodes.put(id, node);
+        byFinish.add(node);
+    }
+
+    boolean contains(int id) {
+        return nodes.containsKey(id);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    void setDuration(int id, long duration) {
+        Node node = nodes.get(id);
+        if (node == null || node.duration == duration) {
+            return;
+        }
+        node.duration = duration;
+        propagate(List.of(node));
+    }
+
+    void removeNode(int id) {
+        Node node = nodes.remove(id);
+        if (node == null) {
+            return;
+        }
+        byFinish.remove(node);
+        for (Node predecessor : node.predecessors) {
+            predecessor.successors.remove(node);
+        }
+        for (Node successor : node.successors) {
+            successor.predecessors.remove(node);
+        }
+        propagate(node.successors);
+    }
+
+    /*
+    Ребро from -> to: to начинается после окончания from. Возвращает false, если ребро уже есть.
+    Если ребро замкнуло бы цикл, граф не меняется, а в исключении передается цикл from -> to -> ... -> from.
+     */
+    boolean addEdge(int fromId, int toId) throws DependencyCycleException {
+        Node from = nodes.get(fromId);
+        Node to = nodes.get(toId);
+        if (from == null || to == null) {
+            throw new NotFoundException("Задача или подзадача с ID " + (from == null ? fromId : toId) + " не найдена");
+        }
+        if (from == to) {
+            throw new DependencyCycleException(List.of(fromId));
+        }
+        if (from.successors.contains(to)) {
+            return false;
+        }
+        if (from.order > to.order) {
+            reorder(from, to);
+        }
+        from.successors.add(to);
+        to.predecessors.add(from);
+        propagate(List.of(to));
+        return true;
+    }
+
+    boolean removeEdge(int fromId, int toId) {
+        Node from = nodes.get(fromId);
+        Node to = nodes.get(toId);
+        if (from == null || to == null || !from.successors.remove(to)) {
+            return false;
+        }
+        to.predecessors.remove(from);
+        propagate(List.of(to));
+        return true;
+    }
+
+    List<Integer> getPredecessors(int id) {
+        return idsOf(nodes.get(id), true);
+    }
+
+    List<Integer> getSuccessors(int id) {
+        return idsOf(nodes.get(id), false);
+    }
+
+    long getEarliestStart(int id) {
+        return requireNode(id).start;
+    }
+
+    long getEarliestFinish(int id) {
+        return requireNode(id).finish;
+    }
+
+    // Длительность проекта: наибольшее раннее окончание
+    long getLength() {
+        return byFinish.isEmpty() ? 0 : byFinish.last().finish;
+    }
+
+    /*
+    Критический путь от первой задачи к последней: от вершины с наибольшим окончанием
+    назад по предшественникам, окончание которых совпадает с ранним началом текущей вершины
+     */
+    List<Integer> getCriticalPath() {
+        List<Integer> path = new ArrayList<>();
+        Node current = byFinish.isEmpty() ? null : byFinish.last();
+        while (current != null) {
+            path.add(current.id);
+            Node next = null;
+            for (Node predecessor : current.predecessors) {
+                if (predecessor.finish == current.start) {
+                    next = predecessor;
+                    break;
+                }
+            }
+            current = next;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    // Все id в топологическом порядке
+    List<Integer> getTopologicalOrder() {
+        List<Node> ordered = new ArrayList<>(nodes.values());
+        ordered.sort(BY_ORDER);
+        List<Integer> result = new ArrayList<>(ordered.size());
+        for (Node node : ordered) {
+            result.add(node.id);
+        }
+        return result;
+    }
+
+    /*
+    Восстановление порядка перед добавлением ребра from -> to при order(from) > order(to).
+    Затрагиваются только вершины с порядком между order(to) и order(from): достижимые из to вперед
+    и ведущие к from назад. Первые переставляются после вторых на освободившиеся номера.
+     */
+    private void reorder(Node from, Node to) throws DependencyCycleException {
+        int lower = to.order;
+        int upper = from.order;
+        int forwardMark = ++epoch;
+        List<Node> forward = new ArrayList<>();
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        to.mark = forwardMark;
+        to.parent = null;
+        stack.push(to);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            forward.add(node);
+            for (Node successor : node.successors) {
+                if (successor == from) {
+                    successor.parent = node;
+                    throw new DependencyCycleException(cycleOf(from));
+                }
+                if (successor.mark != forwardMark && successor.order < upper) {
+                    successor.mark = forwardMark;
+                    successor.parent = node;
+                    stack.push(successor);
+                }
+            }
+        }
+
+        int backwardMark = ++epoch;
+        List<Node> backward = new ArrayList<>();
+        from.mark = backwardMark;
+        stack.push(from);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            backward.add(node);
+            for (Node predecessor : node.predecessors) {
+                if (predecessor.mark != backwardMark && predecessor.order > lower) {
+                    predecessor.mark = backwardMark;
+                    stack.push(predecessor);
+                }
+            }
+        }
+
+        forward.sort(BY_ORDER);
+        backward.sort(BY_ORDER);
+        int[] orders = new int[forward.size() + backward.size()];
+        int position = 0;
+        for (Node node : backward) {
+            orders[position++] = node.order;
+        }
+        for (Node node : forward) {
+            orders[position++] = node.order;
+        }
+        Arrays.sort(orders);
+        position = 0;
+        for (Node node : backward) {
+            node.order = orders[position++];
+        }
+        for (Node node : forward) {
+            node.order = orders[position++];
+        }
+    }
+
+    // Цикл from -> to -> ... -> from по родителям прямого обхода, начатого из to
+    private static List<Integer> cycleOf(Node from) {
+        List<Integer> cycle = new ArrayList<>();
+        for (Node node = from.parent; node != null; node = node.parent) {
+            cycle.add(node.id);
+        }
+        cycle.add(from.id);
+        Collections.reverse(cycle);
+        return cycle;
+    }
+
+    /*
+    Пересчет раннего начала начиная с seeds в топологическом порядке.
+    Вершина передает изменения дальше, только если ее раннее окончание сдвинулось.
+     */
+    private void propagate(List<Node> seeds) {
+        int queuedMark = ++epoch;
+        PriorityQueue<Node> queue = new PriorityQueue<>(BY_ORDER);
+        for (Node seed : seeds) {
+            if (seed.mark != queuedMark) {
+                seed.mark = queuedMark;
+                queue.add(seed);
+            }
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            long start = 0;
+            for (Node predecessor : node.predecessors) {
+                start = Math.max(start, predecessor.finish);
+            }
+            node.start = start;
+            long finish = start + node.duration;
+            if (finish == node.finish) {
+                continue;
+            }
+            byFinish.remove(node);
+            node.finish = finish;
+            byFinish.add(node);
+            for (Node successor : node.successors) {
+                if (successor.mark != queuedMark) {
+                    successor.mark = queuedMark;
+                    queue.add(successor);
+                }
+            }
+        }
+    }
+
+    private Node requireNode(int id) {
+        Node node = nodes.get(id);
+        if (node == null) {
+            throw new NotFoundException("Задача или подзадача с ID " + id + " не найдена");
+        }
+        return node;
+    }
+
+    private static List<Integer> idsOf(Node node, boolean predecessors) {
+        List<Integer> result = new ArrayList<>();
+        if (node != null) {
+            for (Node other : predecessors ? node.predecessors : node.successors) {
+                result.add(other.id);
+            }
+            Collections.sort(result);
+        }
+        return result;
+    }
+
+    private static class Node {
+        private final int id;
+        private long duration;
+        private int order;
+        private long start;
+        private long finish;
+        private final List<Node> predecessors = new ArrayList<>(2);
+        private final List<Node> successors = new ArrayList<>(2);
+        private int mark;
+        private Node parent;
+
+        Node(int id, long duration, int order) {
+            this.id = id;
+            this.duration = duration;
+            this.order = order;
+            this.finish = duration;
+        }
+    }
+}
@@ -1,68 +1,239 @@
 package main.java.main.manager;
 
 import main.java.main.model.Epic;
+import main.java.main.model.RecurrenceRule;
+import main.java.main.model.RecurringTask;
 import main.java.main.model.SubTask;
 import main.java.main.model.Task;
+import main.java.main.model.TaskOccurrence;
 import main.java.main.model.TaskStatus;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 //Менеджер задач с сохранением в файл
 public class FileBackedTaskManager extends InMemoryTaskManager {
     private final File file;
+    // Файл названий и описаний в режиме подкачки; null, если весь текст хранится в памяти
+    private final TaskTextStore textStore;
+    // Архив завершенных задач, открывается при первой архивации или если файл архива уже есть
+    private TaskArchive archive;
+    // Момент перехода задач и подзадач в DONE
+    private final Map<Integer, LocalDateTime> doneSince = new HashMap<>();
+    // Сущности, измененные после последнего сохранения
+    private final Set<Integer> changedIds = new HashSet<>();
+    // Режим подкачки: смещение и длина строки каждой неизмененной сущности в текущем CSV файле
+    private Map<Integer, long[]> rowSpans = new HashMap<>();
+    private static final String DEPENDENCY_TYPE = "DEPENDENCY";
+    private static final String CANCELLED_TYPE = "CANCELLED";
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
     private FileBackedTaskManager(File file) {
         super();
         this.file = file;
+        this.textStore = null;
+    }
+
+    private FileBackedTaskManager(File file, int textCacheSize) {
+        super(false);
+        this.file = file;
+        this.textStore = new TaskTextStore(new File(file.getPath() + ".text"), textCacheSize);
     }
 
     //Сохранение состояния в CSV файл
     public void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-
-            writer.write("id,type,name,status,description,epic,duration,startTime");
-            writer.newLine();
-
-            for (Task task : tasks.values()) {
-                writer.write(toCsv(task));
-                writer.newLine();
+        if (textStore != null) {
+            pageOutChanged();
+        }
+        // В режиме подкачки неизмененные строки копируются из прежнего файла, а не собираются заново из текста
+        Map<Integer, long[]> spans = textStore != null ? new HashMap<>() : null;
+        try (CsvFileWriter writer = new CsvFileWriter(file, textStore != null && !rowSpans.isEmpty())) {
+
+            writer.writeLine("id,type,name,status,description,epic,duration,startTime,assignee,parent");
+
+            for (Map<Integer, ? extends Task> entities : List.of(tasks, epics, subTasks)) {
+                for (Task task : entities.values()) {
+                    long[] span = rowSpans.get(task.getId());
+                    long start = span != null ? writer.copyLine(span[0], span[1]) : writer.writeLine(toCsv(task));
+                    if (spans != null) {
+                        spans.put(task.getId(), new long[]{start, writer.position() - start});
+                    }
+                }
             }
 
-            for (Epic epic : epics.values()) {
-                writer.write(toCsv(epic));
-                writer.newLine();
+            /*
+            Серия пишется одной строкой RECURRING с правилом в колонке epic,
+            измененные вхождения - строками OCCURRENCE с исходным началом в той же колонке,
+            отмененные - строками "id,CANCELLED,исходное начало"
+             */
+            for (RecurringTask series : recurringTasks.values()) {
+                writer.writeLine(toCsv(series));
+                for (Map.Entry<LocalDateTime, Task> override : series.getOverrides().entrySet()) {
+                    writer.writeLine(toCsv(new TaskOccurrence(override.getValue(), override.getKey())));
+                }
+                for (LocalDateTime cancelled : series.getCancelled()) {
+                    writer.writeLine(series.getId() + "," + CANCELLED_TYPE + "," + cancelled.format(DATE_TIME_FORMATTER));
+                }
             }
 
-            for (SubTask subTask : subTasks.values()) {
-                writer.write(toCsv(subTask));
-                writer.newLine();
+            // Зависимости пишутся после всех задач строками "id,DEPENDENCY,id предшественника"
+            for (Map<Integer, ? extends Task> entities : List.of(tasks, subTasks)) {
+                for (int id : entities.keySet()) {
+                    for (int dependsOnId : dependencies.getPredecessors(id)) {
+                        writer.writeLine(id + "," + DEPENDENCY_TYPE + "," + dependsOnId);
+                    }
+                }
             }
+            writer.commit();
 
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка при сохранении в файл: " + file.getPath(), e);
         }
+        if (spans != null) {
+            rowSpans = spans;
+        }
+        changedIds.clear();
+    }
+
+    // Сохранение после чтения по id: запись нужна, только если что-то изменилось в обход методов с сохранением
+    private void saveIfChanged() {
+        if (!changedIds.isEmpty()) {
+            save();
+        }
     }
 
     //Преобразование задачи в CSV строку
     private String toCsv(Task task) {
-        String type = task instanceof SubTask ? "SUBTASK" : task instanceof Epic ? "EPIC" : "TASK";
-        String epicId = task instanceof SubTask ? String.valueOf(((SubTask) task).getEpicId()) : "";
+        String type = task instanceof SubTask ? "SUBTASK" : task instanceof Epic ? "EPIC"
+                : task instanceof RecurringTask ? "RECURRING" : task instanceof TaskOccurrence ? "OCCURRENCE" : "TASK";
+        String epicId = "";
+        if (task instanceof SubTask) {
+            epicId = String.valueOf(((SubTask) task).getEpicId());
+        } else if (task instanceof RecurringTask) {
+            // Запятые правила заменяются пробелами, разбор правила принимает оба разделителя
+            epicId = ((RecurringTask) task).getRule().toString().replace(',', ' ');
+        } else if (task instanceof TaskOccurrence) {
+            epicId = ((TaskOccurrence) task).getOccurrenceStart().format(DATE_TIME_FORMATTER);
+        }
         String duration = task.getDuration() != null ? String.valueOf(task.getDuration().toMinutes()) : "0";
         String startTime = task.getStartTime() != null ? task.getStartTime().format(DATE_TIME_FORMATTER) : "";
+        // Выгруженный текст читается мимо кэша, чтобы сохранение не вытесняло из него нужные записи
+        long textOffset = task.getTextOffset();
+        String[] text = textOffset >= 0 ? textStore.readUncached(textOffset)
+                : new String[]{task.getTitle(), task.getDescription()};
 
-        return String.format("%d,%s,%s,%s,%s,%s,%s,%s",
-                task.getId(), type, task.getTitle(), task.getStatus(), task.getDescription(),
+        String line = String.format("%d,%s,%s,%s,%s,%s,%s,%s",
+                task.getId(), type, text[0], task.getStatus(), text[1],
                 epicId, duration, startTime);
+        // Исполнитель и родительская подзадача - необязательные последние колонки, без них строка в прежнем формате
+        int parentId = task instanceof SubTask ? ((SubTask) task).getParentId() : 0;
+        if (parentId != 0) {
+            return line + "," + (task.getAssignee() != null ? task.getAssignee() : "") + "," + parentId;
+        }
+        return task.getAssignee() != null ? line + "," + task.getAssignee() : line;
+    }
+
+    /*
+    Выгрузка текста измененных после прошлого сохранения сущностей, которые не были выгружены при публикации события.
+    Выгруженные так сущности заменяются в снимке по одной, остальной снимок не трогается
+     */
+    private void pageOutChanged() {
+        List<Task> paged = new ArrayList<>();
+        for (int id : changedIds) {
+            Task stored = findStored(id);
+            if (stored != null && pageOut(stored)) {
+                paged.add(stored);
+            }
+        }
+        if (!paged.isEmpty()) {
+            refreshSnapshot(paged);
+        }
+    }
+
+    /*
+    Выгрузка текста сохраненной сущности и ее копии в расписании; true, если текст сущности был в памяти.
+    Копия в расписании получает то же смещение, только если ее текст совпадает с текстом сущности
+     */
+    private boolean pageOut(Task stored) {
+        Task scheduled = stored.getStartTime() != null ? prioritizedTasks.ceiling(stored) : null;
+        boolean pageScheduled = scheduled != null && scheduled != stored && scheduled.getId() == stored.getId()
+                && scheduled.getTextOffset() < 0 && sameText(scheduled, stored);
+        boolean inMemory = stored.getTextOffset() < 0;
+        if (inMemory) {
+            stored.pageOutText(textStore, textStore.append(stored.getTitle(), stored.getDescription()));
+        }
+        if (pageScheduled) {
+            scheduled.pageOutText(textStore, stored.getTextOffset());
+        }
+        return inMemory;
+    }
+
+    /*
+    Выгрузка текста при публикации события: в событие и снимок сразу уходит копия с выгруженным текстом,
+    поэтому сохранению не нужно перестраивать снимок
+     */
+    private Task pageOutOnEvent(Task task) {
+        Task stored = findStored(task.getId());
+        if (stored == null || stored.getClass() != task.getClass()) {
+            return task;
+        }
+        boolean sameAsStored = task == stored
+                || stored.getTextOffset() < 0 && task.getTextOffset() < 0 && sameText(task, stored);
+        pageOut(stored);
+        if (task == stored || task.getTextOffset() >= 0) {
+            return task;
+        }
+        // Событие о копии сущности: при том же тексте она ссылается на запись сохраненной сущности
+        Task paged = snapshotOf(task);
+        paged.pageOutText(textStore, sameAsStored ? stored.getTextOffset()
+                : textStore.append(task.getTitle(), task.getDescription()));
+        return paged;
+    }
+
+    private static boolean sameText(Task first, Task second) {
+        return Objects.equals(first.getTitle(), second.getTitle())
+                && Objects.equals(first.getDescription(), second.getDescription());
+    }
+
+    private Task findStored(int id) {
+        Task task = tasks.get(id);
+        if (task != null) {
+            return task;
+        }
+        Epic epic = epics.get(id);
+        return epic != null ? epic : subTasks.get(id);
     }
 
     //Загрузка менеджера из файла
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        return load(new FileBackedTaskManager(file));
+    }
+
+    /*
+    Загрузка в режиме подкачки: в памяти остаются id, статусы и время задач,
+    а названия и описания переносятся в файл <file>.text и читаются через LRU-кэш на textCacheSize записей
+     */
+    public static FileBackedTaskManager loadFromFile(File file, int textCacheSize) {
+        return load(new FileBackedTaskManager(file, textCacheSize));
+    }
+
+    private static FileBackedTaskManager load(FileBackedTaskManager manager) {
+        File file = manager.file;
+        if (manager.getArchiveFile().exists()) {
+            manager.openArchive();
+            manager.nextId = manager.archive.getMaxId() + 1;
+        }
 
         // Проверяем, существует ли файл
         if (!file.exists()) {
@@ -72,67 +243,92 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             return manager;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
             String line = reader.readLine(); // Пропускаем заголовок
             if (line == null) {
                 System.out.println("Файл " + file.getPath() + " пустой. Будет создан новый менеджер задач.");
                 return manager; // Файл пустой
             }
+            List<int[]> edges = new ArrayList<>();
+            List<TaskOccurrence> overrides = new ArrayList<>();
+            List<String[]> cancellations = new ArrayList<>();
             while ((line = reader.readLine()) != null) {
                 if (!line.trim().isEmpty()) {
-                    String[] parts = line.split(",", 8); // Увеличили количество частей для новых полей
-                    int id = Integer.parseInt(parts[0]);
-                    String type = parts[1];
-                    String title = parts[2];
-                    TaskStatus status = TaskStatus.valueOf(parts[3]);
-                    String description = parts[4];
-                    int epicId = parts.length > 5 && !parts[5].isEmpty() ? Integer.parseInt(parts[5]) : 0;
-                    //Парсим новые поля
-                    Duration duration = parts.length > 6 && !parts[6].isEmpty() ?
-                            Duration.ofMinutes(Long.parseLong(parts[6])) : Duration.ZERO;
-                    LocalDateTime startTime = parts.length > 7 && !parts[7].isEmpty() ?
-                            LocalDateTime.parse(parts[7], DATE_TIME_FORMATTER) : null;
-                    switch (type) {
-                        case "TASK":
-                            Task task = new Task(title, description, id, status, duration, startTime);
-                            manager.tasks.put(id, task);
-                            if (startTime != null) {
-                                manager.prioritizedTasks.add(task);
-                            }
-                            if (id >= manager.nextId) {
-                                manager.nextId = id + 1;
-                            }
-                            break;
-                        case "EPIC":
-                            Epic epic = new Epic(title, description, id);
-                            manager.epics.put(id, epic);
-                            if (id >= manager.nextId) {
-                                manager.nextId = id + 1;
-                            }
-                            break;
-                        case "SUBTASK":
-                            SubTask subTask = new SubTask(title, description, id, status, epicId, duration, startTime);
-                            manager.subTasks.put(id, subTask);
-                            if (startTime != null) {
-                                manager.prioritizedTasks.add(subTask);
-                            }
-                            Epic parentEpic = manager.epics.get(epicId);
-                            if (parentEpic != null) {
-                                parentEpic.addSubTaskId(id);
-                                manager.updateEpicStatus(parentEpic);
-                                manager.updateEpicFields(parentEpic);
-                            }
-                            if (id >= manager.nextId) {
-                                manager.nextId = id + 1;
-                            }
-                            break;
+                    String[] head = line.split(",", 3);
+                    if (head.length == 3 && DEPENDENCY_TYPE.equals(head[1])) {
+                        edges.add(new int[]{Integer.parseInt(head[2]), Integer.parseInt(head[0])});
+                        continue;
+                    }
+                    if (head.length == 3 && CANCELLED_TYPE.equals(head[1])) {
+                        cancellations.add(head);
+                        continue;
+                    }
+                    Task entity = fromCsv(line);
+                    int id = entity.getId();
+                    if (entity instanceof TaskOccurrence) {
+                        overrides.add((TaskOccurrence) entity);
+                        continue;
+                    }
+                    if (entity instanceof RecurringTask) {
+                        // Серии не выгружаются в файл текстов: их немного, а вхождения строятся из текста серии
+                        manager.recurringTasks.put(id, (RecurringTask) entity);
+                        if (id >= manager.nextId) {
+                            manager.nextId = id + 1;
+                        }
+                        continue;
+                    }
+                    manager.pageOutOnLoad(entity);
+                    if (entity instanceof Epic) {
+                        Epic epic = (Epic) entity;
+                        manager.epics.put(id, epic);
+                        manager.indexTask(epic);
+                    } else if (entity instanceof SubTask) {
+                        SubTask subTask = (SubTask) entity;
+                        manager.subTasks.put(id, subTask);
+                        manager.indexTask(subTask);
+                        manager.schedule(subTask);
+                        manager.dependencies.addNode(id, durationMinutes(subTask));
+                        Epic parentEpic = manager.epics.get(subTask.getEpicId());
+                        if (parentEpic != null) {
+                            parentEpic.addSubTaskId(id);
+                        }
+                    } else {
+                        manager.tasks.put(id, entity);
+                        manager.indexTask(entity);
+                        manager.schedule(entity);
+                        manager.dependencies.addNode(id, durationMinutes(entity));
+                    }
+                    if (entity.getStatus() == TaskStatus.DONE && !(entity instanceof Epic)) {
+                        // Время завершения до загрузки неизвестно: считаем им окончание задачи или момент загрузки
+                        LocalDateTime endTime = entity.getEndTime();
+                        manager.doneSince.put(id, endTime != null ? endTime : LocalDateTime.now());
+                    }
+                    if (id >= manager.nextId) {
+                        manager.nextId = id + 1;
                     }
                 }
             }
-            //Обновляем поля всех эпиков после загрузки
-            for (Epic epic : manager.epics.values()) {
-                manager.updateEpicFields(epic);
+            for (TaskOccurrence override : overrides) {
+                RecurringTask series = manager.recurringTasks.get(override.getId());
+                if (series != null) {
+                    series.putOverride(override.getOccurrenceStart(), override);
+                }
             }
+            for (String[] cancellation : cancellations) {
+                RecurringTask series = manager.recurringTasks.get(Integer.parseInt(cancellation[0]));
+                if (series != null) {
+                    series.cancelOccurrence(LocalDateTime.parse(cancellation[2], DATE_TIME_FORMATTER));
+                }
+            }
+            // Зависимости от задач, которых нет среди активных (например, ушедших в архив), пропускаются
+            for (int[] edge : edges) {
+                if (manager.dependencies.contains(edge[0]) && manager.dependencies.contains(edge[1])) {
+                    manager.dependencies.addEdge(edge[0], edge[1]);
+                }
+            }
+            //Собираем иерархию подзадач и поля эпиков после загрузки всех строк
+            manager.rebuildHierarchy();
+            manager.rebuildSnapshot();
         } catch (IOException e) { // Это поймает FileNotFoundException
             System.err.println("Ошибка ввода-вывода при загрузке файла: " + file.getPath() + ". " + e.getMessage());
             // Возвращаем пустой менеджер вместо выбрасывания исключения
@@ -146,14 +342,230 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return manager;
     }
 
-    //Делаем метод updateEpicFields доступным для использования в loadFromFile
-    private void updateEpicFields(Epic epic) {
-        if (epic == null) {
-            return;
+    private void pageOutOnLoad(Task task) {
+        if (textStore != null) {
+            task.pageOutText(textStore, textStore.append(task.getTitle(), task.getDescription()));
+        }
+    }
+
+    //Закрытие файла текстов и архива
+    @Override
+    public void close() {
+        if (textStore != null) {
+            textStore.close();
+        }
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    //Число текстов в кэше режима подкачки
+    public int getCachedTextCount() {
+        return textStore != null ? textStore.getCachedCount() : 0;
+    }
+
+    //Разбор CSV строки в задачу, эпик или подзадачу
+    private static Task fromCsv(String line) {
+        String[] parts = line.split(",", 10); // Увеличили количество частей для новых полей
+        int id = Integer.parseInt(parts[0]);
+        String type = parts[1];
+        String title = parts[2];
+        TaskStatus status = TaskStatus.valueOf(parts[3]);
+        String description = parts[4];
+        //Парсим новые поля
+        Duration duration = parts.length > 6 && !parts[6].isEmpty() ?
+                Duration.ofMinutes(Long.parseLong(parts[6])) : Duration.ZERO;
+        LocalDateTime startTime = parts.length > 7 && !parts[7].isEmpty() ?
+                LocalDateTime.parse(parts[7], DATE_TIME_FORMATTER) : null;
+        String assignee = parts.length > 8 && !parts[8].isEmpty() ? parts[8] : null;
+        Task task;
+        switch (type) {
+            case "EPIC":
+                // Статус и время эпика пересчитываются по подзадачам
+                return new Epic(title, description, id);
+            case "SUBTASK":
+                int epicId = parts.length > 5 && !parts[5].isEmpty() ? Integer.parseInt(parts[5]) : 0;
+                task = new SubTask(title, description, id, status, epicId, duration, startTime);
+                if (parts.length > 9) {
+                    ((SubTask) task).setParentId(Integer.parseInt(parts[9]));
+                }
+                break;
+            case "RECURRING":
+                task = new RecurringTask(title, description, id, status, duration, startTime,
+                        RecurrenceRule.parse(parts[5]));
+                break;
+            case "OCCURRENCE":
+                task = new TaskOccurrence(new Task(title, description, id, status, duration, startTime),
+                        LocalDateTime.parse(parts[5], DATE_TIME_FORMATTER));
+                break;
+            case "TASK":
+                task = new Task(title, description, id, status, duration, startTime);
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестный тип задачи: " + type);
+        }
+        task.setAssignee(assignee);
+        return task;
+    }
+
+    /*
+    Перенос в архив задач, завершенных раньше чем age назад.
+    Подзадачи переносятся только вместе со своим эпиком, когда в архив готовы все подзадачи эпика,
+    иначе изменились бы статус и время оставшегося эпика. Предшественники активных задач остаются:
+    их окончание определяет раннее начало зависимых. Для подписчиков перенос выглядит как удаление.
+    Возвращает число перенесенных сущностей.
+     */
+    public int archiveDoneTasks(Duration age) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(age);
+        // Группы переносятся целиком: задача отдельно, эпик вместе со всеми подзадачами
+        List<List<Task>> groups = new ArrayList<>();
+        for (Task task : tasks.values()) {
+            if (isArchivable(task, cutoff)) {
+                groups.add(List.of(task));
+            }
+        }
+        for (Epic epic : epics.values()) {
+            Set<Integer> subTaskIds = epic.getSubTaskIds();
+            if (epic.getStatus() != TaskStatus.DONE || subTaskIds.isEmpty()) {
+                continue;
+            }
+            List<Task> group = new ArrayList<>();
+            for (int subTaskId : subTaskIds) {
+                SubTask subTask = subTasks.get(subTaskId);
+                if (subTask != null && isArchivable(subTask, cutoff)) {
+                    group.add(subTask);
+                }
+            }
+            if (group.size() == subTaskIds.size()) {
+                group.add(epic);
+                groups.add(group);
+            }
+        }
+        keepPredecessorsOfActive(groups);
+        if (groups.isEmpty()) {
+            return 0;
         }
 
-        List<SubTask> epicSubTasks = getSubTasks(epic.getId());
-        epic.calculateEpicFields(epicSubTasks);
+        openArchive();
+        // Сначала дописываем архив, потом убираем из основного файла: при сбое задача останется в обоих местах
+        for (List<Task> group : groups) {
+            for (Task task : group) {
+                archive.append(toCsv(task));
+            }
+        }
+        int archived = 0;
+        beginWrite();
+        try {
+            for (List<Task> group : groups) {
+                for (Task task : group) {
+                    evict(task);
+                    archived++;
+                }
+            }
+        } finally {
+            endWrite();
+        }
+        save();
+        return archived;
+    }
+
+    // Исключение групп, от задач которых зависят остающиеся активными, до неподвижной точки
+    private void keepPredecessorsOfActive(List<List<Task>> groups) {
+        Set<Integer> archivedIds = new HashSet<>();
+        for (List<Task> group : groups) {
+            for (Task task : group) {
+                archivedIds.add(task.getId());
+            }
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Iterator<List<Task>> it = groups.iterator(); it.hasNext(); ) {
+                List<Task> group = it.next();
+                if (hasActiveDependent(group, archivedIds)) {
+                    for (Task task : group) {
+                        archivedIds.remove(task.getId());
+                    }
+                    it.remove();
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private boolean hasActiveDependent(List<Task> group, Set<Integer> archivedIds) {
+        for (Task task : group) {
+            if (task instanceof Epic) {
+                continue;
+            }
+            for (int dependentId : dependencies.getSuccessors(task.getId())) {
+                if (!archivedIds.contains(dependentId)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*Задача, подзадача или эпик из архива по id; null, если в архиве ее нет*/
+    public Task getArchived(int id) {
+        String line = archive != null ? archive.read(id) : null;
+        if (line == null) {
+            return null;
+        }
+        Task task = fromCsv(line);
+        if (task instanceof Epic) {
+            Epic epic = (Epic) task;
+            List<SubTask> epicSubTasks = new ArrayList<>();
+            for (int subTaskId : archive.getSubTaskIds(id)) {
+                epic.addSubTaskId(subTaskId);
+                epicSubTasks.add((SubTask) fromCsv(archive.read(subTaskId)));
+            }
+            epic.setStatus(TaskStatus.DONE);
+            epic.calculateEpicFields(epicSubTasks);
+        }
+        return task;
+    }
+
+    public int getArchivedCount() {
+        return archive != null ? archive.size() : 0;
+    }
+
+    private boolean isArchivable(Task task, LocalDateTime cutoff) {
+        LocalDateTime since = doneSince.get(task.getId());
+        return task.getStatus() == TaskStatus.DONE && since != null && !since.isAfter(cutoff);
+    }
+
+    private File getArchiveFile() {
+        return new File(file.getPath() + ".archive");
+    }
+
+    private void openArchive() {
+        if (archive == null) {
+            archive = new TaskArchive(getArchiveFile());
+        }
+    }
+
+    /*
+    Запоминаем момент перехода задачи в DONE для политики архивации и измененные сущности для сохранения;
+    в режиме подкачки текст измененной сущности выгружается до того, как ее копия попадет в снимок
+     */
+    @Override
+    protected void publishEvent(TaskEvent.Type type, Task task) {
+        changedIds.add(task.getId());
+        rowSpans.remove(task.getId());
+        if (textStore != null && type != TaskEvent.Type.DELETED) {
+            task = pageOutOnEvent(task);
+        }
+        super.publishEvent(type, task);
+        if (task instanceof Epic || task instanceof RecurringTask) {
+            return;
+        }
+        if (type == TaskEvent.Type.DELETED || task.getStatus() != TaskStatus.DONE) {
+            doneSince.remove(task.getId());
+        } else {
+            doneSince.putIfAbsent(task.getId(), LocalDateTime.now());
+        }
     }
 
     @Override
@@ -164,12 +576,20 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     @Override
-    public Task createTask(String title, String description, TaskStatus status, Duration duration, LocalDateTime startTime) throws TaskOverlapException {
-        Task task = super.createTask(title, description, status, duration, startTime);
+    public Task createTask(String title, String description, TaskStatus status, Duration duration, LocalDateTime startTime,
+                           String assignee) throws TaskOverlapException {
+        Task task = super.createTask(title, description, status, duration, startTime, assignee);
         save();
         return task;
     }
 
+    @Override
+    public List<Task> createTasks(List<Task> batch) throws TaskOverlapException {
+        List<Task> created = super.createTasks(batch);
+        save();
+        return created;
+    }
+
     @Override
     public void addEpic(String title, String description) {
         super.addEpic(title, description);
@@ -183,9 +603,19 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     @Override
-    public void addSubTask(String title, String description, int epicId, TaskStatus status, Duration duration, LocalDateTime startTime) throws TaskOverlapException {
-        super.addSubTask(title, description, epicId, status, duration, startTime);
+    public void addSubTask(String title, String description, int epicId, TaskStatus status, Duration duration,
+                           LocalDateTime startTime, String assignee) throws TaskOverlapException {
+        super.addSubTask(title, description, epicId, status, duration, startTime, assignee);
+        save();
+    }
+
+    @Override
+    public SubTask addChildSubTask(int parentId, String title, String description, TaskStatus status,
+                                   Duration duration, LocalDateTime startTime, String assignee)
+            throws TaskOverlapException {
+        SubTask subTask = super.addChildSubTask(parentId, title, description, status, duration, startTime, assignee);
         save();
+        return subTask;
     }
 
     @Override
@@ -206,24 +636,43 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         save();
     }
 
+    //Задачи, которых нет среди активных, ищутся в архиве
     @Override
     public Task getTaskById(int id) {
+        if (!tasks.containsKey(id)) {
+            Task archived = getArchived(id);
+            if (archived != null && archived.getClass() == Task.class) {
+                return archived;
+            }
+        }
         Task task = super.getTaskById(id);
-        save();
+        saveIfChanged();
         return task;
     }
 
     @Override
     public Epic getEpicById(int id) {
+        if (!epics.containsKey(id)) {
+            Task archived = getArchived(id);
+            if (archived instanceof Epic) {
+                return (Epic) archived;
+            }
+        }
         Epic epic = super.getEpicById(id);
-        save();
+        saveIfChanged();
         return epic;
     }
 
     @Override
     public SubTask getSubTaskById(int id) {
+        if (!subTasks.containsKey(id)) {
+            Task archived = getArchived(id);
+            if (archived instanceof SubTask) {
+                return (SubTask) archived;
+            }
+        }
         SubTask subTask = super.getSubTaskById(id);
-        save();
+        saveIfChanged();
         return subTask;
     }
 
@@ -245,6 +694,60 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         save();
     }
 
+    @Override
+    public void addDependency(int taskId, int dependsOnId) throws DependencyCycleException {
+        super.addDependency(taskId, dependsOnId);
+        save();
+    }
+
+    @Override
+    public void removeDependency(int taskId, int dependsOnId) {
+        super.removeDependency(taskId, dependsOnId);
+        save();
+    }
+
+    @Override
+    public RecurringTask createRecurringTask(String title, String description, TaskStatus status, Duration duration,
+                                             LocalDateTime startTime, String assignee, RecurrenceRule rule)
+            throws TaskOverlapException {
+        RecurringTask series = super.createRecurringTask(title, description, status, duration, startTime, assignee, rule);
+        save();
+        return series;
+    }
+
+    @Override
+    public void deleteRecurringTask(int id) {
+        super.deleteRecurringTask(id);
+        save();
+    }
+
+    @Override
+    public void overrideOccurrence(int seriesId, LocalDateTime occurrenceStart, Task changes)
+            throws TaskOverlapException {
+        super.overrideOccurrence(seriesId, occurrenceStart, changes);
+        save();
+    }
+
+    @Override
+    public void cancelOccurrence(int seriesId, LocalDateTime occurrenceStart) {
+        super.cancelOccurrence(seriesId, occurrenceStart);
+        save();
+    }
+
+    @Override
+    public SubTask moveSubTask(int id, int epicId, int parentId) {
+        SubTask subTask = super.moveSubTask(id, epicId, parentId);
+        save();
+        return subTask;
+    }
+
+    @Override
+    public SubTask moveSubTask(int id, int epicId, int parentId, SubTask changes) throws TaskOverlapException {
+        SubTask subTask = super.moveSubTask(id, epicId, parentId, changes);
+        save();
+        return subTask;
+    }
+
     @Override
     public void deleteTaskById(int id) {
         super.deleteTaskById(id);
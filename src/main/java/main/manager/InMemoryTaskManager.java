@@ -1,13 +1,20 @@
 package main.java.main.manager;
 
 import main.java.main.model.Epic;
+import main.java.main.model.RecurrenceRule;
+import main.java.main.model.RecurringTask;
 import main.java.main.model.SubTask;
 import main.java.main.model.Task;
+import main.java.main.model.TaskOccurrence;
 import main.java.main.model.TaskStatus;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 public class InMemoryTaskManager implements TaskManager {
@@ -15,26 +22,67 @@ public class InMemoryTaskManager implements TaskManager {
     protected final Map<Integer, SubTask> subTasks = new HashMap<>();
     protected final Map<Integer, Task> tasks = new HashMap<>();
     protected int nextId = 1;
+    // Сколько конфликтующих задач сообщать при отказе в создании или обновлении
+    private static final int MAX_REPORTED_CONFLICTS = 20;
+    // Насколько далеко искать свободное окно, если его вытесняют вхождения повторяющихся задач
+    private static final Duration RECURRING_SLOT_HORIZON = Duration.ofDays(3660);
+    // Повторяющиеся задачи хранятся одной записью и разворачиваются во вхождения только в запрошенных окнах
+    protected final Map<Integer, RecurringTask> recurringTasks = new HashMap<>();
     private final HistoryManager historyManager;
     // Структура для хранения задач, отсортированных по времени
-    protected final Set<Task> prioritizedTasks = new TreeSet<>((task1, task2) -> {
-        if (task1.getStartTime() == null && task2.getStartTime() == null) {
-            return Integer.compare(task1.getId(), task2.getId());
-        }
-        if (task1.getStartTime() == null) return 1;
-        if (task2.getStartTime() == null) return -1;
-        int timeComparison = task1.getStartTime().compareTo(task2.getStartTime());
-        if (timeComparison != 0) return timeComparison;
-        return Integer.compare(task1.getId(), task2.getId());
-    });
+    protected final NavigableSet<Task> prioritizedTasks = new TreeSet<>(SchedulePartition.START_TIME_ORDER);
+
+    // То же расписание, разделенное по исполнителям: пересечения проверяются только внутри своей части
+    private final Map<String, SchedulePartition> partitions = new HashMap<>();
+
+    // Вторичные индексы: статус -> id, эпик -> id подзадач, название в нижнем регистре -> id
+    private final Map<TaskStatus, Set<Integer>> idsByStatus = new EnumMap<>(TaskStatus.class);
+    private final Map<Integer, Set<Integer>> subTaskIdsByEpic = new HashMap<>();
+    // Иерархия подзадач: id эпика или подзадачи -> id прямых дочерних подзадач
+    private final Map<Integer, Set<Integer>> childIds = new HashMap<>();
+    // Свертки сводок дочерних поддеревьев по id эпика или подзадачи
+    private final Map<Integer, TaskRollup> rollups = new HashMap<>();
+    private final NavigableMap<String, Set<Integer>> idsByTitle = new TreeMap<>();
+    // Полнотекстовый индекс по названиям и описаниям
+    private final SearchIndex searchIndex = new SearchIndex();
+    // false, если текст задач хранится вне памяти: индексы по тексту не ведутся, поиск идет перебором
+    private final boolean textIndexed;
+    // События изменений для подписчиков и версии сущностей
+    protected final TaskEventBuffer eventBuffer = new TaskEventBuffer();
+    private final Map<Integer, Long> versions = new HashMap<>();
+    // Журнал последних изменений каждой сущности для дельта-синхронизации
+    private final ChangeLog changeLog = new ChangeLog();
+    // Таймеры начала и просрочки задач из расписания
+    protected final TaskTimers timers = new TaskTimers(eventBuffer, Clock.systemDefaultZone());
+    // Зависимости между задачами и подзадачами с ранним началом и критическим путем
+    protected final DependencyGraph dependencies = new DependencyGraph();
+    // Опубликованный снимок для чтения без блокировок и черновик следующего, который накапливает текущая запись
+    private final AtomicReference<ManagerSnapshot> published = new AtomicReference<>(ManagerSnapshot.EMPTY);
+    private ManagerSnapshot draft = ManagerSnapshot.EMPTY;
+    // Глубина вложенных операций записи: снимок публикуется, когда завершается внешняя
+    private int writeDepth = 0;
 
     public InMemoryTaskManager() {
+        this(true);
+    }
+
+    protected InMemoryTaskManager(boolean textIndexed) {
         this.historyManager = Managers.getDefaultHistory();
+        this.textIndexed = textIndexed;
     }
 
     private void validateTaskOverlap(Task task) throws TaskOverlapException {
-        if (task.getStartTime() != null && hasOverlapWithExistingTasks(task)) {
-            throw new TaskOverlapException("Задача пересекается по времени с существующими задачами");
+        validateTaskOverlap(task, "Задача пересекается по времени с существующими задачами");
+    }
+
+    // Конфликтующие id собираются тем же проходом, что и проверка, и передаются клиенту в исключении
+    private void validateTaskOverlap(Task task, String message) throws TaskOverlapException {
+        if (task.getStartTime() == null) {
+            return;
+        }
+        List<Integer> conflictingIds = findConflictingTaskIds(task, MAX_REPORTED_CONFLICTS);
+        if (!conflictingIds.isEmpty()) {
+            throw new TaskOverlapException(message, conflictingIds);
         }
     }
 
@@ -46,13 +94,79 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Task createTask(String title, String description, TaskStatus status, Duration duration, LocalDateTime startTime) throws TaskOverlapException {
+        return createTask(title, description, status, duration, startTime, null);
+    }
+
+    @Override
+    public Task createTask(String title, String description, TaskStatus status, Duration duration, LocalDateTime startTime,
+                           String assignee) throws TaskOverlapException {
         int id = nextId++;
         Task task = new Task(title, description, id, status, duration, startTime);
+        task.setAssignee(assignee);
         validateTaskOverlap(task);
-        tasks.put(id, new Task(task));
-        if (startTime != null) {
-            prioritizedTasks.add(new Task(task));
+        return addTask(task);
+    }
+
+    /*Создание пакета задач: создаются либо все задачи, либо ни одной, если есть пересечения*/
+    @Override
+    public List<Task> createTasks(List<Task> batch) throws TaskOverlapException {
+        beginWrite();
+        try {
+            List<ScheduleConflict> conflicts = findBatchConflicts(batch);
+            if (!conflicts.isEmpty()) {
+                throw new BatchOverlapException(conflicts);
+            }
+            List<Task> created = new ArrayList<>(batch.size());
+            for (Task task : batch) {
+                Task newTask = new Task(task.getTitle(), task.getDescription(), nextId++, task.getStatus(),
+                        task.getDuration(), task.getStartTime());
+                newTask.setAssignee(task.getAssignee());
+                created.add(addTask(newTask));
+            }
+            return created;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /*Все пересечения задач пакета с расписанием и друг с другом; части расписания проверяются параллельно*/
+    @Override
+    public List<ScheduleConflict> findBatchConflicts(List<Task> batch) {
+        Map<String, List<Integer>> positionsByKey = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            positionsByKey.computeIfAbsent(SchedulePartition.keyOf(batch.get(i).getAssignee()), k -> new ArrayList<>())
+                    .add(i);
+        }
+        List<ForkJoinTask<List<ScheduleConflict>>> checks = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> entry : positionsByKey.entrySet()) {
+            SchedulePartition partition = partitions.get(entry.getKey());
+            ScheduleIndex snapshot = partition != null ? partition.getIndex().copy() : new ScheduleIndex();
+            List<Integer> positions = entry.getValue();
+            List<Task> part = new ArrayList<>(positions.size());
+            for (int position : positions) {
+                part.add(batch.get(position));
+            }
+            checks.add(ForkJoinPool.commonPool().submit(() -> BatchOverlapValidator.validate(snapshot, part, positions)));
+        }
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        for (ForkJoinTask<List<ScheduleConflict>> check : checks) {
+            conflicts.addAll(check.join());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            for (int seriesId : findConflictingSeriesIds(batch.get(i), null, MAX_REPORTED_CONFLICTS)) {
+                conflicts.add(ScheduleConflict.withExisting(i, seriesId));
+            }
         }
+        conflicts.sort(Comparator.comparingInt(ScheduleConflict::getIndex));
+        return conflicts;
+    }
+
+    private Task addTask(Task task) {
+        tasks.put(task.getId(), new Task(task));
+        indexTask(task);
+        dependencies.addNode(task.getId(), durationMinutes(task));
+        schedule(new Task(task));
+        publishEvent(TaskEvent.Type.CREATED, task);
         return new Task(task);
     }
 
@@ -62,6 +176,8 @@ public class InMemoryTaskManager implements TaskManager {
         int id = getNextId();
         Epic epic = new Epic(title, description, id);
         epics.put(id, epic);
+        indexTask(epic);
+        publishEvent(TaskEvent.Type.CREATED, epic);
     }
 
     /*Добавление подзадачи*/
@@ -72,67 +188,131 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void addSubTask(String title, String description, int epicId, TaskStatus status, Duration duration, LocalDateTime startTime) throws TaskOverlapException {
+        addSubTask(title, description, epicId, status, duration, startTime, null);
+    }
+
+    @Override
+    public void addSubTask(String title, String description, int epicId, TaskStatus status, Duration duration,
+                           LocalDateTime startTime, String assignee) throws TaskOverlapException {
         Epic epic = epics.get(epicId);
         if (epic != null) {
+            insertSubTask(epic, 0, title, description, status, duration, startTime, assignee);
+        }
+    }
+
+    /*Добавление вложенной подзадачи: эпик берется у родительской подзадачи*/
+    @Override
+    public SubTask addChildSubTask(int parentId, String title, String description, TaskStatus status,
+                                   Duration duration, LocalDateTime startTime, String assignee)
+            throws TaskOverlapException {
+        SubTask parent = subTasks.get(parentId);
+        if (parent == null) {
+            throw new NotFoundException("Подзадача с ID " + parentId + " не найдена");
+        }
+        return insertSubTask(epics.get(parent.getEpicId()), parentId, title, description, status, duration,
+                startTime, assignee);
+    }
+
+    private SubTask insertSubTask(Epic epic, int parentId, String title, String description, TaskStatus status,
+                                  Duration duration, LocalDateTime startTime, String assignee)
+            throws TaskOverlapException {
+        beginWrite();
+        try {
             int id = getNextId();
-            if (id == epicId) {
-                return;
-            }
-            SubTask subTask = new SubTask(title, description, id, status, epicId, duration, startTime);
+            SubTask subTask = new SubTask(title, description, id, status, epic.getId(), duration, startTime);
+            subTask.setParentId(parentId);
+            subTask.setAssignee(assignee);
             validateTaskOverlap(subTask);
             subTasks.put(id, new SubTask(subTask));
+            indexTask(subTask);
+            dependencies.addNode(id, durationMinutes(subTask));
             epic.addSubTaskId(id);
-            updateEpicStatus(epic);
-            updateEpicFields(epic);
-            if (startTime != null) {
-                prioritizedTasks.add(new SubTask(subTask));
-            }
+            attachSubTask(subTasks.get(id));
+            schedule(new SubTask(subTask));
+            publishEvent(TaskEvent.Type.CREATED, subTask);
+            publishEvent(TaskEvent.Type.UPDATED, epic);
+            return subTask;
+        } finally {
+            endWrite();
         }
     }
 
     /*Удаление всех задач*/
     @Override
     public void deleteAllTasks() {
-        for (Task task : tasks.values()) {
-            historyManager.remove(task.getId());
-            prioritizedTasks.remove(task);
+        beginWrite();
+        try {
+            for (Task task : tasks.values()) {
+                historyManager.remove(task.getId());
+                unschedule(task);
+                unindexTask(task);
+                dependencies.removeNode(task.getId());
+                publishEvent(TaskEvent.Type.DELETED, task);
+            }
+            tasks.clear();
+        } finally {
+            endWrite();
         }
-        tasks.clear();
     }
 
     /*Удаление всех эпиков*/
     @Override
     public void deleteAllEpics() {
-        for (Epic epic : epics.values()) {
-            historyManager.remove(epic.getId());
-        }
-        epics.clear();
-        for (SubTask subTask : subTasks.values()) {
-            historyManager.remove(subTask.getId());
-            prioritizedTasks.remove(subTask);
+        beginWrite();
+        try {
+            for (Epic epic : epics.values()) {
+                historyManager.remove(epic.getId());
+                unindexTask(epic);
+                publishEvent(TaskEvent.Type.DELETED, epic);
+            }
+            epics.clear();
+            childIds.clear();
+            rollups.clear();
+            for (SubTask subTask : subTasks.values()) {
+                historyManager.remove(subTask.getId());
+                unschedule(subTask);
+                unindexTask(subTask);
+                dependencies.removeNode(subTask.getId());
+                publishEvent(TaskEvent.Type.DELETED, subTask);
+            }
+            subTasks.clear();
+        } finally {
+            endWrite();
         }
-        subTasks.clear();
     }
 
     /*Удаление всех подзадач*/
     @Override
     public void deleteAllSubTasks() {
-        for (Epic epic : epics.values()) {
-            epic.getSubTaskIds().clear();
-            updateEpicStatus(epic);
-            updateEpicFields(epic);
-        }
-        for (SubTask subTask : subTasks.values()) {
-            historyManager.remove(subTask.getId());
-            prioritizedTasks.remove(subTask);
+        beginWrite();
+        try {
+            for (SubTask subTask : subTasks.values()) {
+                historyManager.remove(subTask.getId());
+                unschedule(subTask);
+                unindexTask(subTask);
+                dependencies.removeNode(subTask.getId());
+                publishEvent(TaskEvent.Type.DELETED, subTask);
+            }
+            subTasks.clear();
+            childIds.clear();
+            rollups.clear();
+            for (Epic epic : epics.values()) {
+                boolean hadSubTasks = !epic.getSubTaskIds().isEmpty();
+                epic.clearSubTasks();
+                applyRollup(epic);
+                if (hadSubTasks) {
+                    publishEvent(TaskEvent.Type.UPDATED, epic);
+                }
+            }
+        } finally {
+            endWrite();
         }
-        subTasks.clear();
     }
 
     /*Получение задачи по id*/
     @Override
     public Task getTaskById(int id) throws NotFoundException {
-        Task task = tasks.get(id);
+        Task task = published.get().getTask(id);
         if (task != null) {
             historyManager.add(new Task(task));
             return new Task(task);
@@ -143,10 +323,10 @@ public class InMemoryTaskManager implements TaskManager {
     /*Получение эпика по id*/
     @Override
     public Epic getEpicById(int id) throws NotFoundException {
-        Epic epic = epics.get(id);
+        Epic epic = published.get().getEpic(id);
         if (epic != null) {
-            historyManager.add(epic);
-            return epic;
+            historyManager.add(new Epic(epic));
+            return new Epic(epic);
         }
         throw new NotFoundException("Эпик с ID " + id + " не найден");
     }
@@ -154,7 +334,7 @@ public class InMemoryTaskManager implements TaskManager {
     /*Получение подзадачи по id*/
     @Override
     public SubTask getSubTaskById(int id) throws NotFoundException {
-        SubTask subTask = subTasks.get(id);
+        SubTask subTask = published.get().getSubTask(id);
         if (subTask != null) {
             historyManager.add(new SubTask(subTask));
             return new SubTask(subTask);
@@ -176,12 +356,13 @@ public class InMemoryTaskManager implements TaskManager {
         Task task = new Task(title, description, id, status, duration, startTime);
         validateTaskOverlap(task);
         tasks.put(id, new Task(task));
+        indexTask(task);
+        dependencies.addNode(id, durationMinutes(task));
         if (id >= nextId) {
             nextId = id + 1;
         }
-        if (startTime != null) {
-            prioritizedTasks.add(new Task(task));
-        }
+        schedule(new Task(task));
+        publishEvent(TaskEvent.Type.CREATED, task);
         return new Task(task);
     }
 
@@ -201,37 +382,239 @@ public class InMemoryTaskManager implements TaskManager {
         return result;
     }
 
-    /*Обновление статуса эпика*/
-    void updateEpicStatus(Epic epic) {
-        if (epic == null) {
-            return;
+    /*Прямые дочерние подзадачи эпика или подзадачи*/
+    @Override
+    public List<SubTask> getChildren(int id) {
+        if (!epics.containsKey(id) && !subTasks.containsKey(id)) {
+            throw new NotFoundException("Эпик или подзадача с ID " + id + " не найдены");
+        }
+        List<SubTask> result = new ArrayList<>();
+        for (int childId : childIds.getOrDefault(id, Set.of())) {
+            result.add(new SubTask(subTasks.get(childId)));
+        }
+        return result;
+    }
+
+    /*Сводка по поддереву из готовой свертки, без обхода вложенных подзадач*/
+    @Override
+    public SubtreeSummary getSubtreeSummary(int id) {
+        SubTask subTask = subTasks.get(id);
+        if (subTask != null) {
+            return summaryOf(subTask);
         }
-        List<Integer> subTaskIds = epic.getSubTaskIds();
-        if (subTaskIds.isEmpty()) {
-            epic.setStatus(TaskStatus.NEW);
+        if (!epics.containsKey(id)) {
+            throw new NotFoundException("Эпик или подзадача с ID " + id + " не найдены");
+        }
+        TaskRollup rollup = rollups.get(id);
+        return rollup != null ? rollup.toSummary() : SubtreeSummary.EMPTY;
+    }
+
+    /*
+    Перенос подзадачи вместе с вложенными в эпик epicId под подзадачу parentId (0 - на верхний уровень эпика).
+    Сводка поддерева вычитается из сверток старых предков и добавляется к сверткам новых,
+    подзадачи обоих эпиков не перебираются. При смене эпика меняется эпик только у переносимого поддерева.
+     */
+    @Override
+    public SubTask moveSubTask(int id, int epicId, int parentId) {
+        beginWrite();
+        try {
+            SubTask subTask = requireMovable(id, epicId, parentId);
+            applyMove(subTask, epicId, parentId);
+            return new SubTask(subTasks.get(id));
+        } finally {
+            endWrite();
+        }
+    }
+
+    /*
+    Перенос с обновлением полей подзадачи одной операцией записи. Перенос и поля проверяются до любых изменений,
+    поэтому отклоненный запрос ничего не меняет, а подписчики и читатели снимка не видят промежуточного состояния
+     */
+    @Override
+    public SubTask moveSubTask(int id, int epicId, int parentId, SubTask changes) throws TaskOverlapException {
+        beginWrite();
+        try {
+            SubTask subTask = requireMovable(id, epicId, parentId);
+            if (changes.getId() != id) {
+                throw new IllegalArgumentException("Изменения относятся к подзадаче " + changes.getId() + ", а не " + id);
+            }
+            validateSubTaskChanges(subTask, changes);
+            applyMove(subTask, epicId, parentId);
+            applySubTaskChanges(subTasks.get(id), changes);
+            return new SubTask(subTasks.get(id));
+        } finally {
+            endWrite();
+        }
+    }
+
+    // Подзадача id, если ее можно перенести в эпик epicId под parentId
+    private SubTask requireMovable(int id, int epicId, int parentId) {
+        SubTask subTask = subTasks.get(id);
+        if (subTask == null) {
+            throw new NotFoundException("Подзадача с ID " + id + " не найдена");
+        }
+        if (!epics.containsKey(epicId)) {
+            throw new NotFoundException("Эпик с ID " + epicId + " не найден");
+        }
+        if (parentId != 0) {
+            SubTask parent = subTasks.get(parentId);
+            if (parent == null) {
+                throw new NotFoundException("Подзадача с ID " + parentId + " не найдена");
+            }
+            if (parent.getEpicId() != epicId) {
+                throw new IllegalArgumentException("Подзадача " + parentId + " не входит в эпик " + epicId);
+            }
+            for (SubTask ancestor = parent; ancestor != null; ancestor = subTasks.get(ancestor.getParentId())) {
+                if (ancestor.getId() == id) {
+                    throw new IllegalArgumentException("Подзадачу нельзя перенести внутрь нее самой");
+                }
+            }
+        }
+        return subTask;
+    }
+
+    private void applyMove(SubTask subTask, int epicId, int parentId) {
+        if (subTask.getEpicId() == epicId && subTask.getParentId() == parentId) {
             return;
         }
-        Collection<TaskStatus> uniqueStatuses = new HashSet<>();
-        for (int subTaskId : subTaskIds) {
-            SubTask subTask = subTasks.get(subTaskId);
-            if (subTask != null) {
-                uniqueStatuses.add(subTask.getStatus());
+        int id = subTask.getId();
+        Epic target = epics.get(epicId);
+        SubtreeSummary summary = summaryOf(subTask);
+        int oldParentKey = parentKeyOf(subTask);
+        Set<Integer> siblings = childIds.get(oldParentKey);
+        if (siblings != null) {
+            siblings.remove(id);
+        }
+        propagateRollup(oldParentKey, summary, null);
+
+        Epic source = epics.get(subTask.getEpicId());
+        List<SubTask> moved = new ArrayList<>();
+        moved.add(subTask);
+        if (source != target) {
+            for (int i = 0; i < moved.size(); i++) {
+                for (int childId : childIds.getOrDefault(moved.get(i).getId(), Set.of())) {
+                    moved.add(subTasks.get(childId));
+                }
+            }
+            for (SubTask movedSubTask : moved) {
+                unschedule(movedSubTask);
+                unindexTask(movedSubTask);
+                if (source != null) {
+                    source.removeSubTaskId(movedSubTask.getId());
+                }
+                movedSubTask.setEpicId(epicId);
+                target.addSubTaskId(movedSubTask.getId());
+                indexTask(movedSubTask);
+                schedule(new SubTask(movedSubTask));
             }
         }
-        if (uniqueStatuses.size() == 1) {
-            epic.setStatus(uniqueStatuses.iterator().next());
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
+        subTask.setParentId(parentId);
+        int newParentKey = parentKeyOf(subTask);
+        childIds.computeIfAbsent(newParentKey, k -> new TreeSet<>()).add(id);
+        // Собственные поля и вложенные не менялись, поэтому сводка поддерева та же
+        propagateRollup(newParentKey, null, summary);
+
+        for (SubTask movedSubTask : moved) {
+            publishEvent(TaskEvent.Type.UPDATED, movedSubTask);
+        }
+        if (source != null && source != target) {
+            publishEvent(TaskEvent.Type.UPDATED, source);
         }
+        publishEvent(TaskEvent.Type.UPDATED, target);
     }
 
-    /*Обновление полей эпика на основе подзадач*/
-    private void updateEpicFields(Epic epic) {
-        if (epic == null) {
+    private static int parentKeyOf(SubTask subTask) {
+        return subTask.getParentId() != 0 ? subTask.getParentId() : subTask.getEpicId();
+    }
+
+    private SubtreeSummary summaryOf(SubTask subTask) {
+        return SubtreeSummary.of(subTask, rollups.get(subTask.getId()));
+    }
+
+    private void attachSubTask(SubTask subTask) {
+        int parentKey = parentKeyOf(subTask);
+        childIds.computeIfAbsent(parentKey, k -> new TreeSet<>()).add(subTask.getId());
+        propagateRollup(parentKey, null, summaryOf(subTask));
+    }
+
+    /*
+    Замена сводки дочернего поддерева before на after в свертке родителя и дальше по пути к эпику.
+    На каждом уровне O(log k) по числу детей; подъем останавливается, когда сводка предка не изменилась.
+     */
+    private void propagateRollup(int parentKey, SubtreeSummary before, SubtreeSummary after) {
+        int key = parentKey;
+        while (!Objects.equals(before, after)) {
+            SubTask parent = subTasks.get(key);
+            SubtreeSummary parentBefore = parent != null ? summaryOf(parent) : null;
+            TaskRollup rollup = rollups.computeIfAbsent(key, k -> new TaskRollup());
+            if (before != null) {
+                rollup.remove(before);
+            }
+            if (after != null) {
+                rollup.add(after);
+            }
+            if (parent == null) {
+                Epic epic = epics.get(key);
+                if (epic != null) {
+                    applyRollup(epic);
+                }
+                return;
+            }
+            before = parentBefore;
+            after = summaryOf(parent);
+            key = parentKeyOf(parent);
+        }
+    }
+
+    /*Восстановление иерархии и сверток по загруженным подзадачам: родитель присоединяется раньше дочерних*/
+    protected void rebuildHierarchy() {
+        childIds.clear();
+        rollups.clear();
+        Set<Integer> attached = new HashSet<>();
+        for (SubTask subTask : subTasks.values()) {
+            attachWithAncestors(subTask, attached);
+        }
+        for (Epic epic : epics.values()) {
+            applyRollup(epic);
+        }
+    }
+
+    private void attachWithAncestors(SubTask subTask, Set<Integer> attached) {
+        if (!attached.add(subTask.getId())) {
             return;
         }
-        List<SubTask> epicSubTasks = getSubTasks(epic.getId());
-        epic.calculateEpicFields(epicSubTasks);
+        if (subTask.getParentId() != 0) {
+            SubTask parent = subTasks.get(subTask.getParentId());
+            if (parent == null || parent.getEpicId() != subTask.getEpicId()) {
+                // Родителя нет среди активных подзадач: подзадача остается непосредственно в эпике
+                subTask.setParentId(0);
+            } else {
+                attachWithAncestors(parent, attached);
+            }
+        }
+        attachSubTask(subTask);
+    }
+
+    /*Статус и время эпика по свертке всех его подзадач*/
+    private void applyRollup(Epic epic) {
+        TaskRollup rollup = rollups.get(epic.getId());
+        SubtreeSummary summary = rollup != null ? rollup.toSummary() : SubtreeSummary.EMPTY;
+        setEpicStatus(epic, summary.getStatus());
+        epic.setDuration(summary.getDuration());
+        epic.setStartTime(summary.getStartTime());
+        epic.setEndTime(summary.getEndTime());
+    }
+
+    /*Смена статуса эпика с обновлением индекса по статусам*/
+    private void setEpicStatus(Epic epic, TaskStatus status) {
+        if (epic.getStatus() == status) {
+            return;
+        }
+        if (epics.get(epic.getId()) == epic) {
+            removeFromIndex(idsByStatus, epic.getStatus(), epic.getId());
+            addToIndex(idsByStatus, status, epic.getId());
+        }
+        epic.setStatus(status);
     }
 
     /*Обновление задачи*/
@@ -245,16 +628,16 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         Task oldTask = tasks.get(updatedTask.getId());
-        if (updatedTask.getStartTime() != null &&
-                !Objects.equals(oldTask.getStartTime(), updatedTask.getStartTime()) &&
-                hasOverlapWithExistingTasks(updatedTask)) {
-            throw new TaskOverlapException("Обновленная задача пересекается по времени с существующими задачами");
+        if (scheduleChanged(oldTask, updatedTask)) {
+            validateTaskOverlap(updatedTask, "Обновленная задача пересекается по времени с существующими задачами");
         }
-        prioritizedTasks.remove(oldTask);
+        unschedule(oldTask);
+        unindexTask(oldTask);
         tasks.put(updatedTask.getId(), new Task(updatedTask));
-        if (updatedTask.getStartTime() != null) {
-            prioritizedTasks.add(new Task(updatedTask));
-        }
+        indexTask(updatedTask);
+        dependencies.setDuration(updatedTask.getId(), durationMinutes(updatedTask));
+        schedule(new Task(updatedTask));
+        publishEvent(TaskEvent.Type.UPDATED, updatedTask);
     }
 
     /*Обновление эпика*/
@@ -268,40 +651,67 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         Epic updatedEpic = epics.get(epic.getId());
+        unindexTask(updatedEpic);
         updatedEpic.setTitle(epic.getTitle());
         updatedEpic.setDescription(epic.getDescription());
-        updateEpicStatus(updatedEpic);
-        updateEpicFields(updatedEpic);
+        indexTask(updatedEpic);
+        applyRollup(updatedEpic);
+        publishEvent(TaskEvent.Type.UPDATED, updatedEpic);
     }
 
     /*Обновление подзадачи*/
     @Override
     public void updateSubTask(SubTask subTask) throws TaskOverlapException, NotFoundException {
-        if (subTask == null) {
-            throw new NotFoundException("Переданная подзадача равна null");
-        }
-        if (!subTasks.containsKey(subTask.getId())) {
-            throw new NotFoundException("Подзадача с ID " + subTask.getId() + " не найдена для обновления");
-        }
-        if (subTask.getId() == subTask.getEpicId()) {
-            return;
+        beginWrite();
+        try {
+            if (subTask == null) {
+                throw new NotFoundException("Переданная подзадача равна null");
+            }
+            if (!subTasks.containsKey(subTask.getId())) {
+                throw new NotFoundException("Подзадача с ID " + subTask.getId() + " не найдена для обновления");
+            }
+            if (subTask.getId() == subTask.getEpicId()) {
+                return;
+            }
+
+            SubTask oldSubTask = subTasks.get(subTask.getId());
+            validateSubTaskChanges(oldSubTask, subTask);
+            applySubTaskChanges(oldSubTask, subTask);
+        } finally {
+            endWrite();
         }
+    }
 
-        SubTask oldSubTask = subTasks.get(subTask.getId());
-        if (subTask.getStartTime() != null &&
-                !Objects.equals(oldSubTask.getStartTime(), subTask.getStartTime()) &&
-                hasOverlapWithExistingTasks(subTask)) {
-            throw new TaskOverlapException("Обновленная подзадача пересекается по времени с существующими задачами");
+    private void validateSubTaskChanges(SubTask oldSubTask, SubTask subTask) throws TaskOverlapException {
+        if (scheduleChanged(oldSubTask, subTask)) {
+            validateTaskOverlap(subTask, "Обновленная подзадача пересекается по времени с существующими задачами");
         }
-        prioritizedTasks.remove(oldSubTask);
-        subTasks.put(subTask.getId(), new SubTask(subTask));
-        Epic epic = epics.get(subTask.getEpicId());
+    }
+
+    // Изменилось ли место задачи в расписании: начало, продолжительность или исполнитель
+    private static boolean scheduleChanged(Task oldTask, Task newTask) {
+        return !Objects.equals(oldTask.getStartTime(), newTask.getStartTime())
+                || !Objects.equals(oldTask.getDuration(), newTask.getDuration())
+                || !Objects.equals(oldTask.getAssignee(), newTask.getAssignee());
+    }
+
+    // Замена полей подзадачи; место в иерархии обновлением не меняется
+    private void applySubTaskChanges(SubTask oldSubTask, SubTask subTask) {
+        SubTask stored = new SubTask(subTask);
+        stored.setEpicId(oldSubTask.getEpicId());
+        stored.setParentId(oldSubTask.getParentId());
+        SubtreeSummary before = summaryOf(oldSubTask);
+        unschedule(oldSubTask);
+        unindexTask(oldSubTask);
+        subTasks.put(stored.getId(), stored);
+        indexTask(stored);
+        dependencies.setDuration(stored.getId(), durationMinutes(stored));
+        propagateRollup(parentKeyOf(stored), before, summaryOf(stored));
+        Epic epic = epics.get(stored.getEpicId());
+        schedule(new SubTask(stored));
+        publishEvent(TaskEvent.Type.UPDATED, stored);
         if (epic != null) {
-            updateEpicStatus(epic);
-            updateEpicFields(epic);
-        }
-        if (subTask.getStartTime() != null) {
-            prioritizedTasks.add(new SubTask(subTask));
+            publishEvent(TaskEvent.Type.UPDATED, epic);
         }
     }
 
@@ -310,8 +720,11 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteTaskById(int id) throws NotFoundException {
         Task task = tasks.remove(id);
         if (task != null) {
-            prioritizedTasks.remove(task);
+            unschedule(task);
+            unindexTask(task);
+            dependencies.removeNode(id);
             historyManager.remove(id);
+            publishEvent(TaskEvent.Type.DELETED, task);
         } else {
             throw new NotFoundException("Задача с ID " + id + " не найдена для удаления");
         }
@@ -320,45 +733,85 @@ public class InMemoryTaskManager implements TaskManager {
     /*Удаление эпика и всех его подзадач по id*/
     @Override
     public void deleteEpic(int id) throws NotFoundException {
-        if (epics.containsKey(id)) {
-            Epic epic = epics.get(id);
-            for (Integer subTaskId : epic.getSubTaskIds()) {
-                SubTask subTask = subTasks.remove(subTaskId);
-                if (subTask != null) {
-                    prioritizedTasks.remove(subTask);
+        beginWrite();
+        try {
+            if (epics.containsKey(id)) {
+                Epic epic = epics.get(id);
+                for (Integer subTaskId : epic.getSubTaskIds()) {
+                    SubTask subTask = subTasks.remove(subTaskId);
+                    if (subTask != null) {
+                        unschedule(subTask);
+                        unindexTask(subTask);
+                        dependencies.removeNode(subTaskId);
+                        publishEvent(TaskEvent.Type.DELETED, subTask);
+                    }
+                    childIds.remove(subTaskId);
+                    rollups.remove(subTaskId);
+                    historyManager.remove(subTaskId);
                 }
-                historyManager.remove(subTaskId);
+                childIds.remove(id);
+                rollups.remove(id);
+                unindexTask(epic);
+                epics.remove(id);
+                historyManager.remove(id);
+                publishEvent(TaskEvent.Type.DELETED, epic);
+            } else {
+                throw new NotFoundException("Эпик с ID " + id + " не найден для удаления");
             }
-            epics.remove(id);
-            historyManager.remove(id);
-        } else {
-            throw new NotFoundException("Эпик с ID " + id + " не найден для удаления");
+        } finally {
+            endWrite();
         }
     }
 
-    /*Удаление подзадачи по id*/
+    /*Удаление подзадачи по id вместе со всеми вложенными в нее*/
     @Override
     public void deleteSubTask(int id) throws NotFoundException {
-        SubTask subTask = subTasks.remove(id);
-        if (subTask != null) {
-            prioritizedTasks.remove(subTask);
+        beginWrite();
+        try {
+            SubTask subTask = subTasks.get(id);
+            if (subTask == null) {
+                throw new NotFoundException("Подзадача с ID " + id + " не найдена для удаления");
+            }
+            SubtreeSummary before = summaryOf(subTask);
+            int parentKey = parentKeyOf(subTask);
+            Set<Integer> siblings = childIds.get(parentKey);
+            if (siblings != null) {
+                siblings.remove(id);
+            }
             Epic epic = epics.get(subTask.getEpicId());
+            ArrayDeque<Integer> pending = new ArrayDeque<>();
+            pending.push(id);
+            while (!pending.isEmpty()) {
+                int removedId = pending.pop();
+                SubTask removed = subTasks.remove(removedId);
+                Set<Integer> children = childIds.remove(removedId);
+                if (children != null) {
+                    children.forEach(pending::push);
+                }
+                rollups.remove(removedId);
+                unschedule(removed);
+                unindexTask(removed);
+                dependencies.removeNode(removedId);
+                if (epic != null) {
+                    epic.removeSubTaskId(removedId);
+                }
+                historyManager.remove(removedId);
+                publishEvent(TaskEvent.Type.DELETED, removed);
+            }
+            propagateRollup(parentKey, before, null);
             if (epic != null) {
-                epic.removeSubTaskId(id);
-                updateEpicStatus(epic);
-                updateEpicFields(epic);
+                publishEvent(TaskEvent.Type.UPDATED, epic);
             }
-            historyManager.remove(id);
-        } else {
-            throw new NotFoundException("Подзадача с ID " + id + " не найдена для удаления");
+        } finally {
+            endWrite();
         }
     }
 
-    /*Получение списка всех задач*/
+    /*Получение списка всех задач: копии из одного снимка, по возрастанию id*/
     @Override
     public List<Task> getAllTasks() {
         List<Task> result = new ArrayList<>();
-        for (Task task : tasks.values()) {
+        for (Task task : published.get().getTasks()) {
             result.add(new Task(task));
         }
         return result;
@@ -367,14 +820,18 @@ public class InMemoryTaskManager implements TaskManager {
     /*Получение списка всех эпиков*/
     @Override
     public List<Epic> getAllEpics() {
-        return new ArrayList<>(epics.values());
+        List<Epic> result = new ArrayList<>();
+        for (Epic epic : published.get().getEpics()) {
+            result.add(new Epic(epic));
+        }
+        return result;
     }
 
     /*Получение списка всех подзадач*/
     @Override
     public List<SubTask> getAllSubTasks() {
         List<SubTask> result = new ArrayList<>();
-        for (SubTask subTask : subTasks.values()) {
+        for (SubTask subTask : published.get().getSubTasks()) {
             result.add(new SubTask(subTask));
         }
         return result;
@@ -388,35 +845,731 @@ public class InMemoryTaskManager implements TaskManager {
     /*Получение задач в порядке приоритета (по времени начала)*/
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        return new ArrayList<>(published.get().getPrioritizedTasks());
+    }
+
+    /*Расписание одного исполнителя (null - задачи без исполнителя) по времени начала*/
+    @Override
+    public List<Task> getPrioritizedTasks(String assignee) {
+        SchedulePartition partition = partitions.get(SchedulePartition.keyOf(assignee));
+        return partition != null ? new ArrayList<>(partition.getTasks()) : new ArrayList<>();
+    }
+
+    /*Получение задач с временем начала в окне [from, to); null означает отсутствие границы*/
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return new ArrayList<>();
+        }
+        NavigableSet<Task> window = prioritizedTasks;
+        if (from != null) {
+            window = window.tailSet(timeBound(from), true);
+        }
+        if (to != null) {
+            window = window.headSet(timeBound(to), false);
+        }
+        List<Task> result = new ArrayList<>(window);
+        // Каждая серия дает не больше MAX_OCCURRENCES вхождений: без правой границы бесконечная серия не кончается
+        if (!recurringTasks.isEmpty()) {
+            for (RecurringTask series : recurringTasks.values()) {
+                result.addAll(series.expand(from, to, RecurringTask.MAX_OCCURRENCES));
+            }
+            result.sort(SchedulePartition.START_TIME_ORDER);
+        }
+        return result;
+    }
+
+    /*Получение не более limit ближайших задач, начинающихся не раньше after*/
+    @Override
+    public List<Task> getNextTasks(LocalDateTime after, int limit) {
+        List<Task> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        NavigableSet<Task> tail = after != null ? prioritizedTasks.tailSet(timeBound(after), true) : prioritizedTasks;
+        for (Task task : tail) {
+            if (task.getStartTime() == null || result.size() == limit) {
+                break;
+            }
+            result.add(task);
+        }
+        if (!recurringTasks.isEmpty()) {
+            // У каждой серии достаточно взять limit ближайших вхождений
+            for (RecurringTask series : recurringTasks.values()) {
+                result.addAll(series.expand(after, null, limit));
+            }
+            result.sort(SchedulePartition.START_TIME_ORDER);
+            if (result.size() > limit) {
+                result = new ArrayList<>(result.subList(0, limit));
+            }
+        }
+        return result;
+    }
+
+    /*Поиск самого раннего свободного окна длиной duration между notBefore и notAfter (null - без ограничения)*/
+    @Override
+    public Optional<LocalDateTime> findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return findFreeSlot(duration, notBefore, notAfter, null);
+    }
+
+    /*Поиск свободного окна в расписании исполнителя*/
+    @Override
+    public Optional<LocalDateTime> findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter,
+                                                String assignee) {
+        if (duration == null || duration.isNegative() || notBefore == null) {
+            throw new IllegalArgumentException("Продолжительность и начало поиска обязательны");
+        }
+        SchedulePartition partition = partitions.get(SchedulePartition.keyOf(assignee));
+        NavigableSet<Task> schedule = partition != null ? partition.getTasks() : new TreeSet<>(SchedulePartition.START_TIME_ORDER);
+        LocalDateTime cursor = notBefore;
+        // Задачи исполнителя не пересекаются, поэтому на начало окна может заходить только ближайшая предыдущая
+        Task previous = schedule.lower(timeBound(notBefore));
+        if (previous != null && previous.getEndTime().isAfter(cursor)) {
+            cursor = previous.getEndTime();
+        }
+        Iterator<Task> following = schedule.tailSet(timeBound(notBefore), true).iterator();
+        Task next = following.hasNext() ? following.next() : null;
+        while (true) {
+            LocalDateTime slotEnd = cursor.plus(duration);
+            if (notAfter != null && slotEnd.isAfter(notAfter)) {
+                return Optional.empty();
+            }
+            if (next != null && next.getStartTime().isBefore(slotEnd)) {
+                if (next.getEndTime().isAfter(cursor)) {
+                    cursor = next.getEndTime();
+                }
+                next = following.hasNext() ? following.next() : null;
+                continue;
+            }
+            // Окно свободно от обычных задач; если его занимает вхождение серии, продолжаем после него
+            LocalDateTime busyUntil = null;
+            for (RecurringTask series : seriesOf(assignee)) {
+                for (TaskOccurrence occurrence : series.overlapping(cursor, slotEnd, null)) {
+                    if (busyUntil == null || occurrence.getEndTime().isAfter(busyUntil)) {
+                        busyUntil = occurrence.getEndTime();
+                    }
+                }
+            }
+            if (busyUntil == null) {
+                return Optional.of(cursor);
+            }
+            if (notAfter == null && busyUntil.isAfter(notBefore.plus(RECURRING_SLOT_HORIZON))) {
+                return Optional.empty();
+            }
+            cursor = busyUntil;
+        }
+    }
+
+    /*Создание задачи в самом раннем свободном окне*/
+    @Override
+    public Task createTaskInFreeSlot(String title, String description, TaskStatus status, Duration duration,
+                                     LocalDateTime notBefore, LocalDateTime notAfter) throws TaskOverlapException {
+        return createTaskInFreeSlot(title, description, status, duration, notBefore, notAfter, null);
+    }
+
+    @Override
+    public Task createTaskInFreeSlot(String title, String description, TaskStatus status, Duration duration,
+                                     LocalDateTime notBefore, LocalDateTime notAfter, String assignee)
+            throws TaskOverlapException {
+        Optional<LocalDateTime> slot = findFreeSlot(duration, notBefore, notAfter, assignee);
+        if (slot.isEmpty()) {
+            throw new TaskOverlapException("Нет свободного окна нужной продолжительности в заданном интервале");
+        }
+        return createTask(title, description, status, duration, slot.get(), assignee);
+    }
+
+    /*Добавление задачи с заданным временем начала в расписание*/
+    protected void schedule(Task task) {
+        if (task.getStartTime() != null && prioritizedTasks.add(task)) {
+            partitions.computeIfAbsent(SchedulePartition.keyOf(task.getAssignee()), k -> new SchedulePartition())
+                    .add(task);
+            timers.schedule(task);
+        }
+    }
+
+    /*Удаление задачи из расписания*/
+    protected void unschedule(Task task) {
+        if (task.getStartTime() != null && prioritizedTasks.remove(task)) {
+            timers.cancel(task.getId());
+            String key = SchedulePartition.keyOf(task.getAssignee());
+            SchedulePartition partition = partitions.get(key);
+            if (partition != null) {
+                partition.remove(task);
+                if (partition.isEmpty()) {
+                    partitions.remove(key);
+                }
+            }
+        }
+    }
+
+    /*Зависимость: задача taskId начинается только после окончания dependsOnId (обе - задачи или подзадачи)*/
+    @Override
+    public void addDependency(int taskId, int dependsOnId) throws DependencyCycleException {
+        dependencies.addEdge(dependsOnId, taskId);
+    }
+
+    /*Удаление зависимости*/
+    @Override
+    public void removeDependency(int taskId, int dependsOnId) {
+        if (!dependencies.removeEdge(dependsOnId, taskId)) {
+            throw new NotFoundException("Задача " + taskId + " не зависит от задачи " + dependsOnId);
+        }
+    }
+
+    /*Id задач, после которых начинается задача*/
+    @Override
+    public List<Integer> getDependencies(int taskId) {
+        requireDependencyNode(taskId);
+        return dependencies.getPredecessors(taskId);
+    }
+
+    /*Id задач, ожидающих окончания задачи*/
+    @Override
+    public List<Integer> getDependents(int taskId) {
+        requireDependencyNode(taskId);
+        return dependencies.getSuccessors(taskId);
+    }
+
+    /*Раннее начало задачи в минутах от начала проекта*/
+    @Override
+    public long getEarliestStart(int taskId) {
+        requireDependencyNode(taskId);
+        return dependencies.getEarliestStart(taskId);
+    }
+
+    @Override
+    public CriticalPath getCriticalPath() {
+        return new CriticalPath(dependencies.getLength(), dependencies.getCriticalPath());
+    }
+
+    private void requireDependencyNode(int taskId) {
+        if (!dependencies.contains(taskId)) {
+            throw new NotFoundException("Задача или подзадача с ID " + taskId + " не найдена");
+        }
+    }
+
+    // Продолжительность задачи в минутах для графа зависимостей
+    protected static long durationMinutes(Task task) {
+        return task.getDuration() != null ? task.getDuration().toMinutes() : 0;
+    }
+
+    /*Граница для поиска в prioritizedTasks: сортируется раньше любой задачи с тем же временем начала*/
+    private static Task timeBound(LocalDateTime time) {
+        return new Task(null, null, Integer.MIN_VALUE, null, Duration.ZERO, time);
+    }
+
+    /*Поиск задач, подзадач и эпиков по статусу*/
+    @Override
+    public List<Task> findByStatus(TaskStatus status) {
+        return resolveIds(idsByStatus.get(status));
+    }
+
+    /*Поиск подзадач эпика по индексу эпик -> подзадачи*/
+    @Override
+    public List<SubTask> findByEpic(int epicId) {
+        List<SubTask> result = new ArrayList<>();
+        Set<Integer> ids = subTaskIdsByEpic.get(epicId);
+        if (ids != null) {
+            for (int id : ids) {
+                result.add(new SubTask(subTasks.get(id)));
+            }
+        }
+        return result;
+    }
+
+    /*Поиск по началу названия без учета регистра*/
+    @Override
+    public List<Task> searchByTitlePrefix(String prefix) {
+        List<Task> result = new ArrayList<>();
+        if (prefix == null) {
+            return result;
+        }
+        String key = normalizeTitle(prefix);
+        if (!textIndexed) {
+            for (Task task : allEntities()) {
+                String title = normalizeTitle(task.getTitle());
+                if (title != null && title.startsWith(key)) {
+                    result.add(snapshotOf(task));
+                }
+            }
+            return result;
+        }
+        for (Map.Entry<String, Set<Integer>> entry : idsByTitle.tailMap(key, true).entrySet()) {
+            if (!entry.getKey().startsWith(key)) {
+                break;
+            }
+            result.addAll(resolveIds(entry.getValue()));
+        }
+        return result;
+    }
+
+    /*Полнотекстовый поиск: id задач, подзадач и эпиков, содержащих все слова запроса, по убыванию релевантности*/
+    @Override
+    public List<Integer> search(String query, int limit) {
+        if (textIndexed) {
+            return searchIndex.search(query, limit);
+        }
+        List<Integer> result = new ArrayList<>();
+        List<String> terms = query != null ? SearchIndex.tokenize(query) : List.of();
+        if (terms.isEmpty() || limit <= 0) {
+            return result;
+        }
+        for (Task task : allEntities()) {
+            if (SearchIndex.containsAll(terms, task.getTitle(), task.getDescription())) {
+                result.add(task.getId());
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Задачи, эпики и подзадачи для поиска перебором
+    private Iterable<Task> allEntities() {
+        return () -> Stream.of(tasks.values().stream(), epics.values().stream(), subTasks.values().stream())
+                .<Task>flatMap(stream -> stream)
+                .iterator();
+    }
+
+    /*Буфер событий изменения для подписчиков*/
+    @Override
+    public TaskEventBuffer getEventBuffer() {
+        return eventBuffer;
+    }
+
+    /*Таймеры уведомлений о начале и просрочке задач*/
+    @Override
+    public TaskTimers getTimers() {
+        return timers;
+    }
+
+    /*Менеджер в памяти не держит открытых файлов*/
+    @Override
+    public void close() {
+    }
+
+    /*Изменения сущностей после события since: по одной последней записи на сущность*/
+    @Override
+    public ChangeLog.ChangeSet getChangesSince(long since) {
+        return changeLog.changesSince(since, eventBuffer.getLastSequence());
+    }
+
+    /*Публикация события изменения со снимком сущности и ее новой версией*/
+    protected void publishEvent(TaskEvent.Type type, Task task) {
+        int id = task.getId();
+        long version;
+        Task snapshot;
+        if (type == TaskEvent.Type.DELETED) {
+            Long last = versions.remove(id);
+            version = last != null ? last + 1 : 1;
+            snapshot = null;
+        } else {
+            version = versions.merge(id, 1L, Long::sum);
+            snapshot = snapshotOf(task);
+        }
+        TaskEvent event = eventBuffer.publish(type, TaskEvent.EntityType.of(task), id, version, snapshot);
+        changeLog.record(event);
+        // Копия из события неизменяема, поэтому она же становится версией сущности в снимке
+        draft = (snapshot != null ? draft.with(snapshot) : draft.without(task)).withSeq(event.getSeq());
+        if (writeDepth == 0) {
+            publishSnapshot();
+        }
+    }
+
+    /*Текущий согласованный снимок: O(1), без блокировок и копирования*/
+    @Override
+    public ManagerSnapshot getSnapshot() {
+        return published.get();
+    }
+
+    /*
+    Начало и конец операции записи из нескольких событий: изменения копятся в черновике
+    и становятся видны читателям снимка все сразу
+     */
+    protected void beginWrite() {
+        writeDepth++;
+    }
+
+    protected void endWrite() {
+        if (--writeDepth == 0) {
+            publishSnapshot();
+        }
+    }
+
+    private void publishSnapshot() {
+        draft = draft.withVersion(published.get().getVersion() + 1);
+        published.set(draft);
+    }
+
+    /*Построение снимка заново по текущему состоянию, после изменений в обход событий (загрузка, архивация)*/
+    protected void rebuildSnapshot() {
+        ManagerSnapshot rebuilt = ManagerSnapshot.EMPTY;
+        for (Task task : allEntities()) {
+            rebuilt = rebuilt.with(snapshotOf(task));
+        }
+        draft = rebuilt.withSeq(eventBuffer.getLastSequence());
+        if (writeDepth == 0) {
+            publishSnapshot();
+        }
+    }
+
+    /*
+    Удаление сущности из рабочего набора вместе с ее иерархией, агрегатами и версией, без пересчета эпика и родителей.
+    Для архивации, которая переносит эпик только вместе со всеми его подзадачами; подписчики получают событие удаления
+     */
+    protected void evict(Task task) {
+        int id = task.getId();
+        if (task instanceof Epic) {
+            epics.remove(id);
+        } else {
+            if (task instanceof SubTask) {
+                subTasks.remove(id);
+            } else {
+                tasks.remove(id);
+            }
+            unschedule(task);
+            dependencies.removeNode(id);
+        }
+        childIds.remove(id);
+        rollups.remove(id);
+        unindexTask(task);
+        publishEvent(TaskEvent.Type.DELETED, task);
+    }
+
+    /*Замена в снимке отдельных сущностей, измененных в обход событий без изменения данных (выгрузка текста)*/
+    protected void refreshSnapshot(Collection<? extends Task> entities) {
+        for (Task task : entities) {
+            draft = draft.with(snapshotOf(task));
+        }
+        if (writeDepth == 0) {
+            publishSnapshot();
+        }
+    }
+
+    static Task snapshotOf(Task task) {
+        if (task instanceof SubTask) {
+            return new SubTask((SubTask) task);
+        }
+        if (task instanceof Epic) {
+            return new Epic((Epic) task);
+        }
+        if (task instanceof RecurringTask) {
+            return new RecurringTask((RecurringTask) task);
+        }
+        if (task instanceof TaskOccurrence) {
+            return new TaskOccurrence((TaskOccurrence) task);
+        }
+        return new Task(task);
+    }
+
+    /*Добавление задачи любого типа во вторичные индексы*/
+    protected void indexTask(Task task) {
+        addToIndex(idsByStatus, task.getStatus(), task.getId());
+        if (textIndexed) {
+            addToIndex(idsByTitle, normalizeTitle(task.getTitle()), task.getId());
+            searchIndex.add(task.getId(), task.getTitle(), task.getDescription());
+        }
+        if (task instanceof SubTask) {
+            addToIndex(subTaskIdsByEpic, ((SubTask) task).getEpicId(), task.getId());
+        }
+    }
+
+    /*Удаление задачи любого типа из вторичных индексов*/
+    protected void unindexTask(Task task) {
+        removeFromIndex(idsByStatus, task.getStatus(), task.getId());
+        if (textIndexed) {
+            removeFromIndex(idsByTitle, normalizeTitle(task.getTitle()), task.getId());
+            searchIndex.remove(task.getId());
+        }
+        if (task instanceof SubTask) {
+            removeFromIndex(subTaskIdsByEpic, ((SubTask) task).getEpicId(), task.getId());
+        }
+    }
+
+    private static <K> void addToIndex(Map<K, Set<Integer>> index, K key, int id) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new TreeSet<>()).add(id);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<Integer>> index, K key, int id) {
+        if (key == null) {
+            return;
+        }
+        Set<Integer> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static String normalizeTitle(String title) {
+        return title != null ? title.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /*Получение копий сущностей по набору id из индекса*/
+    private List<Task> resolveIds(Set<Integer> ids) {
+        List<Task> result = new ArrayList<>();
+        if (ids == null) {
+            return result;
+        }
+        for (int id : ids) {
+            Task task = tasks.get(id);
+            if (task != null) {
+                result.add(new Task(task));
+                continue;
+            }
+            SubTask subTask = subTasks.get(id);
+            if (subTask != null) {
+                result.add(new SubTask(subTask));
+                continue;
+            }
+            Epic epic = epics.get(id);
+            if (epic != null) {
+                result.add(new Epic(epic));
+            }
+        }
+        return result;
     }
 
     /*Проверка пересечения двух задач по времени*/
     @Override
     public boolean checkTaskOverlap(Task task1, Task task2) {
-        if (task1 == null || task2 == null ||
-                task1.getStartTime() == null || task2.getStartTime() == null ||
-                task1.getEndTime() == null || task2.getEndTime() == null) {
+        if (task1 == null || task2 == null) {
+            return false;
+        }
+        LocalDateTime start1 = task1.getStartTime();
+        LocalDateTime start2 = task2.getStartTime();
+        LocalDateTime end1 = task1.getEndTime();
+        LocalDateTime end2 = task2.getEndTime();
+        if (start1 == null || start2 == null || end1 == null || end2 == null) {
             return false;
         }
-        // Два отрезка НЕ пересекаются, если конец первого <= начала второго или конец второго <= начала первого
-        return !(task1.getEndTime().isBefore(task2.getStartTime()) || task1.getEndTime().equals(task2.getStartTime()) ||
-                task2.getEndTime().isBefore(task1.getStartTime()) || task2.getEndTime().equals(task1.getStartTime()));
+        // Отрезки пересекаются, если каждый заканчивается позже начала другого
+        return end1.compareTo(start2) > 0 && end2.compareTo(start1) > 0;
     }
 
-    /*Проверка пересечения задачи с любой другой в менеджере*/
+    /*Проверка пересечения задачи с другими задачами того же исполнителя*/
     @Override
     public boolean hasOverlapWithExistingTasks(Task newTask) {
         if (newTask.getStartTime() == null || newTask.getEndTime() == null) {
             return false;
         }
-        return Stream.concat(
-                        Stream.concat(
-                                tasks.values().stream().filter(task -> task.getId() != newTask.getId()),
-                                subTasks.values().stream().filter(task -> task.getId() != newTask.getId())
-                        ),
-                        Stream.empty()
-                )
-                .anyMatch(existingTask -> checkTaskOverlap(newTask, existingTask));
+        SchedulePartition partition = partitions.get(SchedulePartition.keyOf(newTask.getAssignee()));
+        return (partition != null && partition.getIndex().overlaps(ScheduleIndex.toEpochSecond(newTask.getStartTime()),
+                ScheduleIndex.toEpochSecond(newTask.getEndTime()), newTask.getId()))
+                || !findConflictingSeriesIds(newTask, null, 1).isEmpty();
+    }
+
+    /*Id не более limit задач и подзадач того же исполнителя, пересекающихся с задачей, в порядке времени начала*/
+    @Override
+    public List<Integer> findConflictingTaskIds(Task task, int limit) {
+        List<Integer> result = new ArrayList<>();
+        if (task.getStartTime() == null || task.getEndTime() == null || limit <= 0) {
+            return result;
+        }
+        SchedulePartition partition = partitions.get(SchedulePartition.keyOf(task.getAssignee()));
+        if (partition != null) {
+            partition.getIndex().forEachOverlap(ScheduleIndex.toEpochSecond(task.getStartTime()),
+                    ScheduleIndex.toEpochSecond(task.getEndTime()), task.getId(), id -> {
+                        result.add(id);
+                        return result.size() < limit;
+                    });
+        }
+        if (result.size() < limit) {
+            result.addAll(findConflictingSeriesIds(task, null, limit - result.size()));
+        }
+        return result;
+    }
+
+    /*
+    Id повторяющихся задач того же исполнителя, вхождения которых пересекаются с задачей.
+    Вхождение exceptStart серии с id задачи не учитывается: так проверяется перенос самого вхождения.
+     */
+    private List<Integer> findConflictingSeriesIds(Task task, LocalDateTime exceptStart, int limit) {
+        List<Integer> result = new ArrayList<>();
+        if (task.getStartTime() == null || recurringTasks.isEmpty()) {
+            return result;
+        }
+        for (RecurringTask series : seriesOf(task.getAssignee())) {
+            if (result.size() == limit) {
+                break;
+            }
+            boolean sameSeries = series.getId() == task.getId();
+            if (sameSeries && exceptStart == null) {
+                continue;
+            }
+            if (!series.overlapping(task.getStartTime(), task.getEndTime(), sameSeries ? exceptStart : null).isEmpty()) {
+                result.add(series.getId());
+            }
+        }
+        return result;
+    }
+
+    // Повторяющиеся задачи исполнителя (null - без исполнителя)
+    private List<RecurringTask> seriesOf(String assignee) {
+        List<RecurringTask> result = new ArrayList<>();
+        String key = SchedulePartition.keyOf(assignee);
+        for (RecurringTask series : recurringTasks.values()) {
+            if (SchedulePartition.keyOf(series.getAssignee()).equals(key)) {
+                result.add(series);
+            }
+        }
+        return result;
+    }
+
+    /*
+    Создание повторяющейся задачи. Вхождения проверяются на пересечения с задачами и другими сериями исполнителя:
+    с задачами - начиная с первого вхождения, с сериями - на общем периоде повторения после последнего исключения,
+    дальше сочетание вхождений двух серий повторяется.
+     */
+    @Override
+    public RecurringTask createRecurringTask(String title, String description, TaskStatus status, Duration duration,
+                                             LocalDateTime startTime, String assignee, RecurrenceRule rule)
+            throws TaskOverlapException {
+        if (startTime == null || rule == null) {
+            throw new IllegalArgumentException("Для повторяющейся задачи обязательны время начала и правило");
+        }
+        RecurringTask series = new RecurringTask(title, description, nextId, status, duration, startTime, rule);
+        series.setAssignee(assignee);
+        if (series.getDuration().compareTo(Duration.ofDays(rule.getMinGapDays(startTime))) > 0) {
+            throw new IllegalArgumentException("Вхождения серии пересекаются друг с другом");
+        }
+        List<Integer> conflictingIds = new ArrayList<>();
+        SchedulePartition partition = partitions.get(SchedulePartition.keyOf(assignee));
+        if (partition != null) {
+            LocalDateTime last = series.getLastOccurrenceStart();
+            LocalDateTime end = last != null ? last.plus(series.getDuration()) : null;
+            // Задачи исполнителя не пересекаются, поэтому на первое вхождение может заходить только предыдущая
+            Task previous = partition.getTasks().lower(timeBound(startTime));
+            Iterable<Task> candidates = partition.getTasks().tailSet(previous != null ? previous : timeBound(startTime), true);
+            for (Task task : candidates) {
+                if (conflictingIds.size() == MAX_REPORTED_CONFLICTS || (end != null && !task.getStartTime().isBefore(end))) {
+                    break;
+                }
+                if (!series.overlapping(task.getStartTime(), task.getEndTime(), null).isEmpty()) {
+                    conflictingIds.add(task.getId());
+                }
+            }
+        }
+        for (RecurringTask other : seriesOf(assignee)) {
+            if (conflictingIds.size() < MAX_REPORTED_CONFLICTS && seriesOverlap(series, other)) {
+                conflictingIds.add(other.getId());
+            }
+        }
+        if (!conflictingIds.isEmpty()) {
+            throw new TaskOverlapException("Вхождения повторяющейся задачи пересекаются с существующими задачами",
+                    conflictingIds);
+        }
+        nextId++;
+        recurringTasks.put(series.getId(), series);
+        publishEvent(TaskEvent.Type.CREATED, series);
+        return new RecurringTask(series);
+    }
+
+    private static boolean seriesOverlap(RecurringTask a, RecurringTask b) {
+        for (RecurringTask[] pair : new RecurringTask[][]{{a, b}, {b, a}}) {
+            for (Task override : pair[0].getOverrides().values()) {
+                if (!pair[1].overlapping(override.getStartTime(), override.getEndTime(), null).isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        LocalDateTime from = a.getStartTime().isAfter(b.getStartTime()) ? a.getStartTime() : b.getStartTime();
+        for (RecurringTask series : List.of(a, b)) {
+            for (LocalDateTime exception : series.getOverrides().keySet()) {
+                from = exception.isAfter(from) ? exception : from;
+            }
+            if (!series.getCancelled().isEmpty() && series.getCancelled().last().isAfter(from)) {
+                from = series.getCancelled().last();
+            }
+        }
+        long periodA = a.getRule().getPeriodDays();
+        long periodB = b.getRule().getPeriodDays();
+        long commonPeriod = periodA / gcd(periodA, periodB) * periodB;
+        LocalDateTime windowStart = (a.getStartTime().isAfter(b.getStartTime()) ? a.getStartTime() : b.getStartTime())
+                .minus(a.getDuration()).minus(b.getDuration());
+        LocalDateTime windowEnd = from.plusDays(commonPeriod + 1);
+        // Окно ограничено общим периодом серий, поэтому вхождения перебираются по правилу без предела expand;
+        // измененные вхождения проверены выше
+        for (LocalDateTime start : a.getRule().occurrences(a.getStartTime(), windowStart, windowEnd, Integer.MAX_VALUE)) {
+            if (!a.getOverrides().containsKey(start) && !a.getCancelled().contains(start)
+                    && !b.overlapping(start, start.plus(a.getDuration()), null).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    @Override
+    public List<RecurringTask> getAllRecurringTasks() {
+        List<RecurringTask> result = new ArrayList<>();
+        for (RecurringTask series : recurringTasks.values()) {
+            result.add(new RecurringTask(series));
+        }
+        return result;
+    }
+
+    @Override
+    public RecurringTask getRecurringTaskById(int id) {
+        return new RecurringTask(requireSeries(id));
+    }
+
+    @Override
+    public void deleteRecurringTask(int id) {
+        RecurringTask series = recurringTasks.remove(id);
+        if (series == null) {
+            throw new NotFoundException("Повторяющаяся задача с ID " + id + " не найдена для удаления");
+        }
+        publishEvent(TaskEvent.Type.DELETED, series);
+    }
+
+    /*Вхождения серии с фактическим началом в окне [from, to), не больше limit*/
+    @Override
+    public List<TaskOccurrence> getOccurrences(int seriesId, LocalDateTime from, LocalDateTime to, int limit) {
+        return requireSeries(seriesId).expand(from, to, limit);
+    }
+
+    /*Изменение одного вхождения: перенос проверяется на пересечения, в том числе с остальными вхождениями серии*/
+    @Override
+    public void overrideOccurrence(int seriesId, LocalDateTime occurrenceStart, Task changes) throws TaskOverlapException {
+        RecurringTask series = requireOccurrence(seriesId, occurrenceStart);
+        Task override = new Task(changes.getTitle(), changes.getDescription(), seriesId, changes.getStatus(),
+                changes.getDuration(), changes.getStartTime() != null ? changes.getStartTime() : occurrenceStart);
+        override.setAssignee(series.getAssignee());
+        List<Integer> conflictingIds = findConflictingTaskIds(override, MAX_REPORTED_CONFLICTS);
+        conflictingIds.addAll(findConflictingSeriesIds(override, occurrenceStart, 1));
+        if (!conflictingIds.isEmpty()) {
+            throw new TaskOverlapException("Измененное вхождение пересекается по времени с существующими задачами",
+                    conflictingIds);
+        }
+        series.putOverride(occurrenceStart, override);
+        publishEvent(TaskEvent.Type.UPDATED, series);
+    }
+
+    @Override
+    public void cancelOccurrence(int seriesId, LocalDateTime occurrenceStart) {
+        requireOccurrence(seriesId, occurrenceStart).cancelOccurrence(occurrenceStart);
+        publishEvent(TaskEvent.Type.UPDATED, recurringTasks.get(seriesId));
+    }
+
+    private RecurringTask requireSeries(int id) {
+        RecurringTask series = recurringTasks.get(id);
+        if (series == null) {
+            throw new NotFoundException("Повторяющаяся задача с ID " + id + " не найдена");
+        }
+        return series;
+    }
+
+    private RecurringTask requireOccurrence(int seriesId, LocalDateTime occurrenceStart) {
+        RecurringTask series = requireSeries(seriesId);
+        if (!series.isOccurrence(occurrenceStart)) {
+            throw new NotFoundException("У повторяющейся задачи " + seriesId + " нет вхождения " + occurrenceStart);
+        }
+        return series;
     }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package main.java.main.manager;
+
+import main.java.main.model.Epic;
+import main.java.main.model.SubTask;
+import main.java.main.model.Task;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Согласованный на момент публикации снимок задач, эпиков, подзадач и расписания.
+ * Снимок неизменяем: менеджер при записи строит новый из старого, разделяя с ним неизмененные узлы,
+ * и публикует его одной атомарной заменой ссылки. Читатель получает снимок за O(1) без блокировок и копирования
+ * и видит его целиком, даже если параллельно идут изменения.
+ * Сущности внутри снимка - копии, которые больше не меняются; изменять их нельзя.
+ */
+public final class ManagerSnapshot {
+    static final ManagerSnapshot EMPTY = new ManagerSnapshot(PersistentMap.empty(), PersistentMap.empty(),
+            PersistentMap.empty(), PersistentSortedSet.empty(SchedulePartition.START_TIME_ORDER), 0, 0);
+
+    private final PersistentMap<Integer, Task> tasks;
+    private final PersistentMap<Integer, Epic> epics;
+    private final PersistentMap<Integer, SubTask> subTasks;
+    // Задачи и подзадачи со временем начала в порядке расписания
+    private final PersistentSortedSet<Task> prioritized;
+    // Номер последнего события, вошедшего в снимок
+    private final long seq;
+    // Номер публикации: растет при каждой замене снимка, в том числе после изменений без событий
+    private final long version;
+
+    private ManagerSnapshot(PersistentMap<Integer, Task> tasks, PersistentMap<Integer, Epic> epics,
+                            PersistentMap<Integer, SubTask> subTasks, PersistentSortedSet<Task> prioritized,
+                            long seq, long version) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subTasks = subTasks;
+        this.prioritized = prioritized;
+        this.seq = seq;
+        this.version = version;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Task getTask(int id) {
+        return tasks.get(id);
+    }
+
+    public Epic getEpic(int id) {
+        return epics.get(id);
+    }
+
+    public SubTask getSubTask(int id) {
+        return subTasks.get(id);
+    }
+
+    // Коллекции ниже - представления снимка по возрастанию id, без копирования
+    public Collection<Task> getTasks() {
+        return tasks.values();
+    }
+
+    public Collection<Epic> getEpics() {
+        return epics.values();
+    }
+
+    public Collection<SubTask> getSubTasks() {
+        return subTasks.values();
+    }
+
+    public Collection<Task> getPrioritizedTasks() {
+        return prioritized.asCollection();
+    }
+
+    // Задачи расписания с началом не раньше from
+    public Iterator<Task> prioritizedFrom(Task from) {
+        return prioritized.tailIterator(from);
+    }
+
+    /*
+    Снимок с новой версией сущности. Сущность должна быть копией, которую больше никто не изменит.
+    Повторяющиеся задачи и вхождения в снимок не входят
+     */
+    ManagerSnapshot with(Task entity) {
+        int id = entity.getId();
+        if (entity instanceof Epic) {
+            return new ManagerSnapshot(tasks, epics.put(id, (Epic) entity), subTasks, prioritized, seq, version);
+        }
+        if (entity instanceof SubTask) {
+            SubTask previous = subTasks.get(id);
+            return new ManagerSnapshot(tasks, epics, subTasks.put(id, (SubTask) entity),
+                    reschedule(previous, entity), seq, version);
+        }
+        if (entity.getClass() == Task.class) {
+            Task previous = tasks.get(id);
+            return new ManagerSnapshot(tasks.put(id, entity), epics, subTasks, reschedule(previous, entity),
+                    seq, version);
+        }
+        return this;
+    }
+
+    // Снимок без сущности с id и типом entity
+    ManagerSnapshot without(Task entity) {
+        int id = entity.getId();
+        if (entity instanceof Epic) {
+            return new ManagerSnapshot(tasks, epics.remove(id), subTasks, prioritized, seq, version);
+        }
+        if (entity instanceof SubTask) {
+            SubTask previous = subTasks.get(id);
+            return new ManagerSnapshot(tasks, epics, subTasks.remove(id), reschedule(previous, null),
+                    seq, version);
+        }
+        if (entity.getClass() == Task.class) {
+            Task previous = tasks.get(id);
+            return new ManagerSnapshot(tasks.remove(id), epics, subTasks, reschedule(previous, null),
+                    seq, version);
+        }
+        return this;
+    }
+
+    ManagerSnapshot withSeq(long seq) {
+        return seq == this.seq ? this : new ManagerSnapshot(tasks, epics, subTasks, prioritized, seq, version);
+    }
+
+    ManagerSnapshot withVersion(long version) {
+        return new ManagerSnapshot(tasks, epics, subTasks, prioritized, seq, version);
+    }
+
+    private PersistentSortedSet<Task> reschedule(Task previous, Task current) {
+        PersistentSortedSet<Task> result = prioritized;
+        if (previous != null && previous.getStartTime() != null) {
+            result = result.remove(previous);
+        }
+        if (current != null && current.getStartTime() != null) {
+            result = result.add(current);
+        }
+        return result;
+    }
+}
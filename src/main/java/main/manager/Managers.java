@@ -15,4 +15,8 @@ public class Managers {
         return FileBackedTaskManager.loadFromFile(file);
 
     }
+
+    public static FileBackedTaskManager getPagedFileBacked(File file, int textCacheSize) {
+        return FileBackedTaskManager.loadFromFile(file, textCacheSize);
+    }
 }
@@ -0,0 +1,357 @@
+package main.java.main.manager;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Неизменяемое отображение на основе HAMT (hash array mapped trie).
+ * put и remove возвращают новое отображение и копируют только путь от корня до изменяемого листа
+ * (не больше 7 узлов по 32 позиции), остальные узлы разделяются со старой версией,
+ * поэтому все прежние версии остаются целыми и читаются без блокировок.
+ * Хеш разбирается со старших битов, так что обход идет по возрастанию хеша: для Integer - по возрастанию ключей.
+ */
+public final class PersistentMap<K, V> implements Iterable<Map.Entry<K, V>> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    // Уровней 7: шесть по 5 бит и последний по оставшимся 2 битам хеша
+    private static final int LEVELS = 7;
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int hash = hash(key);
+        Node node = root;
+        for (int level = 0; node != null; level++) {
+            int bit = 1 << index(hash, level);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[node.position(bit)];
+            if (slot instanceof Leaf) {
+                Leaf leaf = (Leaf) slot;
+                return leaf.hash == hash ? (V) leaf.get(key) : null;
+            }
+            node = (Node) slot;
+        }
+        return null;
+    }
+
+    public PersistentMap<K, V> put(K key, V value) {
+        Objects.requireNonNull(value, "Значение не может быть null");
+        int hash = hash(key);
+        if (root == null) {
+            Leaf leaf = new Leaf(hash, new Object[]{key}, new Object[]{value});
+            return new PersistentMap<>(Node.single(index(hash, 0), leaf), 1);
+        }
+        boolean[] added = new boolean[1];
+        Node newRoot = put(root, 0, hash, key, value, added);
+        return newRoot == root ? this : new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    public PersistentMap<K, V> remove(K key) {
+        if (root == null) {
+            return this;
+        }
+        Node newRoot = remove(root, 0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+    }
+
+    // Представление значений без копирования; изменение через него не поддерживается
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                Iterator<Map.Entry<K, V>> entries = PersistentMap.this.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        return entries.next().getValue();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(root);
+    }
+
+    private static Node put(Node node, int level, int hash, Object key, Object value, boolean[] added) {
+        int bit = 1 << index(hash, level);
+        int position = node.position(bit);
+        if ((node.bitmap & bit) == 0) {
+            added[0] = true;
+            return node.inserted(bit, position, new Leaf(hash, new Object[]{key}, new Object[]{value}));
+        }
+        Object slot = node.slots[position];
+        Object replacement;
+        if (slot instanceof Node) {
+            replacement = put((Node) slot, level + 1, hash, key, value, added);
+        } else {
+            Leaf leaf = (Leaf) slot;
+            if (leaf.hash == hash) {
+                replacement = leaf.put(key, value, added);
+            } else {
+                added[0] = true;
+                replacement = merge(leaf, new Leaf(hash, new Object[]{key}, new Object[]{value}), level + 1);
+            }
+        }
+        return replacement == slot ? node : node.replaced(position, replacement);
+    }
+
+    // Узел для двух листов с разными хешами, совпавшими на уровнях выше level
+    private static Node merge(Leaf first, Leaf second, int level) {
+        int firstIndex = index(first.hash, level);
+        int secondIndex = index(second.hash, level);
+        if (firstIndex == secondIndex) {
+            return Node.single(firstIndex, merge(first, second, level + 1));
+        }
+        Object[] slots = firstIndex < secondIndex ? new Object[]{first, second} : new Object[]{second, first};
+        return new Node((1 << firstIndex) | (1 << secondIndex), slots);
+    }
+
+    // Новый узел без ключа, null если узел опустел; узел из единственного листа заменяется самим листом
+    private static Node remove(Node node, int level, int hash, Object key) {
+        int bit = 1 << index(hash, level);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int position = node.position(bit);
+        Object slot = node.slots[position];
+        Object replacement;
+        if (slot instanceof Node) {
+            Node child = remove((Node) slot, level + 1, hash, key);
+            if (child == slot) {
+                return node;
+            }
+            replacement = child != null && child.slots.length == 1 && child.slots[0] instanceof Leaf
+                    ? child.slots[0] : child;
+        } else {
+            Leaf leaf = (Leaf) slot;
+            if (leaf.hash != hash) {
+                return node;
+            }
+            replacement = leaf.remove(key);
+            if (replacement == leaf) {
+                return node;
+            }
+        }
+        if (replacement != null) {
+            return node.replaced(position, replacement);
+        }
+        return node.slots.length == 1 ? null : node.removed(bit, position);
+    }
+
+    // Хеш со сдвинутым знаковым битом: обход по возрастанию хеша идет в порядке int со знаком
+    private static int hash(Object key) {
+        return Objects.hashCode(key) ^ Integer.MIN_VALUE;
+    }
+
+    private static int index(int hash, int level) {
+        int shift = 32 - BITS * (level + 1);
+        return (shift >= 0 ? hash >>> shift : hash << -shift) & MASK;
+    }
+
+    // Внутренний узел: bitmap отмечает занятые из 32 позиций, slots хранит только занятые по порядку
+    private static final class Node {
+        final int bitmap;
+        final Object[] slots;
+
+        Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        static Node single(int index, Object slot) {
+            return new Node(1 << index, new Object[]{slot});
+        }
+
+        int position(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        Node inserted(int bit, int position, Object slot) {
+            Object[] copy = new Object[slots.length + 1];
+            System.arraycopy(slots, 0, copy, 0, position);
+            copy[position] = slot;
+            System.arraycopy(slots, position, copy, position + 1, slots.length - position);
+            return new Node(bitmap | bit, copy);
+        }
+
+        Node replaced(int position, Object slot) {
+            Object[] copy = slots.clone();
+            copy[position] = slot;
+            return new Node(bitmap, copy);
+        }
+
+        Node removed(int bit, int position) {
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, position);
+            System.arraycopy(slots, position + 1, copy, position, copy.length - position);
+            return new Node(bitmap & ~bit, copy);
+        }
+    }
+
+    // Лист: ключи с одинаковым полным хешем, обычно один
+    private static final class Leaf {
+        final int hash;
+        final Object[] keys;
+        final Object[] values;
+
+        Leaf(int hash, Object[] keys, Object[] values) {
+            this.hash = hash;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        Object get(Object key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (Objects.equals(keys[i], key)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        Leaf put(Object key, Object value, boolean[] added) {
+            for (int i = 0; i < keys.length; i++) {
+                if (Objects.equals(keys[i], key)) {
+                    if (values[i] == value) {
+                        return this;
+                    }
+                    Object[] newValues = values.clone();
+                    newValues[i] = value;
+                    return new Leaf(hash, keys, newValues);
+                }
+            }
+            added[0] = true;
+            Object[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+            Object[] newValues = Arrays.copyOf(values, values.length + 1);
+            newKeys[keys.length] = key;
+            newValues[values.length] = value;
+            return new Leaf(hash, newKeys, newValues);
+        }
+
+        // Лист без ключа, null если лист опустел, этот же лист если ключа нет
+        Leaf remove(Object key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (Objects.equals(keys[i], key)) {
+                    if (keys.length == 1) {
+                        return null;
+                    }
+                    Object[] newKeys = new Object[keys.length - 1];
+                    Object[] newValues = new Object[keys.length - 1];
+                    System.arraycopy(keys, 0, newKeys, 0, i);
+                    System.arraycopy(keys, i + 1, newKeys, i, newKeys.length - i);
+                    System.arraycopy(values, 0, newValues, 0, i);
+                    System.arraycopy(values, i + 1, newValues, i, newValues.length - i);
+                    return new Leaf(hash, newKeys, newValues);
+                }
+            }
+            return this;
+        }
+    }
+
+    // Обход в глубину с явным стеком позиций
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Deque<Node> nodes = new ArrayDeque<>(LEVELS);
+        private final Deque<Integer> positions = new ArrayDeque<>(LEVELS);
+        private Leaf leaf;
+        private int leafPosition;
+
+        EntryIterator(Node root) {
+            if (root != null) {
+                nodes.push(root);
+                positions.push(0);
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>((K) leaf.keys[leafPosition],
+                    (V) leaf.values[leafPosition]);
+            if (++leafPosition == leaf.keys.length) {
+                advance();
+            }
+            return entry;
+        }
+
+        private void advance() {
+            leaf = null;
+            while (!nodes.isEmpty()) {
+                Node node = nodes.peek();
+                int position = positions.pop();
+                if (position == node.slots.length) {
+                    nodes.pop();
+                    continue;
+                }
+                positions.push(position + 1);
+                Object slot = node.slots[position];
+                if (slot instanceof Leaf) {
+                    leaf = (Leaf) slot;
+                    leafPosition = 0;
+                    return;
+                }
+                nodes.push((Node) slot);
+                positions.push(0);
+            }
+        }
+    }
+}
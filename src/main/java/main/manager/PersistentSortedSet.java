@@ -0,0 +1,211 @@
+package main.java.main.manager;
+
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Неизменяемое упорядоченное множество на основе AVL-дерева с копированием пути.
+ * add и remove возвращают новое множество за O(log n), копируя только узлы от корня до изменяемого,
+ * остальная часть дерева разделяется со старой версией. Элементы, равные по компаратору, считаются одним.
+ */
+public final class PersistentSortedSet<E> implements Iterable<E> {
+    private final Comparator<? super E> comparator;
+    private final Node<E> root;
+
+    private PersistentSortedSet(Comparator<? super E> comparator, Node<E> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    public static <E> PersistentSortedSet<E> empty(Comparator<? super E> comparator) {
+        return new PersistentSortedSet<>(comparator, null);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public boolean contains(E element) {
+        Node<E> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(element, node.element);
+            if (cmp == 0) {
+                return true;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    // Новое множество с элементом; равный по компаратору элемент заменяется
+    public PersistentSortedSet<E> add(E element) {
+        Node<E> newRoot = insert(root, element);
+        return newRoot == root ? this : new PersistentSortedSet<>(comparator, newRoot);
+    }
+
+    public PersistentSortedSet<E> remove(E element) {
+        Node<E> newRoot = delete(root, element);
+        return newRoot == root ? this : new PersistentSortedSet<>(comparator, newRoot);
+    }
+
+    // Представление по возрастанию без копирования
+    public Collection<E> asCollection() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<E> iterator() {
+                return PersistentSortedSet.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return PersistentSortedSet.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new InOrderIterator<>(root, null, comparator);
+    }
+
+    // Элементы не меньше from по возрастанию: спуск к первому за O(log n), дальше по одному
+    public Iterator<E> tailIterator(E from) {
+        return new InOrderIterator<>(root, from, comparator);
+    }
+
+    private Node<E> insert(Node<E> node, E element) {
+        if (node == null) {
+            return new Node<>(element, null, null);
+        }
+        int cmp = comparator.compare(element, node.element);
+        if (cmp == 0) {
+            return node.element == element ? node : new Node<>(element, node.left, node.right);
+        }
+        if (cmp < 0) {
+            Node<E> left = insert(node.left, element);
+            return left == node.left ? node : balance(node.element, left, node.right);
+        }
+        Node<E> right = insert(node.right, element);
+        return right == node.right ? node : balance(node.element, node.left, right);
+    }
+
+    private Node<E> delete(Node<E> node, E element) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = comparator.compare(element, node.element);
+        if (cmp < 0) {
+            Node<E> left = delete(node.left, element);
+            return left == node.left ? node : balance(node.element, left, node.right);
+        }
+        if (cmp > 0) {
+            Node<E> right = delete(node.right, element);
+            return right == node.right ? node : balance(node.element, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        // Узел с двумя потомками заменяется наименьшим элементом правого поддерева
+        Node<E> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.element, node.left, delete(node.right, successor.element));
+    }
+
+    // Новый узел с восстановлением баланса: высоты поддеревьев отличаются не больше чем на 1
+    private static <E> Node<E> balance(E element, Node<E> left, Node<E> right) {
+        int diff = height(left) - height(right);
+        if (diff > 1) {
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left.element, left.left, left.right);
+            }
+            return rotateRight(element, left, right);
+        }
+        if (diff < -1) {
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right.element, right.left, right.right);
+            }
+            return rotateLeft(element, left, right);
+        }
+        return new Node<>(element, left, right);
+    }
+
+    private static <E> Node<E> rotateRight(E element, Node<E> left, Node<E> right) {
+        return new Node<>(left.element, left.left, new Node<>(element, left.right, right));
+    }
+
+    private static <E> Node<E> rotateLeft(E element, Node<E> left, Node<E> right) {
+        return new Node<>(right.element, new Node<>(element, left, right.left), right.right);
+    }
+
+    private static int height(Node<?> node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static int size(Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static final class Node<E> {
+        final E element;
+        final Node<E> left;
+        final Node<E> right;
+        final int height;
+        final int size;
+
+        Node(E element, Node<E> left, Node<E> right) {
+            this.element = element;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    // Обход по возрастанию со стеком пройденных влево узлов
+    private static final class InOrderIterator<E> implements Iterator<E> {
+        private final Deque<Node<E>> stack = new ArrayDeque<>();
+
+        InOrderIterator(Node<E> root, E from, Comparator<? super E> comparator) {
+            Node<E> node = root;
+            while (node != null) {
+                if (from == null || comparator.compare(node.element, from) >= 0) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<E> node = stack.pop();
+            for (Node<E> next = node.right; next != null; next = next.left) {
+                stack.push(next);
+            }
+            return node.element;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package main.java.main.manager;
+
+import java.util.Objects;
+
+/**
+ * Конфликт задачи из пакета: пересечение по времени с уже существующей задачей
+ * (conflictingTaskId) или с другой задачей того же пакета (conflictingIndex).
+ * index и conflictingIndex - позиции задач в пакете.
+ */
+public class ScheduleConflict {
+    private final int index;
+    private final Integer conflictingTaskId;
+    private final Integer conflictingIndex;
+
+    private ScheduleConflict(int index, Integer conflictingTaskId, Integer conflictingIndex) {
+        this.index = index;
+        this.conflictingTaskId = conflictingTaskId;
+        this.conflictingIndex = conflictingIndex;
+    }
+
+    public static ScheduleConflict withExisting(int index, int taskId) {
+        return new ScheduleConflict(index, taskId, null);
+    }
+
+    public static ScheduleConflict withinBatch(int index, int otherIndex) {
+        return new ScheduleConflict(index, null, otherIndex);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Integer getConflictingTaskId() {
+        return conflictingTaskId;
+    }
+
+    public Integer getConflictingIndex() {
+        return conflictingIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ScheduleConflict that = (ScheduleConflict) o;
+        return index == that.index && Objects.equals(conflictingTaskId, that.conflictingTaskId)
+                && Objects.equals(conflictingIndex, that.conflictingIndex);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, conflictingTaskId, conflictingIndex);
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduleConflict{" +
+                "index=" + index +
+                ", conflictingTaskId=" + conflictingTaskId +
+                ", conflictingIndex=" + conflictingIndex +
+                '}';
+    }
+}
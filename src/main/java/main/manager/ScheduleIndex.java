@@ -0,0 +1,166 @@
+package main.java.main.manager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Компактное расписание задач: начала и окончания в секундах эпохи лежат в параллельных массивах примитивов,
+ * отсортированных по (начало, id), как и prioritizedTasks. Объекты Task остаются представлением для выдачи,
+ * а проверка пересечений идет по массивам без создания объектов.
+ */
+class ScheduleIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private int[] ids = new int[INITIAL_CAPACITY];
+    // Наибольшее окончание среди позиций 0..i: позволяет прекратить просмотр влево, когда пересечений быть не может
+    private long[] maxEnds = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    void add(int id, long start, long end) {
+        int position = find(start, id);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            maxEnds = Arrays.copyOf(maxEnds, capacity);
+        }
+        int tail = size - position;
+        System.arraycopy(starts, position, starts, position + 1, tail);
+        System.arraycopy(ends, position, ends, position + 1, tail);
+        System.arraycopy(ids, position, ids, position + 1, tail);
+        starts[position] = start;
+        ends[position] = end;
+        ids[position] = id;
+        size++;
+        updateMaxEnds(position);
+    }
+
+    void remove(int id, long start) {
+        int position = find(start, id);
+        if (position < 0) {
+            return;
+        }
+        int tail = size - position - 1;
+        System.arraycopy(starts, position + 1, starts, position, tail);
+        System.arraycopy(ends, position + 1, ends, position, tail);
+        System.arraycopy(ids, position + 1, ids, position, tail);
+        size--;
+        updateMaxEnds(position);
+    }
+
+    /*
+    Есть ли задача, кроме excludeId, пересекающая полуинтервал [start, end).
+    Кандидаты - задачи, начавшиеся до end; они просматриваются от поздних к ранним, пока максимум их окончаний больше start
+     */
+    boolean overlaps(long start, long end, int excludeId) {
+        for (int i = lowerBound(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+            if (ends[i] > start && ids[i] != excludeId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+    Обход id всех задач, кроме excludeId, пересекающих [start, end), от ранних начал к поздним.
+    Раньше первой позиции, где максимум окончаний больше start, пересечений нет, поэтому обход начинается с нее.
+    Обход прекращается, когда action вернет false
+     */
+    void forEachOverlap(long start, long end, int excludeId, IntPredicate action) {
+        int last = lowerBound(end);
+        for (int i = firstEndingAfter(start); i < last; i++) {
+            if (ends[i] > start && ids[i] != excludeId && !action.test(ids[i])) {
+                return;
+            }
+        }
+    }
+
+    // Независимая копия для чтения из других потоков, пока менеджер продолжает работу
+    ScheduleIndex copy() {
+        ScheduleIndex copy = new ScheduleIndex();
+        int capacity = Math.max(INITIAL_CAPACITY, size);
+        copy.starts = Arrays.copyOf(starts, capacity);
+        copy.ends = Arrays.copyOf(ends, capacity);
+        copy.ids = Arrays.copyOf(ids, capacity);
+        copy.maxEnds = Arrays.copyOf(maxEnds, capacity);
+        copy.size = size;
+        return copy;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    // Позиция записи (start, id) или -(точка вставки) - 1
+    private int find(long start, int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = starts[mid] != start ? Long.compare(starts[mid], start) : Integer.compare(ids[mid], id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // Первая позиция с началом не раньше time
+    private int lowerBound(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Первая позиция, максимум окончаний до которой включительно больше time
+    private int firstEndingAfter(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (maxEnds[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void updateMaxEnds(int from) {
+        long max = from > 0 ? maxEnds[from - 1] : Long.MIN_VALUE;
+        for (int i = from; i < size; i++) {
+            max = Math.max(max, ends[i]);
+            maxEnds[i] = max;
+        }
+    }
+}
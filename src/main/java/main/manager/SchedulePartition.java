@@ -0,0 +1,58 @@
+package main.java.main.manager;
+
+import main.java.main.model.Task;
+
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Расписание одного исполнителя: задачи по времени начала и их компактный индекс для проверки пересечений.
+ * Задачи разных исполнителей друг другу не мешают, поэтому проверка затрагивает только одну часть.
+ */
+class SchedulePartition {
+    // Порядок задач в расписании: по времени начала, затем по id; задачи без времени в конце
+    static final Comparator<Task> START_TIME_ORDER = (task1, task2) -> {
+        if (task1.getStartTime() == null && task2.getStartTime() == null) {
+            return Integer.compare(task1.getId(), task2.getId());
+        }
+        if (task1.getStartTime() == null) return 1;
+        if (task2.getStartTime() == null) return -1;
+        int timeComparison = task1.getStartTime().compareTo(task2.getStartTime());
+        if (timeComparison != 0) return timeComparison;
+        return Integer.compare(task1.getId(), task2.getId());
+    };
+
+    private final NavigableSet<Task> tasks = new TreeSet<>(START_TIME_ORDER);
+    private final ScheduleIndex index = new ScheduleIndex();
+
+    // Ключ части расписания: исполнитель или пустая строка для задач без исполнителя
+    static String keyOf(String assignee) {
+        return assignee != null ? assignee : "";
+    }
+
+    void add(Task task) {
+        if (tasks.add(task)) {
+            index.add(task.getId(), ScheduleIndex.toEpochSecond(task.getStartTime()),
+                    ScheduleIndex.toEpochSecond(task.getEndTime()));
+        }
+    }
+
+    void remove(Task task) {
+        if (tasks.remove(task)) {
+            index.remove(task.getId(), ScheduleIndex.toEpochSecond(task.getStartTime()));
+        }
+    }
+
+    boolean isEmpty() {
+        return tasks.isEmpty();
+    }
+
+    NavigableSet<Task> getTasks() {
+        return tasks;
+    }
+
+    ScheduleIndex getIndex() {
+        return index;
+    }
+}
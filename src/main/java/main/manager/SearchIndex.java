@@ -0,0 +1,158 @@
+package main.java.main.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Инвертированный индекс по названиям и описаниям задач.
+ * Слова выделяются по буквам и цифрам любого алфавита, приводятся к нижнему регистру, "ё" заменяется на "е".
+ * Поиск возвращает id документов, содержащих все слова запроса, по убыванию tf-idf.
+ */
+class SearchIndex {
+    // Вес слова из названия относительно слова из описания
+    private static final int TITLE_WEIGHT = 2;
+
+    // слово -> (id -> взвешенная частота слова в документе)
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+    // id -> различные слова документа, нужны для удаления
+    private final Map<Integer, String[]> documentTerms = new HashMap<>();
+
+    void add(int id, String title, String description) {
+        remove(id);
+        Map<String, Integer> frequencies = new HashMap<>();
+        countTerms(title, TITLE_WEIGHT, frequencies);
+        countTerms(description, 1, frequencies);
+        if (frequencies.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(id, entry.getValue());
+        }
+        documentTerms.put(id, frequencies.keySet().toArray(new String[0]));
+    }
+
+    void remove(int id) {
+        String[] terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Integer, Integer> documents = postings.get(term);
+            if (documents != null) {
+                documents.remove(id);
+                if (documents.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    List<Integer> search(String query, int limit) {
+        List<Integer> result = new ArrayList<>();
+        if (query == null || limit <= 0) {
+            return result;
+        }
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return result;
+        }
+        List<Map<Integer, Integer>> lists = new ArrayList<>(terms.size());
+        Map<Integer, Integer> smallest = null;
+        for (String term : terms) {
+            Map<Integer, Integer> documents = postings.get(term);
+            if (documents == null) {
+                return result;
+            }
+            lists.add(documents);
+            if (smallest == null || documents.size() < smallest.size()) {
+                smallest = documents;
+            }
+        }
+        double[] idf = new double[lists.size()];
+        int totalDocuments = documentTerms.size();
+        for (int i = 0; i < lists.size(); i++) {
+            idf[i] = Math.log(1.0 + (double) totalDocuments / lists.get(i).size());
+        }
+
+        // Куча из limit лучших результатов: на вершине худший из отобранных
+        PriorityQueue<ScoredId> top = new PriorityQueue<>(Math.min(limit, smallest.size()) + 1);
+        candidates:
+        for (int id : smallest.keySet()) {
+            double score = 0;
+            for (int i = 0; i < lists.size(); i++) {
+                Integer frequency = lists.get(i).get(id);
+                if (frequency == null) {
+                    continue candidates;
+                }
+                score += frequency * idf[i];
+            }
+            top.add(new ScoredId(id, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        while (!top.isEmpty()) {
+            result.add(top.poll().id);
+        }
+        // Из кучи результаты выходят от худшего к лучшему
+        Collections.reverse(result);
+        return result;
+    }
+
+    static List<String> tokenize(String text) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        countTerms(text, 1, frequencies);
+        return new ArrayList<>(frequencies.keySet());
+    }
+
+    // Проверка без индекса: содержат ли название и описание все слова запроса
+    static boolean containsAll(List<String> terms, String title, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        countTerms(title, 1, frequencies);
+        countTerms(description, 1, frequencies);
+        return frequencies.keySet().containsAll(terms);
+    }
+
+    private static void countTerms(String text, int weight, Map<String, Integer> frequencies) {
+        if (text == null) {
+            return;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                current.append(foldCase(c));
+            } else if (current.length() > 0) {
+                frequencies.merge(current.toString(), weight, Integer::sum);
+                current.setLength(0);
+            }
+        }
+    }
+
+    private static char foldCase(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    private static class ScoredId implements Comparable<ScoredId> {
+        private final int id;
+        private final double score;
+
+        ScoredId(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        // Меньше - хуже: ниже оценка, а при равной оценке больше id
+        @Override
+        public int compareTo(ScoredId other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : Integer.compare(other.id, id);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package main.java.main.manager;
+
+import main.java.main.model.Task;
+import main.java.main.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Сводка по поддереву подзадач: число элементов, число элементов в каждом статусе,
+ * суммарная продолжительность, самое раннее начало и самое позднее окончание.
+ * Для эпика поддерево - все его подзадачи, для подзадачи - она сама и все вложенные в нее.
+ * Статус поддерева выводится так же, как статус эпика: общий статус всех элементов или IN_PROGRESS.
+ */
+public class SubtreeSummary {
+    static final SubtreeSummary EMPTY = new SubtreeSummary(0, new int[TaskStatus.values().length], Duration.ZERO,
+            null, null);
+
+    private final int count;
+    private final int[] statusCounts;
+    private final Duration duration;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+
+    SubtreeSummary(int count, int[] statusCounts, Duration duration, LocalDateTime startTime, LocalDateTime endTime) {
+        this.count = count;
+        this.statusCounts = statusCounts;
+        this.duration = duration;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    // Сводка элемента с его вложенными: собственные поля плюс свертка дочерних
+    static SubtreeSummary of(Task task, TaskRollup children) {
+        SubtreeSummary nested = children != null ? children.toSummary() : EMPTY;
+        int[] statusCounts = nested.statusCounts.clone();
+        statusCounts[task.getStatus().ordinal()]++;
+        Duration duration = task.getDuration() != null ? nested.duration.plus(task.getDuration()) : nested.duration;
+        LocalDateTime start = earliest(task.getStartTime(), nested.startTime);
+        LocalDateTime end = task.getStartTime() != null ? latest(task.getEndTime(), nested.endTime) : nested.endTime;
+        return new SubtreeSummary(nested.count + 1, statusCounts, duration, start, end);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Map<TaskStatus, Integer> getStatusCounts() {
+        Map<TaskStatus, Integer> result = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            result.put(status, statusCounts[status.ordinal()]);
+        }
+        return result;
+    }
+
+    int getStatusCount(TaskStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    public TaskStatus getStatus() {
+        for (TaskStatus status : TaskStatus.values()) {
+            if (statusCounts[status.ordinal()] == count && count > 0) {
+                return status;
+            }
+        }
+        return count == 0 ? TaskStatus.NEW : TaskStatus.IN_PROGRESS;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        return a == null ? b : b == null || a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a == null ? b : b == null || a.isAfter(b) ? a : b;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SubtreeSummary that = (SubtreeSummary) o;
+        return count == that.count && Arrays.equals(statusCounts, that.statusCounts)
+                && duration.equals(that.duration) && Objects.equals(startTime, that.startTime)
+                && Objects.equals(endTime, that.endTime);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(count, Arrays.hashCode(statusCounts), duration, startTime, endTime);
+    }
+}
@@ -0,0 +1,108 @@
+package main.java.main.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Архив завершенных задач: файл только на дописывание с CSV-строками в формате FileBackedTaskManager.
+ * В памяти хранится лишь смещение записи по id, сама запись читается с диска при обращении.
+ * Формат записи: длина строки в байтах и байты UTF-8.
+ */
+class TaskArchive implements AutoCloseable {
+    private final File file;
+    private final RandomAccessFile data;
+    private final Map<Integer, Long> offsets = new HashMap<>();
+    private final Map<Integer, List<Integer>> subTaskIdsByEpic = new HashMap<>();
+    private int maxId = 0;
+
+    TaskArchive(File file) {
+        this.file = file;
+        try {
+            this.data = new RandomAccessFile(file, "rw");
+            long offset = 0;
+            long length = data.length();
+            while (offset < length) {
+                data.seek(offset);
+                index(readLine(), offset);
+                offset = data.getFilePointer();
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка при чтении архива: " + file.getPath(), e);
+        }
+    }
+
+    /*Добавление CSV-строки задачи в конец архива*/
+    synchronized void append(String line) {
+        try {
+            long offset = data.length();
+            data.seek(offset);
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+            index(line, offset);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в архив: " + file.getPath(), e);
+        }
+    }
+
+    /*CSV-строка задачи из архива или null, если задача не архивирована*/
+    synchronized String read(int id) {
+        Long offset = offsets.get(id);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            data.seek(offset);
+            return readLine();
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка при чтении архива: " + file.getPath(), e);
+        }
+    }
+
+    synchronized boolean contains(int id) {
+        return offsets.containsKey(id);
+    }
+
+    synchronized List<Integer> getSubTaskIds(int epicId) {
+        return new ArrayList<>(subTaskIdsByEpic.getOrDefault(epicId, List.of()));
+    }
+
+    synchronized int size() {
+        return offsets.size();
+    }
+
+    synchronized int getMaxId() {
+        return maxId;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            data.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при закрытии архива: " + file.getPath(), e);
+        }
+    }
+
+    private void index(String line, long offset) {
+        String[] parts = line.split(",", 7);
+        int id = Integer.parseInt(parts[0]);
+        offsets.put(id, offset);
+        maxId = Math.max(maxId, id);
+        if ("SUBTASK".equals(parts[1])) {
+            subTaskIdsByEpic.computeIfAbsent(Integer.parseInt(parts[5]), k -> new ArrayList<>()).add(id);
+        }
+    }
+
+    private String readLine() throws IOException {
+        byte[] bytes = new byte[data.readInt()];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
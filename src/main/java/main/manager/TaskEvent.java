@@ -0,0 +1,88 @@
+package main.java.main.manager;
+
+import main.java.main.model.Epic;
+import main.java.main.model.RecurringTask;
+import main.java.main.model.SubTask;
+import main.java.main.model.Task;
+
+/**
+ * Событие изменения сущности менеджера: создание, обновление или удаление,
+ * а также уведомление о наступлении времени начала задачи или о просроченном окончании.
+ * Содержит глобальный порядковый номер, версию сущности и снимок ее состояния (null для удаления).
+ */
+public class TaskEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // Уведомления таймеров: задача не меняется, версия равна 0
+        STARTED,
+        OVERDUE
+    }
+
+    public enum EntityType {
+        TASK,
+        SUBTASK,
+        EPIC,
+        RECURRING;
+
+        static EntityType of(Task task) {
+            if (task instanceof RecurringTask) {
+                return RECURRING;
+            }
+            return task instanceof SubTask ? SUBTASK : task instanceof Epic ? EPIC : TASK;
+        }
+    }
+
+    private final long seq;
+    private final Type type;
+    private final EntityType entityType;
+    private final int id;
+    private final long version;
+    private final Task entity;
+
+    public TaskEvent(long seq, Type type, EntityType entityType, int id, long version, Task entity) {
+        this.seq = seq;
+        this.type = type;
+        this.entityType = entityType;
+        this.id = id;
+        this.version = version;
+        this.entity = entity;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Task getEntity() {
+        return entity;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskEvent{" +
+                "seq=" + seq +
+                ", type=" + type +
+                ", entityType=" + entityType +
+                ", id=" + id +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package main.java.main.manager;
+
+import main.java.main.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Кольцевой буфер последних событий изменения с ограниченной емкостью.
+ * Менеджер публикует события, подписчики читают их из других потоков начиная с известного номера.
+ * Читатель, отставший больше чем на емкость буфера, получает признак разрыва и должен перечитать состояние.
+ */
+public class TaskEventBuffer {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final TaskEvent[] ring;
+    private long lastSeq = 0;
+
+    public TaskEventBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TaskEventBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Емкость буфера должна быть положительной");
+        }
+        this.ring = new TaskEvent[capacity];
+    }
+
+    // Публикация события: номер присваивается буфером, самое старое событие вытесняется
+    public synchronized TaskEvent publish(TaskEvent.Type type, TaskEvent.EntityType entityType, int id,
+                                          long version, Task entity) {
+        TaskEvent event = new TaskEvent(++lastSeq, type, entityType, id, version, entity);
+        ring[(int) (event.getSeq() % ring.length)] = event;
+        notifyAll();
+        return event;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSeq;
+    }
+
+    // Номер самого старого события, которое еще хранится в буфере
+    public synchronized long getOldestSequence() {
+        return Math.max(1, lastSeq - ring.length + 1);
+    }
+
+    // Можно ли продолжить чтение после события afterSeq без потери событий
+    public synchronized boolean canResumeFrom(long afterSeq) {
+        return afterSeq >= 0 && afterSeq <= lastSeq && afterSeq + 1 >= getOldestSequence();
+    }
+
+    // События с номером больше afterSeq, не больше max штук
+    public synchronized List<TaskEvent> readAfter(long afterSeq, int max) {
+        List<TaskEvent> result = new ArrayList<>();
+        long from = Math.max(afterSeq + 1, getOldestSequence());
+        for (long seq = from; seq <= lastSeq && result.size() < max; seq++) {
+            result.add(ring[(int) (seq % ring.length)]);
+        }
+        return result;
+    }
+
+    // Ожидание событий после afterSeq не дольше timeoutMillis; пустой список означает таймаут
+    public synchronized List<TaskEvent> awaitAfter(long afterSeq, int max, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (lastSeq <= afterSeq) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return new ArrayList<>();
+            }
+            wait(remaining);
+        }
+        return readAfter(afterSeq, max);
+    }
+}
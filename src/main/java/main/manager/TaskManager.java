@@ -1,19 +1,26 @@
 package main.java.main.manager;
 
 import main.java.main.model.Epic;
+import main.java.main.model.RecurrenceRule;
+import main.java.main.model.RecurringTask;
 import main.java.main.model.SubTask;
 import main.java.main.model.Task;
+import main.java.main.model.TaskOccurrence;
 import main.java.main.model.TaskStatus;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface TaskManager {
     Task createTask(String title, String description, TaskStatus status) throws TaskOverlapException;
 
     Task createTask(String title, String description, TaskStatus status, Duration duration, LocalDateTime startTime) throws TaskOverlapException;
 
+    Task createTask(String title, String description, TaskStatus status, Duration duration, LocalDateTime startTime,
+                    String assignee) throws TaskOverlapException;
+
     void deleteAllTasks();
 
     void deleteAllEpics();
@@ -26,14 +33,30 @@ public interface TaskManager {
 
     SubTask getSubTaskById(int id) throws NotFoundException;
 
+    ManagerSnapshot getSnapshot();
+
     void addEpic(String title, String description);
 
     void addSubTask(String title, String description, int epicId, TaskStatus status) throws TaskOverlapException;
 
     void addSubTask(String title, String description, int epicId, TaskStatus status, Duration duration, LocalDateTime startTime) throws TaskOverlapException;
 
+    void addSubTask(String title, String description, int epicId, TaskStatus status, Duration duration,
+                    LocalDateTime startTime, String assignee) throws TaskOverlapException;
+
     List<SubTask> getSubTasks(int epicId);
 
+    SubTask addChildSubTask(int parentId, String title, String description, TaskStatus status, Duration duration,
+                            LocalDateTime startTime, String assignee) throws TaskOverlapException;
+
+    List<SubTask> getChildren(int id);
+
+    SubTask moveSubTask(int id, int epicId, int parentId);
+
+    SubTask moveSubTask(int id, int epicId, int parentId, SubTask changes) throws TaskOverlapException;
+
+    SubtreeSummary getSubtreeSummary(int id);
+
     void updateTask(Task updatedTask) throws TaskOverlapException;
 
     void updateEpic(Epic updatedEpic);
@@ -56,7 +79,75 @@ public interface TaskManager {
 
     List<Task> getPrioritizedTasks();
 
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    List<Task> getPrioritizedTasks(String assignee);
+
+    List<Task> getNextTasks(LocalDateTime after, int limit);
+
+    Optional<LocalDateTime> findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter);
+
+    Optional<LocalDateTime> findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter,
+                                         String assignee);
+
+    Task createTaskInFreeSlot(String title, String description, TaskStatus status, Duration duration,
+                              LocalDateTime notBefore, LocalDateTime notAfter) throws TaskOverlapException;
+
+    Task createTaskInFreeSlot(String title, String description, TaskStatus status, Duration duration,
+                              LocalDateTime notBefore, LocalDateTime notAfter, String assignee) throws TaskOverlapException;
+
+    List<Task> findByStatus(TaskStatus status);
+
+    List<SubTask> findByEpic(int epicId);
+
+    List<Task> searchByTitlePrefix(String prefix);
+
+    List<Integer> search(String query, int limit);
+
+    TaskEventBuffer getEventBuffer();
+
+    TaskTimers getTimers();
+
+    ChangeLog.ChangeSet getChangesSince(long since);
+
     boolean checkTaskOverlap(Task task1, Task task2);
 
     boolean hasOverlapWithExistingTasks(Task task);
+
+    List<Integer> findConflictingTaskIds(Task task, int limit);
+
+    List<Task> createTasks(List<Task> batch) throws TaskOverlapException;
+
+    List<ScheduleConflict> findBatchConflicts(List<Task> batch);
+
+    void addDependency(int taskId, int dependsOnId) throws DependencyCycleException;
+
+    void removeDependency(int taskId, int dependsOnId);
+
+    List<Integer> getDependencies(int taskId);
+
+    List<Integer> getDependents(int taskId);
+
+    long getEarliestStart(int taskId);
+
+    CriticalPath getCriticalPath();
+
+    RecurringTask createRecurringTask(String title, String description, TaskStatus status, Duration duration,
+                                      LocalDateTime startTime, String assignee, RecurrenceRule rule)
+            throws TaskOverlapException;
+
+    List<RecurringTask> getAllRecurringTasks();
+
+    RecurringTask getRecurringTaskById(int id);
+
+    void deleteRecurringTask(int id);
+
+    List<TaskOccurrence> getOccurrences(int seriesId, LocalDateTime from, LocalDateTime to, int limit);
+
+    void overrideOccurrence(int seriesId, LocalDateTime occurrenceStart, Task changes) throws TaskOverlapException;
+
+    void cancelOccurrence(int seriesId, LocalDateTime occurrenceStart);
+
+    // Освобождение открытых менеджером файлов; после закрытия менеджер не используется
+    void close();
 }
\ No newline at end of file
@@ -1,11 +1,26 @@
 package main.java.main.manager;
 
+import java.util.List;
+
 public class TaskOverlapException extends Exception {
+    // Id задач, мешающих созданию или обновлению; пустой, если конкретные задачи не известны
+    private final List<Integer> conflictingIds;
+
     public TaskOverlapException(String message) {
+        this(message, List.of());
+    }
+
+    public TaskOverlapException(String message, List<Integer> conflictingIds) {
         super(message);
+        this.conflictingIds = List.copyOf(conflictingIds);
     }
 
     public TaskOverlapException(String message, Throwable cause) {
         super(message, cause);
+        this.conflictingIds = List.of();
+    }
+
+    public List<Integer> getConflictingIds() {
+        return conflictingIds;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package main.java.main.manager;
+
+import main.java.main.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.TreeMap;
+
+/**
+ * Свертка сводок дочерних поддеревьев эпика или подзадачи.
+ * Счетчики и продолжительность складываются, начала и окончания хранятся мультимножествами,
+ * поэтому замена сводки одного дочернего элемента стоит O(log k) по числу детей k, без обхода остальных.
+ */
+class TaskRollup {
+    private int count;
+    private final int[] statusCounts = new int[TaskStatus.values().length];
+    private Duration duration = Duration.ZERO;
+    // Начала и окончания дочерних поддеревьев с кратностью
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+
+    void add(SubtreeSummary child) {
+        apply(child, 1);
+    }
+
+    void remove(SubtreeSummary child) {
+        apply(child, -1);
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    SubtreeSummary toSummary() {
+        return new SubtreeSummary(count, statusCounts.clone(), duration,
+                starts.isEmpty() ? null : starts.firstKey(), ends.isEmpty() ? null : ends.lastKey());
+    }
+
+    private void apply(SubtreeSummary child, int sign) {
+        count += sign * child.getCount();
+        for (TaskStatus status : TaskStatus.values()) {
+            statusCounts[status.ordinal()] += sign * child.getStatusCount(status);
+        }
+        duration = sign > 0 ? duration.plus(child.getDuration()) : duration.minus(child.getDuration());
+        update(starts, child.getStartTime(), sign);
+        update(ends, child.getEndTime(), sign);
+    }
+
+    private static void update(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime key, int sign) {
+        if (key != null) {
+            multiset.merge(key, sign, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package main.java.main.manager;
+
+import main.java.main.model.TaskTextSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Файл названий и описаний задач с доступом по смещению записи.
+ * Записи только дописываются в конец; прочитанные тексты держатся в LRU-кэше ограниченного размера.
+ * Формат записи: длина названия в байтах (-1 для null), байты UTF-8, затем так же описание.
+ */
+class TaskTextStore implements TaskTextSource, AutoCloseable {
+    private final File file;
+    private final RandomAccessFile data;
+    private final Map<Long, String[]> cache;
+
+    TaskTextStore(File file, int cacheSize) {
+        this.file = file;
+        try {
+            this.data = new RandomAccessFile(file, "rw");
+            // Файл пересобирается при каждой загрузке из CSV, старые записи не нужны
+            data.setLength(0);
+        } catch (IOException e) {
+            throw new ManagerLoadException("Не удалось открыть файл текстов: " + file.getPath(), e);
+        }
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /*Добавление записи, возвращает ее смещение*/
+    synchronized long append(String title, String description) {
+        try {
+            long offset = data.length();
+            data.seek(offset);
+            writeString(title);
+            writeString(description);
+            return offset;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в файл текстов: " + file.getPath(), e);
+        }
+    }
+
+    @Override
+    public String getTitle(long offset) {
+        return get(offset)[0];
+    }
+
+    @Override
+    public String getDescription(long offset) {
+        return get(offset)[1];
+    }
+
+    /*Чтение записи с диска в обход кэша: ни содержимое, ни порядок вытеснения кэша не меняются*/
+    synchronized String[] readUncached(long offset) {
+        return read(offset);
+    }
+
+    synchronized int getCachedCount() {
+        return cache.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            data.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при закрытии файла текстов: " + file.getPath(), e);
+        }
+    }
+
+    private synchronized String[] get(long offset) {
+        String[] text = cache.get(offset);
+        if (text == null) {
+            text = read(offset);
+            cache.put(offset, text);
+        }
+        return text;
+    }
+
+    private String[] read(long offset) {
+        try {
+            data.seek(offset);
+            return new String[]{readString(), readString()};
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка при чтении файла текстов: " + file.getPath(), e);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private String readString() throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
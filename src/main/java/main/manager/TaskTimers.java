@@ -0,0 +1,147 @@
+package main.java.main.manager;
+
+import main.java.main.model.Task;
+import main.java.main.model.TaskStatus;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Уведомления о наступлении времени начала задачи (STARTED) и о прошедшем окончании незавершенной задачи (OVERDUE).
+ * Менеджер передает сюда каждое изменение расписания, таймеры хранятся в колесе с тиком в секунду,
+ * поэтому перенос и удаление задачи стоят O(1) и не требуют пересмотра расписания.
+ * Уведомления публикуются в буфер событий (а через него в /events) и передаются слушателям в потоке тиков.
+ * В журнал изменений они не попадают, но занимают номера общего потока, и журнал принимает их номера как точку продолжения.
+ * Регистрируются только будущие сроки: при загрузке старых задач поток уведомлений не переполняется.
+ */
+public class TaskTimers {
+    public static final long TICK_MILLIS = 1000;
+
+    private final TaskEventBuffer eventBuffer;
+    private final Clock clock;
+    private final TimingWheel<Pending> wheel;
+    private final Map<Integer, Pending[]> pendingById = new HashMap<>();
+    private final List<Consumer<TaskEvent>> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledFuture<?> ticker;
+
+    public TaskTimers(TaskEventBuffer eventBuffer, Clock clock) {
+        this.eventBuffer = eventBuffer;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(clock.millis() / TICK_MILLIS);
+    }
+
+    // Слушатель вызывается в потоке тиков после публикации события в буфер
+    public void addListener(Consumer<TaskEvent> listener) {
+        listeners.add(listener);
+    }
+
+    // Запуск тиков на планировщике; уведомления запаздывают не больше чем на тик
+    public synchronized void start(ScheduledExecutorService scheduler) {
+        if (ticker == null) {
+            ticker = scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.cancel(false);
+            ticker = null;
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return wheel.size();
+    }
+
+    // Срабатывание всех таймеров со сроком не позже time
+    public void advanceTo(LocalDateTime time) {
+        fire(toTick(time));
+    }
+
+    void tick() {
+        fire(clock.millis() / TICK_MILLIS);
+    }
+
+    /*Таймеры задачи из расписания: начало и окончание, если задача еще не завершена*/
+    synchronized void schedule(Task task) {
+        cancel(task.getId());
+        if (task.getStatus() == TaskStatus.DONE || task.getStartTime() == null) {
+            return;
+        }
+        // Копия: задачу расписания менеджер меняет под своей блокировкой, а уведомление читает ее в потоке тиков
+        Task copy = InMemoryTaskManager.snapshotOf(task);
+        Pending[] pending = new Pending[2];
+        pending[0] = add(copy, TaskEvent.Type.STARTED, copy.getStartTime());
+        pending[1] = add(copy, TaskEvent.Type.OVERDUE, copy.getEndTime());
+        if (pending[0] != null || pending[1] != null) {
+            pendingById.put(task.getId(), pending);
+        }
+    }
+
+    synchronized void cancel(int id) {
+        Pending[] pending = pendingById.remove(id);
+        if (pending != null) {
+            for (Pending timer : pending) {
+                if (timer != null) {
+                    wheel.cancel(timer.timeout);
+                }
+            }
+        }
+    }
+
+    private Pending add(Task task, TaskEvent.Type type, LocalDateTime time) {
+        Pending pending = new Pending(task, type);
+        pending.timeout = wheel.add(toTick(time), pending);
+        return pending.timeout != null ? pending : null;
+    }
+
+    private void fire(long toTick) {
+        List<Pending> expired = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(toTick, timer -> {
+                expired.add(timer);
+                Pending[] pending = pendingById.get(timer.task.getId());
+                if (pending != null) {
+                    pending[timer.type == TaskEvent.Type.STARTED ? 0 : 1] = null;
+                    if (pending[0] == null && pending[1] == null) {
+                        pendingById.remove(timer.task.getId());
+                    }
+                }
+            });
+        }
+        for (Pending timer : expired) {
+            TaskEvent event = eventBuffer.publish(timer.type, TaskEvent.EntityType.of(timer.task),
+                    timer.task.getId(), 0, timer.task);
+            for (Consumer<TaskEvent> listener : listeners) {
+                listener.accept(event);
+            }
+        }
+    }
+
+    // Тик, в который наступает время: срок округляется вверх, чтобы уведомление не пришло раньше времени
+    private long toTick(LocalDateTime time) {
+        long millis = time.atZone(clock.getZone()).toInstant().toEpochMilli();
+        return Math.floorDiv(millis + TICK_MILLIS - 1, TICK_MILLIS);
+    }
+
+    private static class Pending {
+        // Неизменяемая копия задачи на момент постановки таймера
+        private final Task task;
+        private final TaskEvent.Type type;
+        private TimingWheel.Timeout<Pending> timeout;
+
+        Pending(Task task, TaskEvent.Type type) {
+            this.task = task;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package main.java.main.manager;
+
+import java.util.function.Consumer;
+
+/**
+ * Иерархическое хешированное колесо таймеров.
+ * Время измеряется в тиках; на уровне l слот таймера выбирается по битам его срока (6 бит на уровень),
+ * поэтому добавление и отмена - O(1), а тик обрабатывает только свой слот нижнего уровня.
+ * Когда младшие биты текущего тика обнуляются, слот следующего уровня раскладывается на уровни ниже.
+ * Сроки дальше последнего уровня лежат в его текущем слоте и перекладываются при каждом полном обороте.
+ */
+class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    // Слоты - кольцевые двусвязные списки с фиктивной головой
+    private final Timeout<T>[][] wheels;
+    private long currentTick;
+    private int size = 0;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long startTick) {
+        this.currentTick = startTick;
+        this.wheels = (Timeout<T>[][]) new Timeout<?>[LEVELS][SLOTS];
+        for (Timeout<T>[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timeout<T> head = new Timeout<>(0, null);
+                head.prev = head;
+                head.next = head;
+                wheel[slot] = head;
+            }
+        }
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Таймер на тик deadline; null, если срок уже наступил
+    Timeout<T> add(long deadline, T payload) {
+        if (deadline <= currentTick) {
+            return null;
+        }
+        Timeout<T> timeout = new Timeout<>(deadline, payload);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    void cancel(Timeout<T> timeout) {
+        if (timeout != null && timeout.next != null) {
+            unlink(timeout);
+            size--;
+        }
+    }
+
+    // Продвижение до тика toTick: сработавшие таймеры передаются в expired в порядке сроков
+    void advance(long toTick, Consumer<T> expired) {
+        while (currentTick < toTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+            }
+            Timeout<T> head = wheels[0][(int) (currentTick & SLOT_MASK)];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                unlink(timeout);
+                size--;
+                expired.accept(timeout.payload);
+            }
+        }
+    }
+
+    // Перекладка слота верхнего уровня: до срока таймеров осталось меньше, они попадают на уровни ниже
+    private void cascade(int level, int slot) {
+        Timeout<T> head = wheels[level][slot];
+        Timeout<T> timeout = head.next;
+        head.prev = head;
+        head.next = head;
+        while (timeout != head) {
+            Timeout<T> next = timeout.next;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadline - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        long tick = delta >= 1L << (SLOT_BITS * LEVELS) ? currentTick : timeout.deadline;
+        Timeout<T> head = wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+
+    private static <T> void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    static class Timeout<T> {
+        private final long deadline;
+        private final T payload;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(long deadline, T payload) {
+            this.deadline = deadline;
+            this.payload = payload;
+        }
+    }
+}
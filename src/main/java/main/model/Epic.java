@@ -2,21 +2,33 @@ package main.java.main.model;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class Epic extends Task {
-    private final List<Integer> subTaskIds;
+    // Множество по возрастанию id: порядок не зависит от переносов и совпадает с порядком после загрузки из файла
+    private final NavigableSet<Integer> subTaskIds;
     private LocalDateTime endTime; // Расчетное время завершения
 
     public Epic(String title, String description, int id) {
         super(title, description, id, TaskStatus.NEW);
-        this.subTaskIds = new ArrayList<>();
+        this.subTaskIds = new TreeSet<>();
         this.endTime = null;
     }
 
-    public List<Integer> getSubTaskIds() {
-        return subTaskIds;
+    //Копирующий конструктор
+    public Epic(Epic copy) {
+        super(copy);
+        this.subTaskIds = new TreeSet<>(copy.subTaskIds);
+        this.endTime = copy.endTime;
+    }
+
+    // Представление только для чтения по возрастанию id, без копирования
+    public Set<Integer> getSubTaskIds() {
+        return Collections.unmodifiableSet(subTaskIds);
     }
 
     public void addSubTaskId(int subTaskId) {
@@ -24,7 +36,7 @@ public class Epic extends Task {
     }
 
     public void removeSubTaskId(int subTaskId) {
-        subTaskIds.remove((Integer) subTaskId);
+        subTaskIds.remove(subTaskId);
     }
 
     public void clearSubTasks() {
@@ -0,0 +1,287 @@
+package main.java.main.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Правило повторения в духе RRULE (RFC 5545): FREQ=DAILY|WEEKLY, INTERVAL, BYDAY (для WEEKLY), COUNT, UNTIL.
+ * Вхождения не хранятся: период правила - INTERVAL дней или недель, внутри периода фиксированы смещения дней,
+ * поэтому первое вхождение после любой даты вычисляется арифметически, без перебора от начала серии.
+ */
+public class RecurrenceRule {
+
+    public enum Frequency {
+        DAILY,
+        WEEKLY
+    }
+
+    private static final int MAX_INTERVAL = 1000;
+    private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    private final Frequency frequency;
+    private final int interval;
+    // Дни недели для WEEKLY по порядку; пустой список - день недели начала серии
+    private final List<DayOfWeek> byDays;
+    private final Integer count;
+    private final LocalDateTime until;
+
+    public RecurrenceRule(Frequency frequency, int interval, Collection<DayOfWeek> byDays, Integer count,
+                          LocalDateTime until) {
+        if (frequency == null) {
+            throw new IllegalArgumentException("Не задана частота повторения");
+        }
+        if (interval < 1 || interval > MAX_INTERVAL) {
+            throw new IllegalArgumentException("INTERVAL должен быть от 1 до " + MAX_INTERVAL);
+        }
+        if (count != null && count < 1) {
+            throw new IllegalArgumentException("COUNT должен быть положительным");
+        }
+        if (frequency == Frequency.DAILY && byDays != null && !byDays.isEmpty()) {
+            throw new IllegalArgumentException("BYDAY поддерживается только для FREQ=WEEKLY");
+        }
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDays = byDays == null || byDays.isEmpty() ? List.of() : List.copyOf(EnumSet.copyOf(byDays));
+        this.count = count;
+        this.until = until;
+    }
+
+    // Разбор строки вида "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;COUNT=10"; в BYDAY допускаются запятые и пробелы
+    public static RecurrenceRule parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Пустое правило повторения");
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        List<DayOfWeek> byDays = new ArrayList<>();
+        Integer count = null;
+        LocalDateTime until = null;
+        String rule = text.trim();
+        if (rule.startsWith("RRULE:")) {
+            rule = rule.substring("RRULE:".length());
+        }
+        for (String part : rule.split(";")) {
+            int eq = part.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Некорректная часть правила: " + part);
+            }
+            String name = part.substring(0, eq).trim().toUpperCase(Locale.ROOT);
+            String value = part.substring(eq + 1).trim();
+            try {
+                switch (name) {
+                    case "FREQ":
+                        frequency = "DAILY".equalsIgnoreCase(value) ? Frequency.DAILY
+                                : "WEEKLY".equalsIgnoreCase(value) ? Frequency.WEEKLY : null;
+                        if (frequency == null) {
+                            throw new IllegalArgumentException("Поддерживаются только FREQ=DAILY и FREQ=WEEKLY");
+                        }
+                        break;
+                    case "INTERVAL":
+                        interval = Integer.parseInt(value);
+                        break;
+                    case "BYDAY":
+                        for (String code : value.split("[,\\s]+")) {
+                            byDays.add(parseDay(code));
+                        }
+                        break;
+                    case "COUNT":
+                        count = Integer.parseInt(value);
+                        break;
+                    case "UNTIL":
+                        until = LocalDateTime.parse(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неподдерживаемая часть правила: " + name);
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Некорректное значение " + name + ": " + value, e);
+            }
+        }
+        return new RecurrenceRule(frequency, interval, byDays, count, until);
+    }
+
+    private static DayOfWeek parseDay(String code) {
+        for (int i = 0; i < DAY_CODES.length; i++) {
+            if (DAY_CODES[i].equalsIgnoreCase(code)) {
+                return DayOfWeek.of(i + 1);
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный день недели: " + code);
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public List<DayOfWeek> getByDays() {
+        return byDays;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public LocalDateTime getUntil() {
+        return until;
+    }
+
+    // Длина периода повторения в днях: после него набор дней вхождений повторяется
+    public long getPeriodDays() {
+        return frequency == Frequency.DAILY ? interval : 7L * interval;
+    }
+
+    // Наименьшее число дней между соседними вхождениями серии с началом start
+    public long getMinGapDays(LocalDateTime start) {
+        long[] offsets = offsets(start);
+        long gap = getPeriodDays() - offsets[offsets.length - 1] + offsets[0];
+        for (int i = 1; i < offsets.length; i++) {
+            gap = Math.min(gap, offsets[i] - offsets[i - 1]);
+        }
+        return gap;
+    }
+
+    /*
+    Начала вхождений серии с началом start в окне [from, to) по возрастанию, не больше limit.
+    to == null означает окно без правой границы, тогда ограничением служит limit.
+     */
+    public List<LocalDateTime> occurrences(LocalDateTime start, LocalDateTime from, LocalDateTime to, int limit) {
+        List<LocalDateTime> result = new ArrayList<>();
+        long[] offsets = offsets(start);
+        LocalDate anchor = anchor(start);
+        long period = getPeriodDays();
+        int skipped = skipped(start, anchor, offsets);
+        long firstPeriod = 0;
+        if (from != null && from.isAfter(start)) {
+            firstPeriod = Math.floorDiv(ChronoUnit.DAYS.between(anchor, from.toLocalDate()), period);
+        }
+        for (long p = firstPeriod; result.size() < limit; p++) {
+            for (int i = 0; i < offsets.length; i++) {
+                long index = p * offsets.length + i - skipped;
+                if (index < 0) {
+                    continue;
+                }
+                if (count != null && index >= count) {
+                    return result;
+                }
+                LocalDateTime occurrence = anchor.plusDays(p * period + offsets[i]).atTime(start.toLocalTime());
+                if ((until != null && occurrence.isAfter(until)) || (to != null && !occurrence.isBefore(to))) {
+                    return result;
+                }
+                if (from == null || !occurrence.isBefore(from)) {
+                    result.add(occurrence);
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Является ли time началом одного из вхождений серии с началом start
+    public boolean isOccurrence(LocalDateTime start, LocalDateTime time) {
+        return time != null && occurrences(start, time, time.plusNanos(1), 1).contains(time);
+    }
+
+    // Начало последнего вхождения или null, если серия бесконечна
+    public LocalDateTime lastOccurrence(LocalDateTime start) {
+        if (count == null && until == null) {
+            return null;
+        }
+        LocalDateTime last = null;
+        if (count != null) {
+            long[] offsets = offsets(start);
+            LocalDate anchor = anchor(start);
+            long position = count - 1L + skipped(start, anchor, offsets);
+            last = anchor.plusDays(position / offsets.length * getPeriodDays() + offsets[(int) (position % offsets.length)])
+                    .atTime(start.toLocalTime());
+        }
+        if (until != null && (last == null || last.isAfter(until))) {
+            // Последнее вхождение не позже UNTIL лежит в периоде UNTIL или в предыдущем
+            LocalDate anchor = anchor(start);
+            long period = Math.max(0, Math.floorDiv(ChronoUnit.DAYS.between(anchor, until.toLocalDate()), getPeriodDays()) - 1);
+            LocalDateTime from = anchor.plusDays(period * getPeriodDays()).atStartOfDay();
+            List<LocalDateTime> tail = occurrences(start, from.isAfter(start) ? from : start, until.plusNanos(1),
+                    Integer.MAX_VALUE);
+            last = tail.isEmpty() ? null : tail.get(tail.size() - 1);
+        }
+        return last;
+    }
+
+    // Смещения дней вхождений от начала периода
+    private long[] offsets(LocalDateTime start) {
+        if (frequency == Frequency.DAILY) {
+            return new long[]{0};
+        }
+        List<DayOfWeek> days = byDays.isEmpty() ? List.of(start.getDayOfWeek()) : byDays;
+        long[] offsets = new long[days.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = days.get(i).getValue() - 1;
+        }
+        return offsets;
+    }
+
+    // Дни первого периода до начала серии не считаются вхождениями
+    private static int skipped(LocalDateTime start, LocalDate anchor, long[] offsets) {
+        int skipped = 0;
+        while (skipped < offsets.length && anchor.plusDays(offsets[skipped]).isBefore(start.toLocalDate())) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    // Начало первого периода: день начала серии или понедельник его недели
+    private LocalDate anchor(LocalDateTime start) {
+        LocalDate date = start.toLocalDate();
+        return frequency == Frequency.DAILY ? date : date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1) {
+            rule.append(";INTERVAL=").append(interval);
+        }
+        if (!byDays.isEmpty()) {
+            rule.append(";BYDAY=");
+            for (int i = 0; i < byDays.size(); i++) {
+                rule.append(i > 0 ? "," : "").append(DAY_CODES[byDays.get(i).getValue() - 1]);
+            }
+        }
+        if (count != null) {
+            rule.append(";COUNT=").append(count);
+        }
+        if (until != null) {
+            rule.append(";UNTIL=").append(until);
+        }
+        return rule.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RecurrenceRule that = (RecurrenceRule) o;
+        return interval == that.interval && frequency == that.frequency && byDays.equals(that.byDays)
+                && Objects.equals(count, that.count) && Objects.equals(until, that.until);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(frequency, interval, byDays, count, until);
+    }
+}
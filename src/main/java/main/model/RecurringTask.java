@@ -0,0 +1,161 @@
+package main.java.main.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Повторяющаяся задача: одна запись с правилом повторения вместо отдельной задачи на каждое вхождение.
+ * startTime - начало первого вхождения, duration - продолжительность каждого.
+ * Отдельные вхождения можно изменить (перенести, сменить статус или текст) или отменить;
+ * изменения хранятся по исходному времени начала вхождения, поэтому размер записи не зависит от длины серии.
+ */
+public class RecurringTask extends Task {
+    // Наибольшее число вхождений, которое строит expand: бесконечная серия без правой границы окна иначе не кончается
+    public static final int MAX_OCCURRENCES = 1000;
+
+    private RecurrenceRule rule;
+    // Измененные вхождения по исходному времени начала
+    private final NavigableMap<LocalDateTime, Task> overrides = new TreeMap<>();
+    // Исходные времена начала отмененных вхождений
+    private final NavigableSet<LocalDateTime> cancelled = new TreeSet<>();
+
+    public RecurringTask(String title, String description, int id, TaskStatus status, Duration duration,
+                         LocalDateTime startTime, RecurrenceRule rule) {
+        super(title, description, id, status, duration, startTime);
+        this.rule = rule;
+    }
+
+    //Копирующий конструктор
+    public RecurringTask(RecurringTask copy) {
+        super(copy);
+        this.rule = copy.rule;
+        for (Map.Entry<LocalDateTime, Task> entry : copy.overrides.entrySet()) {
+            this.overrides.put(entry.getKey(), new Task(entry.getValue()));
+        }
+        this.cancelled.addAll(copy.cancelled);
+    }
+
+    public RecurrenceRule getRule() {
+        return rule;
+    }
+
+    public void setRule(RecurrenceRule rule) {
+        this.rule = rule;
+    }
+
+    public NavigableMap<LocalDateTime, Task> getOverrides() {
+        return Collections.unmodifiableNavigableMap(overrides);
+    }
+
+    public NavigableSet<LocalDateTime> getCancelled() {
+        return Collections.unmodifiableNavigableSet(cancelled);
+    }
+
+    // Является ли время исходным началом вхождения серии
+    public boolean isOccurrence(LocalDateTime occurrenceStart) {
+        return getStartTime() != null && rule.isOccurrence(getStartTime(), occurrenceStart);
+    }
+
+    // Изменение вхождения: из override берутся название, описание, статус, продолжительность и начало
+    public void putOverride(LocalDateTime occurrenceStart, Task override) {
+        cancelled.remove(occurrenceStart);
+        overrides.put(occurrenceStart, new Task(override));
+    }
+
+    public void cancelOccurrence(LocalDateTime occurrenceStart) {
+        overrides.remove(occurrenceStart);
+        cancelled.add(occurrenceStart);
+    }
+
+    /*
+    Вхождения с фактическим началом в окне [from, to) по времени начала, не больше limit и не больше MAX_OCCURRENCES.
+    to == null - окно без правой границы.
+     */
+    public List<TaskOccurrence> expand(LocalDateTime from, LocalDateTime to, int limit) {
+        List<TaskOccurrence> result = new ArrayList<>();
+        if (getStartTime() == null || limit <= 0) {
+            return result;
+        }
+        limit = Math.min(limit, MAX_OCCURRENCES);
+        // Пропущенные по правилу вхождения не могут оказаться среди первых limit больше, чем их всего
+        int fetch = (int) Math.min(Integer.MAX_VALUE, (long) limit + overrides.size() + cancelled.size());
+        for (LocalDateTime start : rule.occurrences(getStartTime(), from, to, fetch)) {
+            if (!overrides.containsKey(start) && !cancelled.contains(start)) {
+                result.add(occurrence(start, this));
+            }
+        }
+        for (Map.Entry<LocalDateTime, Task> entry : overrides.entrySet()) {
+            LocalDateTime start = entry.getValue().getStartTime();
+            if (start != null && (from == null || !start.isBefore(from)) && (to == null || start.isBefore(to))) {
+                result.add(occurrence(entry.getKey(), entry.getValue()));
+            }
+        }
+        result.sort(Comparator.comparing(Task::getStartTime));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /*Вхождения, пересекающиеся с интервалом [start, end); вхождение с исходным началом except пропускается*/
+    public List<TaskOccurrence> overlapping(LocalDateTime start, LocalDateTime end, LocalDateTime except) {
+        List<TaskOccurrence> result = new ArrayList<>();
+        if (getStartTime() == null) {
+            return result;
+        }
+        for (LocalDateTime occurrenceStart : rule.occurrences(getStartTime(), start.minus(getDuration()), end,
+                Integer.MAX_VALUE)) {
+            if (!occurrenceStart.equals(except) && !overrides.containsKey(occurrenceStart)
+                    && !cancelled.contains(occurrenceStart)) {
+                TaskOccurrence occurrence = occurrence(occurrenceStart, this);
+                if (overlaps(occurrence, start, end)) {
+                    result.add(occurrence);
+                }
+            }
+        }
+        for (Map.Entry<LocalDateTime, Task> entry : overrides.entrySet()) {
+            if (!entry.getKey().equals(except) && entry.getValue().getStartTime() != null
+                    && overlaps(entry.getValue(), start, end)) {
+                result.add(occurrence(entry.getKey(), entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    // Начало последнего вхождения по правилу или null, если серия бесконечна
+    public LocalDateTime getLastOccurrenceStart() {
+        return getStartTime() != null ? rule.lastOccurrence(getStartTime()) : null;
+    }
+
+    private TaskOccurrence occurrence(LocalDateTime occurrenceStart, Task source) {
+        Task fields = new Task(source.getTitle(), source.getDescription(), getId(), source.getStatus(),
+                source.getDuration(), source == this ? occurrenceStart : source.getStartTime());
+        fields.setAssignee(getAssignee());
+        return new TaskOccurrence(fields, occurrenceStart);
+    }
+
+    // Пересечение по тем же правилам, что и у задач: каждый отрезок заканчивается позже начала другого
+    private static boolean overlaps(Task task, LocalDateTime start, LocalDateTime end) {
+        return task.getEndTime().compareTo(start) > 0 && end.compareTo(task.getStartTime()) > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RecurringTask{" +
+                "title='" + getTitle() + '\'' +
+                ", id=" + getId() +
+                ", status=" + getStatus() +
+                ", rule=" + rule +
+                ", duration=" + getDuration().toMinutes() + " минут" +
+                ", startTime=" + getStartTime() +
+                ", overrides=" + overrides.size() +
+                ", cancelled=" + cancelled.size() +
+                '}';
+    }
+}
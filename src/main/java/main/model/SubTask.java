@@ -6,6 +6,8 @@ import java.time.LocalDateTime;
 public class SubTask extends Task {
 
     private int epicId;
+    // Родительская подзадача внутри эпика; 0 - подзадача непосредственно эпика
+    private int parentId;
 
     //Основной конструктор
     public SubTask(String title, String description, int id, TaskStatus status, int epicId) {
@@ -24,6 +26,7 @@ public class SubTask extends Task {
     public SubTask(SubTask copy) {
         super(copy);
         this.epicId = copy.epicId;
+        this.parentId = copy.parentId;
     }
 
     public int getEpicId() {
@@ -34,6 +37,14 @@ public class SubTask extends Task {
         this.epicId = epicId;
     }
 
+    public int getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(int parentId) {
+        this.parentId = parentId;
+    }
+
     @Override
     public String toString() {
         return "SubTask{" +
@@ -42,6 +53,7 @@ public class SubTask extends Task {
                 ", id=" + getId() +
                 ", status=" + getStatus() +
                 ", epicId=" + epicId +
+                (parentId != 0 ? ", parentId=" + parentId : "") +
                 ", duration=" + getDuration().toMinutes() + " минут" +
                 ", startTime=" + getStartTime() +
                 ", endTime=" + getEndTime() +
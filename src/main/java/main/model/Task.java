@@ -11,6 +11,12 @@ public class Task {
     private TaskStatus status;
     private Duration duration; // Продолжительность задачи в минутах
     private LocalDateTime startTime; // Время начала выполнения
+    private String assignee; // Исполнитель или ресурс; пересечения проверяются только между задачами одного исполнителя
+    // Вычисленное время завершения, сбрасывается при изменении начала или продолжительности
+    private transient LocalDateTime cachedEndTime;
+    // Источник выгруженного текста: пока он задан, title и description читаются с диска по смещению
+    private transient TaskTextSource textSource;
+    private transient long textOffset = -1;
 
     //Основной конструктор
     public Task(String title, String description, int id, TaskStatus status) {
@@ -40,24 +46,55 @@ public class Task {
         this.status = copy.status;
         this.duration = copy.duration;
         this.startTime = copy.startTime;
+        this.assignee = copy.assignee;
+        this.cachedEndTime = copy.cachedEndTime;
+        this.textSource = copy.textSource;
+        this.textOffset = copy.textOffset;
     }
 
     public String getTitle() {
-        return title;
+        TaskTextSource source = textSource;
+        return source != null ? source.getTitle(textOffset) : title;
     }
 
     public void setTitle(String title) {
+        loadText();
         this.title = title;
     }
 
     public String getDescription() {
-        return description;
+        TaskTextSource source = textSource;
+        return source != null ? source.getDescription(textOffset) : description;
     }
 
     public void setDescription(String description) {
+        loadText();
         this.description = description;
     }
 
+    // Выгрузка названия и описания: дальше они читаются из источника по смещению
+    public void pageOutText(TaskTextSource source, long offset) {
+        this.title = null;
+        this.description = null;
+        this.textSource = source;
+        this.textOffset = offset;
+    }
+
+    // Смещение выгруженного текста или -1, если текст хранится в самой задаче
+    public long getTextOffset() {
+        return textSource != null ? textOffset : -1;
+    }
+
+    // Возврат выгруженного текста в задачу перед его изменением
+    private void loadText() {
+        if (textSource != null) {
+            this.title = textSource.getTitle(textOffset);
+            this.description = textSource.getDescription(textOffset);
+            this.textSource = null;
+            this.textOffset = -1;
+        }
+    }
+
     public int getId() {
         return id;
     }
@@ -76,6 +113,7 @@ public class Task {
 
     public void setDuration(Duration duration) {
         this.duration = duration != null ? duration : Duration.ZERO;
+        this.cachedEndTime = null;
     }
 
     public LocalDateTime getStartTime() {
@@ -84,21 +122,34 @@ public class Task {
 
     public void setStartTime(LocalDateTime startTime) {
         this.startTime = startTime;
+        this.cachedEndTime = null;
+    }
+
+    public String getAssignee() {
+        return assignee;
     }
 
-    // Расчет времени завершения задачи
+    // Пустой исполнитель равнозначен его отсутствию
+    public void setAssignee(String assignee) {
+        this.assignee = assignee != null && !assignee.isBlank() ? assignee.trim() : null;
+    }
+
+    // Расчет времени завершения задачи, результат запоминается до изменения начала или продолжительности
     public LocalDateTime getEndTime() {
         if (startTime == null || duration == null) {
             return null;
         }
-        return startTime.plus(duration);
+        if (cachedEndTime == null) {
+            cachedEndTime = startTime.plus(duration);
+        }
+        return cachedEndTime;
     }
 
     @Override
     public String toString() {
         return "Task{" +
-                "title='" + title + '\'' +
-                ", description='" + description + '\'' +
+                "title='" + getTitle() + '\'' +
+                ", description='" + getDescription() + '\'' +
                 ", id=" + id +
                 ", status=" + status +
                 ", duration=" + duration.toMinutes() + " минут" +
@@ -0,0 +1,51 @@
+package main.java.main.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Вхождение повторяющейся задачи в запрошенном окне. Не хранится в менеджере, а строится из серии на лету.
+ * id совпадает с id серии, вхождение внутри серии определяется исходным временем начала по правилу.
+ */
+public class TaskOccurrence extends Task {
+
+    private final LocalDateTime occurrenceStart;
+
+    public TaskOccurrence(Task source, LocalDateTime occurrenceStart) {
+        super(source);
+        this.occurrenceStart = occurrenceStart;
+    }
+
+    //Копирующий конструктор
+    public TaskOccurrence(TaskOccurrence copy) {
+        super(copy);
+        this.occurrenceStart = copy.occurrenceStart;
+    }
+
+    public LocalDateTime getOccurrenceStart() {
+        return occurrenceStart;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskOccurrence{" +
+                "title='" + getTitle() + '\'' +
+                ", id=" + getId() +
+                ", status=" + getStatus() +
+                ", occurrenceStart=" + occurrenceStart +
+                ", startTime=" + getStartTime() +
+                ", endTime=" + getEndTime() +
+                '}';
+    }
+
+    // Вхождения одной серии различаются исходным временем начала
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o) && Objects.equals(occurrenceStart, ((TaskOccurrence) o).occurrenceStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(occurrenceStart);
+    }
+}
@@ -0,0 +1,12 @@
+package main.java.main.model;
+
+/**
+ * Внешнее хранилище названий и описаний задач.
+ * Задача с выгруженным текстом хранит только смещение записи и читает текст через источник при обращении.
+ */
+public interface TaskTextSource {
+
+    String getTitle(long offset);
+
+    String getDescription(long offset);
+}
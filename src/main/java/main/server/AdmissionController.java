@@ -0,0 +1,466 @@
+package main.java.main.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Контроль допуска запросов к эндпоинтам сервера.
+ * У каждого эндпоинта (у досок - у каждого ресурса каждой доски) свой предел одновременных запросов,
+ * который подстраивается по AIMD: медленный или завершившийся ошибкой запрос уменьшает предел в BACKOFF_RATIO раз,
+ * быстрый при загрузке больше половины предела увеличивает его на 1.
+ * Запрос сверх предела ждет в ограниченной очереди не дольше maxQueueWait, иначе сразу получает 503 с Retry-After.
+ * Дешевые чтения одной сущности имеют приоритет: списки и записи занимают только часть предела
+ * и пропускают вперед ожидающие чтения, поэтому при перегрузке первыми отклоняются тяжелые запросы.
+ * Перед допуском запрос стоит в ограниченной очереди пула newExecutor; не поместившийся в нее получает 503 сразу.
+ */
+public class AdmissionController {
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int RETRY_AFTER_SECONDS = 1;
+    private static final String BOARDS_PREFIX = "/boards/";
+    // Вложенные ресурсы, которые вычисляются по всей доске или серии, а не читают одну сущность
+    private static final Set<String> COMPUTED_RESOURCES = Set.of("summary", "occurrences", "free-slot", "conflicts");
+    // Сверх этого числа пределов свободные пределы досок удаляются
+    private static final int MAX_LIMITERS = 1024;
+    // Момент постановки выполняемого потоком запроса в очередь пула
+    private static final ThreadLocal<Long> POOL_QUEUED_AT = new ThreadLocal<>();
+    // Поток выполняет запрос, не поместившийся в очередь пула
+    private static final ThreadLocal<Boolean> SHED = new ThreadLocal<>();
+
+    /*
+    Приоритет запроса по убыванию: чтение одной сущности, чтение списка или вычисление по всему состоянию, запись
+     */
+    public enum Priority {
+        READ(1.0), BULK(0.75), WRITE(0.5);
+
+        // Доля предела эндпоинта, доступная запросам этого приоритета
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private final int initialLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long maxQueueWaitNanos;
+    private final long targetLatencyNanos;
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    public AdmissionController(int initialLimit, int maxLimit, int maxQueue, long maxQueueWaitMillis,
+                               long targetLatencyMillis) {
+        if (initialLimit < 1 || maxLimit < initialLimit || maxQueue < 0) {
+            throw new IllegalArgumentException("Некорректные пределы допуска");
+        }
+        this.initialLimit = initialLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+    }
+
+    /*
+    Приоритет по методу и пути; для /boards/{id}/... учитывается путь внутри доски.
+    Путь из одного сегмента (/tasks, /prioritized, /search) - коллекция или вычисление по всем задачам,
+    как и вычисляемые вложенные ресурсы (/epics/{id}/summary, /prioritized/free-slot)
+     */
+    public static Priority classify(String method, String path) {
+        if (!"GET".equals(method)) {
+            return Priority.WRITE;
+        }
+        if (path.startsWith(BOARDS_PREFIX)) {
+            int boardEnd = path.indexOf('/', BOARDS_PREFIX.length());
+            path = boardEnd >= 0 ? path.substring(boardEnd) : "/";
+        }
+        int second = path.indexOf('/', 1);
+        if (second < 0 || second == path.length() - 1) {
+            return Priority.BULK;
+        }
+        int end = path.endsWith("/") ? path.length() - 1 : path.length();
+        String last = path.substring(path.lastIndexOf('/', end - 1) + 1, end);
+        return COMPUTED_RESOURCES.contains(last) ? Priority.BULK : Priority.READ;
+    }
+
+    /*
+    Разрешение на выполнение запроса к endpoint; null - запрос нужно отклонить.
+    Ждет освобождения места не дольше maxQueueWait, если очередь эндпоинта не заполнена
+     */
+    public Permit tryAcquire(String endpoint, Priority priority) throws InterruptedException {
+        return limiter(endpoint).acquire(priority);
+    }
+
+    /*
+    Пул обработки запросов сервера с очередью не длиннее queueCapacity.
+    Запрос, не поместившийся в очередь, выполняется в принявшем его потоке сервера: обработчики за wrap и sheddable
+    сразу отвечают ему 503, поэтому этот поток занят только разбором заголовков
+     */
+    public static ExecutorService newExecutor(int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), (task, pool) -> runShed(task)) {
+            @Override
+            public void execute(Runnable command) {
+                long queuedAt = System.nanoTime();
+                super.execute(() -> {
+                    POOL_QUEUED_AT.set(queuedAt);
+                    try {
+                        command.run();
+                    } finally {
+                        POOL_QUEUED_AT.remove();
+                    }
+                });
+            }
+        };
+    }
+
+    // Обработчик вне контроля допуска, который тоже отклоняет запросы, не поместившиеся в очередь пула
+    public static HttpHandler sheddable(HttpHandler handler) {
+        return exchange -> {
+            if (isShed()) {
+                reject(exchange);
+                return;
+            }
+            handler.handle(exchange);
+        };
+    }
+
+    // Обработчик с контролем допуска: отклоненный запрос получает 503 и не доходит до handler
+    public HttpHandler wrap(String endpoint, HttpHandler handler) {
+        return exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            Priority priority = classify(exchange.getRequestMethod(), path);
+            Limiter limiter = limiter(limiterKey(endpoint, path));
+            if (isShed()) {
+                limiter.reject(priority);
+                reject(exchange);
+                return;
+            }
+            Long queuedAt = POOL_QUEUED_AT.get();
+            if (queuedAt != null) {
+                limiter.recordPoolWait(System.nanoTime() - queuedAt);
+            }
+            Permit permit;
+            try {
+                permit = limiter.acquire(priority);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                permit = null;
+            }
+            if (permit == null) {
+                reject(exchange);
+                return;
+            }
+            boolean failed = true;
+            try {
+                handler.handle(exchange);
+                failed = exchange.getResponseCode() >= 500;
+            } finally {
+                permit.release(failed);
+            }
+        };
+    }
+
+    // Метрики всех эндпоинтов, к которым были запросы
+    public List<EndpointStats> getStats() {
+        List<EndpointStats> result = new ArrayList<>();
+        for (Map.Entry<String, Limiter> entry : limiters.entrySet()) {
+            result.add(entry.getValue().stats(entry.getKey()));
+        }
+        result.sort(Comparator.comparing(EndpointStats::getEndpoint));
+        return result;
+    }
+
+    /*
+    Ключ предела: зарегистрированный эндпоинт, а для досок - доска и ресурс (/boards/{id}/tasks),
+    чтобы медленная доска снижала только свой предел
+     */
+    static String limiterKey(String endpoint, String path) {
+        if (!path.startsWith(BOARDS_PREFIX)) {
+            return endpoint;
+        }
+        int boardEnd = path.indexOf('/', BOARDS_PREFIX.length());
+        if (boardEnd < 0 || !BoardRegistry.isValidBoardId(path.substring(BOARDS_PREFIX.length(), boardEnd))) {
+            return endpoint;
+        }
+        int resourceEnd = path.indexOf('/', boardEnd + 1);
+        return resourceEnd < 0 ? path : path.substring(0, resourceEnd);
+    }
+
+    private Limiter limiter(String key) {
+        Limiter limiter = limiters.get(key);
+        if (limiter != null) {
+            return limiter;
+        }
+        if (limiters.size() >= MAX_LIMITERS) {
+            // Доска, к которой снова придут запросы, начнет с начального предела
+            limiters.entrySet().removeIf(entry -> entry.getKey().startsWith(BOARDS_PREFIX) && entry.getValue().isIdle());
+        }
+        return limiters.computeIfAbsent(key, k -> new Limiter());
+    }
+
+    private static void runShed(Runnable task) {
+        SHED.set(Boolean.TRUE);
+        try {
+            task.run();
+        } finally {
+            SHED.remove();
+        }
+    }
+
+    private static boolean isShed() {
+        return SHED.get() != null;
+    }
+
+    private static void reject(HttpExchange exchange) throws IOException {
+        byte[] body = ("{\"message\":\"Сервер перегружен, повторите запрос позже\",\"retryAfter\":"
+                + RETRY_AFTER_SECONDS + "}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(503, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    /**
+     * Разрешение на выполнение запроса; release вызывается ровно один раз после ответа.
+     */
+    public class Permit {
+        private final Limiter limiter;
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+
+        private Permit(Limiter limiter, int inFlightAtStart) {
+            this.limiter = limiter;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        // failed - запрос завершился ошибкой сервера; она, как и долгий ответ, уменьшает предел
+        public void release(boolean failed) {
+            limiter.release(System.nanoTime() - startNanos, inFlightAtStart, failed);
+        }
+    }
+
+    // Ожидающий запрос: выше приоритет - раньше, при равном - по порядку прихода
+    private static class Waiter {
+        final Priority priority;
+        final long order;
+        boolean admitted;
+
+        Waiter(Priority priority, long order) {
+            this.priority = priority;
+            this.order = order;
+        }
+    }
+
+    private class Limiter {
+        private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+                Comparator.<Waiter>comparingInt(waiter -> waiter.priority.ordinal()).thenComparingLong(w -> w.order));
+        private double limit = initialLimit;
+        private int inFlight;
+        private long nextOrder;
+        // Метрики
+        private long admitted;
+        private long queued;
+        private long queueTimeNanos;
+        private long maxQueueTimeNanos;
+        private long poolQueued;
+        private long poolQueueTimeNanos;
+        private long maxPoolQueueTimeNanos;
+        private final Map<Priority, Long> rejected = new EnumMap<>(Priority.class);
+
+        synchronized Permit acquire(Priority priority) throws InterruptedException {
+            Waiter head = waiters.peek();
+            boolean aheadInQueue = head != null && head.priority.ordinal() <= priority.ordinal();
+            if (!aheadInQueue && inFlight < limitFor(priority)) {
+                return admit();
+            }
+            if (waiters.size() >= maxQueue || maxQueueWaitNanos <= 0) {
+                rejected.merge(priority, 1L, Long::sum);
+                return null;
+            }
+            Waiter waiter = new Waiter(priority, nextOrder++);
+            waiters.add(waiter);
+            long start = System.nanoTime();
+            long remaining = maxQueueWaitNanos;
+            try {
+                while (!waiter.admitted && remaining > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    remaining = maxQueueWaitNanos - (System.nanoTime() - start);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.admitted) {
+                    // Место выделено до прерывания, но разрешение не будет выдано: место переходит следующим
+                    admitted--;
+                    inFlight--;
+                } else {
+                    waiters.remove(waiter);
+                }
+                rejected.merge(priority, 1L, Long::sum);
+                admitWaiters();
+                throw e;
+            }
+            if (!waiter.admitted) {
+                waiters.remove(waiter);
+                rejected.merge(priority, 1L, Long::sum);
+                // Уход из головы очереди может пропустить следующих
+                admitWaiters();
+                return null;
+            }
+            long waited = System.nanoTime() - start;
+            queued++;
+            queueTimeNanos += waited;
+            maxQueueTimeNanos = Math.max(maxQueueTimeNanos, waited);
+            return new Permit(this, inFlight);
+        }
+
+        synchronized void release(long latencyNanos, int inFlightAtStart, boolean failed) {
+            inFlight--;
+            if (failed || latencyNanos > targetLatencyNanos) {
+                limit = Math.max(1, limit * BACKOFF_RATIO);
+            } else if (inFlightAtStart * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            admitWaiters();
+        }
+
+        synchronized boolean isIdle() {
+            return inFlight == 0 && waiters.isEmpty();
+        }
+
+        synchronized void reject(Priority priority) {
+            rejected.merge(priority, 1L, Long::sum);
+        }
+
+        synchronized void recordPoolWait(long waitedNanos) {
+            poolQueued++;
+            poolQueueTimeNanos += waitedNanos;
+            maxPoolQueueTimeNanos = Math.max(maxPoolQueueTimeNanos, waitedNanos);
+        }
+
+        private Permit admit() {
+            admitted++;
+            inFlight++;
+            return new Permit(this, inFlight);
+        }
+
+        // Пропуск ожидающих по приоритету, пока хватает предела
+        private void admitWaiters() {
+            boolean any = false;
+            while (!waiters.isEmpty() && inFlight < limitFor(waiters.peek().priority)) {
+                waiters.poll().admitted = true;
+                admitted++;
+                inFlight++;
+                any = true;
+            }
+            if (any) {
+                notifyAll();
+            }
+        }
+
+        private int limitFor(Priority priority) {
+            return Math.max(1, (int) Math.ceil(limit * priority.share));
+        }
+
+        synchronized EndpointStats stats(String endpoint) {
+            return new EndpointStats(endpoint, (int) limit, inFlight, waiters.size(), admitted,
+                    new EnumMap<>(rejected), queued,
+                    queued > 0 ? TimeUnit.NANOSECONDS.toMicros(queueTimeNanos / queued) / 1000.0 : 0,
+                    TimeUnit.NANOSECONDS.toMicros(maxQueueTimeNanos) / 1000.0,
+                    poolQueued > 0 ? TimeUnit.NANOSECONDS.toMicros(poolQueueTimeNanos / poolQueued) / 1000.0 : 0,
+                    TimeUnit.NANOSECONDS.toMicros(maxPoolQueueTimeNanos) / 1000.0);
+        }
+    }
+
+    /**
+     * Метрики эндпоинта: текущий предел и загрузка, число допущенных и отклоненных по приоритетам запросов,
+     * число дождавшихся в очереди эндпоинта и время ожидания в ней, среднее и наибольшее время в очереди пула
+     * в миллисекундах.
+     */
+    public static class EndpointStats {
+        private final String endpoint;
+        private final int limit;
+        private final int inFlight;
+        private final int waiting;
+        private final long admitted;
+        private final Map<Priority, Long> rejected;
+        private final long queued;
+        private final double avgQueueMillis;
+        private final double maxQueueMillis;
+        private final double avgPoolQueueMillis;
+        private final double maxPoolQueueMillis;
+
+        EndpointStats(String endpoint, int limit, int inFlight, int waiting, long admitted,
+                      Map<Priority, Long> rejected, long queued, double avgQueueMillis, double maxQueueMillis,
+                      double avgPoolQueueMillis, double maxPoolQueueMillis) {
+            this.endpoint = endpoint;
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.waiting = waiting;
+            this.admitted = admitted;
+            this.rejected = rejected;
+            this.queued = queued;
+            this.avgQueueMillis = avgQueueMillis;
+            this.maxQueueMillis = maxQueueMillis;
+            this.avgPoolQueueMillis = avgPoolQueueMillis;
+            this.maxPoolQueueMillis = maxPoolQueueMillis;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        public int getWaiting() {
+            return waiting;
+        }
+
+        public long getAdmitted() {
+            return admitted;
+        }
+
+        public long getRejected(Priority priority) {
+            return rejected.getOrDefault(priority, 0L);
+        }
+
+        public long getQueued() {
+            return queued;
+        }
+
+        public double getAvgQueueMillis() {
+            return avgQueueMillis;
+        }
+
+        public double getMaxQueueMillis() {
+            return maxQueueMillis;
+        }
+
+        public double getAvgPoolQueueMillis() {
+            return avgPoolQueueMillis;
+        }
+
+        public double getMaxPoolQueueMillis() {
+            return maxPoolQueueMillis;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package main.java.main.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+// Метрики контроля допуска по эндпоинтам: пределы, загрузка, отклонения и время в очереди
+public class AdmissionHandler extends BaseHttpHandler {
+    private final AdmissionController admission;
+
+    public AdmissionHandler(AdmissionController admission, Gson gson) {
+        super(gson);
+        this.admission = admission;
+
+        router.add("GET", "/admission", (h, p) -> sendText(h, gson.toJson(admission.getStats()), 200));
+    }
+
+    @Override
+    public void handle(HttpExchange exchange, String path) throws IOException {
+        try {
+            dispatch(exchange, path);
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendInternalServerError(exchange, e.getMessage());
+        }
+    }
+}
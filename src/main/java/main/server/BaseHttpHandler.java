@@ -3,22 +3,150 @@ package main.java.main.server;
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import main.java.main.manager.TaskOverlapException;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class BaseHttpHandler implements HttpHandler {
+    // Ответ, который сейчас вычисляет ведущий запрос этого потока; null вне объединяемого вычисления
+    private static final ThreadLocal<SharedResponse[]> CAPTURE = new ThreadLocal<>();
+
     protected final Gson gson;
+    protected final Router router = new Router();
+    // Объединяемые запросы в работе: ключ запроса -> будущий общий ответ
+    private final Map<String, CompletableFuture<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    // Ведомые, которые уже присоединились к чужому вычислению и ждут его результата
+    private final AtomicInteger waitingFollowers = new AtomicInteger();
 
     public BaseHttpHandler(Gson gson) {
         this.gson = gson;
     }
 
+    @Override
+    public void handle(HttpExchange h) throws IOException {
+        handle(h, h.getRequestURI().getPath());
+    }
+
+    // Обработка запроса по пути внутри доски: для /boards/{id}/tasks сюда приходит /tasks
+    public abstract void handle(HttpExchange h, String path) throws IOException;
+
+    // Запрос только читает снимок менеджера и может выполняться без блокировки доски
+    public boolean isSnapshotRead(HttpExchange h, String path) {
+        return false;
+    }
+
+    /*
+    Ключ объединения одинаковых чтений: метод, путь, строка запроса и версия состояния менеджера.
+    null - запрос не объединяется (запись или чтение с побочным эффектом, например записью в историю)
+     */
+    public String coalescingKey(HttpExchange h, String path) {
+        return null;
+    }
+
+    protected String requestKey(HttpExchange h, String path, long stateVersion) {
+        String query = h.getRequestURI().getRawQuery();
+        return h.getRequestMethod() + ' ' + path + '?' + (query != null ? query : "") + '#' + stateVersion;
+    }
+
+    /*
+    Выполнение запроса с объединением (single flight): первый запрос с ключом вычисляет ответ через compute,
+    запросы с тем же ключом, пришедшие до его завершения, получают тот же буфер байтов.
+    Версия в ключе не дает выдать ответ, вычисленный до изменения, запросу, пришедшему после него.
+    Если ведущий не смог вернуть ответ целиком, ведомые вычисляют свой сами
+     */
+    public void handleCoalesced(HttpExchange h, String key, ExchangeAction compute) throws IOException {
+        if (key == null) {
+            compute.run();
+            return;
+        }
+        CompletableFuture<SharedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            SharedResponse shared;
+            waitingFollowers.incrementAndGet();
+            try {
+                shared = leader.join();
+            } finally {
+                waitingFollowers.decrementAndGet();
+            }
+            if (shared != null) {
+                coalescedCount.incrementAndGet();
+                sendBytes(h, shared.body, shared.code);
+            } else {
+                compute.run();
+            }
+            return;
+        }
+        SharedResponse[] captured = new SharedResponse[1];
+        CAPTURE.set(captured);
+        try {
+            compute.run();
+        } finally {
+            CAPTURE.remove();
+            inFlight.remove(key, flight);
+            flight.complete(captured[0]);
+        }
+    }
+
+    // Число запросов, получивших ответ чужого вычисления
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    // Число запросов, ожидающих сейчас ответа чужого вычисления
+    public int getWaitingFollowers() {
+        return waitingFollowers.get();
+    }
+
     protected void sendText(HttpExchange h, String text, int responseCode) throws IOException {
-        byte[] resp = text.getBytes(StandardCharsets.UTF_8);
+        sendBytes(h, text.getBytes(StandardCharsets.UTF_8), responseCode);
+    }
+
+    protected void sendBytes(HttpExchange h, byte[] json, int responseCode) throws IOException {
+        SharedResponse[] captured = CAPTURE.get();
+        if (captured != null && captured[0] == null) {
+            captured[0] = new SharedResponse(responseCode, json);
+        }
         h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(responseCode, resp.length);
-        h.getResponseBody().write(resp);
+        h.sendResponseHeaders(responseCode, json.length);
+        h.getResponseBody().write(json);
+        h.close();
+    }
+
+    //JSON-массив из готовых фрагментов: пишется по частям прямо в поток ответа, без общей строки
+    protected void sendJsonArray(HttpExchange h, List<byte[]> elements, int responseCode) throws IOException {
+        long length = 2 + Math.max(0, elements.size() - 1);
+        for (byte[] element : elements) {
+            length += element.length;
+        }
+        if (CAPTURE.get() != null) {
+            // Ответ делится с другими запросами, поэтому собирается в один буфер
+            sendBytes(h, joinArray(elements, (int) length), responseCode);
+            return;
+        }
+        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        h.sendResponseHeaders(responseCode, length);
+        OutputStream body = h.getResponseBody();
+        body.write('[');
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                body.write(',');
+            }
+            body.write(elements.get(i));
+        }
+        body.write(']');
         h.close();
     }
 
@@ -26,19 +154,106 @@ public abstract class BaseHttpHandler implements HttpHandler {
         sendText(h, "Запрашиваемый ресурс не найден", 404);
     }
 
-    protected void sendHasInteraction(HttpExchange h) throws IOException {
-        sendText(h, "Задача пересекается по времени с существующими", 406);
+    protected void sendMethodNotAllowed(HttpExchange h, String allowedMethods) throws IOException {
+        h.getResponseHeaders().add("Allow", allowedMethods);
+        sendText(h, "Метод не поддерживается для данного ресурса", 405);
+    }
+
+    protected void sendBadRequest(HttpExchange h, String message) throws IOException {
+        sendText(h, message, 400);
+    }
+
+    //406 с JSON-описанием конфликта: клиенту не нужно подбирать время повторными запросами
+    protected void sendHasInteraction(HttpExchange h, TaskOverlapException e) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("message", e.getMessage());
+        body.put("conflictingTaskIds", e.getConflictingIds());
+        sendText(h, gson.toJson(body), 406);
     }
 
     protected void sendInternalServerError(HttpExchange h, String message) throws IOException {
         sendText(h, "Внутренняя ошибка сервера: " + message, 500);
     }
 
-    protected int getIdFromPath(String path) throws NumberFormatException {
-        String[] parts = path.split("/");
-        if (parts.length > 2) {
-            return Integer.parseInt(parts[2]);
+    //Значение параметра строки запроса или null, если параметр не передан
+    protected String getQueryParam(HttpExchange h, String name) {
+        String query = h.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        int start = 0;
+        while (start <= query.length()) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            int eq = query.indexOf('=', start);
+            int keyEnd = eq >= 0 && eq < end ? eq : end;
+            if (keyEnd - start == name.length() && query.startsWith(name, start)) {
+                String value = keyEnd < end ? query.substring(keyEnd + 1, end) : "";
+                return URLDecoder.decode(value, StandardCharsets.UTF_8);
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    //Разбор даты из параметра запроса: "yyyy-MM-dd HH:mm" или "yyyy-MM-ddTHH:mm"
+    protected LocalDateTime parseDateTimeParam(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        if (value.length() > 10 && value.charAt(10) == 'T') {
+            value = value.substring(0, 10) + ' ' + value.substring(11);
+        }
+        return LocalDateTimeAdapter.parse(value);
+    }
+
+    //Выбор обработчика по методу и пути: 404 для неизвестного пути, 405 для неподдерживаемого метода
+    protected void dispatch(HttpExchange h, String path) throws Exception {
+        int[] params = router.newParams();
+        Router.Route route = router.find(path, params);
+        if (route == null) {
+            sendNotFound(h);
+            return;
+        }
+        Router.Action action = route.getAction(h.getRequestMethod());
+        if (action == null) {
+            sendMethodNotAllowed(h, route.getAllowedMethods());
+            return;
+        }
+        action.handle(h, params);
+    }
+
+    private static byte[] joinArray(List<byte[]> elements, int length) {
+        byte[] result = new byte[length];
+        int position = 0;
+        result[position++] = '[';
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                result[position++] = ',';
+            }
+            byte[] element = elements.get(i);
+            System.arraycopy(element, 0, result, position, element.length);
+            position += element.length;
+        }
+        result[position] = ']';
+        return result;
+    }
+
+    // Обработка запроса, которую можно выполнить один раз за несколько одинаковых запросов
+    @FunctionalInterface
+    public interface ExchangeAction {
+        void run() throws IOException;
+    }
+
+    private static class SharedResponse {
+        final int code;
+        final byte[] body;
+
+        SharedResponse(int code, byte[] body) {
+            this.code = code;
+            this.body = body;
         }
-        return -1;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package main.java.main.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+/**
+ * Маршрутизация запросов /boards/{boardId}/{resource}... к обработчикам отдельной доски.
+ * Запрос выполняется под блокировкой своей доски, поэтому разные доски обрабатываются параллельно;
+ * чтения из снимка менеджера и объединяемые чтения отпускают блокировку сразу после получения доски.
+ */
+public class BoardHandler extends BaseHttpHandler {
+    private static final String PREFIX = "/boards/";
+    private final BoardRegistry registry;
+
+    public BoardHandler(BoardRegistry registry, Gson gson) {
+        super(gson);
+        this.registry = registry;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange, String path) throws IOException {
+        try {
+            if (!path.startsWith(PREFIX)) {
+                sendNotFound(exchange);
+                return;
+            }
+            int idEnd = path.indexOf('/', PREFIX.length());
+            if (idEnd < 0) {
+                sendNotFound(exchange);
+                return;
+            }
+            String boardId = path.substring(PREFIX.length(), idEnd);
+            if (!BoardRegistry.isValidBoardId(boardId)) {
+                sendBadRequest(exchange, "Некорректный id доски: " + boardId);
+                return;
+            }
+            String boardPath = path.substring(idEnd);
+            int resourceEnd = boardPath.indexOf('/', 1);
+            String resource = resourceEnd < 0 ? boardPath.substring(1) : boardPath.substring(1, resourceEnd);
+
+            BoardRegistry.Board board = registry.acquire(boardId);
+            BaseHttpHandler handler = board.getHandler(resource);
+            boolean snapshotRead = handler != null && handler.isSnapshotRead(exchange, boardPath);
+            String key = handler != null ? handler.coalescingKey(exchange, boardPath) : null;
+            if (snapshotRead || key != null) {
+                // Снимок не меняется, поэтому блокировка нужна только чтобы получить загруженную доску;
+                // ведомые объединяемых запросов ждут без нее, иначе ведущий не смог бы ее взять
+                board.release();
+                handler.handleCoalesced(exchange, key, () -> {
+                    if (snapshotRead) {
+                        handler.handle(exchange, boardPath);
+                        return;
+                    }
+                    BoardRegistry.Board current = registry.acquire(boardId);
+                    try {
+                        current.getHandler(resource).handle(exchange, boardPath);
+                    } finally {
+                        current.release();
+                    }
+                });
+                return;
+            }
+            try {
+                if (handler == null) {
+                    sendNotFound(exchange);
+                    return;
+                }
+                handler.handle(exchange, boardPath);
+            } finally {
+                board.release();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendInternalServerError(exchange, e.getMessage());
+        }
+    }
+}
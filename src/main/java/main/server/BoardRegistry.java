@@ -0,0 +1,189 @@
+package main.java.main.server;
+
+import com.google.gson.Gson;
+import main.java.main.manager.TaskManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Реестр независимых досок: у каждой свой TaskManager (свое пространство id и свой файл), своя блокировка,
+ * свой набор обработчиков и свои таймеры уведомлений, которые тикают на общем планировщике реестра. Доска загружается при первом обращении и выгружается после простоя,
+ * поэтому нагрузка на одну доску не блокирует другие, а память занимают только активные доски.
+ */
+public class BoardRegistry {
+    private final Function<String, TaskManager> loader;
+    private final Gson gson;
+    private final long idleNanos;
+    // Доски по id; доска появляется в карте до загрузки, чтобы ее загружал только один поток и вне блокировок карты
+    private final Map<String, CompletableFuture<Board>> boards = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "board-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BoardRegistry(Function<String, TaskManager> loader, Gson gson, long idleMillis) {
+        this.loader = loader;
+        this.gson = gson;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        long period = Math.max(1, idleMillis / 2);
+        sweeper.scheduleAtFixedRate(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Допустимый id доски: латиница, цифры, '-' и '_' (id используется в имени файла)
+    public static boolean isValidBoardId(String id) {
+        if (id.isEmpty() || id.length() > 64) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+    Получение доски с захваченной блокировкой; вызывающий обязан вызвать release().
+    Если доска была выгружена между поиском и захватом блокировки, она загружается заново.
+     */
+    public Board acquire(String id) {
+        while (true) {
+            Board board = load(id);
+            board.lock.lock();
+            if (!board.evicted) {
+                board.touch();
+                return board;
+            }
+            board.lock.unlock();
+        }
+    }
+
+    /*
+    Загруженная доска или загрузка новой. Загрузку выполняет поток, первым поставивший ее в карту;
+    остальные ждут ее результата, а запросы к другим доскам не ждут
+     */
+    private Board load(String id) {
+        CompletableFuture<Board> loading = boards.get(id);
+        if (loading == null) {
+            CompletableFuture<Board> created = new CompletableFuture<>();
+            loading = boards.putIfAbsent(id, created);
+            if (loading == null) {
+                try {
+                    Board board = new Board(loader.apply(id), gson);
+                    board.taskManager.getTimers().start(sweeper);
+                    created.complete(board);
+                    return board;
+                } catch (RuntimeException e) {
+                    boards.remove(id, created);
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            // Ошибка загрузки уже убрала доску из карты; следующий запрос попробует загрузить ее снова
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    public int getLoadedCount() {
+        return boards.size();
+    }
+
+    // Остановка выгрузки и закрытие всех загруженных досок
+    public void close() {
+        sweeper.shutdownNow();
+        for (Map.Entry<String, CompletableFuture<Board>> entry : boards.entrySet()) {
+            Board board = entry.getValue().getNow(null);
+            if (board == null) {
+                continue;
+            }
+            board.lock.lock();
+            try {
+                unload(entry, board);
+            } finally {
+                board.lock.unlock();
+            }
+        }
+    }
+
+    // Выгрузка досок, к которым давно не обращались; занятые и еще загружающиеся доски пропускаются
+    void evictIdle() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, CompletableFuture<Board>> entry : boards.entrySet()) {
+            Board board = entry.getValue().getNow(null);
+            if (board != null && now - board.lastAccess > idleNanos && board.lock.tryLock()) {
+                try {
+                    if (now - board.lastAccess > idleNanos) {
+                        unload(entry, board);
+                    }
+                } finally {
+                    board.lock.unlock();
+                }
+            }
+        }
+    }
+
+    // Вызывается под блокировкой доски
+    private void unload(Map.Entry<String, CompletableFuture<Board>> entry, Board board) {
+        board.evicted = true;
+        boards.remove(entry.getKey(), entry.getValue());
+        board.taskManager.getTimers().stop();
+        board.taskManager.close();
+    }
+
+    public static class Board {
+        private final TaskManager taskManager;
+        private final Map<String, BaseHttpHandler> handlers = new HashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long lastAccess;
+        private boolean evicted = false;
+
+        private Board(TaskManager taskManager, Gson gson) {
+            this.taskManager = taskManager;
+            handlers.put("tasks", new TaskHandler(taskManager, gson));
+            handlers.put("subtasks", new SubTaskHandler(taskManager, gson));
+            handlers.put("epics", new EpicHandler(taskManager, gson));
+            handlers.put("history", new HistoryHandler(taskManager, gson));
+            handlers.put("prioritized", new PrioritizedHandler(taskManager, gson));
+            handlers.put("search", new SearchHandler(taskManager, gson));
+            handlers.put("changes", new ChangesHandler(taskManager, gson));
+            handlers.put("critical-path", new CriticalPathHandler(taskManager, gson));
+            handlers.put("recurring", new RecurringHandler(taskManager, gson));
+            touch();
+        }
+
+        public TaskManager getTaskManager() {
+            return taskManager;
+        }
+
+        // Обработчик ресурса доски по первому сегменту пути ("tasks", "epics", ...)
+        public BaseHttpHandler getHandler(String resource) {
+            return handlers.get(resource);
+        }
+
+        public void release() {
+            touch();
+            lock.unlock();
+        }
+
+        private void touch() {
+            lastAccess = System.nanoTime();
+        }
+    }
+}
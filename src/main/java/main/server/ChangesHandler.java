@@ -0,0 +1,43 @@
+package main.java.main.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import main.java.main.manager.ChangeLog;
+import main.java.main.manager.TaskManager;
+
+import java.io.IOException;
+
+public class ChangesHandler extends BaseHttpHandler {
+    private final TaskManager taskManager;
+
+    public ChangesHandler(TaskManager taskManager, Gson gson) {
+        super(gson);
+        this.taskManager = taskManager;
+
+        router.add("GET", "/changes", (h, p) -> handleGetChanges(h));
+    }
+
+    @Override
+    public void handle(HttpExchange exchange, String path) throws IOException {
+        try {
+            dispatch(exchange, path);
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendInternalServerError(exchange, e.getMessage());
+        }
+    }
+
+    private void handleGetChanges(HttpExchange exchange) throws IOException {
+        long since;
+        try {
+            String sinceParam = getQueryParam(exchange, "since");
+            // Без since клиент получает только текущий номер и признак полной загрузки
+            since = sinceParam != null ? Long.parseLong(sinceParam) : -1;
+        } catch (NumberFormatException e) {
+            sendBadRequest(exchange, "Некорректный номер изменения: " + e.getMessage());
+            return;
+        }
+        ChangeLog.ChangeSet changes = taskManager.getChangesSince(since);
+        sendText(exchange, gson.toJson(changes), 200);
+    }
+}
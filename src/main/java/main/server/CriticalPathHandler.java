@@ -0,0 +1,33 @@
+package main.java.main.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import main.java.main.manager.TaskManager;
+
+import java.io.IOException;
+
+public class CriticalPathHandler extends BaseHttpHandler {
+    private final TaskManager taskManager;
+
+    public CriticalPathHandler(TaskManager taskManager, Gson gson) {
+        super(gson);
+        this.taskManager = taskManager;
+
+        router.add("GET", "/critical-path", (h, p) -> handleGetCriticalPath(h));
+    }
+
+    @Override
+    public void handle(HttpExchange exchange, String path) throws IOException {
+        try {
+            dispatch(exchange, path);
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendInternalServerError(exchange, e.getMessage());
+        }
+    }
+
+    // Самая длинная цепочка зависимых задач: {"length": минуты, "taskIds": [...]}
+    private void handleGetCriticalPath(HttpExchange exchange) throws IOException {
+        sendText(exchange, gson.toJson(taskManager.getCriticalPath()), 200);
+    }
+}
@@ -0,0 +1,44 @@
+package main.java.main.server;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Потоковый адаптер Duration: продолжительность записывается числом минут.
+ * При чтении принимает как число, так и строку с числом, как и UnifiedDateTimeAdapter.
+ */
+public class DurationAdapter extends TypeAdapter<Duration> {
+
+    @Override
+    public void write(JsonWriter out, Duration value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.value(value.toMinutes());
+    }
+
+    @Override
+    public Duration read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.STRING) {
+            String value = in.nextString();
+            try {
+                return Duration.ofMinutes(Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                throw new JsonParseException("Некорректная продолжительность: " + value, e);
+            }
+        }
+        return Duration.ofMinutes(in.nextLong());
+    }
+}
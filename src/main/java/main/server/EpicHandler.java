@@ -1,6 +1,7 @@
 package main.java.main.server;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
 import main.java.main.manager.NotFoundException;
 import main.java.main.manager.TaskManager;
@@ -14,61 +15,44 @@ import java.util.List;
 
 public class EpicHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
+    private final JsonFragmentCache jsonCache;
 
     public EpicHandler(TaskManager taskManager, Gson gson) {
         super(gson);
         this.taskManager = taskManager;
+        this.jsonCache = new JsonFragmentCache(gson);
+
+        router.add("GET", "/epics", (h, p) -> handleGetAllEpics(h))
+                .add("POST", "/epics", (h, p) -> handleCreateEpic(h))
+                .add("DELETE", "/epics", (h, p) -> handleDeleteAllEpics(h))
+                .add("GET", "/epics/{id}", (h, p) -> handleGetEpicById(h, p[0]))
+                .add("POST", "/epics/{id}", (h, p) -> handleUpdateEpic(h, p[0]))
+                .add("DELETE", "/epics/{id}", (h, p) -> handleDeleteEpic(h, p[0]))
+                .add("GET", "/epics/{id}/subtasks", (h, p) -> handleGetSubtasksByEpicId(h, p[0]))
+                .add("GET", "/epics/{id}/children", (h, p) -> handleGetChildren(h, p[0]))
+                .add("GET", "/epics/{id}/summary", (h, p) -> handleGetSummary(h, p[0]));
     }
 
+    // Список целиком отдается из снимка и не ждет записей
     @Override
-    public void handle(HttpExchange exchange) throws IOException {
+    public boolean isSnapshotRead(HttpExchange exchange, String path) {
+        return "GET".equals(exchange.getRequestMethod()) && "/epics".equals(path);
+    }
+
+    // Одновременные запросы списка к одной версии снимка делят одну сериализацию
+    @Override
+    public String coalescingKey(HttpExchange exchange, String path) {
+        return isSnapshotRead(exchange, path) ? requestKey(exchange, path, taskManager.getSnapshot().getVersion()) : null;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange, String path) throws IOException {
         try {
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
-
-            if (path.equals("/epics")) {
-                switch (method) {
-                    case "GET":
-                        handleGetAllEpics(exchange);
-                        break;
-                    case "POST":
-                        handleCreateEpic(exchange);
-                        break;
-                    case "DELETE":
-                        handleDeleteAllEpics(exchange);
-                        break;
-                    default:
-                        sendNotFound(exchange);
-                        break;
-                }
-            } else if (path.matches("/epics/\\d+")) {
-                int epicId = getIdFromPath(path);
-                switch (method) {
-                    case "GET":
-                        handleGetEpicById(exchange, epicId);
-                        break;
-                    case "POST": // Обновление эпика
-                        handleUpdateEpic(exchange, epicId);
-                        break;
-                    case "DELETE":
-                        handleDeleteEpic(exchange, epicId);
-                        break;
-                    default:
-                        sendNotFound(exchange);
-                        break;
-                }
-            } else if (path.matches("/epics/\\d+/subtasks")) {
-                if ("GET".equals(method)) {
-                    int epicId = getIdFromPath(path.substring(0, path.lastIndexOf("/"))); // Извлекаем ID эпика из части пути
-                    handleGetSubtasksByEpicId(exchange, epicId);
-                } else {
-                    sendNotFound(exchange);
-                }
-            } else {
-                sendNotFound(exchange);
-            }
+            dispatch(exchange, path);
         } catch (NotFoundException e) {
             sendNotFound(exchange);
+        } catch (JsonParseException e) {
+            sendBadRequest(exchange, "Некорректный запрос: " + e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             sendInternalServerError(exchange, e.getMessage());
@@ -76,15 +60,16 @@ public class EpicHandler extends BaseHttpHandler {
     }
 
     private void handleGetAllEpics(HttpExchange exchange) throws IOException {
-        List<Epic> epics = taskManager.getAllEpics();
-        String responseJson = gson.toJson(epics);
-        sendText(exchange, responseJson, 200);
+        // Фрагменты неизмененных сущностей снимка берутся из кэша и пишутся в ответ как есть
+        sendJsonArray(exchange, jsonCache.getAll(taskManager.getSnapshot().getEpics()), 200);
     }
 
     private void handleGetEpicById(HttpExchange exchange, int id) throws IOException, NotFoundException {
         Epic epic = taskManager.getEpicById(id);
-        String responseJson = gson.toJson(epic);
-        sendText(exchange, responseJson, 200);
+        // Версия из снимка есть в кэше; архивной сущности в снимке нет, она сериализуется отдельно
+        Epic current = taskManager.getSnapshot().getEpic(id);
+        sendBytes(exchange, current != null ? jsonCache.get(current)
+                : gson.toJson(epic).getBytes(StandardCharsets.UTF_8), 200);
     }
 
     private void handleCreateEpic(HttpExchange exchange) throws IOException {
@@ -128,4 +113,14 @@ public class EpicHandler extends BaseHttpHandler {
         sendText(exchange, responseJson, 200);
     }
 
+    // Подзадачи верхнего уровня эпика; /subtasks возвращает все подзадачи дерева
+    private void handleGetChildren(HttpExchange exchange, int epicId) throws IOException {
+        taskManager.getEpicById(epicId);
+        sendText(exchange, gson.toJson(taskManager.getChildren(epicId)), 200);
+    }
+
+    private void handleGetSummary(HttpExchange exchange, int epicId) throws IOException {
+        taskManager.getEpicById(epicId);
+        sendText(exchange, gson.toJson(taskManager.getSubtreeSummary(epicId)), 200);
+    }
 }
\ No newline at end of file
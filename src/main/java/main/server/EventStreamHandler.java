@@ -0,0 +1,125 @@
+package main.java.main.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import main.java.main.manager.TaskEvent;
+import main.java.main.manager.TaskEventBuffer;
+import main.java.main.manager.TaskManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Поток событий изменения задач в формате Server-Sent Events (GET /events).
+ * Каждый подписчик обслуживается отдельным потоком и читает кольцевой буфер в своем темпе:
+ * медленный клиент тормозит только себя, а при отставании больше емкости буфера получает событие reset.
+ * Продолжить с известного места можно заголовком Last-Event-ID или параметром since.
+ */
+public class EventStreamHandler extends BaseHttpHandler {
+    private static final int MAX_SUBSCRIBERS = 64;
+    private static final int BATCH_SIZE = 100;
+    private static final long HEARTBEAT_MILLIS = 15_000;
+
+    private final TaskEventBuffer eventBuffer;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ExecutorService streamers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "sse-streamer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EventStreamHandler(TaskManager taskManager, Gson gson) {
+        super(gson);
+        this.eventBuffer = taskManager.getEventBuffer();
+
+        router.add("GET", "/events", (h, p) -> handleSubscribe(h));
+    }
+
+    @Override
+    public void handle(HttpExchange exchange, String path) throws IOException {
+        try {
+            dispatch(exchange, path);
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendInternalServerError(exchange, e.getMessage());
+        }
+    }
+
+    // Остановка всех потоков подписчиков
+    public void close() {
+        streamers.shutdownNow();
+    }
+
+    private void handleSubscribe(HttpExchange exchange) throws IOException {
+        long since;
+        try {
+            String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+            String sinceParam = lastEventId != null ? lastEventId : getQueryParam(exchange, "since");
+            since = sinceParam != null ? Long.parseLong(sinceParam.trim()) : eventBuffer.getLastSequence();
+        } catch (NumberFormatException e) {
+            sendBadRequest(exchange, "Некорректный номер события: " + e.getMessage());
+            return;
+        }
+        if (subscribers.incrementAndGet() > MAX_SUBSCRIBERS) {
+            subscribers.decrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", "5");
+            sendText(exchange, "Слишком много подписчиков", 503);
+            return;
+        }
+
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream;charset=utf-8");
+        exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        // Поток обработчиков сервера не блокируется: отправкой событий занимается отдельный поток
+        streamers.execute(() -> stream(exchange, since));
+    }
+
+    private void stream(HttpExchange exchange, long since) {
+        OutputStream out = exchange.getResponseBody();
+        try {
+            long lastSeq = since;
+            if (!eventBuffer.canResumeFrom(lastSeq)) {
+                lastSeq = eventBuffer.getOldestSequence() - 1;
+                write(out, "event: reset\ndata: " + lastSeq + "\n\n");
+            }
+            while (!Thread.currentThread().isInterrupted()) {
+                List<TaskEvent> events = eventBuffer.awaitAfter(lastSeq, BATCH_SIZE, HEARTBEAT_MILLIS);
+                if (events.isEmpty()) {
+                    // Комментарий SSE поддерживает соединение и позволяет заметить отключение клиента
+                    write(out, ": ping\n\n");
+                    continue;
+                }
+                if (events.get(0).getSeq() != lastSeq + 1) {
+                    // Клиент отстал больше чем на емкость буфера: часть событий потеряна
+                    write(out, "event: reset\ndata: " + (events.get(0).getSeq() - 1) + "\n\n");
+                }
+                StringBuilder batch = new StringBuilder();
+                for (TaskEvent event : events) {
+                    batch.append("id: ").append(event.getSeq()).append('\n')
+                            .append("event: ").append(event.getType().name().toLowerCase(Locale.ROOT)).append('\n')
+                            .append("data: ").append(gson.toJson(event)).append("\n\n");
+                    lastSeq = event.getSeq();
+                }
+                write(out, batch.toString());
+            }
+        } catch (IOException e) {
+            // Клиент отключился
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscribers.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
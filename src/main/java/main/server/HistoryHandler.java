@@ -14,16 +14,14 @@ public class HistoryHandler extends BaseHttpHandler {
     public HistoryHandler(TaskManager taskManager, Gson gson) {
         super(gson);
         this.taskManager = taskManager;
+
+        router.add("GET", "/history", (h, p) -> handleGetHistory(h));
     }
 
     @Override
-    public void handle(HttpExchange exchange) throws IOException {
+    public void handle(HttpExchange exchange, String path) throws IOException {
         try {
-            if ("GET".equals(exchange.getRequestMethod()) && "/history".equals(exchange.getRequestURI().getPath())) {
-                handleGetHistory(exchange);
-            } else {
-                sendNotFound(exchange);
-            }
+            dispatch(exchange, path);
         } catch (Exception e) {
             e.printStackTrace();
             sendInternalServerError(exchange, e.getMessage());
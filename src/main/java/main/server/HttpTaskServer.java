@@ -2,6 +2,7 @@ package main.java.main.server;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import main.java.main.manager.Managers;
 import main.java.main.manager.TaskManager;
@@ -11,22 +12,52 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class HttpTaskServer {
     private static final int PORT = 8080;
+    private static final long BOARD_IDLE_MILLIS = 10 * 60 * 1000;
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int QUEUE_CAPACITY = THREADS * 4;
+    // Ожидание места у эндпоинта и время ответа, выше которого его предел снижается
+    private static final long ADMISSION_WAIT_MILLIS = 100;
+    private static final long ADMISSION_TARGET_LATENCY_MILLIS = 500;
     private final HttpServer server;
     private final TaskManager taskManager;
     private final Gson gson;
+    private final BoardRegistry boardRegistry;
+    // Блокировка доски по умолчанию (/tasks, /epics, ...): менеджер задач не потокобезопасен
+    private final ReentrantLock defaultBoardLock = new ReentrantLock();
+    /*
+    Запрос, не поместившийся в очередь пула, сразу получает 503. Из очереди пула запрос попадает к пределу эндпоинта:
+    сверх него он ждет недолго и получает 503, освобождая поток пула.
+    Предел и очередь ожидания эндпоинта не больше числа потоков: больше одновременно выполнять и ждать некому
+     */
+    private final ExecutorService executor = AdmissionController.newExecutor(THREADS, QUEUE_CAPACITY);
+    private final AdmissionController admission = new AdmissionController(THREADS, THREADS, THREADS,
+            ADMISSION_WAIT_MILLIS, ADMISSION_TARGET_LATENCY_MILLIS);
+    // Тики таймеров начала и просрочки задач доски по умолчанию
+    private final ScheduledExecutorService timerTicker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-timers");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private EventStreamHandler eventStreamHandler;
 
     // Конструктор по умолчанию для продакшн использования
     public HttpTaskServer() throws IOException {
         File dataFile = new File("tasks.csv");
         this.taskManager = Managers.getDefaultFileBacked(dataFile); // Или getDefault() для InMemory
 
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDateTime.class, new UnifiedDateTimeAdapter()) // Ваш существующий адаптер
-                .registerTypeAdapter(Duration.class, new UnifiedDateTimeAdapter()) // НОВЫЙ адаптер для Duration
-                .create();
+        this.gson = createGson();
+        File boardsDir = new File("boards");
+        this.boardRegistry = new BoardRegistry(boardId -> {
+            boardsDir.mkdirs();
+            return Managers.getDefaultFileBacked(new File(boardsDir, boardId + ".csv"));
+        }, gson, BOARD_IDLE_MILLIS);
 
         // Создание сервера
         this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
@@ -39,6 +70,7 @@ public class HttpTaskServer {
     public HttpTaskServer(TaskManager taskManager, Gson gson) throws IOException {
         this.taskManager = taskManager;
         this.gson = gson;
+        this.boardRegistry = new BoardRegistry(boardId -> Managers.getDefault(), gson, BOARD_IDLE_MILLIS);
 
         // Создание сервера
         this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
@@ -47,21 +79,40 @@ public class HttpTaskServer {
         setupContexts();
     }
 
+    // Gson с потоковыми адаптерами для задач, дат и продолжительностей
+    public static Gson createGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapterFactory(new TaskTypeAdapterFactory())
+                .create();
+    }
+
     private void setupContexts() {
         // Убедимся, что все обработчики используют один и тот же TaskManager
         System.out.println("Setting up contexts with TaskManager: " + taskManager.hashCode());
 
-        server.createContext("/tasks", new TaskHandler(taskManager, gson));
-        server.createContext("/subtasks", new SubTaskHandler(taskManager, gson));
-        server.createContext("/epics", new EpicHandler(taskManager, gson));
-        server.createContext("/history", new HistoryHandler(taskManager, gson));
-        server.createContext("/prioritized", new PrioritizedHandler(taskManager, gson));
+        admitted("/tasks", locked(new TaskHandler(taskManager, gson)));
+        admitted("/subtasks", locked(new SubTaskHandler(taskManager, gson)));
+        admitted("/epics", locked(new EpicHandler(taskManager, gson)));
+        admitted("/history", locked(new HistoryHandler(taskManager, gson)));
+        admitted("/prioritized", locked(new PrioritizedHandler(taskManager, gson)));
+        admitted("/search", locked(new SearchHandler(taskManager, gson)));
+        admitted("/changes", locked(new ChangesHandler(taskManager, gson)));
+        admitted("/critical-path", locked(new CriticalPathHandler(taskManager, gson)));
+        admitted("/recurring", locked(new RecurringHandler(taskManager, gson)));
+        // Подписка только читает потокобезопасный буфер событий, блокировка не нужна;
+        // соединение держится долго, поэтому в пределы допуска она не входит
+        eventStreamHandler = new EventStreamHandler(taskManager, gson);
+        server.createContext("/events", AdmissionController.sheddable(eventStreamHandler));
+        admitted("/boards", new BoardHandler(boardRegistry, gson));
+        server.createContext("/admission", AdmissionController.sheddable(new AdmissionHandler(admission, gson)));
 
         // Обработчик только для корневого пути "/"
-        server.createContext("/", (exchange) -> {
+        server.createContext("/", AdmissionController.sheddable(exchange -> {
             String path = exchange.getRequestURI().getPath();
             if ("/".equals(path)) {
-                String response = "Task Server is running. Available endpoints: /tasks, /subtasks, /epics, /history, /prioritized";
+                String response = "Task Server is running. Available endpoints: /tasks, /subtasks, /epics, /history, /prioritized, /search, /events, /changes, /critical-path, /recurring, /boards/{id}/..., /admission";
                 exchange.sendResponseHeaders(200, response.getBytes().length);
                 exchange.getResponseBody().write(response.getBytes());
             } else {
@@ -69,16 +120,52 @@ public class HttpTaskServer {
                 exchange.sendResponseHeaders(404, 0);
             }
             exchange.close();
-        });
+        }));
+    }
+
+    // Регистрация обработчика за контролем допуска: отказ при перегрузке не доходит до блокировок и объединения
+    private void admitted(String endpoint, HttpHandler handler) {
+        server.createContext(endpoint, admission.wrap(endpoint, handler));
+    }
+
+    /*
+    Обработчик доски по умолчанию, выполняемый под ее блокировкой; чтения из снимка идут без нее.
+    Одинаковые одновременные чтения объединяются до захвата блокировки, чтобы ведомые не стояли в очереди за ней
+     */
+    private HttpHandler locked(BaseHttpHandler handler) {
+        return exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            boolean snapshotRead = handler.isSnapshotRead(exchange, path);
+            handler.handleCoalesced(exchange, handler.coalescingKey(exchange, path), () -> {
+                if (snapshotRead) {
+                    handler.handle(exchange);
+                    return;
+                }
+                defaultBoardLock.lock();
+                try {
+                    handler.handle(exchange);
+                } finally {
+                    defaultBoardLock.unlock();
+                }
+            });
+        };
     }
 
     public void start() {
         System.out.println("Запуск сервера на порту " + PORT);
+        server.setExecutor(executor);
         server.start();
+        taskManager.getTimers().start(timerTicker);
     }
 
     public void stop() {
+        eventStreamHandler.close();
+        taskManager.getTimers().stop();
+        timerTicker.shutdownNow();
+        boardRegistry.close();
         server.stop(0);
+        executor.shutdownNow();
+        taskManager.close();
         System.out.println("Сервер остановлен");
     }
 
@@ -0,0 +1,73 @@
+package main.java.main.server;
+
+import com.google.gson.Gson;
+import main.java.main.model.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш готового JSON сущностей в UTF-8 по id.
+ * Принимает только сущности из снимка менеджера: они не меняются, а любое изменение в менеджере
+ * публикует новую копию. Поэтому фрагмент действителен, пока в снимке тот же объект,
+ * и проверка свежести - одно сравнение ссылок без версий и подписки на события.
+ * Фрагменты удаленных сущностей вычищаются при сборке полного списка, когда их становится заметно больше живых.
+ */
+public class JsonFragmentCache {
+    // Запас на удаленные сущности, после которого кэш чистится
+    private static final int SWEEP_SLACK = 64;
+
+    private final Gson gson;
+    private final Map<Integer, Fragment> fragments = new ConcurrentHashMap<>();
+
+    public JsonFragmentCache(Gson gson) {
+        this.gson = gson;
+    }
+
+    // JSON сущности из снимка: сериализация только при первом обращении к этой версии
+    public byte[] get(Task entity) {
+        Fragment fragment = fragments.get(entity.getId());
+        if (fragment != null && fragment.entity == entity) {
+            return fragment.json;
+        }
+        byte[] json = gson.toJson(entity).getBytes(StandardCharsets.UTF_8);
+        fragments.put(entity.getId(), new Fragment(entity, json));
+        return json;
+    }
+
+    // Фрагменты всех сущностей списка в его порядке
+    public List<byte[]> getAll(Collection<? extends Task> entities) {
+        List<byte[]> result = new ArrayList<>(entities.size());
+        for (Task entity : entities) {
+            result.add(get(entity));
+        }
+        if (fragments.size() > 2 * entities.size() + SWEEP_SLACK) {
+            Set<Integer> live = new HashSet<>();
+            for (Task entity : entities) {
+                live.add(entity.getId());
+            }
+            fragments.keySet().retainAll(live);
+        }
+        return result;
+    }
+
+    public int size() {
+        return fragments.size();
+    }
+
+    private static class Fragment {
+        final Task entity;
+        final byte[] json;
+
+        Fragment(Task entity, byte[] json) {
+            this.entity = entity;
+            this.json = json;
+        }
+    }
+}
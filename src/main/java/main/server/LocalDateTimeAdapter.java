@@ -0,0 +1,93 @@
+package main.java.main.server;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Потоковый адаптер LocalDateTime в формате "yyyy-MM-dd HH:mm".
+ * Форматирует и разбирает дату вручную, без DateTimeFormatter и промежуточного JsonElement.
+ */
+public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int FORMATTED_LENGTH = 16;
+
+    @Override
+    public void write(JsonWriter out, LocalDateTime value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.value(format(value));
+    }
+
+    @Override
+    public LocalDateTime read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return parse(in.nextString());
+    }
+
+    static String format(LocalDateTime value) {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            return value.format(DATE_TIME_FORMATTER);
+        }
+        char[] buf = new char[FORMATTED_LENGTH];
+        buf[0] = (char) ('0' + year / 1000);
+        buf[1] = (char) ('0' + year / 100 % 10);
+        buf[2] = (char) ('0' + year / 10 % 10);
+        buf[3] = (char) ('0' + year % 10);
+        buf[4] = '-';
+        writeTwoDigits(buf, 5, value.getMonthValue());
+        buf[7] = '-';
+        writeTwoDigits(buf, 8, value.getDayOfMonth());
+        buf[10] = ' ';
+        writeTwoDigits(buf, 11, value.getHour());
+        buf[13] = ':';
+        writeTwoDigits(buf, 14, value.getMinute());
+        return new String(buf);
+    }
+
+    static LocalDateTime parse(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            if (value.length() == FORMATTED_LENGTH && value.charAt(4) == '-' && value.charAt(7) == '-'
+                    && value.charAt(10) == ' ' && value.charAt(13) == ':') {
+                return LocalDateTime.of(digits(value, 0, 4), digits(value, 5, 7), digits(value, 8, 10),
+                        digits(value, 11, 13), digits(value, 14, 16));
+            }
+            return LocalDateTime.parse(value, DATE_TIME_FORMATTER);
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new JsonParseException("Некорректная дата: " + value, e);
+        }
+    }
+
+    private static void writeTwoDigits(char[] buf, int offset, int value) {
+        buf[offset] = (char) ('0' + value / 10);
+        buf[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    private static int digits(String value, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Ожидалась цифра в позиции " + i);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
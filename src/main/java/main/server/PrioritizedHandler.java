@@ -1,29 +1,46 @@
 package main.java.main.server;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
 import main.java.main.manager.TaskManager;
+import main.java.main.model.RecurringTask;
 import main.java.main.model.Task;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public class PrioritizedHandler extends BaseHttpHandler {
+    private static final int DEFAULT_CONFLICTS_LIMIT = 20;
+    // Наибольший limit ближайших задач: вхождения бесконечной серии строятся, пока не наберется limit
+    private static final int MAX_LIMIT = RecurringTask.MAX_OCCURRENCES;
     private final TaskManager taskManager;
 
     public PrioritizedHandler(TaskManager taskManager, Gson gson) {
         super(gson);
         this.taskManager = taskManager;
+
+        router.add("GET", "/prioritized", (h, p) -> handleGetPrioritized(h))
+                .add("GET", "/prioritized/free-slot", (h, p) -> handleFindFreeSlot(h))
+                .add("GET", "/prioritized/conflicts", (h, p) -> handleFindConflicts(h));
+    }
+
+    // Чтения без побочных эффектов: одинаковые одновременные запросы к одной версии состояния вычисляются один раз
+    @Override
+    public String coalescingKey(HttpExchange exchange, String path) {
+        return "GET".equals(exchange.getRequestMethod())
+                ? requestKey(exchange, path, taskManager.getSnapshot().getVersion()) : null;
     }
 
     @Override
-    public void handle(HttpExchange exchange) throws IOException {
+    public void handle(HttpExchange exchange, String path) throws IOException {
         try {
-            if ("GET".equals(exchange.getRequestMethod()) && "/prioritized".equals(exchange.getRequestURI().getPath())) {
-                handleGetPrioritized(exchange);
-            } else {
-                sendNotFound(exchange);
-            }
+            dispatch(exchange, path);
         } catch (Exception e) {
             e.printStackTrace();
             sendInternalServerError(exchange, e.getMessage());
@@ -31,8 +48,108 @@ public class PrioritizedHandler extends BaseHttpHandler {
     }
 
     private void handleGetPrioritized(HttpExchange exchange) throws IOException {
-        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        LocalDateTime from;
+        LocalDateTime to;
+        int limit;
+        try {
+            from = parseDateTimeParam(getQueryParam(exchange, "from"));
+            to = parseDateTimeParam(getQueryParam(exchange, "to"));
+            String limitParam = getQueryParam(exchange, "limit");
+            limit = limitParam != null ? Integer.parseInt(limitParam) : -1;
+            if (limitParam != null && (limit < 0 || limit > MAX_LIMIT)) {
+                throw new NumberFormatException("limit должен быть от 0 до " + MAX_LIMIT);
+            }
+        } catch (JsonParseException | NumberFormatException e) {
+            sendBadRequest(exchange, "Некорректные параметры запроса: " + e.getMessage());
+            return;
+        }
+
+        String assignee = getQueryParam(exchange, "assignee");
+        List<Task> prioritized;
+        if (assignee != null) {
+            // Расписание исполнителя; окно и limit для него не применяются
+            prioritized = taskManager.getPrioritizedTasks(assignee);
+        } else if (limit >= 0) {
+            prioritized = taskManager.getNextTasks(from, limit);
+            if (to != null) {
+                // Список отсортирован по времени начала, поэтому достаточно отрезать хвост
+                int end = 0;
+                while (end < prioritized.size() && prioritized.get(end).getStartTime().isBefore(to)) {
+                    end++;
+                }
+                prioritized = prioritized.subList(0, end);
+            }
+        } else if (from != null || to != null) {
+            prioritized = taskManager.getPrioritizedTasks(from, to);
+        } else {
+            prioritized = taskManager.getPrioritizedTasks();
+        }
         String responseJson = gson.toJson(prioritized);
         sendText(exchange, responseJson, 200);
     }
-}
\ No newline at end of file
+
+    private void handleFindFreeSlot(HttpExchange exchange) throws IOException {
+        Duration duration;
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            String durationParam = getQueryParam(exchange, "duration");
+            if (durationParam == null) {
+                sendBadRequest(exchange, "Не указана продолжительность (duration, в минутах)");
+                return;
+            }
+            duration = Duration.ofMinutes(Long.parseLong(durationParam));
+            if (duration.isNegative()) {
+                throw new NumberFormatException("duration не может быть отрицательной");
+            }
+            from = parseDateTimeParam(getQueryParam(exchange, "from"));
+            to = parseDateTimeParam(getQueryParam(exchange, "to"));
+        } catch (JsonParseException | NumberFormatException e) {
+            sendBadRequest(exchange, "Некорректные параметры запроса: " + e.getMessage());
+            return;
+        }
+        if (from == null) {
+            from = LocalDateTime.now().withSecond(0).withNano(0);
+        }
+
+        Optional<LocalDateTime> slot = taskManager.findFreeSlot(duration, from, to, getQueryParam(exchange, "assignee"));
+        if (slot.isEmpty()) {
+            sendNotFound(exchange);
+            return;
+        }
+        Map<String, LocalDateTime> response = new LinkedHashMap<>();
+        response.put("startTime", slot.get());
+        response.put("endTime", slot.get().plus(duration));
+        sendText(exchange, gson.toJson(response), 200);
+    }
+
+    // Id задач, с которыми пересекся бы интервал startTime + duration
+    private void handleFindConflicts(HttpExchange exchange) throws IOException {
+        Task probe;
+        int limit;
+        try {
+            LocalDateTime startTime = parseDateTimeParam(getQueryParam(exchange, "startTime"));
+            String durationParam = getQueryParam(exchange, "duration");
+            if (startTime == null || durationParam == null) {
+                sendBadRequest(exchange, "Нужно указать startTime и duration (в минутах)");
+                return;
+            }
+            Duration duration = Duration.ofMinutes(Long.parseLong(durationParam));
+            if (duration.isNegative()) {
+                throw new NumberFormatException("duration не может быть отрицательной");
+            }
+            String limitParam = getQueryParam(exchange, "limit");
+            limit = limitParam != null ? Integer.parseInt(limitParam) : DEFAULT_CONFLICTS_LIMIT;
+            if (limit < 0) {
+                throw new NumberFormatException("limit не может быть отрицательным");
+            }
+            // id 0 не выдается задачам, поэтому пробная задача не исключает ни одну существующую
+            probe = new Task(null, null, 0, null, duration, startTime);
+            probe.setAssignee(getQueryParam(exchange, "assignee"));
+        } catch (JsonParseException | NumberFormatException e) {
+            sendBadRequest(exchange, "Некорректные параметры запроса: " + e.getMessage());
+            return;
+        }
+        sendText(exchange, gson.toJson(taskManager.findConflictingTaskIds(probe, limit)), 200);
+    }
+}
@@ -0,0 +1,140 @@
+package main.java.main.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import main.java.main.manager.NotFoundException;
+import main.java.main.manager.TaskManager;
+import main.java.main.manager.TaskOverlapException;
+import main.java.main.model.RecurrenceRule;
+import main.java.main.model.RecurringTask;
+import main.java.main.model.Task;
+import main.java.main.model.TaskOccurrence;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+Повторяющиеся задачи: серия хранится одной записью с правилом "recurrence" (FREQ=DAILY|WEEKLY;INTERVAL;BYDAY;COUNT;UNTIL),
+вхождения строятся по запросу в окне from/to и ограничиваются limit
+ */
+public class RecurringHandler extends BaseHttpHandler {
+    private static final int DEFAULT_OCCURRENCES_LIMIT = 100;
+    private final TaskManager taskManager;
+
+    public RecurringHandler(TaskManager taskManager, Gson gson) {
+        super(gson);
+        this.taskManager = taskManager;
+
+        router.add("GET", "/recurring", (h, p) -> handleGetAll(h))
+                .add("POST", "/recurring", (h, p) -> handleCreate(h))
+                .add("GET", "/recurring/{id}", (h, p) -> handleGetById(h, p[0]))
+                .add("DELETE", "/recurring/{id}", (h, p) -> handleDelete(h, p[0]))
+                .add("GET", "/recurring/{id}/occurrences", (h, p) -> handleGetOccurrences(h, p[0]))
+                .add("POST", "/recurring/{id}/occurrences", (h, p) -> handleOverrideOccurrence(h, p[0]))
+                .add("DELETE", "/recurring/{id}/occurrences", (h, p) -> handleCancelOccurrence(h, p[0]));
+    }
+
+    @Override
+    public void handle(HttpExchange exchange, String path) throws IOException {
+        try {
+            dispatch(exchange, path);
+        } catch (NotFoundException e) {
+            sendNotFound(exchange);
+        } catch (TaskOverlapException e) {
+            sendHasInteraction(exchange, e);
+        } catch (IllegalArgumentException | JsonParseException e) {
+            sendBadRequest(exchange, "Некорректный запрос: " + e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendInternalServerError(exchange, e.getMessage());
+        }
+    }
+
+    private void handleGetAll(HttpExchange exchange) throws IOException {
+        List<RecurringTask> series = taskManager.getAllRecurringTasks();
+        sendText(exchange, gson.toJson(series), 200);
+    }
+
+    private void handleGetById(HttpExchange exchange, int id) throws IOException {
+        sendText(exchange, gson.toJson(taskManager.getRecurringTaskById(id)), 200);
+    }
+
+    // Тело как у задачи плюс "recurrence"; startTime обязателен и задает первое вхождение
+    private void handleCreate(HttpExchange exchange) throws IOException, TaskOverlapException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        JsonObject request = gson.fromJson(body, JsonObject.class);
+        if (request == null || !request.has("recurrence") || request.get("recurrence").isJsonNull()) {
+            sendBadRequest(exchange, "Ожидается поле recurrence с правилом повторения");
+            return;
+        }
+        // Правило разбирается отдельно, остальные поля - как у обычной задачи
+        RecurrenceRule rule = RecurrenceRule.parse(request.remove("recurrence").getAsString());
+        Task task = gson.fromJson(request, Task.class);
+        RecurringTask created = taskManager.createRecurringTask(task.getTitle(), task.getDescription(),
+                task.getStatus(), task.getDuration(), task.getStartTime(), task.getAssignee(), rule);
+        sendText(exchange, gson.toJson(created), 201);
+    }
+
+    private void handleDelete(HttpExchange exchange, int id) throws IOException {
+        taskManager.deleteRecurringTask(id);
+        sendText(exchange, "Повторяющаяся задача удалена", 200);
+    }
+
+    // Вхождения в окне [from, to); без from - с начала серии, без to - первые limit
+    private void handleGetOccurrences(HttpExchange exchange, int id) throws IOException {
+        LocalDateTime from = parseDateTimeParam(getQueryParam(exchange, "from"));
+        LocalDateTime to = parseDateTimeParam(getQueryParam(exchange, "to"));
+        String limitParam = getQueryParam(exchange, "limit");
+        int limit = limitParam != null ? Integer.parseInt(limitParam) : DEFAULT_OCCURRENCES_LIMIT;
+        if (limit < 0 || limit > RecurringTask.MAX_OCCURRENCES) {
+            throw new IllegalArgumentException("limit должен быть от 0 до " + RecurringTask.MAX_OCCURRENCES);
+        }
+        List<TaskOccurrence> occurrences = taskManager.getOccurrences(id, from, to, limit);
+        sendText(exchange, gson.toJson(occurrences), 200);
+    }
+
+    /*
+    Изменение вхождения с исходным началом start. Тело - поля задачи, которые меняются;
+    остальные берутся из текущего вида вхождения
+     */
+    private void handleOverrideOccurrence(HttpExchange exchange, int id) throws IOException, TaskOverlapException {
+        LocalDateTime start = requireStart(exchange);
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        JsonObject changes = gson.fromJson(body, JsonObject.class);
+        if (changes == null) {
+            sendBadRequest(exchange, "Ожидается JSON с изменениями вхождения");
+            return;
+        }
+        RecurringTask series = taskManager.getRecurringTaskById(id);
+        Task current = series.getOverrides().get(start);
+        JsonObject merged = gson.toJsonTree(current != null ? current : series, Task.class).getAsJsonObject();
+        if (current == null) {
+            merged.addProperty("startTime", LocalDateTimeAdapter.format(start));
+            merged.remove("recurrence");
+            merged.remove("overrides");
+            merged.remove("cancelled");
+        }
+        for (String name : changes.keySet()) {
+            merged.add(name, changes.get(name));
+        }
+        taskManager.overrideOccurrence(id, start, gson.fromJson(merged, Task.class));
+        sendText(exchange, "Вхождение изменено", 201);
+    }
+
+    private void handleCancelOccurrence(HttpExchange exchange, int id) throws IOException {
+        taskManager.cancelOccurrence(id, requireStart(exchange));
+        sendText(exchange, "Вхождение отменено", 200);
+    }
+
+    private LocalDateTime requireStart(HttpExchange exchange) {
+        LocalDateTime start = parseDateTimeParam(getQueryParam(exchange, "start"));
+        if (start == null) {
+            throw new IllegalArgumentException("Не указано исходное время начала вхождения (start)");
+        }
+        return start;
+    }
+}
@@ -0,0 +1,152 @@
+package main.java.main.server;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Маршрутизатор запросов по заранее разобранным шаблонам путей.
+ * Шаблон вида "/tasks/{id}" разбирается на сегменты один раз при регистрации,
+ * поэтому сопоставление пути не использует регулярные выражения и String.split.
+ * Переменные пути поддерживают только неотрицательные целые числа.
+ */
+public class Router {
+
+    @FunctionalInterface
+    public interface Action {
+        void handle(HttpExchange exchange, int[] params) throws Exception;
+    }
+
+    private final List<Route> routes = new ArrayList<>();
+    private int maxParams = 0;
+
+    // Регистрация обработчика для метода и шаблона пути
+    public Router add(String method, String template, Action action) {
+        Route route = null;
+        for (Route existing : routes) {
+            if (existing.template.equals(template)) {
+                route = existing;
+                break;
+            }
+        }
+        if (route == null) {
+            route = new Route(template);
+            routes.add(route);
+            maxParams = Math.max(maxParams, route.paramCount);
+        }
+        route.actions.put(method, action);
+        return this;
+    }
+
+    // Буфер под переменные пути, достаточный для любого зарегистрированного шаблона
+    public int[] newParams() {
+        return new int[maxParams];
+    }
+
+    // Поиск шаблона, совпадающего с путем; значения переменных записываются в params
+    public Route find(String path, int[] params) {
+        for (Route route : routes) {
+            if (route.matches(path, params)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    public static class Route {
+        private final String template;
+        // Литеральные сегменты; null на месте переменной
+        private final String[] segments;
+        private final int paramCount;
+        private final Map<String, Action> actions = new LinkedHashMap<>();
+
+        private Route(String template) {
+            if (!template.startsWith("/")) {
+                throw new IllegalArgumentException("Шаблон пути должен начинаться с '/': " + template);
+            }
+            this.template = template;
+            List<String> parsed = new ArrayList<>();
+            int count = 0;
+            int start = 1;
+            while (start <= template.length()) {
+                int end = template.indexOf('/', start);
+                if (end < 0) {
+                    end = template.length();
+                }
+                String segment = template.substring(start, end);
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    parsed.add(null);
+                    count++;
+                } else {
+                    parsed.add(segment);
+                }
+                start = end + 1;
+            }
+            this.segments = parsed.toArray(new String[0]);
+            this.paramCount = count;
+        }
+
+        public Action getAction(String method) {
+            return actions.get(method);
+        }
+
+        public String getAllowedMethods() {
+            return String.join(", ", actions.keySet());
+        }
+
+        private boolean matches(String path, int[] params) {
+            int length = path.length();
+            if (length == 0 || path.charAt(0) != '/') {
+                return false;
+            }
+            int pos = 1;
+            int param = 0;
+            for (int i = 0; i < segments.length; i++) {
+                if (pos > length) {
+                    return false;
+                }
+                int end = path.indexOf('/', pos);
+                if (end < 0) {
+                    end = length;
+                }
+                String literal = segments[i];
+                if (literal != null) {
+                    if (end - pos != literal.length() || !path.startsWith(literal, pos)) {
+                        return false;
+                    }
+                } else {
+                    int value = parseId(path, pos, end);
+                    if (value < 0) {
+                        return false;
+                    }
+                    params[param++] = value;
+                }
+                pos = end + 1;
+            }
+            // Путь должен закончиться ровно на последнем сегменте шаблона
+            return pos == length + 1;
+        }
+
+        // Разбор неотрицательного int без создания подстроки; -1, если сегмент не число
+        private static int parseId(String path, int start, int end) {
+            if (start == end) {
+                return -1;
+            }
+            long value = 0;
+            for (int i = start; i < end; i++) {
+                char c = path.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+                if (value > Integer.MAX_VALUE) {
+                    return -1;
+                }
+            }
+            return (int) value;
+        }
+    }
+}
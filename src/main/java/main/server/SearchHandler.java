@@ -0,0 +1,55 @@
+package main.java.main.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import main.java.main.manager.TaskManager;
+
+import java.io.IOException;
+import java.util.List;
+
+public class SearchHandler extends BaseHttpHandler {
+    private static final int DEFAULT_LIMIT = 20;
+    private final TaskManager taskManager;
+
+    public SearchHandler(TaskManager taskManager, Gson gson) {
+        super(gson);
+        this.taskManager = taskManager;
+
+        router.add("GET", "/search", (h, p) -> handleSearch(h));
+    }
+
+    // Чтения без побочных эффектов: одинаковые одновременные запросы к одной версии состояния вычисляются один раз
+    @Override
+    public String coalescingKey(HttpExchange exchange, String path) {
+        return "GET".equals(exchange.getRequestMethod())
+                ? requestKey(exchange, path, taskManager.getSnapshot().getVersion()) : null;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange, String path) throws IOException {
+        try {
+            dispatch(exchange, path);
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendInternalServerError(exchange, e.getMessage());
+        }
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        String query = getQueryParam(exchange, "q");
+        if (query == null || query.isBlank()) {
+            sendBadRequest(exchange, "Не указан поисковый запрос (q)");
+            return;
+        }
+        int limit;
+        try {
+            String limitParam = getQueryParam(exchange, "limit");
+            limit = limitParam != null ? Integer.parseInt(limitParam) : DEFAULT_LIMIT;
+        } catch (NumberFormatException e) {
+            sendBadRequest(exchange, "Некорректный limit: " + e.getMessage());
+            return;
+        }
+        List<Integer> ids = taskManager.search(query, limit);
+        sendText(exchange, gson.toJson(ids), 200);
+    }
+}
@@ -1,6 +1,9 @@
 package main.java.main.server;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
 import main.java.main.manager.NotFoundException;
 import main.java.main.manager.TaskManager;
@@ -10,56 +13,48 @@ import main.java.main.model.SubTask;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 
 public class SubTaskHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
+    private final JsonFragmentCache jsonCache;
 
     public SubTaskHandler(TaskManager taskManager, Gson gson) {
         super(gson);
         this.taskManager = taskManager;
+        this.jsonCache = new JsonFragmentCache(gson);
+
+        router.add("GET", "/subtasks", (h, p) -> handleGetAllSubtasks(h))
+                .add("POST", "/subtasks", (h, p) -> handleCreateOrUpdateSubtask(h))
+                .add("DELETE", "/subtasks", (h, p) -> handleDeleteAllSubtasks(h))
+                .add("GET", "/subtasks/{id}", (h, p) -> handleGetSubtaskById(h, p[0]))
+                .add("DELETE", "/subtasks/{id}", (h, p) -> handleDeleteSubtaskById(h, p[0]))
+                .add("PATCH", "/subtasks/{id}", (h, p) -> handlePatchSubtask(h, p[0]))
+                .add("GET", "/subtasks/{id}/children", (h, p) -> handleGetChildren(h, p[0]))
+                .add("GET", "/subtasks/{id}/summary", (h, p) -> handleGetSummary(h, p[0]));
+    }
+
+    // Список целиком отдается из снимка и не ждет записей
+    @Override
+    public boolean isSnapshotRead(HttpExchange exchange, String path) {
+        return "GET".equals(exchange.getRequestMethod()) && "/subtasks".equals(path);
+    }
+
+    // Одновременные запросы списка к одной версии снимка делят одну сериализацию
+    @Override
+    public String coalescingKey(HttpExchange exchange, String path) {
+        return isSnapshotRead(exchange, path) ? requestKey(exchange, path, taskManager.getSnapshot().getVersion()) : null;
     }
 
     @Override
-    public void handle(HttpExchange exchange) throws IOException {
+    public void handle(HttpExchange exchange, String path) throws IOException {
         try {
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
-
-            switch (method) {
-                case "GET":
-                    if (path.equals("/subtasks")) {
-                        handleGetAllSubtasks(exchange);
-                    } else if (path.matches("/subtasks/\\d+")) {
-                        handleGetSubtaskById(exchange, getIdFromPath(path));
-                    } else {
-                        sendNotFound(exchange);
-                    }
-                    break;
-                case "POST":
-                    if (path.equals("/subtasks")) {
-                        handleCreateOrUpdateSubtask(exchange);
-                    } else {
-                        sendNotFound(exchange);
-                    }
-                    break;
-                case "DELETE":
-                    if (path.matches("/subtasks/\\d+")) {
-                        handleDeleteSubtaskById(exchange, getIdFromPath(path));
-                    } else if (path.equals("/subtasks")) {
-                        handleDeleteAllSubtasks(exchange);
-                    } else {
-                        sendNotFound(exchange);
-                    }
-                    break;
-                default:
-                    sendNotFound(exchange);
-                    break;
-            }
+            dispatch(exchange, path);
         } catch (NotFoundException e) {
             sendNotFound(exchange);
         } catch (TaskOverlapException e) {
-            sendHasInteraction(exchange);
+            sendHasInteraction(exchange, e);
+        } catch (IllegalArgumentException | JsonParseException e) {
+            sendBadRequest(exchange, "Некорректный запрос: " + e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             sendInternalServerError(exchange, e.getMessage());
@@ -67,15 +62,16 @@ public class SubTaskHandler extends BaseHttpHandler {
     }
 
     private void handleGetAllSubtasks(HttpExchange exchange) throws IOException {
-        List<SubTask> subTasks = taskManager.getAllSubTasks();
-        String responseJson = gson.toJson(subTasks);
-        sendText(exchange, responseJson, 200);
+        // Фрагменты неизмененных сущностей снимка берутся из кэша и пишутся в ответ как есть
+        sendJsonArray(exchange, jsonCache.getAll(taskManager.getSnapshot().getSubTasks()), 200);
     }
 
     private void handleGetSubtaskById(HttpExchange exchange, int id) throws IOException, NotFoundException {
         SubTask subTask = taskManager.getSubTaskById(id);
-        String responseJson = gson.toJson(subTask);
-        sendText(exchange, responseJson, 200);
+        // Версия из снимка есть в кэше; архивной сущности в снимке нет, она сериализуется отдельно
+        SubTask current = taskManager.getSnapshot().getSubTask(id);
+        sendBytes(exchange, current != null ? jsonCache.get(current)
+                : gson.toJson(subTask).getBytes(StandardCharsets.UTF_8), 200);
     }
 
     private void handleCreateOrUpdateSubtask(HttpExchange exchange) throws IOException, TaskOverlapException, NotFoundException {
@@ -84,10 +80,15 @@ public class SubTaskHandler extends BaseHttpHandler {
 
         SubTask subTask = gson.fromJson(body, SubTask.class);
 
-        if (subTask.getId() == 0) { // Создание
+        if (subTask.getId() == 0 && subTask.getParentId() != 0) { // Создание вложенной подзадачи, эпик берется у родителя
+            SubTask created = taskManager.addChildSubTask(subTask.getParentId(), subTask.getTitle(),
+                    subTask.getDescription(), subTask.getStatus(), subTask.getDuration(), subTask.getStartTime(),
+                    subTask.getAssignee());
+            sendText(exchange, gson.toJson(created), 201);
+        } else if (subTask.getId() == 0) { // Создание
             // Проверим, что эпик существует
             taskManager.getEpicById(subTask.getEpicId()); // Может выбросить NotFoundException
-            taskManager.addSubTask(subTask.getTitle(), subTask.getDescription(), subTask.getEpicId(), subTask.getStatus(), subTask.getDuration(), subTask.getStartTime());
+            taskManager.addSubTask(subTask.getTitle(), subTask.getDescription(), subTask.getEpicId(), subTask.getStatus(), subTask.getDuration(), subTask.getStartTime(), subTask.getAssignee());
             sendText(exchange, "Подзадача создана", 201);
         } else { // Обновление
             taskManager.updateSubTask(subTask); // Может выбросить NotFoundException или TaskOverlapException
@@ -95,6 +96,55 @@ public class SubTaskHandler extends BaseHttpHandler {
         }
     }
 
+    /*
+    Частичное обновление подзадачи. epicId и parentId переносят ее вместе с вложенными
+    (при смене эпика без parentId - на верхний уровень), остальные поля обновляются как в POST.
+    Перенос и обновление полей выполняются менеджером одной операцией: отклоненный запрос ничего не меняет.
+     */
+    private void handlePatchSubtask(HttpExchange exchange, int id) throws IOException, TaskOverlapException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        JsonObject changes = gson.fromJson(body, JsonObject.class);
+        if (changes == null) {
+            sendBadRequest(exchange, "Ожидается JSON с изменениями подзадачи");
+            return;
+        }
+        SubTask current = taskManager.getSubTaskById(id);
+        changes.remove("id");
+        int epicId = changes.has("epicId") ? readId(changes.remove("epicId"), "epicId") : current.getEpicId();
+        int parentId = changes.has("parentId") ? readId(changes.remove("parentId"), "parentId")
+                : epicId == current.getEpicId() ? current.getParentId() : 0;
+        SubTask result;
+        if (changes.keySet().isEmpty()) {
+            result = taskManager.moveSubTask(id, epicId, parentId);
+        } else {
+            JsonObject merged = gson.toJsonTree(current, SubTask.class).getAsJsonObject();
+            for (String name : changes.keySet()) {
+                merged.add(name, changes.get(name));
+            }
+            result = taskManager.moveSubTask(id, epicId, parentId, gson.fromJson(merged, SubTask.class));
+        }
+        sendText(exchange, gson.toJson(result), 200);
+    }
+
+    // Целый id из поля запроса; null и нечисловые значения отклоняются как некорректный запрос
+    private static int readId(JsonElement value, String name) {
+        if (value == null || !value.isJsonPrimitive() || !value.getAsJsonPrimitive().isNumber()) {
+            throw new IllegalArgumentException("Поле " + name + " должно быть числом");
+        }
+        return value.getAsInt();
+    }
+
+    private void handleGetChildren(HttpExchange exchange, int id) throws IOException {
+        taskManager.getSubTaskById(id);
+        sendText(exchange, gson.toJson(taskManager.getChildren(id)), 200);
+    }
+
+    // Сводка по подзадаче и всем вложенным: число, статусы, продолжительность, начало и окончание
+    private void handleGetSummary(HttpExchange exchange, int id) throws IOException {
+        taskManager.getSubTaskById(id);
+        sendText(exchange, gson.toJson(taskManager.getSubtreeSummary(id)), 200);
+    }
+
     private void handleDeleteSubtaskById(HttpExchange exchange, int id) throws IOException, NotFoundException {
         taskManager.deleteSubTask(id);
         sendText(exchange, "Подзадача удалена", 200);
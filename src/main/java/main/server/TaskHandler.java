@@ -1,7 +1,11 @@
 package main.java.main.server;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
+import main.java.main.manager.BatchOverlapException;
+import main.java.main.manager.DependencyCycleException;
 import main.java.main.manager.NotFoundException;
 import main.java.main.manager.TaskManager;
 import main.java.main.manager.TaskOverlapException;
@@ -10,56 +14,61 @@ import main.java.main.model.Task;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TaskHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
+    private final JsonFragmentCache jsonCache;
 
     public TaskHandler(TaskManager taskManager, Gson gson) {
         super(gson);
         this.taskManager = taskManager;
+        this.jsonCache = new JsonFragmentCache(gson);
+
+        router.add("GET", "/tasks", (h, p) -> handleGetAllTasks(h))
+                .add("POST", "/tasks", (h, p) -> handleCreateOrUpdateTask(h))
+                .add("POST", "/tasks/batch", (h, p) -> handleCreateBatch(h))
+                .add("DELETE", "/tasks", (h, p) -> handleDeleteAllTasks(h))
+                .add("GET", "/tasks/{id}", (h, p) -> handleGetTaskById(h, p[0]))
+                .add("DELETE", "/tasks/{id}", (h, p) -> handleDeleteTaskById(h, p[0]))
+                .add("GET", "/tasks/{id}/dependencies", (h, p) -> handleGetDependencies(h, p[0]))
+                .add("POST", "/tasks/{id}/dependencies", (h, p) -> handleAddDependency(h, p[0]))
+                .add("DELETE", "/tasks/{id}/dependencies/{dependsOnId}", (h, p) -> handleRemoveDependency(h, p[0], p[1]));
+    }
+
+    // Список целиком отдается из снимка и не ждет записей
+    @Override
+    public boolean isSnapshotRead(HttpExchange exchange, String path) {
+        return "GET".equals(exchange.getRequestMethod()) && "/tasks".equals(path);
+    }
+
+    // Одновременные запросы списка к одной версии снимка делят одну сериализацию
+    @Override
+    public String coalescingKey(HttpExchange exchange, String path) {
+        return isSnapshotRead(exchange, path) ? requestKey(exchange, path, taskManager.getSnapshot().getVersion()) : null;
     }
 
     @Override
-    public void handle(HttpExchange exchange) throws IOException {
+    public void handle(HttpExchange exchange, String path) throws IOException {
         try {
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
-
-            switch (method) {
-                case "GET":
-                    if (path.equals("/tasks")) {
-                        handleGetAllTasks(exchange);
-                    } else if (path.matches("/tasks/\\d+")) {
-                        handleGetTaskById(exchange, getIdFromPath(path));
-                    } else {
-                        sendNotFound(exchange);
-                    }
-                    break;
-                case "POST":
-                    if (path.equals("/tasks")) {
-                        handleCreateOrUpdateTask(exchange);
-                    } else {
-                        sendNotFound(exchange);
-                    }
-                    break;
-                case "DELETE":
-                    if (path.matches("/tasks/\\d+")) {
-                        handleDeleteTaskById(exchange, getIdFromPath(path));
-                    } else if (path.equals("/tasks")) {
-                        handleDeleteAllTasks(exchange);
-                    } else {
-                        sendNotFound(exchange);
-                    }
-                    break;
-                default:
-                    sendNotFound(exchange);
-                    break;
-            }
+            dispatch(exchange, path);
         } catch (NotFoundException e) {
             sendNotFound(exchange);
+        } catch (BatchOverlapException e) {
+            sendText(exchange, gson.toJson(e.getConflicts()), 406);
         } catch (TaskOverlapException e) {
-            sendHasInteraction(exchange);
+            sendHasInteraction(exchange, e);
+        } catch (DependencyCycleException e) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("message", e.getMessage());
+            body.put("cycle", e.getCycle());
+            sendText(exchange, gson.toJson(body), 409);
+        } catch (JsonParseException e) {
+            sendBadRequest(exchange, "Некорректный запрос: " + e.getMessage());
         } catch (Exception e) { // Ловим все остальные исключения
             e.printStackTrace(); // Логируем для отладки
             sendInternalServerError(exchange, e.getMessage());
@@ -67,15 +76,16 @@ public class TaskHandler extends BaseHttpHandler {
     }
 
     private void handleGetAllTasks(HttpExchange exchange) throws IOException {
-        List<Task> tasks = taskManager.getAllTasks();
-        String responseJson = gson.toJson(tasks);
-        sendText(exchange, responseJson, 200);
+        // Фрагменты неизмененных сущностей снимка берутся из кэша и пишутся в ответ как есть
+        sendJsonArray(exchange, jsonCache.getAll(taskManager.getSnapshot().getTasks()), 200);
     }
 
     private void handleGetTaskById(HttpExchange exchange, int id) throws IOException, NotFoundException {
         Task task = taskManager.getTaskById(id);
-        String responseJson = gson.toJson(task);
-        sendText(exchange, responseJson, 200);
+        // Версия из снимка есть в кэше; архивной сущности в снимке нет, она сериализуется отдельно
+        Task current = taskManager.getSnapshot().getTask(id);
+        sendBytes(exchange, current != null ? jsonCache.get(current)
+                : gson.toJson(task).getBytes(StandardCharsets.UTF_8), 200);
     }
 
     private void handleCreateOrUpdateTask(HttpExchange exchange) throws IOException, TaskOverlapException {
@@ -84,8 +94,21 @@ public class TaskHandler extends BaseHttpHandler {
 
         Task task = gson.fromJson(body, Task.class);
 
-        if (task.getId() == 0) { // Создание новой задачи
-            Task createdTask = taskManager.createTask(task.getTitle(), task.getDescription(), task.getStatus(), task.getDuration(), task.getStartTime());
+        if (task.getId() == 0 && "true".equals(getQueryParam(exchange, "autoSchedule"))) { // Создание в свободном окне
+            LocalDateTime notBefore;
+            LocalDateTime notAfter;
+            try {
+                notBefore = task.getStartTime() != null ? task.getStartTime() : LocalDateTime.now().withSecond(0).withNano(0);
+                notAfter = parseDateTimeParam(getQueryParam(exchange, "notAfter"));
+            } catch (JsonParseException e) {
+                sendBadRequest(exchange, "Некорректные параметры запроса: " + e.getMessage());
+                return;
+            }
+            Task createdTask = taskManager.createTaskInFreeSlot(task.getTitle(), task.getDescription(), task.getStatus(),
+                    task.getDuration(), notBefore, notAfter, task.getAssignee());
+            sendText(exchange, gson.toJson(createdTask), 201);
+        } else if (task.getId() == 0) { // Создание новой задачи
+            Task createdTask = taskManager.createTask(task.getTitle(), task.getDescription(), task.getStatus(), task.getDuration(), task.getStartTime(), task.getAssignee());
             String responseJson = gson.toJson(createdTask);
             sendText(exchange, responseJson, 201);
         } else { // Обновление существующей задачи
@@ -94,6 +117,62 @@ public class TaskHandler extends BaseHttpHandler {
         }
     }
 
+    // Пакетное создание: все задачи без пересечений или 406 со списком всех конфликтов
+    private void handleCreateBatch(HttpExchange exchange) throws IOException, TaskOverlapException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Task[] batch;
+        try {
+            batch = gson.fromJson(body, Task[].class);
+        } catch (JsonParseException e) {
+            sendBadRequest(exchange, "Некорректный JSON: " + e.getMessage());
+            return;
+        }
+        if (batch == null || Arrays.asList(batch).contains(null)) {
+            sendBadRequest(exchange, "Ожидается массив задач");
+            return;
+        }
+        List<Task> created = taskManager.createTasks(Arrays.asList(batch));
+        sendText(exchange, gson.toJson(created), 201);
+    }
+
+    // Зависимости задачи или подзадачи и ее раннее начало в минутах от начала проекта
+    private void handleGetDependencies(HttpExchange exchange, int id) throws IOException {
+        sendText(exchange, gson.toJson(dependenciesOf(id)), 200);
+    }
+
+    // Тело запроса: {"dependsOn": id задачи, после окончания которой начинается эта}; 409, если получится цикл
+    private void handleAddDependency(HttpExchange exchange, int id) throws IOException, DependencyCycleException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        int dependsOnId;
+        try {
+            JsonObject request = gson.fromJson(body, JsonObject.class);
+            if (request == null || !request.has("dependsOn")) {
+                sendBadRequest(exchange, "Ожидается поле dependsOn");
+                return;
+            }
+            dependsOnId = request.get("dependsOn").getAsInt();
+        } catch (JsonParseException | IllegalStateException | NumberFormatException | UnsupportedOperationException e) {
+            sendBadRequest(exchange, "Некорректный JSON: " + e.getMessage());
+            return;
+        }
+        taskManager.addDependency(id, dependsOnId);
+        sendText(exchange, gson.toJson(dependenciesOf(id)), 201);
+    }
+
+    private void handleRemoveDependency(HttpExchange exchange, int id, int dependsOnId) throws IOException {
+        taskManager.removeDependency(id, dependsOnId);
+        sendText(exchange, "Зависимость удалена", 200);
+    }
+
+    private Map<String, Object> dependenciesOf(int id) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", id);
+        result.put("dependsOn", taskManager.getDependencies(id));
+        result.put("dependents", taskManager.getDependents(id));
+        result.put("earliestStart", taskManager.getEarliestStart(id));
+        return result;
+    }
+
     private void handleDeleteTaskById(HttpExchange exchange, int id) throws IOException, NotFoundException {
         taskManager.deleteTaskById(id);
         sendText(exchange, "Задача удалена", 200);
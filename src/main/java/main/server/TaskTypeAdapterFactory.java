@@ -0,0 +1,256 @@
+package main.java.main.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import main.java.main.model.Epic;
+import main.java.main.model.RecurrenceRule;
+import main.java.main.model.RecurringTask;
+import main.java.main.model.SubTask;
+import main.java.main.model.Task;
+import main.java.main.model.TaskOccurrence;
+import main.java.main.model.TaskStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Фабрика потоковых адаптеров для Task, SubTask, Epic, повторяющихся задач и их вхождений.
+ * Поля пишутся напрямую в JsonWriter и читаются из JsonReader без рефлексии и дерева JsonElement.
+ * Формат совпадает с тем, что выдавал рефлективный Gson с UnifiedDateTimeAdapter.
+ */
+public class TaskTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Task.class || rawType == SubTask.class || rawType == Epic.class
+                || rawType == RecurringTask.class || rawType == TaskOccurrence.class) {
+            return (TypeAdapter<T>) new TaskAdapter(rawType).nullSafe();
+        }
+        return null;
+    }
+
+    private static class TaskAdapter extends TypeAdapter<Task> {
+        private static final DurationAdapter DURATION_ADAPTER = new DurationAdapter();
+        private static final TaskAdapter OCCURRENCE_ADAPTER = new TaskAdapter(TaskOccurrence.class);
+        private final Class<?> type;
+
+        TaskAdapter(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public void write(JsonWriter out, Task task) throws IOException {
+            out.beginObject();
+            if (task instanceof SubTask) {
+                out.name("epicId").value(((SubTask) task).getEpicId());
+                out.name("parentId").value(((SubTask) task).getParentId());
+            }
+            if (task instanceof Epic) {
+                Epic epic = (Epic) task;
+                out.name("subTaskIds").beginArray();
+                for (int subTaskId : epic.getSubTaskIds()) {
+                    out.value(subTaskId);
+                }
+                out.endArray();
+                if (epic.getEndTime() != null) {
+                    out.name("endTime").value(LocalDateTimeAdapter.format(epic.getEndTime()));
+                }
+            }
+            if (task instanceof RecurringTask) {
+                writeSeries(out, (RecurringTask) task);
+            }
+            if (task instanceof TaskOccurrence) {
+                out.name("occurrenceStart").value(LocalDateTimeAdapter.format(((TaskOccurrence) task).getOccurrenceStart()));
+            }
+            if (task.getTitle() != null) {
+                out.name("title").value(task.getTitle());
+            }
+            if (task.getDescription() != null) {
+                out.name("description").value(task.getDescription());
+            }
+            out.name("id").value(task.getId());
+            if (task.getStatus() != null) {
+                out.name("status").value(task.getStatus().name());
+            }
+            if (task.getDuration() != null) {
+                out.name("duration").value(task.getDuration().toMinutes());
+            }
+            if (task.getStartTime() != null) {
+                out.name("startTime").value(LocalDateTimeAdapter.format(task.getStartTime()));
+            }
+            if (task.getAssignee() != null) {
+                out.name("assignee").value(task.getAssignee());
+            }
+            out.endObject();
+        }
+
+        // Правило строкой RRULE, измененные вхождения объектами с исходным началом, отмененные - списком начал
+        private void writeSeries(JsonWriter out, RecurringTask series) throws IOException {
+            out.name("recurrence").value(series.getRule().toString());
+            out.name("overrides").beginArray();
+            for (Map.Entry<LocalDateTime, Task> override : series.getOverrides().entrySet()) {
+                write(out, new TaskOccurrence(override.getValue(), override.getKey()));
+            }
+            out.endArray();
+            out.name("cancelled").beginArray();
+            for (LocalDateTime cancelled : series.getCancelled()) {
+                out.value(LocalDateTimeAdapter.format(cancelled));
+            }
+            out.endArray();
+        }
+
+        @Override
+        public Task read(JsonReader in) throws IOException {
+            String title = null;
+            String description = null;
+            int id = 0;
+            TaskStatus status = null;
+            Duration duration = null;
+            LocalDateTime startTime = null;
+            int epicId = 0;
+            int parentId = 0;
+            List<Integer> subTaskIds = null;
+            LocalDateTime endTime = null;
+            String assignee = null;
+            RecurrenceRule rule = null;
+            LocalDateTime occurrenceStart = null;
+            List<Task> overrides = new ArrayList<>();
+            List<LocalDateTime> cancelled = new ArrayList<>();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "title":
+                        title = in.nextString();
+                        break;
+                    case "description":
+                        description = in.nextString();
+                        break;
+                    case "id":
+                        id = in.nextInt();
+                        break;
+                    case "status":
+                        status = parseStatus(in.nextString());
+                        break;
+                    case "duration":
+                        duration = DURATION_ADAPTER.read(in);
+                        break;
+                    case "startTime":
+                        startTime = LocalDateTimeAdapter.parse(in.nextString());
+                        break;
+                    case "epicId":
+                        epicId = in.nextInt();
+                        break;
+                    case "parentId":
+                        parentId = in.nextInt();
+                        break;
+                    case "subTaskIds":
+                        subTaskIds = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            subTaskIds.add(in.nextInt());
+                        }
+                        in.endArray();
+                        break;
+                    case "endTime":
+                        endTime = LocalDateTimeAdapter.parse(in.nextString());
+                        break;
+                    case "assignee":
+                        assignee = in.nextString();
+                        break;
+                    case "recurrence":
+                        rule = RecurrenceRule.parse(in.nextString());
+                        break;
+                    case "occurrenceStart":
+                        occurrenceStart = LocalDateTimeAdapter.parse(in.nextString());
+                        break;
+                    case "overrides":
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            overrides.add(OCCURRENCE_ADAPTER.read(in));
+                        }
+                        in.endArray();
+                        break;
+                    case "cancelled":
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            cancelled.add(LocalDateTimeAdapter.parse(in.nextString()));
+                        }
+                        in.endArray();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+
+            Task task = createTask(title, description, id, status, duration, startTime, epicId, subTaskIds, endTime);
+            if (type == RecurringTask.class) {
+                RecurringTask series = new RecurringTask(title, description, id, status, duration, startTime, rule);
+                for (Task override : overrides) {
+                    series.putOverride(((TaskOccurrence) override).getOccurrenceStart(), override);
+                }
+                for (LocalDateTime occurrence : cancelled) {
+                    series.cancelOccurrence(occurrence);
+                }
+                task = series;
+            } else if (type == TaskOccurrence.class) {
+                task = new TaskOccurrence(task, occurrenceStart);
+            } else if (task instanceof SubTask) {
+                ((SubTask) task).setParentId(parentId);
+            }
+            task.setAssignee(assignee);
+            return task;
+        }
+
+        // Неизвестный статус - ошибка разбора JSON, как и некорректная дата
+        private static TaskStatus parseStatus(String value) {
+            try {
+                return TaskStatus.valueOf(value);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException("Некорректный статус: " + value, e);
+            }
+        }
+
+        private Task createTask(String title, String description, int id, TaskStatus status, Duration duration,
+                                LocalDateTime startTime, int epicId, List<Integer> subTaskIds, LocalDateTime endTime) {
+            if (type == SubTask.class) {
+                return new SubTask(title, description, id, status, epicId, duration, startTime);
+            }
+            if (type == Epic.class) {
+                Epic epic = new Epic(title, description, id);
+                if (status != null) {
+                    epic.setStatus(status);
+                }
+                epic.setDuration(duration);
+                epic.setStartTime(startTime);
+                epic.setEndTime(endTime);
+                if (subTaskIds != null) {
+                    for (int subTaskId : subTaskIds) {
+                        epic.addSubTaskId(subTaskId);
+                    }
+                }
+                return epic;
+            }
+            return new Task(title, description, id, status, duration, startTime);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package manager;
+
+import main.java.main.manager.ChangeLog;
+import main.java.main.manager.InMemoryTaskManager;
+import main.java.main.manager.TaskEvent;
+import main.java.main.manager.TaskOverlapException;
+import main.java.main.model.Task;
+import main.java.main.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeLogTest {
+
+    @Test
+    void keepsOnlyLatestChangePerEntityWithTombstones() throws TaskOverlapException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task kept = manager.createTask("Останется", "Описание", TaskStatus.NEW);
+        Task removed = manager.createTask("Будет удалена", "Описание", TaskStatus.NEW);
+        long since = manager.getChangesSince(0).getSeq();
+
+        kept.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateTask(kept);
+        kept.setStatus(TaskStatus.DONE);
+        manager.updateTask(kept);
+        manager.deleteTaskById(removed.getId());
+
+        ChangeLog.ChangeSet changes = manager.getChangesSince(since);
+        assertFalse(changes.isReset());
+        assertEquals(2, changes.getChanges().size(), "По одной записи на каждую измененную сущность");
+        TaskEvent update = changes.getChanges().get(0);
+        assertEquals(kept.getId(), update.getId());
+        assertEquals(TaskStatus.DONE, update.getEntity().getStatus(), "Должно вернуться последнее состояние");
+        TaskEvent tombstone = changes.getChanges().get(1);
+        assertEquals(TaskEvent.Type.DELETED, tombstone.getType());
+        assertEquals(removed.getId(), tombstone.getId());
+        assertTrue(manager.getChangesSince(changes.getSeq()).getChanges().isEmpty(), "После последнего номера изменений нет");
+    }
+
+    @Test
+    void requiresResetWhenChangesWereEvicted() {
+        ChangeLog log = new ChangeLog(2);
+        for (int i = 1; i <= 4; i++) {
+            log.record(new TaskEvent(i, TaskEvent.Type.CREATED, TaskEvent.EntityType.TASK, i, 1,
+                    new Task("Задача", "Описание", i, TaskStatus.NEW)));
+        }
+
+        assertTrue(log.changesSince(1).isReset(), "Изменение 2 вытеснено, нужна полная загрузка");
+        ChangeLog.ChangeSet recent = log.changesSince(2);
+        assertFalse(recent.isReset());
+        assertEquals(List.of(3L, 4L), recent.getChanges().stream().map(TaskEvent::getSeq).toList());
+        assertTrue(log.changesSince(100).isReset(), "Номер из будущего означает перезапуск сервера");
+    }
+}
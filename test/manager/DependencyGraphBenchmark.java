@@ -0,0 +1,69 @@
+package manager;
+
+import main.java.main.manager.DependencyCycleException;
+import main.java.main.manager.InMemoryTaskManager;
+import main.java.main.manager.TaskOverlapException;
+import main.java.main.model.Task;
+import main.java.main.model.TaskStatus;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Ручной бенчмарк графа зависимостей на NODES задачах: добавление EDGES случайных зависимостей
+ * (половина против порядка создания, что требует перестройки топологического порядка),
+ * изменение продолжительности задачи и чтение критического пути.
+ * Запуск: java manager.DependencyGraphBenchmark (выводит мкс на одну операцию).
+ */
+public class DependencyGraphBenchmark {
+    private static final int NODES = 100_000;
+    private static final int EDGES = 200_000;
+    private static final int UPDATES = 1_000;
+    // Зависимости связывают задачи не дальше WINDOW друг от друга, как шаги одного проекта
+    private static final int WINDOW = 50;
+
+    public static void main(String[] args) throws TaskOverlapException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        for (int i = 0; i < NODES; i++) {
+            manager.createTask("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(10 + i % 50), null);
+        }
+
+        Random random = new Random(42);
+        int added = 0;
+        int cycles = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < EDGES; i++) {
+            int a = 1 + random.nextInt(NODES - WINDOW);
+            int b = a + 1 + random.nextInt(WINDOW);
+            try {
+                // Направление случайно: зависимость от более поздней задачи сдвигает топологический порядок
+                if (random.nextBoolean()) {
+                    manager.addDependency(b, a);
+                } else {
+                    manager.addDependency(a, b);
+                }
+                added++;
+            } catch (DependencyCycleException e) {
+                cycles++;
+            }
+        }
+        long edgeNanos = System.nanoTime() - started;
+
+        started = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            Task task = manager.getTaskById(1 + random.nextInt(NODES));
+            task.setDuration(task.getDuration().plusMinutes(1));
+            manager.updateTask(task);
+        }
+        long updateNanos = System.nanoTime() - started;
+
+        started = System.nanoTime();
+        int pathLength = manager.getCriticalPath().getTaskIds().size();
+        long pathNanos = System.nanoTime() - started;
+
+        System.out.printf("addDependency: %.2f мкс (%d добавлено, %d циклов отклонено)%n",
+                edgeNanos / 1000.0 / EDGES, added, cycles);
+        System.out.printf("updateTask с пересчетом: %.2f мкс%n", updateNanos / 1000.0 / UPDATES);
+        System.out.printf("getCriticalPath: %.2f мкс (%d задач в пути)%n", pathNanos / 1000.0, pathLength);
+    }
+}
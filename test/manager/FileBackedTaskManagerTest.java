@@ -1,9 +1,14 @@
 package manager;
 
+import main.java.main.manager.ChangeLog;
+import main.java.main.manager.DependencyCycleException;
 import main.java.main.manager.FileBackedTaskManager;
 import main.java.main.manager.Managers;
+import main.java.main.manager.TaskEvent;
 import main.java.main.manager.TaskOverlapException;
 import main.java.main.model.Epic;
+import main.java.main.model.RecurrenceRule;
+import main.java.main.model.RecurringTask;
 import main.java.main.model.SubTask;
 import main.java.main.model.Task;
 import main.java.main.model.TaskStatus;
@@ -19,7 +24,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FileBackedTaskManagerTest {
     private File tempFile;
@@ -68,7 +76,7 @@ public class FileBackedTaskManagerTest {
         String subTaskLine = reader.readLine();
         reader.close();
 
-        assertEquals("id,type,name,status,description,epic,duration,startTime", header, "Заголовок CSV должен быть корректным");
+        assertEquals("id,type,name,status,description,epic,duration,startTime,assignee,parent", header, "Заголовок CSV должен быть корректным");
         assertEquals("1,TASK,Задача 1,NEW,Описание задачи 1,,120,2025-01-15 10:00", taskLine, "Задача должна быть сохранена в CSV с временными полями");
         assertEquals("2,EPIC,Эпик 1,DONE,Описание эпика 1,,60,2025-01-15 13:00", epicLine, "Эпик должен быть сохранен в CSV");
         assertEquals("3,SUBTASK,Подзадача 1,DONE,Описание подзадачи 1,2,60,2025-01-15 13:00", subTaskLine, "Подзадача должна быть сохранена в CSV с временными полями");
@@ -127,8 +135,9 @@ public class FileBackedTaskManagerTest {
         // Обновляем подзадачу на IN_PROGRESS
         manager.updateSubTask(new SubTask("Подзадача 1", "Описание", 2, TaskStatus.IN_PROGRESS, 1));
 
-        // Проверяем, что статус эпика стал IN_PROGRESS
-        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus(), "Статус эпика должен быть IN_PROGRESS при разных статусах подзадач");
+        // Проверяем, что статус эпика стал IN_PROGRESS; полученный раньше эпик - снимок и не меняется
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getAllEpics().get(0).getStatus(), "Статус эпика должен быть IN_PROGRESS при разных статусах подзадач");
+        assertEquals(TaskStatus.DONE, epic.getStatus());
     }
 
     /*
@@ -217,4 +226,252 @@ public class FileBackedTaskManagerTest {
 
         assertEquals("Задача пересекается по времени с существующими задачами", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    /*
+    Тест режима подкачки: текст читается с диска, в кэше не больше заданного числа записей
+     */
+    @Test
+    void pagedModeLoadsTextLazily() throws TaskOverlapException {
+        for (int i = 1; i <= 10; i++) {
+            manager.createTask("Задача " + i, "Описание " + i, TaskStatus.NEW);
+        }
+        new File(tempFile.getPath() + ".text").deleteOnExit();
+
+        FileBackedTaskManager pagedManager = Managers.getPagedFileBacked(tempFile, 3);
+
+        assertEquals(0, pagedManager.getCachedTextCount(), "После загрузки тексты не должны быть в памяти");
+        for (int i = 1; i <= 10; i++) {
+            Task task = pagedManager.getTaskById(i);
+            assertEquals("Задача " + i, task.getTitle(), "Название должно читаться из файла текстов");
+            assertEquals("Описание " + i, task.getDescription());
+        }
+        assertEquals(3, pagedManager.getCachedTextCount(), "Кэш текстов ограничен заданным размером");
+        assertEquals(List.of(4), pagedManager.search("задача 4", 10), "Поиск работает без индекса");
+        assertEquals(10, pagedManager.searchByTitlePrefix("задача").size());
+    }
+
+    /*
+    Тест изменения задачи в режиме подкачки
+     */
+    @Test
+    void pagedModeSavesUpdatedText() throws TaskOverlapException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 10, 0);
+        manager.createTask("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), start);
+        new File(tempFile.getPath() + ".text").deleteOnExit();
+
+        FileBackedTaskManager pagedManager = Managers.getPagedFileBacked(tempFile, 10);
+        Task task = pagedManager.getTaskById(1);
+        task.setTitle("Новое название");
+        pagedManager.updateTask(task);
+
+        assertEquals("Новое название", pagedManager.getPrioritizedTasks().get(0).getTitle());
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals("Новое название", reloaded.getTaskById(1).getTitle(), "Изменение должно сохраниться в CSV");
+        assertEquals("Описание", reloaded.getTaskById(1).getDescription());
+    }
+
+    /*
+    Тест сохранения в режиме подкачки: выгружается и заменяется в снимке только измененная задача,
+    строки остальных копируются без чтения их текста
+     */
+    @Test
+    void pagedModeSavesOnlyChangedEntities() throws TaskOverlapException {
+        for (int i = 1; i <= 5; i++) {
+            manager.createTask("Задача " + i, "Описание " + i, TaskStatus.NEW);
+        }
+        new File(tempFile.getPath() + ".text").deleteOnExit();
+        FileBackedTaskManager pagedManager = Managers.getPagedFileBacked(tempFile, 10);
+        Task untouched = pagedManager.getSnapshot().getTask(2);
+
+        for (int round = 1; round <= 3; round++) {
+            pagedManager.updateTask(new Task("Новое название " + round, "Описание 1", 1, TaskStatus.NEW,
+                    Duration.ZERO, null));
+        }
+
+        assertSame(untouched, pagedManager.getSnapshot().getTask(2), "Неизмененная задача не копируется в снимке");
+        assertTrue(pagedManager.getSnapshot().getTask(1).getTextOffset() >= 0, "Текст в снимке выгружен");
+        assertEquals(0, pagedManager.getCachedTextCount(), "Сохранение не читает тексты неизмененных задач");
+        pagedManager.close();
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals("Новое название 3", reloaded.getTaskById(1).getTitle());
+        for (int i = 2; i <= 5; i++) {
+            assertEquals("Задача " + i, reloaded.getTaskById(i).getTitle(), "Скопированные строки не искажены");
+            assertEquals("Описание " + i, reloaded.getTaskById(i).getDescription());
+        }
+    }
+
+    /*
+    Тест архивации завершенных задач: задача уходит из активных, но доступна по id
+     */
+    @Test
+    void archiveMovesDoneTasksOutOfHotSet() throws TaskOverlapException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 10, 0);
+        new File(tempFile.getPath() + ".archive").deleteOnExit();
+        manager.createTask("Готовая задача", "Описание", TaskStatus.DONE, Duration.ofHours(1), start);
+        manager.createTask("Текущая задача", "Описание", TaskStatus.IN_PROGRESS);
+
+        assertEquals(0, manager.archiveDoneTasks(Duration.ofDays(1)), "Недавно завершенные задачи не архивируются");
+        assertEquals(1, manager.archiveDoneTasks(Duration.ZERO));
+
+        assertEquals(1, manager.getAllTasks().size(), "В активных задачах остается только незавершенная");
+        assertEquals(0, manager.getPrioritizedTasks().size(), "Архивная задача не участвует в расписании");
+        assertEquals("Готовая задача", manager.getTaskById(1).getTitle(), "Архивная задача доступна по id");
+        manager.createTask("Новая задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), start);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(1, loadedManager.getArchivedCount());
+        assertEquals(TaskStatus.DONE, loadedManager.getTaskById(1).getStatus());
+        assertEquals(2, loadedManager.getAllTasks().size());
+        assertEquals(4, loadedManager.createTask("Задача", "Описание", TaskStatus.NEW).getId(),
+                "Id архивных задач не должны выдаваться повторно");
+    }
+
+    /*
+    Тест архивации и подписчиков: перенос публикуется как удаление, предшественник активной задачи остается
+     */
+    @Test
+    void archivePublishesDeletionsAndKeepsPredecessorsOfActiveTasks()
+            throws TaskOverlapException, DependencyCycleException {
+        new File(tempFile.getPath() + ".archive").deleteOnExit();
+        Task predecessor = manager.createTask("Предшественник", "Описание", TaskStatus.DONE);
+        Task dependent = manager.createTask("Зависимая", "Описание", TaskStatus.NEW);
+        Task done = manager.createTask("Готовая", "Описание", TaskStatus.DONE);
+        manager.addDependency(dependent.getId(), predecessor.getId());
+        long since = manager.getChangesSince(0).getSeq();
+
+        assertEquals(1, manager.archiveDoneTasks(Duration.ZERO), "Предшественник активной задачи не архивируется");
+
+        assertEquals(List.of(predecessor.getId()), manager.getDependencies(dependent.getId()));
+        ChangeLog.ChangeSet changes = manager.getChangesSince(since);
+        assertEquals(1, changes.getChanges().size());
+        assertEquals(TaskEvent.Type.DELETED, changes.getChanges().get(0).getType());
+        assertEquals(done.getId(), changes.getChanges().get(0).getId());
+        assertNull(manager.getSnapshot().getTask(done.getId()), "Снимок обновлен без перестройки");
+
+        dependent.setStatus(TaskStatus.DONE);
+        manager.updateTask(dependent);
+        assertEquals(2, manager.archiveDoneTasks(Duration.ZERO), "Вместе с зависимой уходит и предшественник");
+    }
+
+    /*
+    Тест архивации эпика: подзадачи переносятся только вместе с эпиком
+     */
+    @Test
+    void archiveMovesEpicTogetherWithSubTasks() throws TaskOverlapException {
+        new File(tempFile.getPath() + ".archive").deleteOnExit();
+        manager.addEpic("Эпик", "Описание");
+        manager.addSubTask("Подзадача 1", "Описание", 1, TaskStatus.DONE);
+        manager.addSubTask("Подзадача 2", "Описание", 1, TaskStatus.NEW);
+
+        assertEquals(0, manager.archiveDoneTasks(Duration.ZERO), "Незавершенный эпик не архивируется");
+
+        SubTask subTask = manager.getSubTaskById(3);
+        subTask.setStatus(TaskStatus.DONE);
+        manager.updateSubTask(subTask);
+        assertEquals(3, manager.archiveDoneTasks(Duration.ZERO));
+
+        assertEquals(0, manager.getAllEpics().size());
+        assertEquals(0, manager.getAllSubTasks().size());
+        Epic archivedEpic = manager.getEpicById(1);
+        assertEquals(TaskStatus.DONE, archivedEpic.getStatus());
+        assertEquals(List.of(2, 3), List.copyOf(archivedEpic.getSubTaskIds()));
+        assertEquals(1, manager.getSubTaskById(2).getEpicId());
+    }
+
+    /*
+    Тест сохранения исполнителя в необязательной последней колонке
+     */
+    @Test
+    void saveAndLoadAssignee() throws TaskOverlapException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 10, 0);
+        manager.createTask("Задача Анны", "Описание", TaskStatus.NEW, Duration.ofHours(1), start, "anna");
+        manager.createTask("Задача Бориса", "Описание", TaskStatus.NEW, Duration.ofHours(1), start, "boris");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals("anna", loadedManager.getTaskById(1).getAssignee());
+        assertEquals(1, loadedManager.getPrioritizedTasks("boris").size(), "Расписание исполнителя восстанавливается");
+        assertThrows(TaskOverlapException.class, () -> loadedManager.createTask("Еще одна", "Описание",
+                TaskStatus.NEW, Duration.ofHours(1), start, "anna"));
+    }
+
+    /*
+    Тест сохранения зависимостей между задачами
+     */
+    @Test
+    void saveAndLoadDependencies() throws TaskOverlapException, DependencyCycleException {
+        Task first = manager.createTask("Первая", "Описание", TaskStatus.NEW, Duration.ofMinutes(45), null);
+        manager.addEpic("Эпик", "Описание");
+        manager.addSubTask("Подзадача", "Описание", 2, TaskStatus.NEW, Duration.ofMinutes(15), null);
+        manager.addDependency(3, first.getId());
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(List.of(first.getId()), loadedManager.getDependencies(3));
+        assertEquals(45, loadedManager.getEarliestStart(3));
+        assertEquals(60, loadedManager.getCriticalPath().getLength());
+        assertEquals(3, loadedManager.getAllTasks().size() + loadedManager.getAllEpics().size()
+                + loadedManager.getAllSubTasks().size(), "Строки зависимостей не читаются как задачи");
+    }
+
+    @Test
+    void saveAndLoadRecurringTasks() throws TaskOverlapException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 3, 9, 0);
+        RecurringTask series = manager.createRecurringTask("Стендап", "Ежедневно", TaskStatus.NEW,
+                Duration.ofMinutes(15), start, "Анна", RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,WE,FR"));
+        manager.overrideOccurrence(series.getId(), start.plusDays(2), new Task("Стендап", "Перенесен",
+                series.getId(), TaskStatus.DONE, Duration.ofMinutes(30), start.plusDays(2).plusHours(1)));
+        manager.cancelOccurrence(series.getId(), start.plusDays(4));
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        RecurringTask loaded = loadedManager.getRecurringTaskById(series.getId());
+        assertEquals(series.getRule(), loaded.getRule(), "Правило с BYDAY восстанавливается из строки");
+        assertEquals("Анна", loaded.getAssignee());
+        assertEquals(manager.getOccurrences(series.getId(), null, null, 10),
+                loadedManager.getOccurrences(series.getId(), null, null, 10));
+        assertEquals(TaskStatus.DONE, loadedManager.getOccurrences(series.getId(), null, null, 2).get(1).getStatus());
+        assertTrue(loadedManager.getAllTasks().isEmpty(), "Строки вхождений не читаются как задачи");
+        assertEquals(series.getId() + 1, loadedManager.createTask("Задача", "Описание", TaskStatus.NEW).getId());
+    }
+
+    @Test
+    void saveAndLoadNestedSubTasks() throws TaskOverlapException {
+        LocalDateTime start = LocalDateTime.of(2025, 5, 5, 9, 0);
+        manager.addEpic("Эпик", "Описание");
+        manager.addSubTask("Этап", "Описание", 1, TaskStatus.DONE, Duration.ofMinutes(30), start);
+        SubTask step = manager.addChildSubTask(2, "Шаг", "Описание", TaskStatus.NEW, Duration.ofMinutes(60),
+                start.plusHours(1), null);
+        manager.addChildSubTask(step.getId(), "Деталь", "Описание", TaskStatus.NEW, Duration.ofMinutes(15),
+                start.plusHours(5), "Анна");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(step.getId(), loadedManager.getSubTaskById(4).getParentId());
+        assertEquals("Анна", loadedManager.getSubTaskById(4).getAssignee());
+        assertNull(loadedManager.getSubTaskById(3).getAssignee(), "Пустая колонка исполнителя - без исполнителя");
+        assertEquals(List.of(3), loadedManager.getChildren(2).stream().map(Task::getId).toList());
+        assertEquals(manager.getSubtreeSummary(1), loadedManager.getSubtreeSummary(1));
+        assertEquals(TaskStatus.IN_PROGRESS, loadedManager.getEpicById(1).getStatus());
+    }
+
+    @Test
+    void movedSubTaskKeepsSameOrderAfterReload() throws TaskOverlapException {
+        manager.addEpic("Источник", "Описание");
+        manager.addEpic("Цель", "Описание");
+        manager.addSubTask("Первая", "Описание", 1, TaskStatus.NEW);
+        manager.addSubTask("Вторая", "Описание", 2, TaskStatus.NEW);
+        manager.addSubTask("Третья", "Описание", 2, TaskStatus.NEW);
+
+        manager.moveSubTask(3, 2, 0);
+        List<Integer> liveOrder = List.copyOf(manager.getEpicById(2).getSubTaskIds());
+        List<Integer> liveChildren = manager.getChildren(2).stream().map(Task::getId).toList();
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(List.of(3, 4, 5), liveOrder, "Подзадачи эпика идут по возрастанию id и после переноса");
+        assertEquals(liveOrder, List.copyOf(loadedManager.getEpicById(2).getSubTaskIds()),
+                "Порядок подзадач эпика сохраняется при перезагрузке");
+        assertEquals(liveChildren, loadedManager.getChildren(2).stream().map(Task::getId).toList());
+    }
+}
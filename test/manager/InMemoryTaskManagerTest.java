@@ -1,7 +1,12 @@
 package manager;
 
+import main.java.main.manager.CriticalPath;
+import main.java.main.manager.DependencyCycleException;
 import main.java.main.manager.InMemoryTaskManager;
+import main.java.main.manager.ManagerSnapshot;
 import main.java.main.manager.NotFoundException;
+import main.java.main.manager.SubtreeSummary;
+import main.java.main.manager.TaskEvent;
 import main.java.main.manager.TaskOverlapException;
 import main.java.main.model.Epic;
 import main.java.main.model.SubTask;
@@ -12,7 +17,12 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -278,9 +288,39 @@ public class InMemoryTaskManagerTest {
 
         manager.createTask("Существующая задача", "Описание", TaskStatus.NEW, duration, now);
 
-        assertThrows(TaskOverlapException.class, () -> {
+        TaskOverlapException exception = assertThrows(TaskOverlapException.class, () -> {
             manager.createTask("Пересекающаяся задача", "Описание", TaskStatus.NEW, duration, now.plusMinutes(30));
         }, "Должно выбросить исключение при попытке создать пересекающуюся задачу");
+        assertEquals(List.of(1), exception.getConflictingIds(), "Исключение должно указывать мешающую задачу");
+    }
+
+    @Test
+    void findConflictingTaskIdsReturnsIdsInStartOrderUpToLimit() throws TaskOverlapException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 10, 0);
+        Task first = manager.createTask("Задача 1", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), start);
+        Task second = manager.createTask("Задача 2", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                start.plusMinutes(30));
+        manager.createTask("Задача 3", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), start.plusHours(2));
+        Task probe = new Task("Проба", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), start.plusMinutes(15));
+
+        assertEquals(List.of(first.getId(), second.getId()), manager.findConflictingTaskIds(probe, 10));
+        assertEquals(List.of(first.getId()), manager.findConflictingTaskIds(probe, 1));
+        assertTrue(manager.findConflictingTaskIds(probe, 0).isEmpty());
+    }
+
+    @Test
+    void findConflictingTaskIdsLimitKeepsEarliestConflicts() throws TaskOverlapException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 10, 0);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(manager.createTask("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                    start.plusMinutes(30L * i)).getId());
+        }
+        Task probe = new Task("Проба", "Описание", 0, TaskStatus.NEW, Duration.ofHours(3), start.minusMinutes(15));
+
+        assertEquals(ids.subList(0, 2), manager.findConflictingTaskIds(probe, 2),
+                "При limit меньше числа пересечений выдаются самые ранние");
+        assertEquals(ids, manager.findConflictingTaskIds(probe, 10));
     }
 
 
@@ -298,4 +338,425 @@ public class InMemoryTaskManagerTest {
             manager.updateTask(task1);
         }, "Должно выбросить исключение при попытке обновить задачу с пересечением");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findByStatusFollowsStatusChanges() throws TaskOverlapException {
+        Task task = manager.createTask("Задача", "Описание", TaskStatus.NEW);
+        manager.addEpic("Эпик", "Описание");
+        int epicId = manager.getAllEpics().get(0).getId();
+        manager.addSubTask("Подзадача", "Описание", epicId, TaskStatus.DONE);
+
+        assertEquals(List.of(task), manager.findByStatus(TaskStatus.NEW), "Новой должна быть только задача");
+        assertEquals(2, manager.findByStatus(TaskStatus.DONE).size(), "Завершены подзадача и ее эпик");
+
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateTask(task);
+        manager.deleteSubTask(manager.getAllSubTasks().get(0).getId());
+
+        assertEquals(List.of(task), manager.findByStatus(TaskStatus.IN_PROGRESS), "Индекс должен учитывать обновление");
+        assertTrue(manager.findByStatus(TaskStatus.DONE).isEmpty(), "После удаления подзадачи завершенных нет");
+        assertEquals(epicId, manager.findByStatus(TaskStatus.NEW).get(0).getId(), "Пустой эпик снова новый");
+
+        Task found = manager.findByStatus(TaskStatus.NEW).get(0);
+        found.setStatus(TaskStatus.DONE);
+        assertEquals(TaskStatus.NEW, manager.findByStatus(TaskStatus.NEW).get(0).getStatus(),
+                "Поиск возвращает копию эпика, а не сам эпик менеджера");
+    }
+
+    @Test
+    void findByEpicReturnsOnlyThatEpicSubTasks() throws TaskOverlapException {
+        manager.addEpic("Эпик 1", "Описание");
+        manager.addEpic("Эпик 2", "Описание");
+        int epic1 = manager.getAllEpics().get(0).getId();
+        int epic2 = manager.getAllEpics().get(1).getId();
+        manager.addSubTask("Подзадача 1", "Описание", epic1, TaskStatus.NEW);
+        manager.addSubTask("Подзадача 2", "Описание", epic2, TaskStatus.NEW);
+        manager.addSubTask("Подзадача 3", "Описание", epic1, TaskStatus.NEW);
+
+        List<SubTask> found = manager.findByEpic(epic1);
+
+        assertEquals(2, found.size());
+        assertTrue(found.stream().allMatch(subTask -> subTask.getEpicId() == epic1));
+        manager.deleteEpic(epic1);
+        assertTrue(manager.findByEpic(epic1).isEmpty(), "После удаления эпика его подзадач в индексе нет");
+    }
+
+    @Test
+    void searchByTitlePrefixIgnoresCase() throws TaskOverlapException {
+        manager.createTask("Купить молоко", "Описание", TaskStatus.NEW);
+        manager.createTask("купить хлеб", "Описание", TaskStatus.NEW);
+        manager.createTask("Позвонить", "Описание", TaskStatus.NEW);
+
+        assertEquals(2, manager.searchByTitlePrefix("КУП").size(), "Поиск по префиксу не зависит от регистра");
+        assertEquals(1, manager.searchByTitlePrefix("позв").size());
+        assertTrue(manager.searchByTitlePrefix("Прочитать").isEmpty());
+    }
+
+    @Test
+    void searchFindsCyrillicWordsAndRanksTitleHigher() throws TaskOverlapException {
+        Task inDescription = manager.createTask("Покупки", "Зайти в магазин за молоком", TaskStatus.NEW);
+        Task inTitle = manager.createTask("Магазин: список", "Хлеб, молоко", TaskStatus.NEW);
+        manager.createTask("Позвонить маме", "Вечером", TaskStatus.NEW);
+
+        assertEquals(List.of(inTitle.getId(), inDescription.getId()), manager.search("МАГАЗИН", 10),
+                "Совпадение в названии должно быть выше совпадения в описании");
+        assertEquals(List.of(inTitle.getId()), manager.search("магазин молоко", 10),
+                "Должны находиться только задачи со всеми словами запроса");
+        assertEquals(1, manager.search("магазин", 1).size(), "Результатов не больше limit");
+    }
+
+    @Test
+    void searchIndexFollowsUpdatesAndDeletes() throws TaskOverlapException {
+        Task task = manager.createTask("Ёлка", "Нарядить", TaskStatus.NEW);
+        assertEquals(List.of(task.getId()), manager.search("елка", 10), "Буква ё должна совпадать с е");
+
+        task.setTitle("Гирлянда");
+        manager.updateTask(task);
+        assertTrue(manager.search("елка", 10).isEmpty(), "Старое название не должно находиться");
+        assertEquals(List.of(task.getId()), manager.search("гирлянда", 10));
+
+        manager.deleteTaskById(task.getId());
+        assertTrue(manager.search("гирлянда", 10).isEmpty(), "Удаленная задача не должна находиться");
+    }
+
+    @Test
+    void mutationsArePublishedAsVersionedEvents() throws TaskOverlapException {
+        Task task = manager.createTask("Задача", "Описание", TaskStatus.NEW);
+        task.setStatus(TaskStatus.DONE);
+        manager.updateTask(task);
+        manager.deleteTaskById(task.getId());
+
+        List<TaskEvent> events = manager.getEventBuffer().readAfter(0, 10);
+
+        assertEquals(3, events.size());
+        assertEquals(TaskEvent.Type.CREATED, events.get(0).getType());
+        assertEquals(TaskEvent.Type.UPDATED, events.get(1).getType());
+        assertEquals(TaskStatus.DONE, events.get(1).getEntity().getStatus(), "Событие содержит снимок сущности");
+        assertEquals(TaskEvent.Type.DELETED, events.get(2).getType());
+        assertNull(events.get(2).getEntity(), "У события удаления нет снимка");
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(TaskEvent::getVersion).toList());
+    }
+
+    @Test
+    void subTaskChangesAlsoPublishEpicUpdate() throws TaskOverlapException {
+        manager.addEpic("Эпик", "Описание");
+        int epicId = manager.getAllEpics().get(0).getId();
+        long before = manager.getEventBuffer().getLastSequence();
+
+        manager.addSubTask("Подзадача", "Описание", epicId, TaskStatus.DONE);
+
+        List<TaskEvent> events = manager.getEventBuffer().readAfter(before, 10);
+        assertEquals(2, events.size());
+        assertEquals(TaskEvent.EntityType.SUBTASK, events.get(0).getEntityType());
+        assertEquals(TaskEvent.EntityType.EPIC, events.get(1).getEntityType());
+        assertEquals(TaskStatus.DONE, events.get(1).getEntity().getStatus(), "Снимок эпика содержит пересчитанный статус");
+    }
+
+    /*
+    Зависимости: раннее начало, критический путь и обнаружение цикла
+     */
+    @Test
+    void dependenciesMaintainEarliestStartAndCriticalPath() throws TaskOverlapException, DependencyCycleException {
+        Task design = manager.createTask("Дизайн", "Описание", TaskStatus.NEW, Duration.ofMinutes(60), null);
+        Task backend = manager.createTask("Бэкенд", "Описание", TaskStatus.NEW, Duration.ofMinutes(120), null);
+        Task frontend = manager.createTask("Фронтенд", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), null);
+        Task release = manager.createTask("Релиз", "Описание", TaskStatus.NEW, Duration.ofMinutes(10), null);
+
+        // Зависимости добавляются "против" порядка создания, чтобы задеть перестройку топологического порядка
+        manager.addDependency(design.getId(), release.getId());
+        manager.removeDependency(design.getId(), release.getId());
+        manager.addDependency(release.getId(), backend.getId());
+        manager.addDependency(release.getId(), frontend.getId());
+        manager.addDependency(backend.getId(), design.getId());
+        manager.addDependency(frontend.getId(), design.getId());
+
+        assertEquals(180, manager.getEarliestStart(release.getId()));
+        assertEquals(List.of(backend.getId(), frontend.getId()), manager.getDependencies(release.getId()));
+        assertEquals(List.of(release.getId()), manager.getDependents(frontend.getId()));
+        CriticalPath path = manager.getCriticalPath();
+        assertEquals(190, path.getLength());
+        assertEquals(List.of(design.getId(), backend.getId(), release.getId()), path.getTaskIds());
+
+        DependencyCycleException cycle = assertThrows(DependencyCycleException.class,
+                () -> manager.addDependency(design.getId(), release.getId()));
+        assertEquals(3, cycle.getCycle().size());
+        assertEquals(List.of(release.getId(), design.getId()), cycle.getCycle().subList(0, 2),
+                "Цикл начинается с предшественника добавляемой зависимости");
+        assertThrows(DependencyCycleException.class, () -> manager.addDependency(design.getId(), design.getId()));
+        assertEquals(List.of(), manager.getDependencies(design.getId()), "Отклоненная зависимость не сохраняется");
+
+        // Изменение продолжительности и удаление задачи пересчитывают только зависимые задачи
+        Task longerFrontend = manager.getTaskById(frontend.getId());
+        longerFrontend.setDuration(Duration.ofMinutes(300));
+        manager.updateTask(longerFrontend);
+        assertEquals(360, manager.getEarliestStart(release.getId()));
+        assertEquals(List.of(design.getId(), frontend.getId(), release.getId()), manager.getCriticalPath().getTaskIds());
+
+        manager.deleteTaskById(frontend.getId());
+        assertEquals(180, manager.getEarliestStart(release.getId()));
+        assertThrows(NotFoundException.class, () -> manager.getDependencies(frontend.getId()));
+        assertThrows(NotFoundException.class, () -> manager.removeDependency(release.getId(), design.getId()));
+    }
+
+    /*
+    Инкрементальное раннее начало совпадает с полным пересчетом на случайном графе
+     */
+    @Test
+    void incrementalEarliestStartMatchesFullRecomputation() throws TaskOverlapException {
+        int count = 200;
+        Random random = new Random(7);
+        for (int i = 0; i < count; i++) {
+            manager.createTask("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(random.nextInt(60)), null);
+        }
+        for (int i = 0; i < 600; i++) {
+            try {
+                manager.addDependency(1 + random.nextInt(count), 1 + random.nextInt(count));
+            } catch (DependencyCycleException e) {
+                // Цикл отклонен, граф остается ацикличным
+            }
+            if (i % 50 == 0) {
+                Task task = manager.getTaskById(1 + random.nextInt(count));
+                task.setDuration(Duration.ofMinutes(random.nextInt(60)));
+                manager.updateTask(task);
+            }
+        }
+
+        Map<Integer, Long> expected = new HashMap<>();
+        long length = 0;
+        for (int id = 1; id <= count; id++) {
+            length = Math.max(length, earliestFinish(id, expected));
+        }
+        for (int id = 1; id <= count; id++) {
+            assertEquals(expected.get(id) - manager.getTaskById(id).getDuration().toMinutes(),
+                    manager.getEarliestStart(id), "Раннее начало задачи " + id);
+        }
+        assertEquals(length, manager.getCriticalPath().getLength());
+    }
+
+    private long earliestFinish(int id, Map<Integer, Long> memo) {
+        Long known = memo.get(id);
+        if (known != null) {
+            return known;
+        }
+        long start = 0;
+        for (int dependsOnId : manager.getDependencies(id)) {
+            start = Math.max(start, earliestFinish(dependsOnId, memo));
+        }
+        long finish = start + manager.getTaskById(id).getDuration().toMinutes();
+        memo.put(id, finish);
+        return finish;
+    }
+
+    /*
+    Тесты для вложенных подзадач
+     */
+
+    @Test
+    void nestedSubTasksRollUpToEpic() throws TaskOverlapException {
+        LocalDateTime start = LocalDateTime.of(2025, 5, 5, 9, 0);
+        manager.addEpic("Эпик", "Описание");
+        manager.addSubTask("Этап", "Описание", 1, TaskStatus.DONE, Duration.ofMinutes(30), start);
+        SubTask step = manager.addChildSubTask(2, "Шаг", "Описание", TaskStatus.DONE, Duration.ofMinutes(60),
+                start.plusHours(1), null);
+        SubTask detail = manager.addChildSubTask(step.getId(), "Деталь", "Описание", TaskStatus.NEW,
+                Duration.ofMinutes(15), start.plusHours(5), null);
+
+        Epic epic = manager.getEpicById(1);
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus(), "Статус эпика учитывает все уровни вложенности");
+        assertEquals(Duration.ofMinutes(105), epic.getDuration());
+        assertEquals(start, epic.getStartTime());
+        assertEquals(start.plusHours(5).plusMinutes(15), epic.getEndTime());
+        assertEquals(List.of(2, 3, 4), List.copyOf(epic.getSubTaskIds()));
+        assertEquals(List.of(step), manager.getChildren(2));
+        assertEquals(List.of(2), manager.getChildren(1).stream().map(Task::getId).toList());
+
+        SubtreeSummary stepSummary = manager.getSubtreeSummary(step.getId());
+        assertEquals(2, stepSummary.getCount());
+        assertEquals(1, stepSummary.getStatusCounts().get(TaskStatus.DONE));
+        assertEquals(TaskStatus.IN_PROGRESS, stepSummary.getStatus());
+
+        detail.setStatus(TaskStatus.DONE);
+        manager.updateSubTask(detail);
+        assertEquals(TaskStatus.DONE, manager.getEpicById(1).getStatus());
+
+        manager.deleteSubTask(step.getId());
+        assertEquals(List.of(2), List.copyOf(manager.getEpicById(1).getSubTaskIds()), "Удаляется все поддерево");
+        assertEquals(Duration.ofMinutes(30), manager.getEpicById(1).getDuration());
+        assertEquals(start.plusMinutes(30), manager.getEpicById(1).getEndTime());
+        assertThrows(NotFoundException.class, () -> manager.getSubTaskById(detail.getId()));
+        assertThrows(NotFoundException.class, () -> manager.addChildSubTask(99, "Нет родителя", "", TaskStatus.NEW,
+                Duration.ZERO, null, null));
+    }
+
+    /*
+    Инкрементальные свертки совпадают с пересчетом по всем подзадачам поддерева
+     */
+    @Test
+    void incrementalRollupsMatchFullRecomputation() throws TaskOverlapException {
+        Random random = new Random(11);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        manager.addEpic("Эпик", "Описание");
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            TaskStatus status = TaskStatus.values()[random.nextInt(TaskStatus.values().length)];
+            Duration duration = Duration.ofMinutes(random.nextInt(30));
+            LocalDateTime startTime = random.nextBoolean() ? base.plusHours(i) : null;
+            if (ids.isEmpty() || random.nextInt(4) == 0) {
+                manager.addSubTask("Подзадача " + i, "", 1, status, duration, startTime);
+                ids.add(List.copyOf(manager.getEpicById(1).getSubTaskIds()).get(ids.size()));
+            } else {
+                ids.add(manager.addChildSubTask(ids.get(random.nextInt(ids.size())), "Подзадача " + i, "", status,
+                        duration, startTime, null).getId());
+            }
+            if (i % 7 == 0) {
+                SubTask changed = manager.getSubTaskById(ids.get(random.nextInt(ids.size())));
+                changed.setStatus(TaskStatus.values()[random.nextInt(TaskStatus.values().length)]);
+                changed.setDuration(Duration.ofMinutes(random.nextInt(30)));
+                manager.updateSubTask(changed);
+            }
+        }
+
+        for (int id : ids) {
+            List<SubTask> subtree = new ArrayList<>();
+            collectSubtree(id, subtree);
+            SubtreeSummary summary = manager.getSubtreeSummary(id);
+            assertEquals(subtree.size(), summary.getCount(), "Размер поддерева " + id);
+            assertEquals(subtree.stream().map(Task::getDuration).reduce(Duration.ZERO, Duration::plus),
+                    summary.getDuration(), "Продолжительность поддерева " + id);
+            assertEquals(subtree.stream().map(Task::getStartTime).filter(Objects::nonNull)
+                    .min(LocalDateTime::compareTo).orElse(null), summary.getStartTime(), "Начало поддерева " + id);
+            assertEquals(subtree.stream().map(Task::getEndTime).filter(Objects::nonNull)
+                    .max(LocalDateTime::compareTo).orElse(null), summary.getEndTime(), "Окончание поддерева " + id);
+        }
+        Epic expected = new Epic("Эпик", "Описание", 1);
+        expected.calculateEpicFields(manager.getSubTasks(1));
+        Epic epic = manager.getEpicById(1);
+        assertEquals(expected.getDuration(), epic.getDuration());
+        assertEquals(expected.getStartTime(), epic.getStartTime());
+        assertEquals(expected.getEndTime(), epic.getEndTime());
+    }
+
+    @Test
+    void moveSubTaskBetweenEpicsAdjustsBothRollups() throws TaskOverlapException {
+        LocalDateTime start = LocalDateTime.of(2025, 5, 5, 9, 0);
+        manager.addEpic("Источник", "Описание");
+        manager.addEpic("Цель", "Описание");
+        manager.addSubTask("Остается", "Описание", 1, TaskStatus.NEW, Duration.ofMinutes(30), start);
+        manager.addSubTask("Этап", "Описание", 1, TaskStatus.DONE, Duration.ofMinutes(60), start.plusHours(2));
+        SubTask nested = manager.addChildSubTask(4, "Шаг", "Описание", TaskStatus.DONE, Duration.ofMinutes(15),
+                start.plusHours(4), null);
+        manager.addSubTask("Уже в цели", "Описание", 2, TaskStatus.DONE, Duration.ofMinutes(10), start.plusHours(6));
+
+        SubTask moved = manager.moveSubTask(4, 2, 6);
+
+        assertEquals(2, moved.getEpicId());
+        assertEquals(6, moved.getParentId());
+        assertEquals(2, manager.getSubTaskById(nested.getId()).getEpicId(), "Вложенные переносятся вместе с подзадачей");
+        Epic source = manager.getEpicById(1);
+        Epic target = manager.getEpicById(2);
+        assertEquals(List.of(3), List.copyOf(source.getSubTaskIds()));
+        assertEquals(List.of(4, 5, 6), List.copyOf(target.getSubTaskIds()), "Подзадачи эпика идут по возрастанию id");
+        assertEquals(TaskStatus.NEW, source.getStatus());
+        assertEquals(Duration.ofMinutes(30), source.getDuration());
+        assertEquals(start.plusMinutes(30), source.getEndTime());
+        assertEquals(TaskStatus.DONE, target.getStatus());
+        assertEquals(Duration.ofMinutes(85), target.getDuration());
+        assertEquals(start.plusHours(2), target.getStartTime());
+        assertEquals(3, manager.getSubtreeSummary(6).getCount());
+        assertEquals(List.of(4), manager.findByEpic(2).stream().map(Task::getId).filter(id -> id == 4).toList());
+
+        assertThrows(IllegalArgumentException.class, () -> manager.moveSubTask(4, 2, nested.getId()),
+                "Подзадачу нельзя перенести внутрь собственного поддерева");
+        assertThrows(IllegalArgumentException.class, () -> manager.moveSubTask(3, 1, 6),
+                "Родитель должен принадлежать целевому эпику");
+        assertThrows(NotFoundException.class, () -> manager.moveSubTask(3, 99, 0));
+
+        manager.moveSubTask(4, 1, 0);
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getEpicById(1).getStatus());
+        assertEquals(Duration.ofMinutes(10), manager.getEpicById(2).getDuration());
+    }
+
+    @Test
+    void moveWithChangesIsOneWriteAndRejectedAsWhole() throws TaskOverlapException {
+        LocalDateTime start = LocalDateTime.of(2025, 5, 5, 9, 0);
+        manager.addEpic("Источник", "Описание");
+        manager.addEpic("Цель", "Описание");
+        manager.addSubTask("Подзадача", "Описание", 1, TaskStatus.NEW, Duration.ofMinutes(30), start);
+        manager.createTask("Занято", "Описание", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(1));
+        long seq = manager.getEventBuffer().getLastSequence();
+
+        SubTask overlapping = manager.getSubTaskById(3);
+        overlapping.setStartTime(start.plusHours(1));
+        assertThrows(TaskOverlapException.class, () -> manager.moveSubTask(3, 2, 0, overlapping));
+        assertEquals(1, manager.getSubTaskById(3).getEpicId(), "Отклоненное обновление не переносит подзадачу");
+        assertEquals(seq, manager.getEventBuffer().getLastSequence(), "Отклоненная операция не публикует событий");
+
+        SubTask renamed = manager.getSubTaskById(3);
+        renamed.setTitle("Перенесена");
+        long version = manager.getSnapshot().getVersion();
+        SubTask moved = manager.moveSubTask(3, 2, 0, renamed);
+        assertEquals(2, moved.getEpicId());
+        assertEquals("Перенесена", moved.getTitle());
+        assertEquals(version + 1, manager.getSnapshot().getVersion(), "Перенос и обновление публикуются одним снимком");
+    }
+
+    @Test
+    void snapshotIsPointInTimeView() throws TaskOverlapException {
+        manager.addEpic("Эпик", "Описание");
+        manager.addSubTask("Подзадача", "Описание", 1, TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 5, 9, 0));
+        ManagerSnapshot before = manager.getSnapshot();
+
+        manager.updateSubTask(new SubTask("Подзадача", "Описание", 2, TaskStatus.DONE, 1));
+        manager.createTask("Задача", "Описание", TaskStatus.NEW);
+        ManagerSnapshot after = manager.getSnapshot();
+
+        assertEquals(TaskStatus.NEW, before.getEpic(1).getStatus(), "Прежний снимок не видит изменений");
+        assertEquals(1, before.getPrioritizedTasks().size());
+        assertTrue(before.getTasks().isEmpty());
+        assertEquals(TaskStatus.DONE, after.getEpic(1).getStatus());
+        assertEquals(TaskStatus.DONE, after.getSubTask(2).getStatus());
+        assertTrue(after.getPrioritizedTasks().isEmpty(), "Подзадача без времени уходит из расписания снимка");
+        assertEquals(List.of(3), after.getTasks().stream().map(Task::getId).toList());
+        assertEquals(manager.getEventBuffer().getLastSequence(), after.getSeq());
+
+        Epic copy = manager.getAllEpics().get(0);
+        copy.setStatus(TaskStatus.NEW);
+        assertEquals(TaskStatus.DONE, manager.getEpicById(1).getStatus(), "Наружу отдаются копии");
+    }
+
+    @Test
+    void concurrentReadersSeeWholeWrites() throws Exception {
+        manager.addEpic("Эпик", "Описание");
+        manager.addSubTask("Первая", "Описание", 1, TaskStatus.NEW);
+        manager.addSubTask("Вторая", "Описание", 1, TaskStatus.NEW);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                TaskStatus status = i % 2 == 0 ? TaskStatus.DONE : TaskStatus.NEW;
+                try {
+                    manager.updateSubTask(new SubTask("Первая", "Описание", 2, status, 1));
+                    manager.updateSubTask(new SubTask("Вторая", "Описание", 3, status, 1));
+                } catch (TaskOverlapException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            ManagerSnapshot snapshot = manager.getSnapshot();
+            TaskStatus first = snapshot.getSubTask(2).getStatus();
+            TaskStatus second = snapshot.getSubTask(3).getStatus();
+            TaskStatus expected = first == second ? first : TaskStatus.IN_PROGRESS;
+            assertEquals(expected, snapshot.getEpic(1).getStatus(), "Статус эпика в снимке согласован с подзадачами");
+        }
+        writer.join();
+        assertEquals(TaskStatus.NEW, manager.getSnapshot().getEpic(1).getStatus());
+    }
+
+    private void collectSubtree(int id, List<SubTask> result) {
+        result.add(manager.getSubTaskById(id));
+        for (SubTask child : manager.getChildren(id)) {
+            collectSubtree(child.getId(), result);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package manager;
+
+import main.java.main.manager.InMemoryTaskManager;
+import main.java.main.manager.TaskOverlapException;
+import main.java.main.model.Task;
+import main.java.main.model.TaskStatus;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Ручной бенчмарк проверки пересечений на расписании из TASKS задач:
+ * прежний перебор потоком с вычислением окончания на каждое сравнение,
+ * попарный checkTaskOverlap с запомненным окончанием и hasOverlapWithExistingTasks по ScheduleIndex.
+ * Запуск: java manager.OverlapBenchmark (выводит нс и байт аллокаций на одну проверку).
+ */
+public class OverlapBenchmark {
+    private static final int TASKS = 10_000;
+    private static final int CANDIDATES = 1_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) throws TaskOverlapException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < TASKS; i++) {
+            manager.createTask("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                    start.plusHours(i));
+        }
+        List<Task> existing = manager.getPrioritizedTasks();
+        // Кандидаты попадают в промежутки между задачами: худший случай, нужно убедиться в отсутствии пересечений
+        Task[] candidates = new Task[CANDIDATES];
+        for (int i = 0; i < CANDIDATES; i++) {
+            candidates[i] = new Task("Кандидат", "Описание", 0, TaskStatus.NEW, Duration.ofMinutes(20),
+                    start.plusHours((long) i * TASKS / CANDIDATES).plusMinutes(35));
+        }
+
+        run("stream", () -> {
+            int found = 0;
+            for (Task candidate : candidates) {
+                if (existing.stream().anyMatch(task -> overlapsRecomputingEnd(candidate, task))) {
+                    found++;
+                }
+            }
+            return found;
+        });
+        run("pairwise", () -> {
+            int found = 0;
+            for (Task candidate : candidates) {
+                for (Task task : existing) {
+                    if (manager.checkTaskOverlap(candidate, task)) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+            return found;
+        });
+        run("index", () -> {
+            int found = 0;
+            for (Task candidate : candidates) {
+                if (manager.hasOverlapWithExistingTasks(candidate)) {
+                    found++;
+                }
+            }
+            return found;
+        });
+    }
+
+    // Прежняя проверка: окончание обеих задач вычисляется заново при каждом обращении
+    private static boolean overlapsRecomputingEnd(Task task1, Task task2) {
+        LocalDateTime end1 = task1.getStartTime().plus(task1.getDuration());
+        LocalDateTime end2 = task2.getStartTime().plus(task2.getDuration());
+        return !(end1.isBefore(task2.getStartTime()) || end1.equals(task2.getStartTime()) ||
+                end2.isBefore(task1.getStartTime()) || end2.equals(task1.getStartTime()));
+    }
+
+    private static void run(String name, IntSupplier round) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += round.getAsInt();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += round.getAsInt();
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long operations = (long) MEASURED_ROUNDS * CANDIDATES;
+        System.out.printf("%-10s %12.1f ns/check %10.1f B/check (sink=%d)%n",
+                name, (double) elapsed / operations, (double) allocated / operations, sink);
+    }
+}
@@ -0,0 +1,108 @@
+package manager;
+
+import main.java.main.manager.PersistentMap;
+import main.java.main.manager.PersistentSortedSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentCollectionsTest {
+
+    @Test
+    void mapMatchesTreeMapAndKeepsOldVersions() {
+        Random random = new Random(7);
+        PersistentMap<Integer, String> map = PersistentMap.empty();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        List<PersistentMap<Integer, String>> versions = new ArrayList<>();
+        List<TreeMap<Integer, String>> expectedVersions = new ArrayList<>();
+
+        for (int step = 0; step < 5000; step++) {
+            // Отрицательные и большие ключи проверяют все уровни дерева
+            int key = random.nextInt(3) == 0 ? random.nextInt() : random.nextInt(400) - 50;
+            if (random.nextInt(3) == 0) {
+                map = map.remove(key);
+                expected.remove(key);
+            } else {
+                map = map.put(key, "v" + step);
+                expected.put(key, "v" + step);
+            }
+            if (step % 500 == 0) {
+                versions.add(map);
+                expectedVersions.add(new TreeMap<>(expected));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()),
+                "Обход идет по возрастанию целых ключей");
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(expectedVersions.get(i), toTreeMap(versions.get(i)), "Старые версии не меняются");
+        }
+        assertNull(map.get(100_000));
+    }
+
+    @Test
+    void mapHandlesHashCollisions() {
+        // "Aa" и "BB" имеют одинаковый hashCode
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().put("Aa", 1).put("BB", 2);
+
+        assertEquals(1, map.get("Aa"));
+        assertEquals(2, map.get("BB"));
+        PersistentMap<String, Integer> removed = map.remove("Aa");
+        assertNull(removed.get("Aa"));
+        assertEquals(2, removed.get("BB"));
+        assertEquals(1, removed.size());
+        assertSame(removed, removed.remove("Aa"), "Удаление отсутствующего ключа возвращает то же отображение");
+    }
+
+    @Test
+    void sortedSetMatchesTreeSetAndSeeksFromElement() {
+        Random random = new Random(11);
+        PersistentSortedSet<Integer> set = PersistentSortedSet.empty(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+        PersistentSortedSet<Integer> early = set;
+        List<Integer> earlyExpected = List.of();
+
+        for (int step = 0; step < 5000; step++) {
+            int value = random.nextInt(1000);
+            if (random.nextBoolean()) {
+                set = set.add(value);
+                expected.add(value);
+            } else {
+                set = set.remove(value);
+                expected.remove(value);
+            }
+            if (step == 100) {
+                early = set;
+                earlyExpected = new ArrayList<>(expected);
+            }
+        }
+
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(set.asCollection()));
+        assertEquals(expected.size(), set.size());
+        assertEquals(earlyExpected, new ArrayList<>(early.asCollection()), "Старая версия не меняется");
+        List<Integer> tail = new ArrayList<>();
+        for (Iterator<Integer> it = set.tailIterator(500); it.hasNext(); ) {
+            tail.add(it.next());
+        }
+        assertEquals(new ArrayList<>(expected.tailSet(500)), tail);
+        assertEquals(expected.contains(500), set.contains(500));
+    }
+
+    private static TreeMap<Integer, String> toTreeMap(PersistentMap<Integer, String> map) {
+        TreeMap<Integer, String> result = new TreeMap<>();
+        for (Map.Entry<Integer, String> entry : map) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+package manager;
+
+import main.java.main.manager.InMemoryTaskManager;
+import main.java.main.manager.NotFoundException;
+import main.java.main.manager.TaskEvent;
+import main.java.main.manager.TaskOverlapException;
+import main.java.main.model.RecurrenceRule;
+import main.java.main.model.RecurringTask;
+import main.java.main.model.Task;
+import main.java.main.model.TaskOccurrence;
+import main.java.main.model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurringTaskTest {
+    // Понедельник
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 3, 9, 0);
+    private InMemoryTaskManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new InMemoryTaskManager();
+    }
+
+    @Test
+    void seriesIsStoredOnceAndExpandedInWindow() throws TaskOverlapException {
+        RecurringTask standup = manager.createRecurringTask("Стендап", "Ежедневно", TaskStatus.NEW,
+                Duration.ofMinutes(15), START, null, RecurrenceRule.parse("FREQ=DAILY"));
+
+        assertEquals(1, manager.getAllRecurringTasks().size());
+        assertTrue(manager.getPrioritizedTasks().isEmpty(), "Вхождения не хранятся в расписании");
+
+        List<Task> window = manager.getPrioritizedTasks(START.plusDays(365), START.plusDays(368));
+        assertEquals(3, window.size(), "Вхождения строятся только в запрошенном окне");
+        assertEquals(START.plusDays(365), window.get(0).getStartTime());
+        assertEquals(standup.getId(), window.get(0).getId());
+
+        List<Task> next = manager.getNextTasks(START, 2);
+        assertEquals(List.of(START, START.plusDays(1)), next.stream().map(Task::getStartTime).toList());
+        assertEquals(TaskEvent.EntityType.RECURRING, manager.getEventBuffer().readAfter(0, 1).get(0).getEntityType());
+    }
+
+    @Test
+    void occurrencesConflictWithTasksAndOtherSeries() throws TaskOverlapException {
+        manager.createRecurringTask("Стендап", "Ежедневно", TaskStatus.NEW, Duration.ofMinutes(30), START, null,
+                RecurrenceRule.parse("FREQ=DAILY"));
+
+        TaskOverlapException taskOverlap = assertThrows(TaskOverlapException.class, () -> manager.createTask(
+                "Встреча", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), START.plusDays(400).plusMinutes(15)));
+        assertEquals(List.of(1), taskOverlap.getConflictingIds(), "Пересечение с вхождением далеко от начала серии");
+        Task meeting = manager.createTask("Встреча", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                START.plusDays(400).plusMinutes(30));
+        manager.createTask("Чужая встреча", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), START.plusDays(1),
+                "Анна");
+
+        // Еженедельная серия по пятницам попадает на вхождения ежедневной
+        assertThrows(TaskOverlapException.class, () -> manager.createRecurringTask("Ретро", "Описание",
+                TaskStatus.NEW, Duration.ofMinutes(60), START.plusDays(4).minusMinutes(30), null,
+                RecurrenceRule.parse("FREQ=WEEKLY")));
+        manager.createRecurringTask("Ретро", "Описание", TaskStatus.NEW, Duration.ofMinutes(60),
+                START.plusDays(4).plusHours(1), null, RecurrenceRule.parse("FREQ=WEEKLY"));
+
+        // Новая серия пересекается с уже существующей задачей далеко от своего начала
+        TaskOverlapException seriesOverlap = assertThrows(TaskOverlapException.class, () ->
+                manager.createRecurringTask("Разбор почты", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                        START.plusMinutes(30), null, RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,TU,WE,TH")));
+        assertEquals(List.of(meeting.getId()), seriesOverlap.getConflictingIds());
+        assertThrows(IllegalArgumentException.class, () -> manager.createRecurringTask("Длинная", "Описание",
+                TaskStatus.NEW, Duration.ofDays(2), START.plusHours(12), null, RecurrenceRule.parse("FREQ=DAILY")),
+                "Вхождения серии не должны пересекаться друг с другом");
+    }
+
+    @Test
+    void overrideAndCancelSingleOccurrences() throws TaskOverlapException {
+        RecurringTask series = manager.createRecurringTask("Стендап", "Ежедневно", TaskStatus.NEW,
+                Duration.ofMinutes(15), START, null, RecurrenceRule.parse("FREQ=DAILY;COUNT=5"));
+        LocalDateTime second = START.plusDays(1);
+
+        Task moved = new Task("Стендап", "Перенесен", series.getId(), TaskStatus.DONE, Duration.ofMinutes(15),
+                second.plusHours(2));
+        manager.overrideOccurrence(series.getId(), second, moved);
+        manager.cancelOccurrence(series.getId(), START.plusDays(2));
+
+        List<TaskOccurrence> occurrences = manager.getOccurrences(series.getId(), null, null, 10);
+        assertEquals(List.of(START, second.plusHours(2), START.plusDays(3), START.plusDays(4)),
+                occurrences.stream().map(Task::getStartTime).toList());
+        assertEquals(second, occurrences.get(1).getOccurrenceStart());
+        assertEquals(TaskStatus.DONE, occurrences.get(1).getStatus());
+
+        // Перенос на другое вхождение той же серии запрещен
+        Task onThird = new Task("Стендап", "", series.getId(), TaskStatus.NEW, Duration.ofMinutes(15),
+                START.plusDays(3));
+        assertThrows(TaskOverlapException.class, () -> manager.overrideOccurrence(series.getId(), second, onThird));
+        assertThrows(NotFoundException.class, () -> manager.cancelOccurrence(series.getId(), START.plusMinutes(1)));
+        assertThrows(NotFoundException.class, () -> manager.cancelOccurrence(series.getId(), START.plusDays(5)),
+                "После COUNT вхождений нет");
+
+        manager.deleteRecurringTask(series.getId());
+        assertThrows(NotFoundException.class, () -> manager.getRecurringTaskById(series.getId()));
+    }
+
+    @Test
+    void freeSlotSkipsOccurrences() throws TaskOverlapException {
+        manager.createRecurringTask("Стендап", "Ежедневно", TaskStatus.NEW, Duration.ofMinutes(60), START, null,
+                RecurrenceRule.parse("FREQ=DAILY"));
+        manager.createTask("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), START.plusDays(10).plusHours(1));
+
+        Optional<LocalDateTime> slot = manager.findFreeSlot(Duration.ofMinutes(60), START.plusDays(10), null, null);
+
+        assertEquals(Optional.of(START.plusDays(10).plusMinutes(90)), slot,
+                "Окно начинается после вхождения серии и следующей за ним задачи");
+        assertEquals(Optional.empty(), manager.findFreeSlot(Duration.ofHours(24), START, null, null),
+                "Ежедневная серия не оставляет окна длиной в сутки");
+    }
+
+    @Test
+    void windowWithoutEndIncludesOccurrencesUpToCap() throws TaskOverlapException {
+        manager.createRecurringTask("Ретро", "Три раза", TaskStatus.NEW, Duration.ofMinutes(30), START, null,
+                RecurrenceRule.parse("FREQ=WEEKLY;COUNT=3"));
+        manager.createRecurringTask("Стендап", "Ежедневно", TaskStatus.NEW, Duration.ofMinutes(15),
+                START.plusHours(1), null, RecurrenceRule.parse("FREQ=DAILY"));
+
+        List<Task> fromOnly = manager.getPrioritizedTasks(START.plusDays(1), null);
+        assertEquals(List.of(START.plusDays(7), START.plusDays(14)), fromOnly.stream()
+                        .filter(task -> task.getTitle().equals("Ретро")).map(Task::getStartTime).toList(),
+                "Конечная серия попадает в окно без правой границы");
+        assertEquals(2 + RecurringTask.MAX_OCCURRENCES, fromOnly.size(), "Бесконечная серия ограничена сверху");
+
+        assertEquals(RecurringTask.MAX_OCCURRENCES + 3, manager.getNextTasks(START, Integer.MAX_VALUE).size(),
+                "Каждая серия дает не больше MAX_OCCURRENCES вхождений");
+        assertEquals(RecurringTask.MAX_OCCURRENCES + 3,
+                manager.getPrioritizedTasks(START, LocalDateTime.of(9999, 1, 1, 0, 0)).size());
+    }
+}
@@ -0,0 +1,48 @@
+package manager;
+
+import main.java.main.manager.TaskEvent;
+import main.java.main.manager.TaskEventBuffer;
+import main.java.main.model.Task;
+import main.java.main.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskEventBufferTest {
+
+    @Test
+    void keepsOnlyLastEventsWithinCapacity() {
+        TaskEventBuffer buffer = new TaskEventBuffer(3);
+        for (int i = 1; i <= 5; i++) {
+            buffer.publish(TaskEvent.Type.CREATED, TaskEvent.EntityType.TASK, i, 1,
+                    new Task("Задача " + i, "Описание", i, TaskStatus.NEW));
+        }
+
+        assertEquals(5, buffer.getLastSequence());
+        assertEquals(3, buffer.getOldestSequence(), "В буфере должны остаться три последних события");
+        List<TaskEvent> events = buffer.readAfter(0, 10);
+        assertEquals(List.of(3L, 4L, 5L), events.stream().map(TaskEvent::getSeq).toList());
+        assertEquals(1, buffer.readAfter(3, 1).size(), "Чтение ограничено max событиями");
+    }
+
+    @Test
+    void detectsWhenReaderFellTooFarBehind() {
+        TaskEventBuffer buffer = new TaskEventBuffer(2);
+        for (int i = 1; i <= 4; i++) {
+            buffer.publish(TaskEvent.Type.DELETED, TaskEvent.EntityType.TASK, i, 1, null);
+        }
+
+        assertTrue(buffer.canResumeFrom(2), "После события 2 можно продолжить с события 3");
+        assertFalse(buffer.canResumeFrom(1), "Событие 2 уже вытеснено");
+        assertFalse(buffer.canResumeFrom(10), "Номер из будущего означает перезапуск сервера");
+    }
+
+    @Test
+    void awaitReturnsEmptyListOnTimeout() throws InterruptedException {
+        TaskEventBuffer buffer = new TaskEventBuffer();
+
+        assertTrue(buffer.awaitAfter(0, 10, 10).isEmpty(), "Без событий ожидание должно завершиться по таймауту");
+    }
+}
@@ -0,0 +1,112 @@
+package manager;
+
+import main.java.main.manager.InMemoryTaskManager;
+import main.java.main.manager.TaskEvent;
+import main.java.main.manager.TaskOverlapException;
+import main.java.main.model.Task;
+import main.java.main.model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskTimersTest {
+    private InMemoryTaskManager manager;
+    private List<TaskEvent> notifications;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        manager = new InMemoryTaskManager();
+        notifications = new ArrayList<>();
+        manager.getTimers().addListener(notifications::add);
+        base = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).plusHours(1);
+    }
+
+    @Test
+    void firesStartAndOverdueAtScheduledTimes() throws TaskOverlapException {
+        Task task = manager.createTask("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base);
+
+        manager.getTimers().advanceTo(base.minusSeconds(1));
+        assertTrue(notifications.isEmpty(), "Время начала еще не наступило");
+
+        manager.getTimers().advanceTo(base);
+        assertEquals(1, notifications.size());
+        assertEquals(TaskEvent.Type.STARTED, notifications.get(0).getType());
+        assertEquals(task.getId(), notifications.get(0).getId());
+
+        manager.getTimers().advanceTo(base.plusMinutes(30));
+        assertEquals(TaskEvent.Type.OVERDUE, notifications.get(1).getType());
+        List<TaskEvent> published = manager.getEventBuffer().readAfter(0, 10);
+        assertEquals(TaskEvent.Type.OVERDUE, published.get(published.size() - 1).getType(),
+                "Уведомления попадают в общий поток событий");
+        assertEquals(0, manager.getTimers().getPendingCount());
+    }
+
+    @Test
+    void rescheduleAndDeletionCancelTimers() throws TaskOverlapException {
+        Task moved = manager.createTask("Перенесенная", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base);
+        Task done = manager.createTask("Завершенная", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                base.plusHours(1));
+        Task deleted = manager.createTask("Удаленная", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                base.plusHours(2));
+        assertEquals(6, manager.getTimers().getPendingCount());
+
+        moved.setStartTime(base.plusHours(5));
+        manager.updateTask(moved);
+        done.setStatus(TaskStatus.DONE);
+        manager.updateTask(done);
+        manager.deleteTaskById(deleted.getId());
+        assertEquals(2, manager.getTimers().getPendingCount(), "Остаются только таймеры перенесенной задачи");
+
+        manager.getTimers().advanceTo(base.plusHours(4));
+        assertTrue(notifications.isEmpty(), "Старые сроки отменены без срабатывания");
+
+        manager.getTimers().advanceTo(base.plusHours(6));
+        assertEquals(List.of(TaskEvent.Type.STARTED, TaskEvent.Type.OVERDUE),
+                notifications.stream().map(TaskEvent::getType).toList());
+        assertEquals(base.plusHours(5), notifications.get(0).getEntity().getStartTime());
+    }
+
+    @Test
+    void firesDistantDeadlinesOnTime() throws TaskOverlapException {
+        // Дальше диапазона всех уровней колеса: таймер перекладывается при каждом полном обороте
+        LocalDateTime distant = base.plusDays(200);
+        manager.createTask("Через полгода", "Описание", TaskStatus.NEW, Duration.ofMinutes(1), distant);
+        manager.createTask("Через неделю", "Описание", TaskStatus.NEW, Duration.ofMinutes(1), base.plusDays(7));
+
+        manager.getTimers().advanceTo(distant.minusSeconds(1));
+        assertEquals(2, notifications.size(), "Задача через неделю уже началась и просрочена");
+
+        manager.getTimers().advanceTo(distant);
+        assertEquals(3, notifications.size());
+        assertEquals(TaskEvent.Type.STARTED, notifications.get(2).getType());
+    }
+
+    @Test
+    void deltaSyncResumesFromNotificationNumber() throws TaskOverlapException {
+        Task task = manager.createTask("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base);
+        manager.getTimers().advanceTo(base);
+        long lastSeen = notifications.get(0).getSeq();
+
+        assertFalse(manager.getChangesSince(lastSeen).isReset(), "Номер уведомления - допустимая точка продолжения");
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateTask(task);
+        assertEquals(1, manager.getChangesSince(lastSeen).getChanges().size());
+    }
+
+    @Test
+    void pastDeadlinesAreNotRegistered() throws TaskOverlapException {
+        manager.createTask("В прошлом", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2020, 1, 1, 10, 0));
+        manager.createTask("Без времени", "Описание", TaskStatus.NEW);
+
+        assertEquals(0, manager.getTimers().getPendingCount());
+    }
+}
@@ -1,8 +1,11 @@
 package manager;
 
+import main.java.main.manager.BatchOverlapException;
 import main.java.main.manager.InMemoryTaskManager;
+import main.java.main.manager.ScheduleConflict;
 import main.java.main.manager.TaskOverlapException;
 import main.java.main.model.Epic;
+import main.java.main.model.SubTask;
 import main.java.main.model.Task;
 import main.java.main.model.TaskStatus;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,7 +13,9 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -164,4 +169,197 @@ public class TimeValidationTest {
                     duration, start.plusMinutes(30));
         }, "Должно выбросить исключение при добавлении пересекающейся подзадачи");
     }
-}
\ No newline at end of file
+
+    @Test
+    void prioritizedWindowReturnsOnlyTasksStartingInsideIt() throws TaskOverlapException {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 9, 0);
+        Task early = manager.createTask("Рано", "Описание", TaskStatus.NEW, Duration.ofHours(1), base);
+        Task middle = manager.createTask("Середина", "Описание", TaskStatus.NEW, Duration.ofHours(1), base.plusDays(1));
+        Task late = manager.createTask("Поздно", "Описание", TaskStatus.NEW, Duration.ofHours(1), base.plusDays(7));
+        manager.createTask("Без времени", "Описание", TaskStatus.NEW);
+
+        List<Task> window = manager.getPrioritizedTasks(base.plusHours(1), base.plusDays(7));
+        assertEquals(List.of(middle), window, "В окно должна попасть только задача, начинающаяся внутри него");
+
+        List<Task> fromStart = manager.getPrioritizedTasks(base, null);
+        assertEquals(List.of(early, middle, late), fromStart, "Нижняя граница окна включительна");
+
+        assertTrue(manager.getPrioritizedTasks(base.plusDays(7), base).isEmpty(),
+                "Окно с перепутанными границами должно быть пустым");
+    }
+
+    @Test
+    void nextTasksAreLimitedAndSorted() throws TaskOverlapException {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 9, 0);
+        for (int i = 4; i >= 0; i--) {
+            manager.createTask("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base.plusHours(i));
+        }
+
+        List<Task> next = manager.getNextTasks(base.plusMinutes(30), 2);
+
+        assertEquals(2, next.size(), "Должно вернуться не больше limit задач");
+        assertEquals(base.plusHours(1), next.get(0).getStartTime());
+        assertEquals(base.plusHours(2), next.get(1).getStartTime());
+        assertTrue(manager.getNextTasks(null, 0).isEmpty(), "При limit = 0 список должен быть пустым");
+    }
+
+    @Test
+    void findFreeSlotReturnsFirstGapThatFits() throws TaskOverlapException {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 9, 0);
+        manager.createTask("1", "Описание", TaskStatus.NEW, Duration.ofHours(1), base);
+        manager.createTask("2", "Описание", TaskStatus.NEW, Duration.ofHours(1), base.plusMinutes(90));
+        manager.createTask("3", "Описание", TaskStatus.NEW, Duration.ofHours(1), base.plusHours(4));
+
+        assertEquals(Optional.of(base.plusHours(1)), manager.findFreeSlot(Duration.ofMinutes(30), base, null),
+                "Получасовое окно помещается сразу после первой задачи");
+        assertEquals(Optional.of(base.plusMinutes(150)), manager.findFreeSlot(Duration.ofHours(1), base.plusMinutes(30), null),
+                "Часовое окно помещается только после второй задачи");
+        assertEquals(Optional.empty(), manager.findFreeSlot(Duration.ofHours(2), base, base.plusHours(5)),
+                "Двухчасового окна до ограничения нет");
+        assertEquals(Optional.of(base.plusHours(5)), manager.findFreeSlot(Duration.ofHours(2), base, null),
+                "Без ограничения окно находится после последней задачи");
+    }
+
+    @Test
+    void createTaskInFreeSlotPlacesTaskWithoutOverlap() throws TaskOverlapException {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 9, 0);
+        manager.createTask("Занято", "Описание", TaskStatus.NEW, Duration.ofHours(2), base);
+
+        Task scheduled = manager.createTaskInFreeSlot("Авто", "Описание", TaskStatus.NEW, Duration.ofHours(1),
+                base.plusHours(1), null);
+
+        assertEquals(base.plusHours(2), scheduled.getStartTime(), "Задача должна встать сразу после занятого интервала");
+        assertThrows(TaskOverlapException.class, () -> manager.createTaskInFreeSlot("Не влезет", "Описание",
+                TaskStatus.NEW, Duration.ofHours(1), base, base.plusHours(3)));
+    }
+
+    @Test
+    void overlapCheckFollowsScheduleChanges() throws TaskOverlapException {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 9, 0);
+        for (int i = 0; i < 500; i++) {
+            manager.createTask("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                    base.plusHours(i));
+        }
+        Task inGap = new Task("В промежутке", "Описание", 0, TaskStatus.NEW, Duration.ofMinutes(30),
+                base.plusHours(250).plusMinutes(30));
+        Task acrossTask = new Task("Через задачу", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1),
+                base.plusHours(300).minusMinutes(15));
+
+        assertFalse(manager.hasOverlapWithExistingTasks(inGap), "Промежуток между задачами свободен");
+        assertTrue(manager.hasOverlapWithExistingTasks(acrossTask), "Интервал накрывает задачу целиком");
+
+        manager.deleteTaskById(301);
+        assertFalse(manager.hasOverlapWithExistingTasks(acrossTask), "После удаления задачи время освобождается");
+
+        Task moved = manager.getTaskById(1);
+        moved.setStartTime(base.plusHours(300));
+        manager.updateTask(moved);
+        assertTrue(manager.hasOverlapWithExistingTasks(acrossTask), "Перенесенная задача занимает новое время");
+        assertFalse(manager.hasOverlapWithExistingTasks(new Task("На старом месте", "Описание", 0, TaskStatus.NEW,
+                Duration.ofMinutes(30), base)), "Старое время перенесенной задачи свободно");
+    }
+
+    @Test
+    void findBatchConflictsReportsEveryConflict() throws TaskOverlapException {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 9, 0);
+        Task existing = manager.createTask("Существующая", "Описание", TaskStatus.NEW, Duration.ofHours(1), base);
+        List<Task> batch = List.of(
+                new Task("Свободная", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base.plusHours(5)),
+                new Task("С существующей", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base.plusMinutes(30)),
+                new Task("Внутри пакета 1", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base.plusHours(2)),
+                new Task("Без времени", "Описание", 0, TaskStatus.NEW),
+                new Task("Внутри пакета 2", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1),
+                        base.plusHours(2).plusMinutes(30)));
+
+        List<ScheduleConflict> conflicts = manager.findBatchConflicts(batch);
+
+        assertEquals(List.of(ScheduleConflict.withExisting(1, existing.getId()), ScheduleConflict.withinBatch(2, 4)),
+                conflicts);
+        BatchOverlapException exception = assertThrows(BatchOverlapException.class, () -> manager.createTasks(batch));
+        assertEquals(conflicts, exception.getConflicts());
+        assertEquals(1, manager.getAllTasks().size(), "При конфликтах пакет не создается целиком");
+    }
+
+    @Test
+    void createTasksValidatesLargeBatchInParallel() throws TaskOverlapException {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 9, 0);
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            batch.add(new Task("Задача " + i, "Описание", 0, TaskStatus.NEW, Duration.ofMinutes(30),
+                    base.plusHours(5000 - i)));
+        }
+
+        assertEquals(5000, manager.createTasks(batch).size());
+        assertEquals(5000, manager.getPrioritizedTasks().size());
+
+        List<Task> overlapping = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            overlapping.add(new Task("Пересекающаяся " + i, "Описание", 0, TaskStatus.NEW, Duration.ofMinutes(10),
+                    base.plusHours(i + 1).plusMinutes(10)));
+        }
+        List<ScheduleConflict> conflicts = manager.findBatchConflicts(overlapping);
+        assertEquals(3000, conflicts.size(), "Должны быть найдены все конфликты, а не только первый");
+        for (int i = 0; i < conflicts.size(); i++) {
+            assertEquals(i, conflicts.get(i).getIndex());
+            assertNotNull(conflicts.get(i).getConflictingTaskId());
+        }
+    }
+
+    @Test
+    void overlapIsCheckedWithinAssigneeOnly() throws TaskOverlapException {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 9, 0);
+        Task anna = manager.createTask("Анна", "Описание", TaskStatus.NEW, Duration.ofHours(1), base, "anna");
+        manager.createTask("Борис", "Описание", TaskStatus.NEW, Duration.ofHours(1), base, "boris");
+        manager.createTask("Без исполнителя", "Описание", TaskStatus.NEW, Duration.ofHours(1), base);
+
+        TaskOverlapException exception = assertThrows(TaskOverlapException.class, () -> manager.createTask(
+                "Снова Анна", "Описание", TaskStatus.NEW, Duration.ofHours(1), base.plusMinutes(30), "anna"));
+        assertEquals(List.of(anna.getId()), exception.getConflictingIds(), "Конфликт только с задачей того же исполнителя");
+        assertEquals(3, manager.getPrioritizedTasks().size(), "Общий список содержит задачи всех исполнителей");
+        assertEquals(1, manager.getPrioritizedTasks("anna").size());
+        assertEquals(Optional.of(base.plusHours(1)), manager.findFreeSlot(Duration.ofHours(1), base, null, "anna"));
+        assertEquals(Optional.of(base), manager.findFreeSlot(Duration.ofHours(1), base, null, "carol"),
+                "У нового исполнителя расписание свободно");
+
+        Task moved = manager.getTaskById(anna.getId());
+        moved.setAssignee("boris");
+        assertThrows(TaskOverlapException.class, () -> manager.updateTask(moved),
+                "Смена исполнителя проверяет пересечения в его расписании");
+
+        List<Task> batch = List.of(
+                new Task("Пакет Анны", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base),
+                new Task("Пакет Кэрол", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base));
+        batch.get(0).setAssignee("anna");
+        batch.get(1).setAssignee("carol");
+        assertEquals(List.of(ScheduleConflict.withExisting(0, anna.getId())), manager.findBatchConflicts(batch));
+    }
+
+    @Test
+    void durationChangeIsCheckedForOverlap() throws TaskOverlapException {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 9, 0);
+        Task task = manager.createTask("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), base);
+        Task neighbour = manager.createTask("Соседняя", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                base.plusMinutes(30));
+        manager.addEpic("Эпик", "Описание");
+        int epicId = manager.getAllEpics().get(0).getId();
+        manager.addSubTask("Подзадача", "Описание", epicId, TaskStatus.NEW, Duration.ofMinutes(30), base.plusHours(2));
+        SubTask subTask = manager.getAllSubTasks().get(0);
+
+        Task longer = manager.getTaskById(task.getId());
+        longer.setDuration(Duration.ofHours(1));
+        TaskOverlapException exception = assertThrows(TaskOverlapException.class, () -> manager.updateTask(longer),
+                "Удлинение задачи до соседней должно проверяться на пересечения");
+        assertEquals(List.of(neighbour.getId()), exception.getConflictingIds());
+        assertEquals(Duration.ofMinutes(30), manager.getTaskById(task.getId()).getDuration());
+
+        SubTask longerSubTask = manager.getSubTaskById(subTask.getId());
+        longerSubTask.setDuration(Duration.ofHours(2));
+        manager.updateSubTask(longerSubTask);
+        longerSubTask.setDuration(Duration.ofHours(3));
+        Task blocker = manager.createTask("Позже", "Описание", TaskStatus.NEW, Duration.ofMinutes(30),
+                base.plusHours(4).plusMinutes(30));
+        assertThrows(TaskOverlapException.class, () -> manager.updateSubTask(longerSubTask),
+                "Удлинение подзадачи тоже проверяется");
+        assertEquals(List.of(blocker.getId()), manager.findConflictingTaskIds(longerSubTask, 10));
+    }
+}
@@ -0,0 +1,77 @@
+package model;
+
+import main.java.main.model.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurrenceRuleTest {
+    // Понедельник
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+    @Test
+    void dailyOccurrencesInWindow() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=2");
+
+        List<LocalDateTime> occurrences = rule.occurrences(START, START.plusDays(100), START.plusDays(106), 10);
+
+        assertEquals(List.of(START.plusDays(100), START.plusDays(102), START.plusDays(104)), occurrences,
+                "Окно далеко от начала серии вычисляется без перебора предыдущих вхождений");
+        assertTrue(rule.isOccurrence(START, START.plusDays(1000)));
+        assertFalse(rule.isOccurrence(START, START.plusDays(1001)));
+        assertNull(rule.lastOccurrence(START), "Серия без COUNT и UNTIL бесконечна");
+    }
+
+    @Test
+    void weeklyByDaysSkipsDaysBeforeStart() {
+        // Начало в среду: понедельник первой недели не входит в серию
+        LocalDateTime wednesday = START.plusDays(2);
+        RecurrenceRule rule = RecurrenceRule.parse("RRULE:FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;COUNT=3");
+
+        assertEquals(List.of(wednesday, START.plusDays(14), START.plusDays(16)),
+                rule.occurrences(wednesday, null, null, 10));
+        assertEquals(START.plusDays(16), rule.lastOccurrence(wednesday));
+        assertEquals(2, rule.getMinGapDays(wednesday));
+        assertEquals(List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), rule.getByDays());
+    }
+
+    @Test
+    void untilBoundsSeries() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;UNTIL=2025-03-24T09:00");
+
+        assertEquals(List.of(START, START.plusDays(7), START.plusDays(14), START.plusDays(21)),
+                rule.occurrences(START, null, null, 10));
+        assertEquals(START.plusDays(21), rule.lastOccurrence(START));
+    }
+
+    @Test
+    void parseAndFormatRoundTrip() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=FR MO;COUNT=5");
+
+        assertEquals("FREQ=WEEKLY;BYDAY=MO,FR;COUNT=5", rule.toString());
+        assertEquals(rule, RecurrenceRule.parse(rule.toString()));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=MONTHLY"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=DAILY;BYDAY=MO"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=DAILY;INTERVAL=0"));
+    }
+
+    @Test
+    void parseDoesNotDependOnDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        // В турецкой локали "interval".toUpperCase() дает "İNTERVAL"
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            RecurrenceRule rule = RecurrenceRule.parse("freq=weekly;interval=2;byday=mo,fr;until=2025-06-01T00:00");
+            assertEquals(2, rule.getInterval());
+            assertEquals(List.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), rule.getByDays());
+            assertEquals(LocalDateTime.of(2025, 6, 1, 0, 0), rule.getUntil());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
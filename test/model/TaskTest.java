@@ -4,8 +4,13 @@ import main.java.main.model.Task;
 import main.java.main.model.TaskStatus;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class TaskTest {
     @Test
@@ -16,4 +21,19 @@ public class TaskTest {
         assertNotSame(task1, task2, "Задачи не должны быть одним и тем же объектом");
         assertEquals(task1.hashCode(), task2.hashCode(), "Задачи с одинаковым ID должны иметь одинаковый хэш-код");
     }
+
+    @Test
+    void endTimeFollowsStartAndDurationChanges() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 10, 0);
+        Task task = new Task("Задача", "Описание", 1, TaskStatus.NEW, Duration.ofHours(1), start);
+        assertEquals(start.plusHours(1), task.getEndTime());
+        assertSame(task.getEndTime(), task.getEndTime(), "Время завершения не должно вычисляться заново");
+
+        task.setDuration(Duration.ofMinutes(30));
+        assertEquals(start.plusMinutes(30), task.getEndTime(), "Смена продолжительности пересчитывает окончание");
+        task.setStartTime(start.plusHours(2));
+        assertEquals(start.plusHours(2).plusMinutes(30), task.getEndTime(), "Смена начала пересчитывает окончание");
+        task.setStartTime(null);
+        assertNull(task.getEndTime());
+    }
 }
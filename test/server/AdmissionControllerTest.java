@@ -0,0 +1,301 @@
+package server;
+
+import com.sun.net.httpserver.HttpServer;
+import main.java.main.server.AdmissionController;
+import main.java.main.server.AdmissionController.Permit;
+import main.java.main.server.AdmissionController.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControllerTest {
+
+    @Test
+    void classifiesReadsListingsAndWrites() {
+        assertEquals(Priority.READ, AdmissionController.classify("GET", "/tasks/5"));
+        assertEquals(Priority.READ, AdmissionController.classify("GET", "/epics/3/subtasks"));
+        assertEquals(Priority.BULK, AdmissionController.classify("GET", "/tasks"));
+        assertEquals(Priority.BULK, AdmissionController.classify("GET", "/prioritized"));
+        assertEquals(Priority.BULK, AdmissionController.classify("GET", "/boards/b1/search"));
+        assertEquals(Priority.READ, AdmissionController.classify("GET", "/boards/b1/tasks/2"));
+        assertEquals(Priority.WRITE, AdmissionController.classify("POST", "/tasks/5"));
+        assertEquals(Priority.WRITE, AdmissionController.classify("DELETE", "/boards/b1/tasks"));
+        // Вычисления по всей доске или серии - не чтение одной сущности
+        assertEquals(Priority.BULK, AdmissionController.classify("GET", "/prioritized/free-slot"));
+        assertEquals(Priority.BULK, AdmissionController.classify("GET", "/prioritized/conflicts"));
+        assertEquals(Priority.BULK, AdmissionController.classify("GET", "/epics/3/summary"));
+        assertEquals(Priority.BULK, AdmissionController.classify("GET", "/boards/b1/recurring/4/occurrences"));
+    }
+
+    @Test
+    void writesAreShedBeforeReads() throws Exception {
+        AdmissionController admission = new AdmissionController(4, 4, 0, 0, 1000);
+
+        // Записям доступна половина предела
+        Permit first = admission.tryAcquire("/tasks", Priority.WRITE);
+        Permit second = admission.tryAcquire("/tasks", Priority.WRITE);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(admission.tryAcquire("/tasks", Priority.WRITE), "Третья запись сверх доли записей отклоняется");
+        Permit read = admission.tryAcquire("/tasks", Priority.READ);
+        assertNotNull(read, "Чтение проходит, пока запись отклоняется");
+        assertNotNull(admission.tryAcquire("/epics", Priority.WRITE), "Предел у каждого эндпоинта свой");
+
+        AdmissionController.EndpointStats stats = admission.getStats().get(1);
+        assertEquals("/tasks", stats.getEndpoint());
+        assertEquals(3, stats.getAdmitted());
+        assertEquals(3, stats.getInFlight());
+        assertEquals(1, stats.getRejected(Priority.WRITE));
+        assertEquals(0, stats.getRejected(Priority.READ));
+
+        // Доля записей считается от всех выполняющихся запросов эндпоинта
+        first.release(false);
+        read.release(false);
+        assertNotNull(admission.tryAcquire("/tasks", Priority.WRITE), "Освободившееся место снова доступно");
+    }
+
+    @Test
+    void limitShrinksOnSlowOrFailedRequestsAndGrowsUnderLoad() throws Exception {
+        AdmissionController slow = new AdmissionController(10, 20, 0, 0, 0);
+        for (int i = 0; i < 5; i++) {
+            Permit permit = slow.tryAcquire("/search", Priority.READ);
+            Thread.sleep(1);
+            permit.release(false);
+        }
+        assertEquals(5, slow.getStats().get(0).getLimit(), "Каждый медленный ответ снижает предел на 10%");
+
+        AdmissionController fast = new AdmissionController(4, 6, 0, 0, 60_000);
+        for (int round = 0; round < 5; round++) {
+            Permit[] permits = new Permit[4];
+            for (int i = 0; i < permits.length; i++) {
+                permits[i] = fast.tryAcquire("/tasks", Priority.READ);
+            }
+            for (Permit permit : permits) {
+                permit.release(false);
+            }
+        }
+        assertEquals(6, fast.getStats().get(0).getLimit(), "Предел растет под нагрузкой до максимума");
+
+        Permit failed = fast.tryAcquire("/tasks", Priority.READ);
+        failed.release(true);
+        assertEquals(5, fast.getStats().get(0).getLimit(), "Ошибка сервера снижает предел");
+    }
+
+    @Test
+    void queuedReadIsAdmittedBeforeEarlierWrite() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 1, 4, 5_000, 60_000);
+        Permit busy = admission.tryAcquire("/tasks", Priority.READ);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Thread writer = new Thread(() -> acquireAndRecord(admission, Priority.WRITE, order));
+        writer.start();
+        waitForQueue(admission, 1);
+        Thread reader = new Thread(() -> acquireAndRecord(admission, Priority.READ, order));
+        reader.start();
+        waitForQueue(admission, 2);
+
+        busy.release(false);
+        writer.join(5_000);
+        reader.join(5_000);
+
+        assertEquals(List.of(Priority.READ.name(), Priority.WRITE.name()), order,
+                "Чтение из очереди проходит раньше пришедшей до него записи");
+        AdmissionController.EndpointStats stats = admission.getStats().get(0);
+        assertEquals(2, stats.getQueued());
+        assertTrue(stats.getMaxQueueMillis() > 0, "Время ожидания в очереди учитывается");
+    }
+
+    @Test
+    void rejectedRequestGets503WithRetryAfter() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 1, 0, 0, 60_000);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/tasks", admission.wrap("/tasks", exchange -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        }));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        server.setExecutor(executor);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + server.getAddress().getPort() + "/tasks/1"))
+                    .GET()
+                    .build();
+            CompletableFuture<HttpResponse<String>> first = client.sendAsync(request,
+                    HttpResponse.BodyHandlers.ofString());
+            entered.await();
+
+            HttpResponse<String> rejected = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(503, rejected.statusCode());
+            assertEquals("1", rejected.headers().firstValue("Retry-After").orElse(null));
+
+            release.countDown();
+            assertEquals(200, first.get().statusCode());
+        } finally {
+            release.countDown();
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void boardsHaveSeparateLimits() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 1, 0, 0, 60_000);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/boards", admission.wrap("/boards", exchange -> {
+            if (exchange.getRequestURI().getPath().startsWith("/boards/slow/")) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        }));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        server.setExecutor(executor);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            String base = "http://localhost:" + server.getAddress().getPort();
+            CompletableFuture<HttpResponse<String>> slow = client.sendAsync(
+                    HttpRequest.newBuilder().uri(URI.create(base + "/boards/slow/tasks/1")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            entered.await();
+
+            HttpResponse<String> fast = client.send(
+                    HttpRequest.newBuilder().uri(URI.create(base + "/boards/fast/tasks/1")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, fast.statusCode(), "Занятая доска не расходует предел другой доски");
+
+            release.countDown();
+            assertEquals(200, slow.get().statusCode());
+            assertEquals(List.of("/boards/fast/tasks", "/boards/slow/tasks"), admission.getStats().stream()
+                    .map(AdmissionController.EndpointStats::getEndpoint).toList());
+        } finally {
+            release.countDown();
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void interruptedWaiterDoesNotHoldSlot() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 1, 1, 5_000, 60_000);
+        for (int round = 0; round < 1000; round++) {
+            Permit busy = admission.tryAcquire("/tasks", Priority.READ);
+            Thread waiter = new Thread(() -> {
+                try {
+                    Permit permit = admission.tryAcquire("/tasks", Priority.READ);
+                    if (permit != null) {
+                        permit.release(false);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            waiter.start();
+            waitForQueue(admission, 1);
+            // Место может достаться ожидающему, который уже прерван
+            waiter.interrupt();
+            busy.release(false);
+            waiter.join(5_000);
+            assertEquals(0, admission.getStats().get(0).getInFlight(),
+                    "Прерванный ожидающий не удерживает место эндпоинта");
+        }
+    }
+
+    @Test
+    void requestBeyondPoolQueueGets503() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 1, 0, 0, 60_000);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/tasks", admission.wrap("/tasks", exchange -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        }));
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) AdmissionController.newExecutor(1, 1);
+        server.setExecutor(executor);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + server.getAddress().getPort() + "/tasks/1"))
+                    .GET()
+                    .build();
+            CompletableFuture<HttpResponse<String>> running = client.sendAsync(request,
+                    HttpResponse.BodyHandlers.ofString());
+            entered.await();
+            CompletableFuture<HttpResponse<String>> queued = client.sendAsync(request,
+                    HttpResponse.BodyHandlers.ofString());
+            while (executor.getQueue().isEmpty()) {
+                Thread.sleep(5);
+            }
+
+            HttpResponse<String> rejected = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(503, rejected.statusCode(), "Запрос сверх очереди пула отклоняется сразу");
+            assertEquals("1", rejected.headers().firstValue("Retry-After").orElse(null));
+
+            release.countDown();
+            assertEquals(200, running.get().statusCode());
+            assertEquals(200, queued.get().statusCode());
+            AdmissionController.EndpointStats stats = admission.getStats().get(0);
+            assertEquals(1, stats.getRejected(Priority.READ));
+            assertTrue(stats.getMaxPoolQueueMillis() > 0, "Время ожидания в очереди пула учитывается");
+        } finally {
+            release.countDown();
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private static void acquireAndRecord(AdmissionController admission, Priority priority, List<String> order) {
+        try {
+            Permit permit = admission.tryAcquire("/tasks", priority);
+            order.add(priority.name());
+            Thread.sleep(5);
+            permit.release(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitForQueue(AdmissionController admission, int waiting) throws InterruptedException {
+        while (admission.getStats().get(0).getWaiting() < waiting) {
+            Thread.sleep(5);
+        }
+    }
+}
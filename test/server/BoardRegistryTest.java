@@ -0,0 +1,106 @@
+package server;
+
+import main.java.main.manager.Managers;
+import main.java.main.manager.TaskOverlapException;
+import main.java.main.model.TaskStatus;
+import main.java.main.server.BoardRegistry;
+import main.java.main.server.HttpTaskServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardRegistryTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final BoardRegistry registry = new BoardRegistry(id -> {
+        loads.incrementAndGet();
+        return Managers.getDefault();
+    }, HttpTaskServer.createGson(), 50);
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    void loadsBoardOnceWhileActive() throws TaskOverlapException {
+        BoardRegistry.Board first = registry.acquire("a");
+        first.getTaskManager().createTask("Задача", "Описание", TaskStatus.NEW);
+        first.release();
+
+        BoardRegistry.Board second = registry.acquire("a");
+        assertSame(first, second, "Активная доска не должна загружаться повторно");
+        assertEquals(1, second.getTaskManager().getAllTasks().size());
+        second.release();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evictsIdleBoardAndReloadsOnDemand() throws InterruptedException {
+        registry.acquire("a").release();
+        assertEquals(1, registry.getLoadedCount());
+
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (registry.getLoadedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, registry.getLoadedCount(), "Простаивающая доска должна выгружаться");
+
+        registry.acquire("a").release();
+        assertEquals(2, loads.get(), "После выгрузки доска загружается заново");
+    }
+
+    @Test
+    void loadsBoardOnceWithoutBlockingOtherBoards() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger slowLoads = new AtomicInteger();
+        BoardRegistry slowRegistry = new BoardRegistry(id -> {
+            if (id.equals("slow")) {
+                slowLoads.incrementAndGet();
+                loading.countDown();
+                try {
+                    finish.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Managers.getDefault();
+        }, HttpTaskServer.createGson(), 60_000);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> slowRegistry.acquire("slow").release());
+            loading.await();
+            Future<?> second = executor.submit(() -> slowRegistry.acquire("slow").release());
+
+            // Доска загружается вне блокировок карты, поэтому другие доски доступны во время загрузки
+            slowRegistry.acquire("fast").release();
+            assertFalse(first.isDone(), "Загрузка медленной доски еще идет");
+
+            finish.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+            assertEquals(1, slowLoads.get(), "Одновременные обращения загружают доску один раз");
+            assertEquals(2, slowRegistry.getLoadedCount());
+        } finally {
+            finish.countDown();
+            executor.shutdownNow();
+            slowRegistry.close();
+        }
+    }
+
+    @Test
+    void validatesBoardId() {
+        assertTrue(BoardRegistry.isValidBoardId("team-1_A"));
+        assertFalse(BoardRegistry.isValidBoardId(""));
+        assertFalse(BoardRegistry.isValidBoardId("../etc"));
+        assertFalse(BoardRegistry.isValidBoardId("a b"));
+    }
+}
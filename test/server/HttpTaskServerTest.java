@@ -21,6 +21,10 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -72,6 +76,19 @@ public class HttpTaskServerTest {
         return client.send(request, HttpResponse.BodyHandlers.ofString());
     }
 
+    /**
+     * Отправляет PATCH запрос с частичными изменениями
+     */
+    private HttpResponse<String> sendPatchRequest(String endpoint, Object data) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + endpoint))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                        data instanceof String ? (String) data : gson.toJson(data)))
+                .header("Content-Type", "application/json")
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
     /**
      * Отправляет GET запрос
      */
@@ -144,6 +161,25 @@ public class HttpTaskServerTest {
         assertEquals(TaskStatus.NEW, createdTask.getStatus(), "Статус задачи должен быть NEW");
     }
 
+    /*
+    Тест создания задачи с неизвестным статусом: ошибка клиента, а не сервера
+     */
+    @Test
+    void shouldRejectTaskWithUnknownStatus() throws IOException, InterruptedException {
+        // Статус разбирает адаптер задач из рабочего Gson сервера
+        server.stop();
+        server = new HttpTaskServer(new InMemoryTaskManager(), HttpTaskServer.createGson());
+        server.start();
+        taskManager = server.getTaskManager();
+
+        HttpResponse<String> response = sendPostRequest("/tasks", Map.of("title", "Задача",
+                "description", "Описание", "status", "BOGUS"));
+
+        assertEquals(400, response.statusCode(), "Неизвестный статус должен давать 400");
+        assertTrue(taskManager.getAllTasks().isEmpty(), "Задача не должна создаваться");
+        assertEquals(400, sendPostRequest("/epics", Map.of("title", "Эпик", "status", "BOGUS")).statusCode());
+    }
+
     /*
     Тест создания задачи с временными полями
      */
@@ -272,6 +308,33 @@ public class HttpTaskServerTest {
 
         assertEquals(406, response.statusCode());
         assertEquals(1, taskManager.getAllTasks().size());
+        int blockingId = taskManager.getAllTasks().get(0).getId();
+        assertTrue(response.body().contains("\"conflictingTaskIds\":[" + blockingId + "]"),
+                "В ответе должна быть указана мешающая задача");
+    }
+
+    /*
+    Тест запроса конфликтов без создания задачи
+     */
+    @Test
+    void shouldReturnConflictingTaskIds() throws IOException, InterruptedException {
+        int first = createTaskViaAPI("Первая", "Описание", TaskStatus.NEW);
+        Task timed = new Task("Со временем", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2025, 1, 15, 10, 0));
+        sendPostRequest("/tasks", timed);
+        Task second = new Task("Вторая", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2025, 1, 15, 11, 0));
+        sendPostRequest("/tasks", second);
+
+        HttpResponse<String> response = sendGetRequest(
+                "/prioritized/conflicts?startTime=2025-01-15T10:30&duration=60");
+        assertEquals(200, response.statusCode());
+        assertEquals("[" + (first + 1) + "," + (first + 2) + "]", response.body());
+        Integer[] limited = gson.fromJson(sendGetRequest(
+                "/prioritized/conflicts?startTime=2025-01-15T10:30&duration=60&limit=1").body(), Integer[].class);
+        assertEquals(1, limited.length, "Число конфликтов ограничено параметром limit");
+        assertEquals("[]", sendGetRequest("/prioritized/conflicts?startTime=2025-01-15T12:00&duration=60").body());
+        assertEquals(400, sendGetRequest("/prioritized/conflicts?duration=60").statusCode());
     }
 
     // ======================== ТЕСТЫ ДЛЯ EPICS ========================
@@ -541,6 +604,341 @@ public class HttpTaskServerTest {
         assertEquals(2, taskManager.getPrioritizedTasks().size()); // Только задачи с временем
     }
 
+    /*
+    Тест получения задач из временного окна с ограничением количества
+     */
+    @Test
+    void shouldGetPrioritizedTasksInWindow() throws IOException, InterruptedException {
+
+        LocalDateTime base = LocalDateTime.of(2025, 1, 15, 10, 0);
+        for (int i = 0; i < 4; i++) {
+            sendPostRequest("/tasks", new Task("Задача " + i, "Описание", 0, TaskStatus.NEW,
+                    Duration.ofMinutes(30), base.plusHours(i)));
+        }
+
+        HttpResponse<String> window = sendGetRequest("/prioritized?from=2025-01-15T11:00&to=2025-01-15%2013:00");
+        assertEquals(200, window.statusCode());
+        Task[] windowTasks = gson.fromJson(window.body(), Task[].class);
+        assertEquals(2, windowTasks.length);
+        assertEquals(base.plusHours(1), windowTasks[0].getStartTime());
+
+        HttpResponse<String> limited = sendGetRequest("/prioritized?from=2025-01-15T10:30&limit=1");
+        assertEquals(1, gson.fromJson(limited.body(), Task[].class).length);
+
+        assertEquals(400, sendGetRequest("/prioritized?from=завтра").statusCode());
+        assertEquals(400, sendGetRequest("/prioritized?limit=-1").statusCode());
+    }
+
+    /*
+    Тест автоматического размещения задачи и поиска свободного окна
+     */
+    @Test
+    void shouldAutoScheduleTaskIntoFreeSlot() throws IOException, InterruptedException {
+
+        LocalDateTime base = LocalDateTime.of(2025, 1, 15, 10, 0);
+        sendPostRequest("/tasks", new Task("Занято", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base));
+
+        HttpResponse<String> slot = sendGetRequest("/prioritized/free-slot?duration=30&from=2025-01-15T10:00");
+        assertEquals(200, slot.statusCode());
+        assertTrue(slot.body().contains("2025-01-15 11:00"), "Свободное окно должно начинаться после занятой задачи");
+
+        HttpResponse<String> created = sendPostRequest("/tasks?autoSchedule=true",
+                new Task("Авто", "Описание", 0, TaskStatus.NEW, Duration.ofMinutes(30), base));
+        assertEquals(201, created.statusCode());
+        assertEquals(base.plusHours(1), gson.fromJson(created.body(), Task.class).getStartTime());
+
+        HttpResponse<String> noSlot = sendPostRequest("/tasks?autoSchedule=true&notAfter=2025-01-15T11:00",
+                new Task("Не влезет", "Описание", 0, TaskStatus.NEW, Duration.ofMinutes(30), base));
+        assertEquals(406, noSlot.statusCode());
+    }
+
+    /*
+    Тест раздельного расписания исполнителей
+     */
+    @Test
+    void shouldScheduleAssigneesIndependently() throws IOException, InterruptedException {
+
+        LocalDateTime base = LocalDateTime.of(2025, 1, 15, 10, 0);
+        Task anna = new Task("Задача Анны", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base);
+        anna.setAssignee("anna");
+        Task boris = new Task("Задача Бориса", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base);
+        boris.setAssignee("boris");
+        Task annaAgain = new Task("Снова Анна", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base);
+        annaAgain.setAssignee("anna");
+
+        assertEquals(201, sendPostRequest("/tasks", anna).statusCode());
+        assertEquals(201, sendPostRequest("/tasks", boris).statusCode(), "Разные исполнители могут работать одновременно");
+        assertEquals(406, sendPostRequest("/tasks", annaAgain).statusCode());
+
+        HttpResponse<String> response = sendGetRequest("/prioritized?assignee=boris");
+        assertEquals(200, response.statusCode());
+        Task[] borisTasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, borisTasks.length);
+        assertEquals("boris", borisTasks[0].getAssignee());
+
+        HttpResponse<String> slot = sendGetRequest("/prioritized/free-slot?duration=30&from=2025-01-15T10:00&assignee=carol");
+        assertTrue(slot.body().contains("2025-01-15 10:00"), "У свободного исполнителя окно начинается сразу");
+    }
+
+    /*
+    Тест зависимостей между задачами и критического пути
+     */
+    @Test
+    void shouldManageDependenciesAndCriticalPath() throws IOException, InterruptedException {
+
+        sendPostRequest("/tasks", new Task("Сборка", "Описание", 0, TaskStatus.NEW, Duration.ofMinutes(40), null));
+        sendPostRequest("/tasks", new Task("Деплой", "Описание", 0, TaskStatus.NEW, Duration.ofMinutes(20), null));
+
+        HttpResponse<String> added = sendPostRequest("/tasks/2/dependencies", Map.of("dependsOn", 1));
+        assertEquals(201, added.statusCode());
+        assertTrue(added.body().contains("\"earliestStart\":40"), "Деплой начинается после сборки");
+
+        HttpResponse<String> cycle = sendPostRequest("/tasks/1/dependencies", Map.of("dependsOn", 2));
+        assertEquals(409, cycle.statusCode());
+        assertTrue(cycle.body().contains("\"cycle\":[2,1]"));
+        assertEquals(400, sendPostRequest("/tasks/1/dependencies", Map.of("after", 2)).statusCode());
+        assertEquals(404, sendPostRequest("/tasks/1/dependencies", Map.of("dependsOn", 99)).statusCode());
+
+        HttpResponse<String> path = sendGetRequest("/critical-path");
+        assertEquals(200, path.statusCode());
+        assertEquals("{\"length\":60,\"taskIds\":[1,2]}", path.body());
+
+        assertEquals(200, sendDeleteRequest("/tasks/2/dependencies/1").statusCode());
+        assertEquals(404, sendDeleteRequest("/tasks/2/dependencies/1").statusCode());
+        assertEquals(404, sendGetRequest("/tasks/99/dependencies").statusCode());
+    }
+
+    /*
+    Тест вложенных подзадач: создание через parentId, дочерние элементы и сводка по поддереву
+     */
+    @Test
+    void shouldManageNestedSubtasks() throws IOException, InterruptedException {
+
+        sendPostRequest("/epics", new Epic("Эпик", "Описание", 0));
+        sendPostRequest("/subtasks", new SubTask("Этап", "Описание", 0, TaskStatus.DONE, 1,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 5, 9, 0)));
+        SubTask child = new SubTask("Шаг", "Описание", 0, TaskStatus.NEW, 0, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 5, 10, 0));
+        child.setParentId(2);
+
+        HttpResponse<String> created = sendPostRequest("/subtasks", child);
+        assertEquals(201, created.statusCode());
+        assertTrue(created.body().contains("\"epicId\":1"), "Эпик берется у родительской подзадачи");
+
+        HttpResponse<String> children = sendGetRequest("/subtasks/2/children");
+        assertEquals(200, children.statusCode());
+        assertTrue(children.body().contains("\"id\":3"));
+        assertTrue(sendGetRequest("/epics/1/children").body().contains("\"id\":2"));
+        assertTrue(!sendGetRequest("/epics/1/children").body().contains("\"id\":3"));
+
+        HttpResponse<String> summary = sendGetRequest("/epics/1/summary");
+        assertEquals(200, summary.statusCode());
+        assertTrue(summary.body().contains("\"count\":2"));
+        assertTrue(summary.body().contains("\"duration\":90"));
+        assertEquals(404, sendGetRequest("/subtasks/99/summary").statusCode());
+        child.setParentId(99);
+        assertEquals(404, sendPostRequest("/subtasks", child).statusCode());
+    }
+
+    /*
+    Тест PATCH подзадачи: перенос в другой эпик и частичное обновление полей
+     */
+    @Test
+    void shouldPatchSubtaskBetweenEpics() throws IOException, InterruptedException {
+
+        sendPostRequest("/epics", new Epic("Первый", "Описание", 0));
+        sendPostRequest("/epics", new Epic("Второй", "Описание", 0));
+        sendPostRequest("/subtasks", new SubTask("Подзадача", "Описание", 0, TaskStatus.DONE, 1,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 5, 9, 0)));
+
+        HttpResponse<String> moved = sendPatchRequest("/subtasks/3", Map.of("epicId", 2, "title", "Перенесена"));
+        assertEquals(200, moved.statusCode());
+        assertTrue(moved.body().contains("\"epicId\":2"));
+        assertTrue(moved.body().contains("Перенесена"));
+        assertEquals(TaskStatus.NEW, taskManager.getEpicById(1).getStatus());
+        assertEquals(TaskStatus.DONE, taskManager.getEpicById(2).getStatus());
+
+        assertEquals(404, sendPatchRequest("/subtasks/3", Map.of("epicId", 99)).statusCode());
+        assertEquals(400, sendPatchRequest("/subtasks/3", Map.of("parentId", 3)).statusCode());
+        assertEquals(404, sendPatchRequest("/subtasks/99", Map.of("epicId", 1)).statusCode());
+        assertEquals(400, sendPatchRequest("/subtasks/3", "{\"epicId\":null}").statusCode(),
+                "null вместо id эпика - некорректный запрос");
+
+        sendPostRequest("/tasks", new Task("Занято", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1),
+                LocalDateTime.of(2025, 5, 5, 12, 0)));
+        assertEquals(406, sendPatchRequest("/subtasks/3",
+                "{\"epicId\":1,\"startTime\":\"2025-05-05 12:00\"}").statusCode());
+        assertEquals(2, taskManager.getSubTaskById(3).getEpicId(), "Отклоненное обновление не переносит подзадачу");
+    }
+
+    // ======================== ТЕСТЫ ДЛЯ RECURRING ========================
+
+    /*
+    Тест повторяющихся задач: создание, вхождения в окне, перенос и отмена вхождения
+     */
+    @Test
+    void shouldManageRecurringTasks() throws IOException, InterruptedException {
+
+        HttpResponse<String> created = sendPostRequest("/recurring", Map.of("title", "Стендап",
+                "description", "Ежедневно", "status", "NEW", "duration", 15,
+                "startTime", "2025-03-03 09:00", "recurrence", "FREQ=DAILY"));
+        assertEquals(201, created.statusCode());
+        assertEquals(1, taskManager.getAllRecurringTasks().size());
+
+        HttpResponse<String> occurrences = sendGetRequest("/recurring/1/occurrences?from=2026-03-03T00:00&limit=2");
+        assertEquals(200, occurrences.statusCode());
+        assertTrue(occurrences.body().contains("\"occurrenceStart\":\"2026-03-03 09:00\""));
+        assertTrue(occurrences.body().contains("\"startTime\":\"2026-03-04 09:00\""));
+
+        HttpResponse<String> overlap = sendPostRequest("/tasks", new Task("Встреча", "Описание", 0, TaskStatus.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2026, 3, 4, 9, 10)));
+        assertEquals(406, overlap.statusCode(), "Задача пересекается с вхождением серии");
+
+        assertEquals(201, sendPostRequest("/recurring/1/occurrences?start=2026-03-04T09:00",
+                Map.of("startTime", "2026-03-04 11:00")).statusCode());
+        assertEquals(200, sendDeleteRequest("/recurring/1/occurrences?start=2026-03-05T09:00").statusCode());
+        assertEquals(201, sendPostRequest("/tasks", new Task("Встреча", "Описание", 0, TaskStatus.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2026, 3, 4, 9, 10))).statusCode(),
+                "После переноса вхождения время свободно");
+
+        HttpResponse<String> window = sendGetRequest("/recurring/1/occurrences?from=2026-03-04T00:00&to=2026-03-06T00:00");
+        assertTrue(window.body().contains("\"startTime\":\"2026-03-04 11:00\""));
+        assertTrue(!window.body().contains("2026-03-05"), "Отмененное вхождение не выдается");
+
+        assertEquals(404, sendDeleteRequest("/recurring/1/occurrences?start=2026-03-05T09:30").statusCode());
+        assertEquals(400, sendGetRequest("/recurring/1/occurrences?limit=2147483647").statusCode(),
+                "limit бесконечной серии ограничен сверху");
+        assertEquals(400, sendGetRequest("/prioritized?from=2026-03-03T00:00&limit=2147483647").statusCode());
+        assertEquals(400, sendPostRequest("/recurring", Map.of("title", "Без правила")).statusCode());
+        assertEquals(200, sendDeleteRequest("/recurring/1").statusCode());
+        assertEquals(404, sendGetRequest("/recurring/1").statusCode());
+    }
+
+    // ======================== ТЕСТЫ ДЛЯ SEARCH ========================
+
+    /*
+    Тест полнотекстового поиска
+     */
+    @Test
+    void shouldSearchTasksByKeyword() throws IOException, InterruptedException {
+
+        int taskId = createTaskViaAPI("Подготовить отчет", "Квартальный", TaskStatus.NEW);
+        createTaskViaAPI("Купить продукты", "Молоко", TaskStatus.NEW);
+
+        HttpResponse<String> response = sendGetRequest("/search?q=%D0%BE%D1%82%D1%87%D0%B5%D1%82");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("[" + taskId + "]", response.body());
+        assertEquals(400, sendGetRequest("/search").statusCode());
+    }
+
+    // ======================== ТЕСТЫ ДЛЯ EVENTS ========================
+
+    /*
+    Тест потока событий: подписчик получает созданную задачу
+     */
+    @Test
+    void shouldStreamTaskEvents() throws Exception {
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/events?since=0"))
+                .GET()
+                .build();
+        HttpResponse<Stream<String>> response = client.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(200, response.statusCode());
+
+        taskManager.createTask("Задача для потока", "Описание", TaskStatus.NEW);
+
+        Iterator<String> lines = response.body().iterator();
+        assertEquals("id: 1", lines.next());
+        assertEquals("event: created", lines.next());
+        String data = lines.next();
+        assertTrue(data.startsWith("data: ") && data.contains("Задача для потока"), "Событие должно содержать снимок задачи");
+    }
+
+    // ======================== ТЕСТЫ ДЛЯ CHANGES ========================
+
+    /*
+    Тест дельта-синхронизации по номеру изменения
+     */
+    @Test
+    void shouldReturnChangesSinceSequence() throws IOException, InterruptedException {
+
+        HttpResponse<String> initial = sendGetRequest("/changes");
+        assertEquals(200, initial.statusCode());
+        assertTrue(initial.body().contains("\"reset\":true"), "Без since клиенту нужна полная загрузка");
+
+        int taskId = createTaskViaAPI("Задача", "Описание", TaskStatus.NEW);
+        sendDeleteRequest("/tasks/" + taskId);
+
+        HttpResponse<String> response = sendGetRequest("/changes?since=0");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"reset\":false"));
+        assertTrue(response.body().contains("\"type\":\"DELETED\""), "Удаление передается как tombstone");
+        assertEquals(400, sendGetRequest("/changes?since=abc").statusCode());
+    }
+
+    /*
+    Тест пакетного создания задач и отчета о конфликтах
+     */
+    @Test
+    void shouldCreateTaskBatchOrReportConflicts() throws IOException, InterruptedException {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 9, 0);
+        Task[] batch = {
+                new Task("Первая", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base),
+                new Task("Вторая", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base.plusHours(1))
+        };
+        HttpResponse<String> created = sendPostRequest("/tasks/batch", batch);
+        assertEquals(201, created.statusCode());
+        assertEquals(2, taskManager.getAllTasks().size());
+
+        Task[] conflicting = {
+                new Task("Свободная", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base.plusHours(3)),
+                new Task("Занятая", "Описание", 0, TaskStatus.NEW, Duration.ofHours(1), base.plusMinutes(30))
+        };
+        HttpResponse<String> rejected = sendPostRequest("/tasks/batch", conflicting);
+        assertEquals(406, rejected.statusCode());
+        assertTrue(rejected.body().contains("\"index\":1"), "В ответе указана конфликтующая задача пакета");
+        assertEquals(2, taskManager.getAllTasks().size(), "Пакет с конфликтом не создается");
+        assertEquals(400, sendPostRequest("/tasks/batch", "не массив").statusCode());
+    }
+
+    /*
+    Тест изоляции досок: у каждой свои задачи и свое пространство id
+     */
+    @Test
+    void shouldKeepBoardsIsolated() throws IOException, InterruptedException {
+
+        Task task = new Task("Задача доски A", "Описание", 0, TaskStatus.NEW);
+        HttpResponse<String> created = sendPostRequest("/boards/a/tasks", task);
+        assertEquals(201, created.statusCode());
+        sendPostRequest("/boards/b/tasks", new Task("Задача доски B", "Описание", 0, TaskStatus.NEW));
+
+        Task[] boardA = gson.fromJson(sendGetRequest("/boards/a/tasks").body(), Task[].class);
+        Task[] boardB = gson.fromJson(sendGetRequest("/boards/b/tasks").body(), Task[].class);
+        assertEquals(1, boardA.length);
+        assertEquals(1, boardB.length);
+        assertEquals("Задача доски A", boardA[0].getTitle());
+        assertEquals("Задача доски B", boardB[0].getTitle());
+        assertEquals(boardA[0].getId(), boardB[0].getId(), "Нумерация id на досках независима");
+        assertEquals(0, taskManager.getAllTasks().size(), "Доска по умолчанию не затронута");
+
+        assertEquals(200, sendGetRequest("/boards/a/tasks/" + boardA[0].getId()).statusCode());
+        assertEquals(404, sendGetRequest("/boards/c/tasks/" + boardA[0].getId()).statusCode());
+    }
+
+    /*
+    Тест некорректных путей досок
+     */
+    @Test
+    void shouldRejectInvalidBoardPaths() throws IOException, InterruptedException {
+
+        assertEquals(400, sendGetRequest("/boards/a.b/tasks").statusCode());
+        assertEquals(404, sendGetRequest("/boards/a/unknown").statusCode());
+        assertEquals(404, sendGetRequest("/boards/a").statusCode());
+    }
+
     // ======================== ТЕСТЫ НА НЕКОРРЕКТНЫЕ ЗАПРОСЫ ========================
 
     /*
@@ -558,7 +956,7 @@ public class HttpTaskServerTest {
     Тест использования неподдерживаемого HTTP метода
      */
     @Test
-    void shouldReturn404ForInvalidMethod() throws IOException, InterruptedException {
+    void shouldReturn405ForInvalidMethod() throws IOException, InterruptedException {
 
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(BASE_URL + "/tasks"))
@@ -567,7 +965,24 @@ public class HttpTaskServerTest {
 
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
 
-        assertEquals(404, response.statusCode());
+        assertEquals(405, response.statusCode());
+        assertEquals("GET, POST, DELETE", response.headers().firstValue("Allow").orElse(""));
+    }
+
+    /*
+    Тест метода, не поддерживаемого для ресурса с ID
+     */
+    @Test
+    void shouldReturn405ForUnsupportedMethodOnTaskById() throws IOException, InterruptedException {
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks/1"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(405, response.statusCode());
     }
 
     /*
@@ -580,4 +995,14 @@ public class HttpTaskServerTest {
 
         assertEquals(404, response.statusCode());
     }
+
+    /*
+    Тест обращения к пути с лишними сегментами
+     */
+    @Test
+    void shouldReturn404ForUnknownNestedPath() throws IOException, InterruptedException {
+
+        assertEquals(404, sendGetRequest("/tasks/1/extra").statusCode());
+        assertEquals(404, sendGetRequest("/epics/1/subtasks/2").statusCode());
+    }
 }
\ No newline at end of file
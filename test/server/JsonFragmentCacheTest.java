@@ -0,0 +1,59 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import main.java.main.manager.InMemoryTaskManager;
+import main.java.main.manager.TaskOverlapException;
+import main.java.main.model.Task;
+import main.java.main.model.TaskStatus;
+import main.java.main.server.HttpTaskServer;
+import main.java.main.server.JsonFragmentCache;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonFragmentCacheTest {
+    private final Gson gson = HttpTaskServer.createGson();
+
+    @Test
+    void unchangedEntityIsSerializedOnce() throws TaskOverlapException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        manager.createTask("Задача", "Описание", TaskStatus.NEW);
+        JsonFragmentCache cache = new JsonFragmentCache(gson);
+
+        byte[] first = cache.get(manager.getSnapshot().getTask(1));
+        manager.createTask("Другая", "Описание", TaskStatus.NEW);
+        assertSame(first, cache.get(manager.getSnapshot().getTask(1)), "Задача не менялась - фрагмент тот же");
+
+        manager.updateTask(new Task("Переименована", "Описание", 1, TaskStatus.DONE));
+        byte[] updated = cache.get(manager.getSnapshot().getTask(1));
+        assertNotSame(first, updated, "Изменение в менеджере публикует новую копию, и фрагмент строится заново");
+        assertEquals(gson.toJson(manager.getSnapshot().getTask(1)), new String(updated, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void listFragmentsMatchListSerializationAndDeletedAreSwept() throws TaskOverlapException {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        for (int i = 0; i < 200; i++) {
+            manager.createTask("Задача " + i, "Описание", TaskStatus.NEW);
+        }
+        JsonFragmentCache cache = new JsonFragmentCache(gson);
+        cache.getAll(manager.getSnapshot().getTasks());
+        for (int id = 1; id <= 190; id++) {
+            manager.deleteTaskById(id);
+        }
+
+        List<byte[]> fragments = cache.getAll(manager.getSnapshot().getTasks());
+
+        StringBuilder array = new StringBuilder("[");
+        for (byte[] fragment : fragments) {
+            array.append(array.length() > 1 ? "," : "").append(new String(fragment, StandardCharsets.UTF_8));
+        }
+        array.append(']');
+        assertEquals(JsonParser.parseString(gson.toJson(manager.getAllTasks())), JsonParser.parseString(array.toString()));
+        assertEquals(10, cache.size(), "Фрагменты удаленных задач вычищаются");
+    }
+}
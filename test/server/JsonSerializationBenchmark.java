@@ -0,0 +1,96 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import main.java.main.model.SubTask;
+import main.java.main.model.Task;
+import main.java.main.model.TaskStatus;
+import main.java.main.server.HttpTaskServer;
+import main.java.main.server.JsonFragmentCache;
+import main.java.main.server.UnifiedDateTimeAdapter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ручной бенчмарк сериализации списка задач: рефлективный Gson с UnifiedDateTimeAdapter
+ * против потоковых адаптеров из HttpTaskServer.createGson() и повторной выдачи из JsonFragmentCache.
+ * Запуск: java server.JsonSerializationBenchmark (выводит нс и байт аллокаций на задачу).
+ */
+public class JsonSerializationBenchmark {
+    private static final int TASKS = 10_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+    private static final Type TASK_LIST_TYPE = new TypeToken<List<Task>>() {
+    }.getType();
+
+    public static void main(String[] args) {
+        List<Task> tasks = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 1; i <= TASKS; i++) {
+            if (i % 2 == 0) {
+                tasks.add(new SubTask("Подзадача " + i, "Описание", i, TaskStatus.NEW, 1,
+                        Duration.ofMinutes(30), start.plusMinutes(30L * i)));
+            } else {
+                tasks.add(new Task("Задача " + i, "Описание", i, TaskStatus.IN_PROGRESS,
+                        Duration.ofMinutes(30), start.plusMinutes(30L * i)));
+            }
+        }
+
+        Gson reflective = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new UnifiedDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new UnifiedDateTimeAdapter())
+                .create();
+        Gson streaming = HttpTaskServer.createGson();
+
+        run("reflective", reflective, tasks);
+        run("streaming", streaming, tasks);
+        runCached(new JsonFragmentCache(streaming), tasks);
+    }
+
+    // Повторное чтение неизмененного списка: только поиск готовых фрагментов
+    private static void runCached(JsonFragmentCache cache, List<Task> tasks) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += cache.getAll(tasks).size();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            for (byte[] fragment : cache.getAll(tasks)) {
+                sink += fragment.length;
+            }
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long operations = (long) MEASURED_ROUNDS * tasks.size();
+        System.out.printf("%-10s %8.1f ns/task %8.1f B/task (sink=%d)%n",
+                "cached", (double) elapsed / operations, (double) allocated / operations, sink);
+    }
+
+    private static void run(String name, Gson gson, List<Task> tasks) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += gson.toJson(tasks, TASK_LIST_TYPE).length();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += gson.toJson(tasks, TASK_LIST_TYPE).length();
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long operations = (long) MEASURED_ROUNDS * tasks.size();
+        System.out.printf("%-10s %8.1f ns/task %8.1f B/task (sink=%d)%n",
+                name, (double) elapsed / operations, (double) allocated / operations, sink);
+    }
+}
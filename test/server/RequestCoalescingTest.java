@@ -0,0 +1,86 @@
+package server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import main.java.main.server.BaseHttpHandler;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCoalescingTest {
+    private static final int CLIENTS = 8;
+
+    @Test
+    void identicalConcurrentReadsShareOneComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computed = new AtomicInteger();
+        BaseHttpHandler handler = new BaseHttpHandler(new Gson()) {
+            @Override
+            public String coalescingKey(HttpExchange h, String path) {
+                return requestKey(h, path, 1);
+            }
+
+            @Override
+            public void handle(HttpExchange h, String path) throws IOException {
+                int number = computed.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                sendText(h, "{\"computation\":" + number + "}", 200);
+            }
+        };
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/slow", exchange -> handler.handleCoalesced(exchange,
+                handler.coalescingKey(exchange, "/slow"), () -> handler.handle(exchange)));
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        server.setExecutor(executor);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + server.getAddress().getPort() + "/slow?view=all"))
+                    .GET()
+                    .build();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            // Ведущий вычисляет ответ, остальные присоединились к его вычислению
+            while (computed.get() < 1 || handler.getWaitingFollowers() < CLIENTS - 1) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode());
+                assertEquals("{\"computation\":1}", response.get().body(), "Все получают ответ одного вычисления");
+            }
+            assertEquals(1, computed.get());
+            assertEquals(CLIENTS - 1, handler.getCoalescedCount());
+            assertEquals(0, handler.getWaitingFollowers(), "Ведомые больше не ждут");
+
+            // Завершенное вычисление не кэшируется: следующий запрос вычисляется заново
+            assertEquals("{\"computation\":2}", client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        } finally {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}
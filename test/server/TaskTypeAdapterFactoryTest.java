@@ -0,0 +1,101 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import main.java.main.model.Epic;
+import main.java.main.model.RecurrenceRule;
+import main.java.main.model.RecurringTask;
+import main.java.main.model.SubTask;
+import main.java.main.model.Task;
+import main.java.main.model.TaskOccurrence;
+import main.java.main.model.TaskStatus;
+import main.java.main.server.HttpTaskServer;
+import main.java.main.server.UnifiedDateTimeAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskTypeAdapterFactoryTest {
+    private final Gson gson = HttpTaskServer.createGson();
+    private final Gson reflectiveGson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new UnifiedDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new UnifiedDateTimeAdapter())
+            .create();
+
+    @Test
+    void writesSameJsonAsReflectiveGson() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 10, 5);
+        Task task = new Task("Задача", "Описание", 1, TaskStatus.NEW, Duration.ofMinutes(90), start);
+        SubTask subTask = new SubTask("Подзадача", "Описание", 2, TaskStatus.DONE, 3, Duration.ofMinutes(30), start);
+        Epic epic = new Epic("Эпик", "Описание", 3);
+        epic.addSubTaskId(2);
+        epic.calculateEpicFields(List.of(subTask));
+
+        for (Task value : List.of(task, subTask, epic)) {
+            assertEquals(JsonParser.parseString(reflectiveGson.toJson(value)), JsonParser.parseString(gson.toJson(value)),
+                    "JSON должен совпадать с рефлективной сериализацией для " + value.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void readsTaskWrittenByReflectiveGson() {
+        Task original = new Task("Задача", "Описание", 7, TaskStatus.IN_PROGRESS,
+                Duration.ofMinutes(45), LocalDateTime.of(2025, 2, 1, 9, 30));
+
+        Task restored = gson.fromJson(reflectiveGson.toJson(original), Task.class);
+
+        assertEquals(original.getId(), restored.getId());
+        assertEquals(original.getTitle(), restored.getTitle());
+        assertEquals(original.getDescription(), restored.getDescription());
+        assertEquals(original.getStatus(), restored.getStatus());
+        assertEquals(original.getDuration(), restored.getDuration());
+        assertEquals(original.getStartTime(), restored.getStartTime());
+    }
+
+    @Test
+    void serializesSubTypesInsideTaskList() {
+        SubTask subTask = new SubTask("Подзадача", "Описание", 2, TaskStatus.NEW, 5);
+
+        String json = gson.toJson(List.<Task>of(subTask), new TypeToken<List<Task>>() {
+        }.getType());
+
+        assertTrue(json.contains("\"epicId\":5"), "Подзадача в списке задач должна сохранять epicId");
+    }
+
+    @Test
+    void readsMissingAndStringFields() {
+        SubTask subTask = gson.fromJson("{\"title\":\"П\",\"epicId\":4,\"duration\":\"15\",\"startTime\":\"\"}", SubTask.class);
+
+        assertEquals(4, subTask.getEpicId());
+        assertEquals(Duration.ofMinutes(15), subTask.getDuration());
+        assertNull(subTask.getStartTime(), "Пустая строка времени должна читаться как null");
+        assertEquals(0, subTask.getId());
+    }
+
+    @Test
+    void roundTripsRecurringTaskWithExceptions() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 3, 9, 0);
+        RecurringTask series = new RecurringTask("Стендап", "Описание", 4, TaskStatus.NEW, Duration.ofMinutes(15),
+                start, RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,WE"));
+        series.putOverride(start.plusDays(2), new Task("Стендап", "Перенесен", 4, TaskStatus.DONE,
+                Duration.ofMinutes(15), start.plusDays(2).plusHours(1)));
+        series.cancelOccurrence(start.plusDays(7));
+
+        String json = gson.toJson(series);
+        assertEquals("FREQ=WEEKLY;BYDAY=MO,WE",
+                JsonParser.parseString(json).getAsJsonObject().get("recurrence").getAsString());
+        RecurringTask restored = gson.fromJson(json, RecurringTask.class);
+
+        assertEquals(series.getRule(), restored.getRule());
+        assertEquals(series.expand(null, null, 5), restored.expand(null, null, 5));
+        assertEquals(TaskStatus.DONE, restored.getOverrides().get(start.plusDays(2)).getStatus());
+        TaskOccurrence occurrence = gson.fromJson(gson.toJson(restored.expand(null, null, 1).get(0)), TaskOccurrence.class);
+        assertEquals(start, occurrence.getOccurrenceStart());
+    }
+}